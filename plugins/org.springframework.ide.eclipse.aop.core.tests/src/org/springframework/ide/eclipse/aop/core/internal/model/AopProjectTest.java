@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.aop.core.model.IAopReference;
+import org.springframework.ide.eclipse.aop.core.model.IAopReference.ADVICE_TYPE;
+import org.springframework.ide.eclipse.aop.core.tests.AllAopCoreTests;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Tests that the references of an {@link AopProject} can be added concurrently and removed by the resource of their
+ * aspect definition, by their target bean and by their aspect.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class AopProjectTest {
+
+	private static final String TRACING_ASPECT = "org.test.aspects.TracingAspect";
+
+	private static final String AUDITING_ASPECT = "org.test.aspects.AuditingAspect";
+
+	private IProject project;
+
+	private AopProject aopProject;
+
+	private IType targetType;
+
+	private IResource xmlConfig;
+
+	private IResource javaConfig;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("aop-model-tests", AllAopCoreTests.PLUGIN_ID);
+		IJavaProject javaProject = JavaCore.create(project);
+		aopProject = new AopProject(javaProject);
+		targetType = javaProject.findType("org.test.PlainService");
+		xmlConfig = project.getFile("src/aop-context.xml");
+		javaConfig = project.getFile("src/org/test/config/ServiceConfiguration.java");
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testClearReferencesForResource() throws Exception {
+		IAopReference xmlReference = addReference(xmlConfig, TRACING_ASPECT, "plainService", "execute");
+		addReference(javaConfig, TRACING_ASPECT, "configuredService", "configure");
+		IAopReference withoutResource = addReference(null, TRACING_ASPECT, "plainService", "stop");
+
+		aopProject.clearReferencesForResource(javaConfig);
+
+		assertEquals(references(xmlReference, withoutResource), aopProject.getAllReferences());
+	}
+
+	@Test
+	public void testClearReferencesForBean() throws Exception {
+		addReference(xmlConfig, TRACING_ASPECT, "plainService", "execute");
+		IAopReference auditedReference = addReference(xmlConfig, AUDITING_ASPECT, "auditedService", "audit");
+		IAopReference javaReference = addReference(javaConfig, TRACING_ASPECT, "configuredService", "configure");
+		addReference(null, AUDITING_ASPECT, "plainService", "stop");
+
+		aopProject.clearReferencesForBean("plainService");
+
+		assertEquals(references(auditedReference, javaReference), aopProject.getAllReferences());
+
+		// the bean index is kept in sync when a shard is removed
+		aopProject.clearReferencesForResource(xmlConfig);
+		aopProject.clearReferencesForBean("auditedService");
+		assertEquals(references(javaReference), aopProject.getAllReferences());
+	}
+
+	@Test
+	public void testClearReferencesForAspects() throws Exception {
+		addReference(xmlConfig, TRACING_ASPECT, "plainService", "execute");
+		IAopReference auditedReference = addReference(xmlConfig, AUDITING_ASPECT, "auditedService", "audit");
+		addReference(javaConfig, TRACING_ASPECT, "configuredService", "configure");
+		addReference(null, TRACING_ASPECT, "plainService", "stop");
+
+		aopProject.clearReferencesForAspects(Collections.singleton(TRACING_ASPECT));
+
+		assertEquals(references(auditedReference), aopProject.getAllReferences());
+
+		// the bean index doesn't hold on to removed references
+		IAopReference readded = addReference(xmlConfig, TRACING_ASPECT, "plainService", "execute");
+		aopProject.clearReferencesForBean("auditedService");
+		assertEquals(references(readded), aopProject.getAllReferences());
+	}
+
+	@Test
+	public void testConcurrentlyAddedReferencesAreKept() throws Exception {
+		final int threads = 4;
+		final int referencesPerThread = 250;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Set<IAopReference>>> futures = new ArrayList<Future<Set<IAopReference>>>();
+			for (int i = 0; i < threads; i++) {
+				final int thread = i;
+				futures.add(executor.submit(new Callable<Set<IAopReference>>() {
+
+					public Set<IAopReference> call() throws Exception {
+						Set<IAopReference> added = new HashSet<IAopReference>();
+						for (int j = 0; j < referencesPerThread; j++) {
+							IResource resource = j % 2 == 0 ? xmlConfig : javaConfig;
+							added.add(addReference(resource, TRACING_ASPECT, "bean" + (j % 10), "m" + thread + "_"
+									+ j));
+						}
+						return added;
+					}
+				}));
+			}
+
+			Set<IAopReference> expected = new HashSet<IAopReference>();
+			for (Future<Set<IAopReference>> future : futures) {
+				expected.addAll(future.get());
+			}
+			assertEquals(threads * referencesPerThread, expected.size());
+			assertEquals(expected, aopProject.getAllReferences());
+
+			for (int j = 0; j < 10; j++) {
+				aopProject.clearReferencesForBean("bean" + j);
+			}
+			assertTrue(aopProject.getAllReferences().isEmpty());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Adds a reference to the given method of the target type; references are equal if their target method is, so
+	 * every reference of a test needs a method of its own.
+	 */
+	private IAopReference addReference(IResource definitionResource, String aspectClassName, String beanId,
+			String methodName) {
+		BeanAspectDefinition definition = new BeanAspectDefinition();
+		definition.setResource(definitionResource);
+		definition.setAspectClassName(aspectClassName);
+		definition.setType(ADVICE_TYPE.BEFORE);
+		IAopReference reference = new AopReference(ADVICE_TYPE.BEFORE, null, -1, targetType.getMethod(methodName,
+				new String[0]), -1, definition, xmlConfig, beanId, xmlConfig, -1);
+		aopProject.addAopReference(reference);
+		return reference;
+	}
+
+	private static Set<IAopReference> references(IAopReference... references) {
+		Set<IAopReference> set = new HashSet<IAopReference>();
+		Collections.addAll(set, references);
+		return set;
+	}
+
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.ide.eclipse.aop.core.model.IAopProject;
+import org.springframework.ide.eclipse.aop.core.model.IAopReference;
+import org.springframework.ide.eclipse.aop.core.model.IAopReference.ADVICE_TYPE;
+import org.springframework.ide.eclipse.aop.core.tests.AllAopCoreTests;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Tests that the references of a project survive a round-trip through their file, are loaded on first access only and
+ * that files of another format version are dropped.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class AopReferenceModelPeristenceTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private IProject project;
+
+	private IJavaProject javaProject;
+
+	private AopProject aopProject;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("aop-model-tests", AllAopCoreTests.PLUGIN_ID);
+		javaProject = JavaCore.create(project);
+		aopProject = new AopProject(javaProject);
+
+		IResource xmlConfig = project.getFile("src/aop-context.xml");
+		IMethod trace = javaProject.findType("org.test.aspects.TracingAspect").getMethod("trace", new String[0]);
+		IMethod audit = javaProject.findType("org.test.aspects.AuditingAspect").getMethod("audit", new String[0]);
+		addReference(xmlConfig, trace, "org.test.aspects.TracingAspect", "plainService",
+				javaProject.findType("org.test.PlainService").getMethod("execute", new String[0]));
+		addReference(xmlConfig, audit, "org.test.aspects.AuditingAspect", "auditedService",
+				javaProject.findType("org.test.AuditedService").getMethod("execute", new String[0]));
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		assertTrue(new AopReferenceModelPeristence(folder.getRoot()).saveProject(aopProject));
+
+		AopReferenceModelPeristence persistence = loadPersistence();
+		AopProject restoredProject = new AopProject(javaProject);
+		assertTrue(persistence.loadProject(restoredProject));
+		assertEquals(describe(aopProject), describe(restoredProject));
+	}
+
+	@Test
+	public void testReferencesAreLoadedOnFirstAccessOnly() throws Exception {
+		AopReferenceModelPeristence persistence = new AopReferenceModelPeristence(folder.getRoot());
+		assertTrue(persistence.saveProject(aopProject));
+
+		// only the projects that have been registered on startup are loaded
+		AopProject restoredProject = new AopProject(javaProject);
+		assertFalse(persistence.loadProject(restoredProject));
+
+		persistence = loadPersistence();
+		assertTrue(restoredProject.getAllReferences().isEmpty());
+		assertTrue(persistence.loadProject(restoredProject));
+		assertEquals(2, restoredProject.getAllReferences().size());
+
+		// once the project belongs to the model it isn't loaded again
+		persistence.setLoaded(javaProject);
+		assertFalse(persistence.loadProject(new AopProject(javaProject)));
+		assertTrue(persistence.getModelFile(project.getName()).exists());
+	}
+
+	@Test
+	public void testFileOfOtherVersionIsNotLoaded() throws Exception {
+		assertTrue(new AopReferenceModelPeristence(folder.getRoot()).saveProject(aopProject));
+		File file = new AopReferenceModelPeristence(folder.getRoot()).getModelFile(project.getName());
+		RandomAccessFile content = new RandomAccessFile(file, "rw");
+		try {
+			content.writeInt(Integer.MAX_VALUE);
+		}
+		finally {
+			content.close();
+		}
+
+		AopReferenceModelPeristence persistence = loadPersistence();
+		AopProject restoredProject = new AopProject(javaProject);
+		assertFalse(persistence.loadProject(restoredProject));
+		assertTrue(restoredProject.getAllReferences().isEmpty());
+		assertFalse(persistence.loadProject(restoredProject));
+	}
+
+	@Test
+	public void testFilesAreNamedByEncodedProjectName() throws Exception {
+		File file = new AopReferenceModelPeristence(folder.getRoot()).getModelFile("aop tests/1");
+		assertEquals("aop+tests%2F1.dat", file.getName());
+		assertEquals(new File(folder.getRoot(), "model"), file.getParentFile());
+	}
+
+	/**
+	 * Registers the stored projects of a new persistence without loading them in the background.
+	 */
+	private AopReferenceModelPeristence loadPersistence() {
+		AopReferenceModelPeristence persistence = new AopReferenceModelPeristence(folder.getRoot());
+		persistence.loadReferenceModel();
+		persistence.cancelLoading();
+		return persistence;
+	}
+
+	private void addReference(IResource definitionResource, IMethod adviceMethod, String aspectClassName,
+			String beanId, IMethod target) {
+		BeanAspectDefinition definition = new BeanAspectDefinition();
+		definition.setResource(definitionResource);
+		definition.setAspectClassName(aspectClassName);
+		definition.setAdviceMethodName(adviceMethod.getElementName());
+		definition.setType(ADVICE_TYPE.BEFORE);
+		IAopReference reference = new AopReference(ADVICE_TYPE.BEFORE, adviceMethod, 5, target, 7, definition,
+				definitionResource, beanId, definitionResource, 9);
+		aopProject.addAopReference(reference);
+	}
+
+	private static Set<String> describe(IAopProject aopProject) {
+		Set<String> references = new HashSet<String>();
+		for (IAopReference reference : aopProject.getAllReferences()) {
+			references.add(reference.getDefinition().getAspectClassName() + "."
+					+ reference.getDefinition().getAdviceMethodName() + " "
+					+ reference.getSource().getHandleIdentifier() + " -> " + reference.getTargetBeanId() + " "
+					+ reference.getTarget().getHandleIdentifier() + " " + reference.getResource().getFullPath() + " "
+					+ reference.getTargetBeanStartline());
+		}
+		return references;
+	}
+
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.aop.core.Activator;
+import org.springframework.ide.eclipse.aop.core.internal.model.builder.AopReferenceModelBuilderJob.Statistics;
+import org.springframework.ide.eclipse.aop.core.model.IAopReference;
+import org.springframework.ide.eclipse.aop.core.tests.AllAopCoreTests;
+import org.springframework.ide.eclipse.aop.core.util.AopReferenceModelUtils;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Tests that parallel builds match like sequential ones and that Java changes only re-match the changed beans and
+ * aspects, unless they change a config.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class AopReferenceModelBuilderJobTest {
+
+	private static final String TRACING_PLAIN_SERVICE = "TracingAspect.trace -> plainService.execute";
+
+	private static final String AUDITING_AUDITED_SERVICE = "AuditingAspect.audit -> auditedService.execute";
+
+	private IProject project;
+
+	private long fullBuildCheckedPairs;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("aop-model-tests", AllAopCoreTests.PLUGIN_ID);
+		waitForBuild();
+		AopReferenceModelBuilderJob.resetStatistics();
+		project.build(IncrementalProjectBuilder.FULL_BUILD, null);
+		waitForBuild();
+		Statistics statistics = AopReferenceModelBuilderJob.getStatistics();
+		assertEquals(statistics.toString(), 1, statistics.getFullBuilds());
+		fullBuildCheckedPairs = statistics.getCheckedPairs();
+		AopReferenceModelBuilderJob.resetStatistics();
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+		AopReferenceModelBuilderJob.resetStatistics();
+	}
+
+	@Test
+	public void testFullBuild() throws Exception {
+		assertEquals(references(TRACING_PLAIN_SERVICE, AUDITING_AUDITED_SERVICE), getReferences());
+		assertTrue(fullBuildCheckedPairs > 0);
+	}
+
+	@Test
+	public void testParallelFullBuildsMatchLikeTheFirstBuild() throws Exception {
+		ThreadPoolExecutor executor = Activator.getBuilderExecutor();
+		int corePoolSize = executor.getCorePoolSize();
+		int maximumPoolSize = executor.getMaximumPoolSize();
+		executor.setMaximumPoolSize(Math.max(maximumPoolSize, 4));
+		executor.setCorePoolSize(Math.max(corePoolSize, 4));
+		try {
+			for (int i = 0; i < 5; i++) {
+				project.build(IncrementalProjectBuilder.FULL_BUILD, null);
+				waitForBuild();
+				assertEquals(references(TRACING_PLAIN_SERVICE, AUDITING_AUDITED_SERVICE), getReferences());
+			}
+			assertEquals(5, AopReferenceModelBuilderJob.getStatistics().getFullBuilds());
+		}
+		finally {
+			executor.setCorePoolSize(corePoolSize);
+			executor.setMaximumPoolSize(maximumPoolSize);
+		}
+	}
+
+	@Test
+	public void testBeanClassChangeRematchesChangedBeanOnly() throws Exception {
+		edit("src/org/test/PlainService.java", "package org.test;\n\n"
+				+ "public class PlainService implements Service {\n\n"
+				+ "	public void execute() {\n	}\n\n"
+				+ "	public void stop() {\n	}\n\n"
+				+ "}\n");
+
+		assertIncrementalBuild();
+		assertEquals(references(TRACING_PLAIN_SERVICE, "TracingAspect.trace -> plainService.stop",
+				AUDITING_AUDITED_SERVICE), getReferences());
+	}
+
+	@Test
+	public void testAspectClassChangeRematchesChangedAspectOnly() throws Exception {
+		edit("src/org/test/aspects/TracingAspect.java", "package org.test.aspects;\n\n"
+				+ "import org.aspectj.lang.annotation.Aspect;\n"
+				+ "import org.aspectj.lang.annotation.Before;\n\n"
+				+ "@Aspect\n"
+				+ "public class TracingAspect {\n\n"
+				+ "	@Before(\"execution(* org.test.TracedService.*(..))\")\n"
+				+ "	public void trace() {\n	}\n\n"
+				+ "}\n");
+
+		assertIncrementalBuild();
+		assertEquals(references("TracingAspect.trace -> tracedService.execute", AUDITING_AUDITED_SERVICE),
+				getReferences());
+	}
+
+	@Test
+	public void testJavaConfigClassChangeRebuildsFully() throws Exception {
+		edit("src/org/test/config/ServiceConfiguration.java", "package org.test.config;\n\n"
+				+ "import org.springframework.context.annotation.Bean;\n"
+				+ "import org.springframework.context.annotation.Configuration;\n"
+				+ "import org.test.AuditedService;\n"
+				+ "import org.test.PlainService;\n"
+				+ "import org.test.Service;\n\n"
+				+ "@Configuration\n"
+				+ "public class ServiceConfiguration {\n\n"
+				+ "	@Bean\n"
+				+ "	public Service configuredService() {\n		return new PlainService();\n	}\n\n"
+				+ "	@Bean\n"
+				+ "	public Service otherService() {\n		return new AuditedService();\n	}\n\n"
+				+ "}\n");
+
+		Statistics statistics = AopReferenceModelBuilderJob.getStatistics();
+		assertEquals(statistics.toString(), 1, statistics.getFullBuilds());
+		assertEquals(statistics.toString(), 0, statistics.getIncrementalBuilds());
+		assertEquals(references(TRACING_PLAIN_SERVICE, AUDITING_AUDITED_SERVICE), getReferences());
+	}
+
+	private void assertIncrementalBuild() {
+		Statistics statistics = AopReferenceModelBuilderJob.getStatistics();
+		assertEquals(statistics.toString(), 0, statistics.getFullBuilds());
+		assertEquals(statistics.toString(), 1, statistics.getIncrementalBuilds());
+		assertTrue(statistics.toString(), statistics.getCheckedPairs() < fullBuildCheckedPairs);
+	}
+
+	private void edit(String path, String source) throws Exception {
+		IFile file = project.getFile(path);
+		file.setContents(new ByteArrayInputStream(source.getBytes("UTF-8")), true, false, null);
+		StsTestUtil.waitForAutoBuild();
+		project.build(IncrementalProjectBuilder.INCREMENTAL_BUILD, null);
+		waitForBuild();
+	}
+
+	private void waitForBuild() throws Exception {
+		StsTestUtil.waitForAutoBuild();
+		Job.getJobManager().join(AopReferenceModelBuilderJob.CONTENT_FAMILY, null);
+	}
+
+	private Set<String> getReferences() {
+		Set<String> references = new HashSet<String>();
+		for (IAopReference reference : Activator.getModel().getProject(JavaCore.create(project))
+				.getAllReferences()) {
+			String aspectClassName = reference.getDefinition().getAspectClassName();
+			IBean bean = AopReferenceModelUtils.getBeanFromElementId(reference.getTargetBeanId());
+			references.add(aspectClassName.substring(aspectClassName.lastIndexOf('.') + 1) + "."
+					+ reference.getDefinition().getAdviceMethodName() + " -> " + bean.getElementName() + "."
+					+ reference.getTarget().getElementName());
+		}
+		return references;
+	}
+
+	private static Set<String> references(String... references) {
+		return new HashSet<String>(Arrays.asList(references));
+	}
+
+}
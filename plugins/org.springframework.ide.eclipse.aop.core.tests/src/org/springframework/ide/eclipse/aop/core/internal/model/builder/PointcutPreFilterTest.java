@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.core.resources.IProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.aop.core.internal.model.BeanAspectDefinition;
+import org.springframework.ide.eclipse.aop.core.tests.AllAopCoreTests;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class PointcutPreFilterTest {
+
+	private static final String INNER_CLASS = "org.test.OuterService$InnerService";
+
+	private static final String PLAIN_CLASS = "org.test.PlainService";
+
+	private static final String AUDITED_CLASS = "org.test.AuditedService";
+
+	private static final String TRACED_CLASS = "org.test.TracedService";
+
+	private IProject project;
+
+	private PointcutPreFilter filter;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("aop-model-tests", AllAopCoreTests.PLUGIN_ID);
+		filter = new PointcutPreFilter();
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+		SpringCore.getTypeHierarchyEngine().clearCache();
+	}
+
+	@Test
+	public void testWithinMatchesClassAndSupertypes() throws Exception {
+		assertTrue(mayMatch("within(org.test.OuterService$InnerService)", INNER_CLASS));
+		assertTrue(mayMatch("within(org.test.OuterService.InnerService)", INNER_CLASS));
+		assertTrue(mayMatch("within(org.test.Service)", INNER_CLASS));
+		assertFalse(mayMatch("within(org.test.PlainService)", INNER_CLASS));
+	}
+
+	@Test
+	public void testWithinMatchesEnclosingTypeOfNestedClass() throws Exception {
+		assertTrue(mayMatch("within(org.test.OuterService)", INNER_CLASS));
+		assertTrue(mayMatch("within(org.test.*)", INNER_CLASS));
+		assertTrue(mayMatch("within(org.test.Outer*)", INNER_CLASS));
+		assertFalse(mayMatch("within(org.test.AuditedService)", INNER_CLASS));
+		assertFalse(mayMatch("within(org.test.aspects.*)", INNER_CLASS));
+	}
+
+	@Test
+	public void testExecutionDoesNotMatchEnclosingTypeOfNestedClass() throws Exception {
+		assertTrue(mayMatch("execution(* org.test.OuterService.InnerService.*(..))", INNER_CLASS));
+		assertFalse(mayMatch("execution(* org.test.OuterService.*(..))", INNER_CLASS));
+	}
+
+	@Test
+	public void testAtWithinMatchesAnnotatedClassesOnly() throws Exception {
+		assertTrue(mayMatch("@within(org.test.Audited)", AUDITED_CLASS));
+		assertTrue(mayMatch("@target(org.test.Audited)", AUDITED_CLASS));
+		assertFalse(mayMatch("@within(org.test.Audited)", PLAIN_CLASS));
+		// annotated methods don't make the class match
+		assertFalse(mayMatch("@within(org.test.Audited)", TRACED_CLASS));
+		assertFalse(mayMatch("@within(org.test.Audited)", INNER_CLASS));
+	}
+
+	@Test
+	public void testAtAnnotationMatchesAnnotatedMethodsOnly() throws Exception {
+		assertTrue(mayMatch("@annotation(org.test.Audited)", TRACED_CLASS));
+		assertFalse(mayMatch("@annotation(org.test.Audited)", PLAIN_CLASS));
+		// an annotated class doesn't make its methods match
+		assertFalse(mayMatch("@annotation(org.test.Audited)", AUDITED_CLASS));
+	}
+
+	@Test
+	public void testAnnotationsThatCannotBeResolvedAreAssumedToMatch() throws Exception {
+		assertTrue(mayMatch("@within(Audited)", PLAIN_CLASS));
+		assertTrue(mayMatch("@annotation(audited)", PLAIN_CLASS));
+		assertTrue(mayMatch("@within(org.test.Audited)", "org.test.MissingService"));
+		assertTrue(mayMatch("@annotation(org.test.Audited) || within(org.test.PlainService)", PLAIN_CLASS));
+		assertFalse(mayMatch("@annotation(org.test.Audited) && within(org.test.TracedService)", PLAIN_CLASS));
+	}
+
+	@Test
+	public void testSkippedPairsAreCounted() throws Exception {
+		assertFalse(mayMatch("within(org.test.AuditedService) && execution(* *(..))", INNER_CLASS));
+		assertTrue(mayMatch("within(org.test.AuditedService) || within(org.test.OuterService)", INNER_CLASS));
+		assertEquals(2, filter.getCheckedCount());
+		assertEquals(1, filter.getSkippedCount());
+	}
+
+	private boolean mayMatch(String expression, String className) {
+		BeanAspectDefinition info = new BeanAspectDefinition();
+		info.setPointcutExpression(expression);
+		return filter.mayMatch(info, project, className);
+	}
+
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.tests;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+import org.springframework.ide.eclipse.aop.core.internal.model.AopProjectTest;
+import org.springframework.ide.eclipse.aop.core.internal.model.AopReferenceModelPeristenceTest;
+import org.springframework.ide.eclipse.aop.core.internal.model.builder.AopReferenceModelBuilderJobTest;
+import org.springframework.ide.eclipse.aop.core.internal.model.builder.PointcutPreFilterTest;
+
+/**
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+@RunWith(Suite.class)
+@SuiteClasses({
+	PointcutPreFilterTest.class,
+	AopProjectTest.class,
+	AopReferenceModelPeristenceTest.class,
+	AopReferenceModelBuilderJobTest.class
+})
+public class AllAopCoreTests {
+
+	public static final String PLUGIN_ID = "org.springframework.ide.eclipse.aop.core.tests";
+
+}
@@ -0,0 +1,9 @@
+package org.test;
+
+@Audited
+public class AuditedService implements Service {
+
+	public void execute() {
+	}
+
+}
@@ -0,0 +1,12 @@
+package org.test;
+
+public class OuterService {
+
+	public static class InnerService implements Service {
+
+		public void execute() {
+		}
+
+	}
+
+}
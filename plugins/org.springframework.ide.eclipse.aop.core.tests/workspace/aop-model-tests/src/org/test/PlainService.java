@@ -0,0 +1,8 @@
+package org.test;
+
+public class PlainService implements Service {
+
+	public void execute() {
+	}
+
+}
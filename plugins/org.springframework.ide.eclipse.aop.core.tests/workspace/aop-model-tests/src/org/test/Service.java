@@ -0,0 +1,7 @@
+package org.test;
+
+public interface Service {
+
+	void execute();
+
+}
@@ -0,0 +1,9 @@
+package org.test;
+
+public class TracedService implements Service {
+
+	@Audited
+	public void execute() {
+	}
+
+}
@@ -0,0 +1,13 @@
+package org.test.aspects;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+
+@Aspect
+public class AuditingAspect {
+
+	@Before("@within(org.test.Audited)")
+	public void audit() {
+	}
+
+}
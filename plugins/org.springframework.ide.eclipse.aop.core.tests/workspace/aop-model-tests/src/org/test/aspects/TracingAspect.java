@@ -0,0 +1,13 @@
+package org.test.aspects;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+
+@Aspect
+public class TracingAspect {
+
+	@Before("execution(* org.test.PlainService.*(..))")
+	public void trace() {
+	}
+
+}
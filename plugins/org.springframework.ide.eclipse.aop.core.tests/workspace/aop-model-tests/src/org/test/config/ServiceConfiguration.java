@@ -0,0 +1,16 @@
+package org.test.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.test.PlainService;
+import org.test.Service;
+
+@Configuration
+public class ServiceConfiguration {
+
+	@Bean
+	public Service configuredService() {
+		return new PlainService();
+	}
+
+}
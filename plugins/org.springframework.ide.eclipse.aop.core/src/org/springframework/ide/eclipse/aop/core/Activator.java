@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,11 @@ package org.springframework.ide.eclipse.aop.core;
 
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -28,6 +33,7 @@ import org.springframework.ide.eclipse.core.MessageUtils;
  * The activator class controls the plug-in life cycle
  * @author Christian Dupuis
  * @author Torsten Juergeleit
+ * @author Martin Lippert
  */
 public class Activator extends AbstractUIPlugin {
 
@@ -36,12 +42,23 @@ public class Activator extends AbstractUIPlugin {
 	
 	public static final String PERSIST_AOP_MODEL_PREFERENCE = PLUGIN_ID + ".persistModel";
 
+	/**
+	 * System property to configure the number of threads that build the AOP reference model, defaults to the number
+	 * of processors.
+	 * @since 3.9.3
+	 */
+	public static final String BUILDER_THREADS_PROPERTY = PLUGIN_ID + ".builderThreads";
+
 	private static final String RESOURCE_NAME = PLUGIN_ID + ".messages";
 
+	private static final String THREAD_NAME_TEMPLATE = "Spring AOP Reference Model Builder (%s)";
+
 	// The shared instance
 	private static Activator plugin;
 
 	private static AopReferenceModel model;
+
+	private static volatile ThreadPoolExecutor builderExecutor;
 	
 	/** Resource bundle */
 	private ResourceBundle resourceBundle;
@@ -69,6 +86,21 @@ public class Activator extends AbstractUIPlugin {
 		// add default value
 		getPreferenceStore().setDefault(PERSIST_AOP_MODEL_PREFERENCE, true);
 
+		final AtomicInteger threadCount = new AtomicInteger();
+		int threads = Math.max(1, Integer.getInteger(BUILDER_THREADS_PROPERTY, Runtime.getRuntime()
+				.availableProcessors()));
+		builderExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, String.format(THREAD_NAME_TEMPLATE,
+								threadCount.incrementAndGet()));
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		builderExecutor.allowCoreThreadTimeOut(true);
+
 		Job modelJob = new Job("Initializing Spring Aop Model") {
 			
 			@Override
@@ -91,6 +123,10 @@ public class Activator extends AbstractUIPlugin {
 	@Override
 	public void stop(BundleContext context) throws Exception {
 		model.shutdown();
+		if (builderExecutor != null) {
+			builderExecutor.shutdownNow();
+			builderExecutor = null;
+		}
 		plugin = null;
 		resourceBundle = null;
 		super.stop(context);
@@ -109,6 +145,15 @@ public class Activator extends AbstractUIPlugin {
 		return model;
 	}
 
+	/**
+	 * Returns the pool of threads that build the AOP reference model; might be <code>null</code> if the plug-in isn't
+	 * started.
+	 * @since 3.9.3
+	 */
+	public static ThreadPoolExecutor getBuilderExecutor() {
+		return builderExecutor;
+	}
+
 	public static void log(IStatus status) {
 		getDefault().getLog().log(status);
 	}
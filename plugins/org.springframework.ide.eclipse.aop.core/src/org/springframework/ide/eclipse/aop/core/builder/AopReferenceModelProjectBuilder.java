@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,21 +10,34 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.aop.core.builder;
 
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
 import org.springframework.ide.eclipse.aop.core.Activator;
 import org.springframework.ide.eclipse.aop.core.internal.model.AopReferenceModel;
 import org.springframework.ide.eclipse.aop.core.internal.model.builder.AopReferenceModelBuilderJob;
 import org.springframework.ide.eclipse.aop.core.util.AopReferenceModelMarkerUtils;
 import org.springframework.ide.eclipse.aop.core.util.AopReferenceModelUtils;
+import org.springframework.ide.eclipse.beans.core.BeansCoreUtils;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansJavaConfig;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.BeansTypeHierachyState;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.ide.eclipse.core.project.IProjectBuilder;
 import org.springframework.ide.eclipse.core.project.IProjectContributorState;
@@ -34,12 +47,25 @@ import org.springframework.ide.eclipse.core.project.IProjectContributorStateAwar
  * {@link IProjectBuilder} that triggers creation of Spring IDE's internal AOP reference model.
  * @author Christian Dupuis
  * @author Torsten Juergeleit
+ * @author Martin Lippert
  * @since 2.0
  */
 public class AopReferenceModelProjectBuilder implements IProjectBuilder, IProjectContributorStateAware {
 
 	private IProjectContributorState context = null;
 
+	/**
+	 * Names of the types in Java files that have been changed structurally since the last build and of the classes
+	 * of the beans whose class hierarchy contains one of them
+	 */
+	private Set<String> changedTypes = new HashSet<String>();
+
+	/** Element ids of the beans whose class (hierarchy) contains one of the {@link #changedTypes} */
+	private Set<String> changedBeanIds = new HashSet<String>();
+
+	/** Set if at least one change is not a structural change of a Java file */
+	private boolean fullBuild = false;
+
 	/**
 	 * Returns a {@link Set} of {@link IResource} instances that need to be rebuild in the context of the current
 	 * <code>resource</code> and <code>kind</code>
@@ -47,25 +73,80 @@ public class AopReferenceModelProjectBuilder implements IProjectBuilder, IProjec
 	public Set<IResource> getAffectedResources(IResource resource, int kind, int deltaKind) throws CoreException {
 		Set<IResource> resources = new LinkedHashSet<IResource>();
 		if (resource instanceof IFile) {
-			resources.addAll(AopReferenceModelUtils.getAffectedFiles(kind, deltaKind, resource, context));
+			Set<IResource> files = AopReferenceModelUtils.getAffectedFiles(kind, deltaKind, resource, context);
+			if (files.size() > 0) {
+				recordChange(resource, kind, deltaKind);
+			}
+			resources.addAll(files);
 		}
 		return resources;
 	}
 
+	/**
+	 * Records the types and beans that are changed by a structural change to a Java file, so that only those beans
+	 * need to be matched against all aspects and only the aspects implemented by the changed types need to be matched
+	 * against all beans. Any other change requires the affected configs to be matched completely; that includes edits
+	 * of configs and of JavaConfig classes, as they change the beans and aspects themselves.
+	 */
+	private void recordChange(IResource resource, int kind, int deltaKind) {
+		BeansTypeHierachyState hierachyState = context.get(BeansTypeHierachyState.class);
+		IJavaElement element = JavaCore.create(resource);
+		if (fullBuild || kind == IncrementalProjectBuilder.FULL_BUILD || deltaKind == IResourceDelta.REMOVED
+				|| hierachyState == null || !(element instanceof ICompilationUnit)
+				|| BeansCoreUtils.isBeansConfig(resource)) {
+			fullBuild = true;
+			return;
+		}
+		Set<String> types = new HashSet<String>();
+		try {
+			for (IType type : ((ICompilationUnit) element).getAllTypes()) {
+				types.add(type.getFullyQualifiedName());
+			}
+		}
+		catch (JavaModelException e) {
+			fullBuild = true;
+			return;
+		}
+		for (IBeansConfig config : hierachyState.getConfigsByContainingTypes(resource)) {
+			if (config instanceof BeansJavaConfig && types.contains(((BeansJavaConfig) config).getConfigClassName())) {
+				fullBuild = true;
+				return;
+			}
+		}
+		changedTypes.addAll(types);
+		for (IBean bean : hierachyState.getBeansByContainingTypes(resource)) {
+			changedBeanIds.add(bean.getElementID());
+			// the bean might be an aspect that inherits its advice from a changed type
+			String className = BeansModelUtils.getBeanClass(bean, null);
+			if (className != null) {
+				changedTypes.add(className);
+			}
+		}
+	}
+
 	/**
 	 * Starts creation of AOP reference model by passing the Set of affectedResources on to a new instance of
 	 * {@link AopReferenceModelBuilderJob}.
 	 */
 	public void build(Set<IResource> affectedResources, int kind, IProgressMonitor monitor) throws CoreException {
 		monitor.subTask(Activator.getFormattedMessage("AopReferenceModelProjectBuilder.buildingAopReferenceModel"));
+		Set<String> changedTypes = this.changedTypes;
+		Set<String> changedBeanIds = this.changedBeanIds;
+		boolean fullBuild = this.fullBuild;
+		this.changedTypes = new HashSet<String>();
+		this.changedBeanIds = new HashSet<String>();
+		this.fullBuild = false;
+
 		if (affectedResources.size() > 0) {
 			IProject project = context.get(IProject.class);
 			if (kind == IncrementalProjectBuilder.CLEAN_BUILD || kind == IncrementalProjectBuilder.FULL_BUILD) {
 				AopReferenceModelMarkerUtils.deleteProblemMarkers(project);
 				((AopReferenceModel) Activator.getModel()).removeProject(JdtUtils.getJavaProject(project));
+				fullBuild = true;
 			}
-			Job job = new AopReferenceModelBuilderJob(project, AopReferenceModelUtils
-					.getAffectedFilesFromBeansConfig(affectedResources), affectedResources);
+			Set<IResource> files = AopReferenceModelUtils.getAffectedFilesFromBeansConfig(affectedResources);
+			Job job = fullBuild ? new AopReferenceModelBuilderJob(project, files, affectedResources)
+					: new AopReferenceModelBuilderJob(project, files, affectedResources, changedTypes, changedBeanIds);
 			job.schedule();
 		}
 		monitor.done();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,13 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.aop.core.internal.model;
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -26,14 +27,28 @@ import org.springframework.ide.eclipse.aop.core.model.IAopProject;
 import org.springframework.ide.eclipse.aop.core.model.IAopReference;
 
 /**
+ * The {@link IAopReference}s of a project, sharded by the resource of their aspect definition and indexed by the
+ * element id of their target bean, so that the references of a single aspect definition resource or target bean can
+ * be replaced without looking at the others. The references of a single aspect are found by scanning the shards.
+ * <p>
+ * References can be added concurrently; the read lock is taken while adding a reference and the write lock while
+ * removing the references of a resource, so that no reference gets added to a shard that is just being removed.
  * @author Christian Dupuis
+ * @author Martin Lippert
  * @since 2.0
  */
 public class AopProject implements IAopProject {
 
 	private IJavaProject project;
 
-	private Set<IAopReference> references = new CopyOnWriteArraySet<IAopReference>();
+	private ConcurrentMap<IResource, Set<IAopReference>> references =
+			new ConcurrentHashMap<IResource, Set<IAopReference>>();
+
+	/** References whose aspect definition doesn't have a resource */
+	private Set<IAopReference> referencesWithoutResource = newReferenceSet();
+
+	private ConcurrentMap<String, Set<IAopReference>> referencesByBean =
+			new ConcurrentHashMap<String, Set<IAopReference>>();
 
 	protected final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
 
@@ -47,33 +62,109 @@ public class AopProject implements IAopProject {
 
 	public void addAopReference(IAopReference reference) {
 		AopLog.log(AopLog.BUILDER_MESSAGES, "Created AOP reference '" + reference + "'");
+		IResource resource = reference.getDefinition().getResource();
+		try {
+			r.lock();
+			if (resource == null) {
+				referencesWithoutResource.add(reference);
+			}
+			else {
+				getReferenceSet(references, resource).add(reference);
+			}
+			if (reference.getTargetBeanId() != null) {
+				getReferenceSet(referencesByBean, reference.getTargetBeanId()).add(reference);
+			}
+		}
+		finally {
+			r.unlock();
+		}
+	}
+
+	public void clearReferencesForResource(IResource resource) {
+		if (resource == null) {
+			return;
+		}
 		try {
 			w.lock();
-			this.references.add(reference);
+			Set<IAopReference> removed = this.references.remove(resource);
+			if (removed != null) {
+				for (IAopReference reference : removed) {
+					removeFromBeanIndex(reference);
+				}
+			}
 		}
 		finally {
 			w.unlock();
 		}
 	}
 
-	public void clearReferencesForResource(IResource resource) {
-		List<IAopReference> toRemove = new ArrayList<IAopReference>();
+	public void clearReferencesForBean(String beanId) {
+		if (beanId == null) {
+			return;
+		}
 		try {
 			w.lock();
-			for (IAopReference reference : this.references) {
-				if (resource != null && resource.equals(reference.getDefinition().getResource())) {
-					toRemove.add(reference);
+			Set<IAopReference> removed = this.referencesByBean.remove(beanId);
+			if (removed != null) {
+				for (IAopReference reference : removed) {
+					IResource resource = reference.getDefinition().getResource();
+					Set<IAopReference> shard = resource != null ? references.get(resource)
+							: referencesWithoutResource;
+					if (shard != null) {
+						shard.remove(reference);
+					}
 				}
 			}
-			this.references.removeAll(toRemove);
 		}
 		finally {
 			w.unlock();
 		}
 	}
 
+	public void clearReferencesForAspects(Set<String> aspectClassNames) {
+		if (aspectClassNames == null || aspectClassNames.isEmpty()) {
+			return;
+		}
+		try {
+			w.lock();
+			for (Set<IAopReference> shard : this.references.values()) {
+				removeReferencesForAspects(shard, aspectClassNames);
+			}
+			removeReferencesForAspects(referencesWithoutResource, aspectClassNames);
+		}
+		finally {
+			w.unlock();
+		}
+	}
+
+	private void removeReferencesForAspects(Set<IAopReference> shard, Set<String> aspectClassNames) {
+		for (Iterator<IAopReference> iterator = shard.iterator(); iterator.hasNext();) {
+			IAopReference reference = iterator.next();
+			if (aspectClassNames.contains(reference.getDefinition().getAspectClassName())) {
+				iterator.remove();
+				removeFromBeanIndex(reference);
+			}
+		}
+	}
+
+	private void removeFromBeanIndex(IAopReference reference) {
+		Set<IAopReference> beanReferences = reference.getTargetBeanId() != null ? referencesByBean.get(reference
+				.getTargetBeanId()) : null;
+		if (beanReferences != null) {
+			beanReferences.remove(reference);
+			if (beanReferences.isEmpty()) {
+				referencesByBean.remove(reference.getTargetBeanId());
+			}
+		}
+	}
+
 	public Set<IAopReference> getAllReferences() {
-		return Collections.unmodifiableSet(this.references);
+		Set<IAopReference> allReferences = new LinkedHashSet<IAopReference>();
+		for (Set<IAopReference> shard : this.references.values()) {
+			allReferences.addAll(shard);
+		}
+		allReferences.addAll(referencesWithoutResource);
+		return Collections.unmodifiableSet(allReferences);
 	}
 
 	public IJavaProject getProject() {
@@ -81,19 +172,30 @@ public class AopProject implements IAopProject {
 	}
 
 	public Set<IAopReference> getReferencesForResource(IResource resource) {
-		try {
-			r.lock();
-			Set<IAopReference> list = new LinkedHashSet<IAopReference>();
-			for (IAopReference reference : this.references) {
-				if (reference.getResource().equals(resource)
-						|| reference.getDefinition().getResource().equals(resource)) {
-					list.add(reference);
-				}
+		Set<IAopReference> list = new LinkedHashSet<IAopReference>();
+		for (IAopReference reference : getAllReferences()) {
+			if (reference.getResource().equals(resource)
+					|| (reference.getDefinition().getResource() != null && reference.getDefinition().getResource()
+							.equals(resource))) {
+				list.add(reference);
 			}
-			return list;
 		}
-		finally {
-			r.unlock();
+		return list;
+	}
+
+	private static <K> Set<IAopReference> getReferenceSet(ConcurrentMap<K, Set<IAopReference>> sets, K key) {
+		Set<IAopReference> set = sets.get(key);
+		if (set == null) {
+			Set<IAopReference> newSet = newReferenceSet();
+			set = sets.putIfAbsent(key, newSet);
+			if (set == null) {
+				set = newSet;
+			}
 		}
+		return set;
+	}
+
+	private static Set<IAopReference> newReferenceSet() {
+		return Collections.newSetFromMap(new ConcurrentHashMap<IAopReference, Boolean>());
 	}
 }
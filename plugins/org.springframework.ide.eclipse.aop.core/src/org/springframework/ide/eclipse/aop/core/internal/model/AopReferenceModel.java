@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,9 +12,11 @@ package org.springframework.ide.eclipse.aop.core.internal.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IResource;
@@ -33,16 +35,21 @@ import org.springframework.ide.eclipse.core.internal.model.resources.SpringResou
 
 /**
  * @author Christian Dupuis
+ * @author Martin Lippert
  * @since 2.0
  */
 public class AopReferenceModel implements IAopReferenceModel {
 
 	private List<IAopModelChangedListener> listeners = new LinkedList<IAopModelChangedListener>();
 
-	private AopReferenceModelPeristence persistence;
+	private volatile AopReferenceModelPeristence persistence;
 
 	private Map<IJavaProject, IAopProject> projects = new ConcurrentHashMap<IJavaProject, IAopProject>();
 
+	/** Projects whose references have been restored from disk and haven't been built fully since */
+	private final Set<IJavaProject> restoredProjects = Collections
+			.newSetFromMap(new ConcurrentHashMap<IJavaProject, Boolean>());
+
 	private IResourceChangeListener workspaceListener;
 
 	// private IModelChangeListener modelChangeListener;
@@ -99,15 +106,64 @@ public class AopReferenceModel implements IAopReferenceModel {
 		return this.projects.values();
 	}
 
+	/**
+	 * Returns <code>true</code> if the model holds up to date references of the given project. References that have
+	 * been restored from disk might be stale, so these projects need to be built fully once.
+	 * @since 3.9.3
+	 */
+	public boolean containsProject(IJavaProject project) {
+		return this.projects.containsKey(project) && !this.restoredProjects.contains(project);
+	}
+
+	/**
+	 * Marks the references of the given project as restored from disk; they are not up to date until the project has
+	 * been built fully.
+	 * @since 3.9.3
+	 */
+	public void setRestored(IJavaProject project) {
+		this.restoredProjects.add(project);
+	}
+
+	/**
+	 * Marks the references of the given project as up to date after a full build.
+	 * @since 3.9.3
+	 */
+	public void setBuilt(IJavaProject project) {
+		this.restoredProjects.remove(project);
+	}
+
+	/**
+	 * Returns the {@link IAopProject} of the given project, creating it if necessary. A newly created project gets the
+	 * persisted references of the project, if there are any.
+	 */
 	public IAopProject getProjectWithInitialization(IJavaProject project) {
-		if (this.projects.containsKey(project)) {
-			return this.projects.get(project);
-		}
-		else {
-			IAopProject aopProject = new AopProject(project);
-			addProject(project, aopProject);
+		IAopProject aopProject = this.projects.get(project);
+		if (aopProject != null) {
 			return aopProject;
 		}
+
+		boolean loaded = false;
+		synchronized (this) {
+			aopProject = this.projects.get(project);
+			if (aopProject == null) {
+				aopProject = new AopProject(project);
+				loaded = persistence != null && persistence.loadProject(aopProject);
+				if (loaded) {
+					setRestored(project);
+				}
+				addProject(project, aopProject);
+				if (loaded) {
+					// only now the persisted file isn't needed anymore, as the project is saved with the model
+					persistence.setLoaded(project);
+				}
+			}
+		}
+		// create the markers outside of the lock, as that requires the workspace lock
+		if (loaded) {
+			persistence.createMarkers(aopProject);
+			fireModelChanged();
+		}
+		return aopProject;
 	}
 
 	public boolean isAdvice(IJavaElement je) {
@@ -145,6 +201,10 @@ public class AopReferenceModel implements IAopReferenceModel {
 	}
 
 	public synchronized void removeProject(IJavaProject project) {
+		if (persistence != null) {
+			persistence.removeProject(project);
+		}
+		restoredProjects.remove(project);
 		for (IJavaProject jp : projects.keySet()) {
 			if (jp.equals(project)) {
 				projects.remove(jp);
@@ -155,7 +215,11 @@ public class AopReferenceModel implements IAopReferenceModel {
 	}
 
 	public synchronized void clearProjects() {
+		if (persistence != null) {
+			persistence.removeProjects();
+		}
 		this.projects.clear();
+		this.restoredProjects.clear();
 	}
 
 	public void shutdown() {
@@ -164,11 +228,13 @@ public class AopReferenceModel implements IAopReferenceModel {
 		workspace.removeResourceChangeListener(workspaceListener);
 		workspaceListener = null;
 
-		// Persist model
+		// Stop loading persisted projects and persist model
+		persistence.cancelLoading();
 		persistence.saveReferenceModel();
 
 		// Remove all projects
 		projects.clear();
+		restoredProjects.clear();
 
 		// BeansCorePlugin.getModel().removeChangeListener(modelChangeListener);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,17 +10,30 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.aop.core.internal.model;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.Writer;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -28,6 +41,11 @@ import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.core.runtime.preferences.InstanceScope;
@@ -45,7 +63,19 @@ import org.springframework.ide.eclipse.aop.core.model.IAspectDefinition;
 import org.springframework.ide.eclipse.aop.core.util.AopReferenceModelMarkerUtils;
 
 /**
+ * Persists the {@link IAopReferenceModel} between sessions.
+ * <p>
+ * The references of every project are written to a file of their own in a versioned binary format. Aspect definitions
+ * and references are still saved and restored by their {@link IElementFactory}s; the attributes of their mementos are
+ * written as a list of key and value pairs, with all strings (handle identifiers, resource paths and attribute names)
+ * stored once in a string table at the beginning of the file. Every element is saved to and restored from a memento of
+ * its own that holds nothing but its attributes. The files are named by the URL encoded project name and are not read
+ * on startup; the references of a project are loaded on first access of its {@link IAopProject}, the projects that
+ * haven't been accessed are loaded by a background job to recreate their markers.
+ * <p>
+ * The XML file written by previous versions is read once, if no binary files exist yet.
  * @author Christian Dupuis
+ * @author Martin Lippert
  * @since 2.0
  */
 public class AopReferenceModelPeristence {
@@ -68,12 +98,22 @@ public class AopReferenceModelPeristence {
 				new AopReferenceElementFactory());
 	}
 
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String MODEL_DIRECTORY = "model";
+
+	private static final String MODEL_FILE_EXTENSION = ".dat";
+
+	private static final String ENCODING = "UTF-8";
+
+	private static final byte STRING_VALUE = 0;
+
+	private static final byte INTEGER_VALUE = 1;
+
 	private static final String AOP_PROJECT_ELEMENT = "aop-project";
 
 	private static final String AOP_REFERENCE_ELEMENT = "aop-reference";
 
-	private static final String AOP_REFERENCE_MODEL_ELEMENT = "aop-reference-model";
-
 	private static final String ASPECT_DEFINITION_ELEMENT = "aspect-definition";
 
 	private static final String FACTORY_ID = "factory-id";
@@ -82,17 +122,24 @@ public class AopReferenceModelPeristence {
 
 	private IPath defaultFile = null;
 
+	private File modelDirectory = null;
+
+	/** Names of the projects whose persisted references haven't been loaded yet */
+	private final Set<String> unloadedProjects = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private volatile Job loadingJob;
+
 	public AopReferenceModelPeristence() {
-		this.defaultFile = Activator.getDefault().getStateLocation().append(".state");
+		this(Activator.getDefault().getStateLocation().toFile());
 	}
 
-	private IMemento appendNewChild(IMemento memento, String type) {
-		memento.createChild(type);
-		IMemento[] ms = memento.getChildren(type);
-		if (ms != null && ms.length > 0) {
-			return ms[ms.length - 1];
-		}
-		return memento;
+	/**
+	 * Creates a persistence that stores its files in the given directory.
+	 * @since 3.9.3
+	 */
+	AopReferenceModelPeristence(File stateLocation) {
+		this.defaultFile = Path.fromOSString(stateLocation.getPath()).append(".state");
+		this.modelDirectory = new File(stateLocation, MODEL_DIRECTORY);
 	}
 
 	private void createAopProjects(IAopReferenceModel model, XMLMemento memento) {
@@ -107,13 +154,12 @@ public class AopReferenceModelPeristence {
 					IAopProject aopProject = model.getProject(javaProject);
 
 					createAspectDefinitions(projects, project, aopProject);
+					if (model instanceof AopReferenceModel) {
+						((AopReferenceModel) model).setRestored(javaProject);
+					}
 
 					// recreate the marker
-					Set<IAopReference> references = aopProject.getAllReferences();
-					for (IAopReference reference : references) {
-						AopReferenceModelMarkerUtils.createMarker(reference, reference
-								.getResource());
-					}
+					createMarkers(aopProject);
 				}
 			}
 		}
@@ -150,21 +196,95 @@ public class AopReferenceModelPeristence {
 		}
 	}
 
+	/**
+	 * Creates the markers of all references of the given project.
+	 * @since 3.9.3
+	 */
+	public void createMarkers(IAopProject aopProject) {
+		Set<IAopReference> references = aopProject.getAllReferences();
+		for (IAopReference reference : references) {
+			AopReferenceModelMarkerUtils.createMarker(reference, reference.getResource());
+		}
+	}
+
 	protected boolean isPersisted() {
 		return defaultFile.toFile().exists();
 	}
 
-	protected synchronized void loadReferenceModel() {
-		if (!shouldModelByPersisted() || !isPersisted()) {
+	/**
+	 * Registers the persisted projects, their references are loaded on first access.
+	 * <p>
+	 * Not synchronized, as reading the XML file of previous versions accesses the model; see
+	 * {@link #loadProject(IAopProject)}.
+	 */
+	protected void loadReferenceModel() {
+		if (!shouldModelByPersisted()) {
+			return;
+		}
+		if (isPersisted()) {
+			loadLegacyReferenceModel();
 			return;
 		}
 
+		File[] files = modelDirectory.listFiles();
+		if (files == null) {
+			return;
+		}
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		for (File file : files) {
+			String projectName = getProjectName(file);
+			if (projectName != null && root.findMember(projectName) instanceof IProject) {
+				unloadedProjects.add(projectName);
+			}
+		}
+
+		if (unloadedProjects.size() > 0) {
+			Job job = new Job(Activator.getFormattedMessage("AopReferenceModelPeristence.loadingAopReferenceModel")) {
+
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					loadProjects(monitor);
+					return Status.OK_STATUS;
+				}
+			};
+			job.setSystem(true);
+			job.setPriority(Job.DECORATE);
+			loadingJob = job;
+			job.schedule();
+		}
+	}
+
+	/**
+	 * Cancels the loading of the projects that haven't been accessed yet and waits for the project that is being
+	 * loaded; the files of the projects that haven't been loaded are kept.
+	 * @since 3.9.3
+	 */
+	public void cancelLoading() {
+		Job job = loadingJob;
+		if (job != null) {
+			job.cancel();
+			try {
+				job.join();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			loadingJob = null;
+		}
+	}
+
+	/**
+	 * Reads the model from the XML file written by previous versions; the file is replaced by the binary files on the
+	 * next save.
+	 */
+	private void loadLegacyReferenceModel() {
 		IAopReferenceModel model = Activator.getModel();
 		Reader reader = null;
 		try {
 			reader = new FileReader(defaultFile.toFile());
 			XMLMemento memento = XMLMemento.createReadRoot(reader);
 			createAopProjects(model, memento);
+			model.fireModelChanged();
 		}
 		catch (Exception e) {
 			Activator.log("Cannot load .state model file", e);
@@ -182,80 +302,439 @@ public class AopReferenceModelPeristence {
 		}
 	}
 
+	/**
+	 * Loads all persisted projects that haven't been accessed yet.
+	 */
+	private void loadProjects(IProgressMonitor monitor) {
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		for (String projectName : new ArrayList<String>(unloadedProjects)) {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			IResource member = root.findMember(projectName);
+			if (member instanceof IProject) {
+				// loads the references as a side effect
+				Activator.getModel().getProject(JavaCore.create((IProject) member));
+			}
+		}
+	}
+
+	/**
+	 * Adds the persisted references of the given project to it, if they haven't been loaded already.
+	 * <p>
+	 * The project stays registered as unloaded, so its file is kept on save until {@link #setLoaded(IJavaProject)}
+	 * is called once the project has been added to the model.
+	 * @return <code>true</code> if references have been loaded; the markers of the references still need to be
+	 * created
+	 * @since 3.9.3
+	 */
+	public synchronized boolean loadProject(IAopProject aopProject) {
+		String projectName = aopProject.getProject().getElementName();
+		if (!unloadedProjects.contains(projectName)) {
+			return false;
+		}
+
+		File file = getModelFile(projectName);
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != FORMAT_VERSION) {
+					// the file is replaced on the next save
+					unloadedProjects.remove(projectName);
+					return false;
+				}
+				String[] strings = new String[in.readInt()];
+				for (int i = 0; i < strings.length; i++) {
+					strings[i] = in.readUTF();
+				}
+
+				int definitionCount = in.readInt();
+				for (int i = 0; i < definitionCount; i++) {
+					IMemento definitionM = readElement(in, strings, ASPECT_DEFINITION_ELEMENT);
+					IAspectDefinition aspectDefinition = (IAspectDefinition) createElement(definitionM);
+					int referenceCount = in.readInt();
+					for (int j = 0; j < referenceCount; j++) {
+						IMemento referenceM = readElement(in, strings, AOP_REFERENCE_ELEMENT);
+						IAopReference aopReference = (IAopReference) createElement(referenceM);
+						// The aopReference can be null if the resource has been deleted or is an external
+						if (aspectDefinition != null && aopReference != null) {
+							aopReference.setDefinition(aspectDefinition);
+							aopProject.addAopReference(aopReference);
+						}
+					}
+				}
+			}
+			finally {
+				in.close();
+			}
+			return true;
+		}
+		catch (Exception e) {
+			Activator.log("Cannot load model file of project " + projectName, e);
+			unloadedProjects.remove(projectName);
+			file.delete();
+			return false;
+		}
+	}
+
+	/**
+	 * Marks the persisted references of the given project as loaded; from now on the project is saved with the model.
+	 * @since 3.9.3
+	 */
+	public void setLoaded(IJavaProject project) {
+		unloadedProjects.remove(project.getElementName());
+	}
+
+	/**
+	 * Forgets the persisted references of the given project.
+	 * @since 3.9.3
+	 */
+	public void removeProject(IJavaProject project) {
+		unloadedProjects.remove(project.getElementName());
+		getModelFile(project.getElementName()).delete();
+	}
+
+	/**
+	 * Forgets the persisted references of all projects.
+	 * @since 3.9.3
+	 */
+	public void removeProjects() {
+		unloadedProjects.clear();
+	}
+
 	private boolean shouldModelByPersisted() {
 		IScopeContext context = new InstanceScope();
 		IEclipsePreferences node = context.getNode(Activator.PLUGIN_ID);
 		return node.getBoolean(Activator.PERSIST_AOP_MODEL_PREFERENCE, true);
 	}
 
+	/**
+	 * Writes the references of all loaded projects; the files of projects that haven't been loaded are kept.
+	 */
 	protected synchronized void saveReferenceModel() {
+		if (isPersisted()) {
+			defaultFile.toFile().delete();
+		}
 		if (!shouldModelByPersisted()) {
-			if (isPersisted()) {
-				defaultFile.toFile().delete();
-			}
+			deleteModelFiles(Collections.<String> emptySet());
 			return;
 		}
 
-		XMLMemento memento = XMLMemento.createWriteRoot(AOP_REFERENCE_MODEL_ELEMENT);
+		modelDirectory.mkdirs();
+		Set<String> savedProjects = new HashSet<String>(unloadedProjects);
 		Collection<IAopProject> projects = Activator.getModel().getProjects();
 		for (IAopProject project : projects) {
-			IMemento projectM = appendNewChild(memento, AOP_PROJECT_ELEMENT);
-			projectM.putString(NAME_ATTRIBUTE, project.getProject().getElementName());
-
-			Set<IAopReference> refs = project.getAllReferences();
-			Map<IAspectDefinition, List<IAopReference>> maps = new HashMap<IAspectDefinition, List<IAopReference>>();
-			for (IAopReference ref : refs) {
-				if (maps.containsKey(ref.getDefinition())) {
-					maps.get(ref.getDefinition()).add(ref);
-				}
-				else {
-					List<IAopReference> r = new ArrayList<IAopReference>();
-					r.add(ref);
-					maps.put(ref.getDefinition(), r);
-				}
+			String projectName = project.getProject().getElementName();
+			if (saveProject(project)) {
+				savedProjects.add(projectName);
+			}
+		}
+		deleteModelFiles(savedProjects);
+	}
+
+	/**
+	 * Writes the references of the given project to its file.
+	 * @return <code>false</code> if the file couldn't be written
+	 */
+	boolean saveProject(IAopProject project) {
+		File file = getModelFile(project.getProject().getElementName());
+		Set<IAopReference> refs = project.getAllReferences();
+		Map<IAspectDefinition, List<IAopReference>> maps = new HashMap<IAspectDefinition, List<IAopReference>>();
+		for (IAopReference ref : refs) {
+			if (maps.containsKey(ref.getDefinition())) {
+				maps.get(ref.getDefinition()).add(ref);
+			}
+			else {
+				List<IAopReference> r = new ArrayList<IAopReference>();
+				r.add(ref);
+				maps.put(ref.getDefinition(), r);
 			}
+		}
 
+		try {
+			// write the content first to collect the strings of the string table
+			Map<String, Integer> strings = new HashMap<String, Integer>();
+			List<String> stringTable = new ArrayList<String>();
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream content = new DataOutputStream(bytes);
+			int definitionCount = 0;
 			for (Map.Entry<IAspectDefinition, List<IAopReference>> entry : maps.entrySet()) {
-				IMemento definitionM = appendNewChild(projectM, ASPECT_DEFINITION_ELEMENT);
-				if (entry.getKey() instanceof IAdaptable) {
-					IPersistableElement pers = (IPersistableElement) ((IAdaptable) entry.getKey())
-							.getAdapter(IPersistableElement.class);
-					if (pers != null) {
-						pers.saveState(definitionM);
-						definitionM.putString(FACTORY_ID, pers.getFactoryId());
-					}
-					for (IAopReference ref : entry.getValue()) {
-						if (ref instanceof IAdaptable) {
-							IPersistableElement pers2 = (IPersistableElement) ((IAdaptable) ref)
-									.getAdapter(IPersistableElement.class);
-							if (pers2 != null) {
-								IMemento refM = appendNewChild(definitionM, AOP_REFERENCE_ELEMENT);
-								pers2.saveState(refM);
-								refM.putString(FACTORY_ID, pers2.getFactoryId());
-							}
-						}
+				IMemento definitionM = saveElement(entry.getKey(), ASPECT_DEFINITION_ELEMENT);
+				if (definitionM == null) {
+					continue;
+				}
+				List<IMemento> referenceMs = new ArrayList<IMemento>();
+				for (IAopReference ref : entry.getValue()) {
+					IMemento referenceM = saveElement(ref, AOP_REFERENCE_ELEMENT);
+					if (referenceM != null) {
+						referenceMs.add(referenceM);
 					}
 				}
+				writeElement(content, definitionM, strings, stringTable);
+				content.writeInt(referenceMs.size());
+				for (IMemento referenceM : referenceMs) {
+					writeElement(content, referenceM, strings, stringTable);
+				}
+				definitionCount++;
+			}
+			content.close();
+
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			try {
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(stringTable.size());
+				for (String string : stringTable) {
+					out.writeUTF(string);
+				}
+				out.writeInt(definitionCount);
+				bytes.writeTo(out);
+			}
+			finally {
+				out.close();
 			}
+			return true;
+		}
+		catch (IOException e) {
+			Activator.log("Cannot save model file of project " + project.getProject().getElementName(), e);
+			file.delete();
+			return false;
 		}
+	}
+
+	private void deleteModelFiles(Set<String> keptProjects) {
+		File[] files = modelDirectory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			String projectName = getProjectName(file);
+			if (projectName == null || !keptProjects.contains(projectName)) {
+				file.delete();
+			}
+		}
+	}
 
-		// save memento to default map file
-		Writer writer = null;
+	File getModelFile(String projectName) {
 		try {
-			writer = new FileWriter(defaultFile.toFile());
-			memento.save(writer);
+			return new File(modelDirectory, URLEncoder.encode(projectName, ENCODING) + MODEL_FILE_EXTENSION);
 		}
-		catch (IOException e) {
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
 		}
-		finally {
-			if (writer != null) {
-				try {
-					writer.flush();
-					writer.close();
-				}
-				catch (IOException e) {
-				}
+	}
+
+	private static String getProjectName(File file) {
+		String name = file.getName();
+		if (!name.endsWith(MODEL_FILE_EXTENSION)) {
+			return null;
+		}
+		try {
+			return URLDecoder.decode(name.substring(0, name.length() - MODEL_FILE_EXTENSION.length()), ENCODING);
+		}
+		catch (UnsupportedEncodingException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Saves the state of the given aspect definition or reference to a memento of its own.
+	 * @return the memento or <code>null</code> if the element can't be persisted
+	 */
+	private IMemento saveElement(Object element, String type) {
+		if (element instanceof IAdaptable) {
+			IPersistableElement pers = (IPersistableElement) ((IAdaptable) element)
+					.getAdapter(IPersistableElement.class);
+			if (pers != null) {
+				IMemento elementM = new AttributeMemento(type);
+				pers.saveState(elementM);
+				elementM.putString(FACTORY_ID, pers.getFactoryId());
+				return elementM;
+			}
+		}
+		return null;
+	}
+
+	private Object createElement(IMemento elementM) {
+		IElementFactory factory = ELEMENT_FACTORIES.get(elementM.getString(FACTORY_ID));
+		return factory != null ? factory.createElement(elementM) : null;
+	}
+
+	/**
+	 * Writes the attributes of the given memento; values that are integers are written as such, all other values
+	 * and the keys as index into the string table.
+	 */
+	private void writeElement(DataOutputStream out, IMemento elementM, Map<String, Integer> strings,
+			List<String> stringTable) throws IOException {
+		String[] keys = elementM.getAttributeKeys();
+		out.writeInt(keys.length);
+		for (String key : keys) {
+			String value = elementM.getString(key);
+			out.writeInt(getStringIndex(key, strings, stringTable));
+			Integer intValue = toInteger(value);
+			if (intValue != null) {
+				out.writeByte(INTEGER_VALUE);
+				out.writeInt(intValue.intValue());
+			}
+			else {
+				out.writeByte(STRING_VALUE);
+				out.writeInt(getStringIndex(value, strings, stringTable));
+			}
+		}
+	}
+
+	private IMemento readElement(DataInputStream in, String[] strings, String type) throws IOException {
+		IMemento elementM = new AttributeMemento(type);
+		int attributeCount = in.readInt();
+		for (int i = 0; i < attributeCount; i++) {
+			String key = strings[in.readInt()];
+			if (in.readByte() == INTEGER_VALUE) {
+				elementM.putInteger(key, in.readInt());
+			}
+			else {
+				elementM.putString(key, strings[in.readInt()]);
+			}
+		}
+		return elementM;
+	}
+
+	private static int getStringIndex(String string, Map<String, Integer> strings, List<String> stringTable) {
+		Integer index = strings.get(string);
+		if (index == null) {
+			index = Integer.valueOf(stringTable.size());
+			strings.put(string, index);
+			stringTable.add(string);
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * Returns the given value as {@link Integer}, if it is written exactly the way the integer would be written.
+	 */
+	private static Integer toInteger(String value) {
+		if (value.length() == 0 || value.length() > 11) {
+			return null;
+		}
+		try {
+			Integer intValue = Integer.valueOf(value);
+			return intValue.toString().equals(value) ? intValue : null;
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Memento that holds the attributes of a single element only; aspect definitions and references neither have
+	 * children nor text data.
+	 */
+	private static class AttributeMemento implements IMemento {
+
+		private final String type;
+
+		private final Map<String, String> attributes = new LinkedHashMap<String, String>();
+
+		public AttributeMemento(String type) {
+			this.type = type;
+		}
+
+		public IMemento createChild(String type) {
+			throw new UnsupportedOperationException();
+		}
+
+		public IMemento createChild(String type, String id) {
+			throw new UnsupportedOperationException();
+		}
+
+		public IMemento getChild(String type) {
+			return null;
+		}
+
+		public IMemento[] getChildren() {
+			return new IMemento[0];
+		}
+
+		public IMemento[] getChildren(String type) {
+			return new IMemento[0];
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public String getID() {
+			return attributes.get(TAG_ID);
+		}
+
+		public String[] getAttributeKeys() {
+			return attributes.keySet().toArray(new String[attributes.size()]);
+		}
+
+		public String getString(String key) {
+			return attributes.get(key);
+		}
+
+		public Integer getInteger(String key) {
+			String value = attributes.get(key);
+			if (value == null) {
+				return null;
+			}
+			try {
+				return Integer.valueOf(value);
+			}
+			catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		public Float getFloat(String key) {
+			String value = attributes.get(key);
+			if (value == null) {
+				return null;
+			}
+			try {
+				return Float.valueOf(value);
+			}
+			catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		public Boolean getBoolean(String key) {
+			String value = attributes.get(key);
+			return value != null ? Boolean.valueOf(value) : null;
+		}
+
+		public String getTextData() {
+			return null;
+		}
+
+		public void putString(String key, String value) {
+			if (value != null) {
+				attributes.put(key, value);
+			}
+		}
+
+		public void putInteger(String key, int value) {
+			attributes.put(key, String.valueOf(value));
+		}
+
+		public void putFloat(String key, float value) {
+			attributes.put(key, String.valueOf(value));
+		}
+
+		public void putBoolean(String key, boolean value) {
+			attributes.put(key, String.valueOf(value));
+		}
+
+		public void putMemento(IMemento memento) {
+			for (String key : memento.getAttributeKeys()) {
+				putString(key, memento.getString(key));
 			}
 		}
+
+		public void putTextData(String data) {
+			throw new UnsupportedOperationException();
+		}
 	}
+
 }
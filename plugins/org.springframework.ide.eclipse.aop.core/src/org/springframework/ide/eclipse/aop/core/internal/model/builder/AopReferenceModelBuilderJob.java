@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 - 2013 Spring IDE Developers
+ * Copyright (c) 2007 - 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,12 +12,22 @@ package org.springframework.ide.eclipse.aop.core.internal.model.builder;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
@@ -63,12 +73,14 @@ import org.springframework.ide.eclipse.core.java.ClassUtils;
 import org.springframework.ide.eclipse.core.java.IProjectClassLoaderSupport;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Handles creation and modification of the {@link AopReferenceModel}.
  * @author Christian Dupuis
  * @author Torsten Juergeleit
  * @author Leo Dos Santos
+ * @author Martin Lippert
  * @since 2.0
  */
 public class AopReferenceModelBuilderJob extends Job {
@@ -85,19 +97,34 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	private static final String PROCESSING_TOOK_MSG = "Processing took";
 
+	private static final AtomicLong FULL_BUILDS = new AtomicLong();
+
+	private static final AtomicLong INCREMENTAL_BUILDS = new AtomicLong();
+
+	private static final AtomicLong CHECKED_PAIRS = new AtomicLong();
+
 	private final Set<IResource> affectedResources;
 
 	private final IProject project;
 
-	private Map<IFile, List<IAspectDefinition>> aspectDefinitionCache = null;
+	private MarkerModifyingJob markerJob = null;
 
-	private IProjectClassLoaderSupport classLoaderSupport;
+	private PointcutPreFilter pointcutPreFilter = null;
 
-	private MarkerModifyingJob markerJob = null;
+	/**
+	 * Names of the types that have been changed; the aspects implemented by these are matched against all beans.
+	 * <code>null</code> if the references of all beans are rebuilt
+	 */
+	private final Set<String> changedTypes;
 
-	private AspectDefinitionMatcher aspectDefinitionMatcher = null;
+	/** Ids of the beans whose references are rebuilt; <code>null</code> if the references of all beans are rebuilt */
+	private final Set<String> changedBeanIds;
 
-	private AspectDefinitionBuilderHelper aspectDefinitionBuilder;
+	/**
+	 * Ids of the beans that are matched against all aspects during the current build; <code>null</code> if all beans
+	 * are matched
+	 */
+	private Set<String> matchedBeanIds = null;
 
 	/**
 	 * Constructor to create a {@link AopReferenceModelBuilderJob} instance.
@@ -105,13 +132,29 @@ public class AopReferenceModelBuilderJob extends Job {
 	 */
 	public AopReferenceModelBuilderJob(IProject project, Set<IResource> affectedResources,
 			Set<IResource> originalResources) {
+		this(project, affectedResources, originalResources, null, null);
+	}
+
+	/**
+	 * Constructor to create a {@link AopReferenceModelBuilderJob} instance that only rebuilds the references of the
+	 * beans whose types have been changed, if the references of the other beans are known already.
+	 * @param affectedResources the set of resources that should be processed
+	 * @param changedTypes the fully qualified names of the changed types; the aspects implemented by these are matched
+	 * against all beans
+	 * @param changedBeanIds the element ids of the beans whose class hierarchy contains one of the changed types
+	 * @since 3.9.3
+	 */
+	public AopReferenceModelBuilderJob(IProject project, Set<IResource> affectedResources,
+			Set<IResource> originalResources, Set<String> changedTypes, Set<String> changedBeanIds) {
 		super(Activator.getFormattedMessage("AopReferenceModelProjectBuilder.buildingAopReferenceModel"));
 		this.affectedResources = affectedResources;
 		this.project = project;
+		this.changedTypes = changedTypes;
+		this.changedBeanIds = changedBeanIds;
 		// this.originalResources = originalResources;
 		setPriority(Job.BUILD);
-		// make sure that only one Job at a time runs but without blocking the UI
-		setRule(new BlockingOnSelfSchedulingRule());
+		// make sure that only one Job at a time runs per project but without blocking the UI
+		setRule(new BlockingOnSelfSchedulingRule(project));
 		setSystem(!SHOW_PROGRESS);
 		setProperty(IProgressConstants.ICON_PROPERTY, AopCoreImages.DESC_OBJS_ASPECT);
 	}
@@ -122,6 +165,13 @@ public class AopReferenceModelBuilderJob extends Job {
 	}
 
 	public boolean isCoveredBy(AopReferenceModelBuilderJob other) {
+		if (other.changedBeanIds != null) {
+			// an incremental build only covers the beans and types it rebuilds
+			if (this.changedBeanIds == null || !other.changedBeanIds.containsAll(this.changedBeanIds)
+					|| !other.changedTypes.containsAll(this.changedTypes)) {
+				return false;
+			}
+		}
 		if (other.affectedResources != null && this.affectedResources != null) {
 			for (IResource resource : affectedResources) {
 				if (!other.affectedResources.contains(resource)) {
@@ -170,347 +220,643 @@ public class AopReferenceModelBuilderJob extends Job {
 	}
 
 	/**
-	 * Builds AOP references for given {@link IBean} instances. Matches the given Aspect definition against the
-	 * {@link IBean}.
+	 * Handles the creation of the AOP reference model.
+	 * <p>
+	 * The affected files are built by a number of {@link BuildWorker}s in parallel; the calling thread is one of the
+	 * workers, so the build makes progress even if all threads of the shared pool are busy. The references that are
+	 * rebuilt are removed before the workers start.
+	 * @param monitor the progressMonitor
 	 */
-	private void buildAopReferencesForBean(final IBean bean, final IModelElement context, final IAspectDefinition info,
-			final IResource file, final IAopProject aopProject, IProgressMonitor monitor) {
+	protected void buildAopModel(IProgressMonitor monitor) {
+		AopLog.logStart(PROCESSING_TOOK_MSG);
+		AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage("AopReferenceModelBuilder.startBuildReferenceModel",
+				affectedResources.size()));
+
+		markerJob = new MarkerModifyingJob();
+		pointcutPreFilter = new PointcutPreFilter();
+
+		Set<IFile> filesToBuild = getFilesToBuild();
+		matchedBeanIds = canBuildIncrementally(filesToBuild) ? changedBeanIds : null;
+		if (matchedBeanIds != null) {
+			INCREMENTAL_BUILDS.incrementAndGet();
+		}
+		else {
+			FULL_BUILDS.incrementAndGet();
+		}
+		clearReferences(filesToBuild);
+
+		monitor.beginTask(Activator.getFormattedMessage("AopReferenceModelBuilder.startBuildingAopReferenceModel"),
+				filesToBuild.size());
+
+		Queue<IFile> files = new ConcurrentLinkedQueue<>(filesToBuild);
+
+		Map<IResource, IAopProject> processedProjects = new ConcurrentHashMap<>();
+		List<BuildWorker> workers = new ArrayList<>();
+		List<Future<?>> futures = new ArrayList<>();
 		try {
-			AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage(
-					"AopReferenceModelBuilder.processingBeanDefinition", bean, bean.getElementResource().getFullPath()));
+			ThreadPoolExecutor executor = Activator.getBuilderExecutor();
+			int workerCount = Math.min(files.size(), executor != null ? executor.getMaximumPoolSize() + 1 : 1);
+			for (int i = 1; i < workerCount; i++) {
+				BuildWorker worker = new BuildWorker(files, processedProjects, monitor);
+				try {
+					futures.add(executor.submit(worker));
+					workers.add(worker);
+				}
+				catch (RejectedExecutionException e) {
+					break;
+				}
+			}
 
-			// check if bean is abstract
-			if (bean.isAbstract()) {
-				return;
+			BuildWorker worker = new BuildWorker(files, processedProjects, monitor);
+			workers.add(worker);
+			try {
+				worker.run();
+			}
+			finally {
+				waitForWorkers(workers, futures);
 			}
 
-			final String className = BeansModelUtils.getBeanClass(bean, context);
-			// don't check advice backing bean itself
-			if (className != null && info.getAspectName() != null && info.getAspectName().equals(bean.getElementName())
-					&& info.getResource() != null && info.getResource().equals(bean.getElementResource())) {
-				AopLog.log(AopLog.BUILDER_MESSAGES, Activator.getFormattedMessage(
-						"AopReferenceModelBuilder.skippingBeanDefinition", bean));
-				return;
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
 			}
 
-			final IType jdtTargetType = JdtUtils.getJavaType(file.getProject(), className);
-			final IType jdtAspectType = JdtUtils.getJavaType(aopProject.getProject().getProject(), info
-					.getAspectClassName());
+			for (Map.Entry<IResource, IAopProject> entry : processedProjects.entrySet()) {
+				Set<IAopReference> references = entry.getValue().getAllReferences();
+				markerJob.addAopReference(entry.getKey(), references);
+			}
 
-			// check type not found and exclude factory beans
-			if (jdtTargetType == null || bean.isFactory()) {
-				AopLog.log(AopLog.BUILDER_MESSAGES, Activator.getFormattedMessage(
-						"AopReferenceModelBuilder.skippingFactoryBeanDefinition", bean));
-				return;
+			if (matchedBeanIds == null) {
+				// references restored from disk have been rebuilt, so the next build may be incremental
+				AopReferenceModel model = (AopReferenceModel) Activator.getModel();
+				for (IAopProject aopProject : processedProjects.values()) {
+					model.setBuilt(aopProject.getProject());
+				}
 			}
 
-			// do in context of active weaving class loader
-			this.classLoaderSupport.executeCallback(new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
-
-				public void doWithActiveProjectClassLoader() throws Throwable {
-					Class<?> targetClass = null;
-					// If the given file is from an external project (for example when one config imports another),
-					// then we need to resolve the class against the external project otherwise we may end up with
-					// bogus error markers from ClassNotFoundExceptions
-					// STS-2533: https://issuetracker.springsource.com/browse/STS-2533
-					if (project != null && project.equals(file.getProject())) {
-						targetClass = ClassUtils.loadClass(className);
-					} else {
-						ClassLoader loader = JdtUtils.getClassLoader(file.getProject(), null);
-						targetClass = ClassUtils.loadClass(className, loader);
-					}
+			AopLog.logEnd(AopLog.BUILDER, PROCESSING_TOOK_MSG);
+		}
+		finally {
+			for (BuildWorker worker : workers) {
+				worker.close();
+			}
+			if (DEBUG_BUILDER) {
+				if (matchedBeanIds != null) {
+					System.out.println(String.format("> rebuilt references of %s changed beans",
+							matchedBeanIds.size()));
+				}
+				System.out.println(String.format("> pointcut pre-filter skipped %s of %s aspect and bean pairs",
+						pointcutPreFilter.getSkippedCount(), pointcutPreFilter.getCheckedCount()));
+			}
+			// schedule marker update job
+			markerJob.schedule();
+		}
 
-					// handle introductions first
-					if (info instanceof BeanIntroductionDefinition) {
-						BeanIntroductionDefinition intro = (BeanIntroductionDefinition) info;
-						if (intro.getTypeMatcher().matches(targetClass)) {
-							IMember jdtAspectMember = null;
-							if (intro instanceof AnnotationIntroductionDefinition) {
-								String fieldName = ((AnnotationIntroductionDefinition) intro).getDefiningField();
-								jdtAspectMember = jdtAspectType.getField(fieldName);
-							}
-							else {
-								jdtAspectMember = jdtAspectType;
-							}
+	}
 
-							if (jdtAspectMember != null) {
-								IAopReference ref = new AopReference(info.getType(), jdtAspectMember, JdtUtils
-										.getLineNumber(jdtAspectMember), jdtTargetType, JdtUtils
-										.getLineNumber(jdtTargetType), info, file, bean);
-								aopProject.addAopReference(ref);
-							}
-						}
+	/**
+	 * Returns the affected files together with the configs that import one of them, directly or indirectly. The
+	 * aspects of an imported config are matched against the beans of the importing configs as well, and their
+	 * references are stored with the imported config.
+	 */
+	private Set<IFile> getFilesToBuild() {
+		Set<IFile> files = new LinkedHashSet<>();
+		for (IResource resource : affectedResources) {
+			if (resource instanceof IFile) {
+				files.add((IFile) resource);
+			}
+		}
+		boolean added = true;
+		while (added) {
+			added = false;
+			for (IBeansProject beansProject : BeansCorePlugin.getModel().getProjects()) {
+				for (IBeansConfig config : beansProject.getConfigs()) {
+					IResource file = config.getElementResource();
+					if (file instanceof IFile && !files.contains(file) && importsAny(config, files)) {
+						files.add((IFile) file);
+						added = true;
 					}
-					else if (info instanceof BeanAspectDefinition) {
-						IMethod jdtAspectMethod = null;
+				}
+			}
+		}
+		return files;
+	}
 
-						if (info instanceof JavaAdvisorDefinition) {
-							jdtAspectMethod = JdtUtils.getMethod(jdtAspectType, info.getAdviceMethodName(), info
-									.getAdviceMethodParameterTypes());
-						}
-						else {
-							// validate the aspect definition
-							if (info.getAdviceMethod() == null) {
-								return;
-							}
-							jdtAspectMethod = JdtUtils.getMethod(jdtAspectType, info.getAdviceMethodName(), info
-									.getAdviceMethod().getParameterTypes());
-						}
+	private boolean importsAny(IBeansConfig config, Set<IFile> files) {
+		for (IBeansImport beansImport : config.getImports()) {
+			for (IImportedBeansConfig importedConfig : beansImport.getImportedBeansConfigs()) {
+				if (files.contains(importedConfig.getElementResource()) || importsAny(importedConfig, files)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
 
-						if (jdtAspectMethod != null) {
-							// long start = System.currentTimeMillis();
-							Set<IMethod> matchingMethods = aspectDefinitionMatcher.matches(targetClass, bean, info,
-									aopProject.getProject().getProject());
-							for (IMethod method : matchingMethods) {
-								IAopReference ref = new AopReference(info.getType(), jdtAspectMethod, JdtUtils
-										.getLineNumber(jdtAspectMethod), method, JdtUtils.getLineNumber(method), info,
-										file, bean);
-								aopProject.addAopReference(ref);
-							}
-							// System.out.println(String.format("--- matching on '%s' took '%s'", targetClass, (System
-							// .currentTimeMillis() - start)));
-						}
+	/**
+	 * Returns <code>true</code> if only the references of the changed beans and of the aspects implemented by the
+	 * changed types need to be rebuilt. That is the case if the references of all affected projects are known already.
+	 * <p>
+	 * References restored from disk are not trusted, as the project might have changed since they were saved; projects
+	 * are built fully once after they have been restored.
+	 */
+	private boolean canBuildIncrementally(Set<IFile> files) {
+		if (changedBeanIds == null || changedTypes == null) {
+			return false;
+		}
+		AopReferenceModel model = (AopReferenceModel) Activator.getModel();
+		for (IFile file : files) {
+			IJavaProject javaProject = JdtUtils.getJavaProject(file.getProject());
+			if (javaProject == null || !model.containsProject(javaProject)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the references that are rebuilt before any of them gets added again: those of the changed beans and of
+	 * the aspects implemented by the changed types, or those of all aspect definitions of the given configs and of the
+	 * configs they import.
+	 */
+	private void clearReferences(Set<IFile> files) {
+		AopReferenceModel model = (AopReferenceModel) Activator.getModel();
+		Set<IAopProject> aopProjects = new HashSet<>();
+		Set<IResource> resources = new HashSet<>();
+		for (IFile file : files) {
+			IJavaProject javaProject = JdtUtils.getJavaProject(file.getProject());
+			IBeansProject beansProject = BeansCorePlugin.getModel().getProject(file.getProject());
+			IBeansConfig config = beansProject != null ? beansProject.getConfig(file, true) : null;
+			if (javaProject == null || config == null) {
+				continue;
+			}
+			IAopProject aopProject = model.getProjectWithInitialization(javaProject);
+			if (matchedBeanIds != null) {
+				if (aopProjects.add(aopProject)) {
+					for (String beanId : matchedBeanIds) {
+						aopProject.clearReferencesForBean(beanId);
 					}
+					aopProject.clearReferencesForAspects(changedTypes);
 				}
-			});
+			}
+			else {
+				resources.clear();
+				addConfigResources(config, resources);
+				for (IResource resource : resources) {
+					aopProject.clearReferencesForResource(resource);
+				}
+			}
 		}
-		catch (Throwable t) {
-			markerJob.addThrowableHolder(new ThrowableHolder(t, file, bean, info));
+	}
+
+	private void addConfigResources(IBeansConfig config, Set<IResource> resources) {
+		if (resources.add(config.getElementResource())) {
+			for (IBeansImport beansImport : config.getImports()) {
+				for (IImportedBeansConfig importedConfig : beansImport.getImportedBeansConfigs()) {
+					addConfigResources(importedConfig, resources);
+				}
+			}
 		}
 	}
 
-	private void buildAopReferencesForBeans(IModelElement config, IAspectDefinition info, IProgressMonitor monitor,
-			IResource file, IAopProject aopProject, Set<IBean> beans) {
+	/**
+	 * Waits until all workers that have been started are done; workers that haven't been started are dropped, as the
+	 * files have been built by the other workers already.
+	 */
+	private void waitForWorkers(List<BuildWorker> workers, List<Future<?>> futures) {
+		boolean interrupted = false;
+		for (int i = 0; i < futures.size(); i++) {
+			if (workers.get(i).claim()) {
+				continue;
+			}
+			while (true) {
+				try {
+					futures.get(i).get();
+					break;
+				}
+				catch (InterruptedException e) {
+					// the worker uses shared state of this job and needs to finish before the job does
+					interrupted = true;
+				}
+				catch (ExecutionException e) {
+					Activator.log(e.getCause());
+					break;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
 
-		monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferences"));
+	/**
+	 * Returns a snapshot of the statistics of all builds.
+	 * @since 3.9.3
+	 */
+	public static Statistics getStatistics() {
+		return new Statistics(FULL_BUILDS.get(), INCREMENTAL_BUILDS.get(), CHECKED_PAIRS.get());
+	}
 
-		for (IBean bean : beans) {
-			monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferencesForBean", bean
-					.getElementName(), bean.getElementResource().getFullPath()));
-			buildAopReferencesForBean(bean, config, info, file, aopProject, monitor);
+	/**
+	 * Resets the counters of the build statistics.
+	 * @since 3.9.3
+	 */
+	public static void resetStatistics() {
+		FULL_BUILDS.set(0);
+		INCREMENTAL_BUILDS.set(0);
+		CHECKED_PAIRS.set(0);
+	}
 
-			// Make sure that inner beans are handled as well
-			buildAopReferencesForBeans(config, info, monitor, file, aopProject, BeansModelUtils.getInnerBeans(bean));
-		}
+	/**
+	 * Template method to create a {@link IProjectClassLoaderSupport} instance.
+	 * <p>
+	 * This implementation simply calls {@link JdtUtils#getProjectClassLoaderSupport(IProject)}
+	 */
+	protected IProjectClassLoaderSupport createWeavingClassLoaderSupport() {
+		return JdtUtils.getProjectClassLoaderSupport(project, null);
 	}
 
-	private void buildAopReferencesForBeansConfig(IBeansConfig config, IAspectDefinition info, IProgressMonitor monitor) {
+	/**
+	 * Builds the AOP references of the beans configs it takes from a shared queue.
+	 * <p>
+	 * Every worker matches with its own {@link AspectDefinitionMatcher}, {@link IProjectClassLoaderSupport} and aspect
+	 * definitions, created on the thread of the worker, so the workers don't share any AspectJ state.
+	 * @since 3.9.3
+	 */
+	private class BuildWorker implements Runnable {
 
-		IResource file = config.getElementResource();
-		IJavaProject javaProject = JdtUtils.getJavaProject(file.getProject());
+		private final Queue<IFile> files;
 
-		if (javaProject != null) {
-			IAopProject aopProject = ((AopReferenceModel) Activator.getModel()).getProjectWithInitialization(javaProject);
+		private final Map<IResource, IAopProject> processedProjects;
 
-			Set<IBean> beans = new LinkedHashSet<>();
-			beans.addAll(config.getBeans());
+		private final IProgressMonitor monitor;
 
-			// add component registered beans
-			for (IBeansComponent component : config.getComponents()) {
-				addBeansFromComponent(component, beans);
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		private Map<IFile, List<IAspectDefinition>> aspectDefinitionCache = new HashMap<>();
+
+		private IProjectClassLoaderSupport classLoaderSupport;
+
+		private AspectDefinitionMatcher aspectDefinitionMatcher;
+
+		private AspectDefinitionBuilderHelper aspectDefinitionBuilder;
+
+		public BuildWorker(Queue<IFile> files, Map<IResource, IAopProject> processedProjects,
+				IProgressMonitor monitor) {
+			this.files = files;
+			this.processedProjects = processedProjects;
+			this.monitor = monitor;
+		}
+
+		/**
+		 * Returns <code>false</code> if the worker has been started already; otherwise it won't do anything once it
+		 * gets started.
+		 */
+		public boolean claim() {
+			return claimed.compareAndSet(false, true);
+		}
+
+		public void run() {
+			if (!claim()) {
+				return;
 			}
+			aspectDefinitionBuilder = new AspectDefinitionBuilderHelper();
+			classLoaderSupport = createWeavingClassLoaderSupport();
+			aspectDefinitionMatcher = new AspectDefinitionMatcher();
 
-			buildAopReferencesForBeans(config, info, monitor, file, aopProject, beans);
+			IFile currentFile = null;
+			while (!monitor.isCanceled() && (currentFile = files.poll()) != null) {
+				AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage(
+						"AopReferenceModelBuilder.buildingAopReferenceModel", currentFile.getFullPath().toString()));
+				subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferenceModel",
+						currentFile.getFullPath().toString()));
+
+				markerJob.addResource(currentFile);
+
+				try {
+					// do the actual aop matching
+					IAopProject aopProject = buildAopReferencesForFile(currentFile, monitor);
+
+					AopLog.log(AopLog.BUILDER_MESSAGES, Activator
+							.getFormattedMessage("AopReferenceModelBuilder.constructedAopReferenceModel"));
+
+					if (aopProject != null) {
+						processedProjects.put(currentFile, aopProject);
+					}
+				}
+				catch (RuntimeException e) {
+					Activator.log(e);
+				}
+
+				synchronized (monitor) {
+					monitor.worked(1);
+				}
+				AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage(
+						"AopReferenceModelBuilder.doneBuildingReferenceModel", currentFile.getFullPath().toString()));
+			}
 		}
-	}
 
-	private void addBeansFromComponent(IBeansComponent bc, Set<IBean> beans) {
-		Set<IBean> nestedBeans = bc.getBeans();
-		for (IBean nestedBean : nestedBeans) {
-			if (!nestedBean.isInfrastructure()) {
-				beans.add(nestedBean);
+		/**
+		 * Releases the resources of the worker; must not be called before the worker has finished running.
+		 */
+		public void close() {
+			if (aspectDefinitionBuilder != null) {
+				aspectDefinitionBuilder.close();
+			}
+			if (aspectDefinitionMatcher != null) {
+				aspectDefinitionMatcher.close();
 			}
 		}
 
-		for (IBeansComponent component : bc.getComponents()) {
-			addBeansFromComponent(component, beans);
+		private void subTask(String name) {
+			synchronized (monitor) {
+				monitor.subTask(name);
+			}
 		}
-	}
 
-	private IAopProject buildAopReferencesForFile(IFile currentFile, IProgressMonitor monitor) {
-		IAopProject aopProject = null;
-		IBeansProject project = BeansCorePlugin.getModel().getProject(currentFile.getProject());
+		/**
+		 * Builds AOP references for the given {@link IBean}. Matches the given aspect definition against the bean,
+		 * unless the bean can't be advised by it.
+		 */
+		private void buildAopReferencesForBean(final IBean bean, IModelElement context, final IAspectDefinition info,
+				final IResource file, final IAopProject aopProject) {
+			if (matchedBeanIds != null && !matchedBeanIds.contains(bean.getElementID())
+					&& !changedTypes.contains(info.getAspectClassName())) {
+				return;
+			}
+			CHECKED_PAIRS.incrementAndGet();
+			try {
+				AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage(
+						"AopReferenceModelBuilder.processingBeanDefinition", bean,
+						bean.getElementResource().getFullPath()));
 
-		if (project != null) {
-			IBeansConfig config = project.getConfig(currentFile, true);
-			IJavaProject javaProject = JdtUtils.getJavaProject(project.getProject());
+				// check if bean is abstract
+				if (bean.isAbstract()) {
+					return;
+				}
 
-			if (javaProject != null && config != null) {
+				final String className = BeansModelUtils.getBeanClass(bean, context);
+				// don't check advice backing bean itself
+				if (className != null && info.getAspectName() != null
+						&& info.getAspectName().equals(bean.getElementName())
+						&& info.getResource() != null && info.getResource().equals(bean.getElementResource())) {
+					AopLog.log(AopLog.BUILDER_MESSAGES, Activator.getFormattedMessage(
+							"AopReferenceModelBuilder.skippingBeanDefinition", bean));
+					return;
+				}
 
-				// long start = System.currentTimeMillis();
+				final IType jdtTargetType = JdtUtils.getJavaType(file.getProject(), className);
+				final IType jdtAspectType = JdtUtils.getJavaType(aopProject.getProject().getProject(), info
+						.getAspectClassName());
 
-				aopProject = ((AopReferenceModel) Activator.getModel()).getProjectWithInitialization(javaProject);
-				aopProject.clearReferencesForResource(currentFile);
+				// check type not found and exclude factory beans
+				if (jdtTargetType == null || bean.isFactory()) {
+					AopLog.log(AopLog.BUILDER_MESSAGES, Activator.getFormattedMessage(
+							"AopReferenceModelBuilder.skippingFactoryBeanDefinition", bean));
+					return;
+				}
 
-				// AopLog.log(AopLog.BUILDER_CLASSPATH, Activator.getFormattedMessage(
-				// "AopReferenceModelBuilder.aopBuilderClassPath", StringUtils.arrayToDelimitedString(
-				// ((URLClassLoader) classLoaderSupport.getProjectClassLoader()).getURLs(), ";")));
+				// don't load the class if the pointcut can't match it anyway
+				if (info instanceof BeanAspectDefinition
+						&& !pointcutPreFilter.mayMatch(info, file.getProject(), className)) {
+					return;
+				}
 
-				List<IAspectDefinition> aspectInfos = new ArrayList<>();
-				aspectInfos.addAll(buildAspectDefinitions(currentFile));
+				// do in context of active weaving class loader
+				classLoaderSupport.executeCallback(new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
+
+					public void doWithActiveProjectClassLoader() throws Throwable {
+						Class<?> targetClass = null;
+						// If the given file is from an external project (for example when one config imports another),
+						// then we need to resolve the class against the external project otherwise we may end up with
+						// bogus error markers from ClassNotFoundExceptions
+						// STS-2533: https://issuetracker.springsource.com/browse/STS-2533
+						if (project != null && project.equals(file.getProject())) {
+							targetClass = ClassUtils.loadClass(className);
+						} else {
+							ClassLoader loader = JdtUtils.getClassLoader(file.getProject(), null);
+							targetClass = ClassUtils.loadClass(className, loader);
+						}
 
-				addAspectInfosFromImport(config, aspectInfos);
+						// handle introductions first
+						if (info instanceof BeanIntroductionDefinition) {
+							BeanIntroductionDefinition intro = (BeanIntroductionDefinition) info;
+							if (intro.getTypeMatcher().matches(targetClass)) {
+								IMember jdtAspectMember = null;
+								if (intro instanceof AnnotationIntroductionDefinition) {
+									String fieldName = ((AnnotationIntroductionDefinition) intro).getDefiningField();
+									jdtAspectMember = jdtAspectType.getField(fieldName);
+								}
+								else {
+									jdtAspectMember = jdtAspectType;
+								}
+
+								if (jdtAspectMember != null) {
+									IAopReference ref = new AopReference(info.getType(), jdtAspectMember, JdtUtils
+											.getLineNumber(jdtAspectMember), jdtTargetType, JdtUtils
+											.getLineNumber(jdtTargetType), info, file, bean);
+									aopProject.addAopReference(ref);
+								}
+							}
+						}
+						else if (info instanceof BeanAspectDefinition) {
+							IMethod jdtAspectMethod = null;
 
-				// remove references for all definitions
-				for (IAspectDefinition info : aspectInfos) {
-					aopProject.clearReferencesForResource(info.getResource());
-				}
+							if (info instanceof JavaAdvisorDefinition) {
+								jdtAspectMethod = JdtUtils.getMethod(jdtAspectType, info.getAdviceMethodName(),
+										info.getAdviceMethodParameterTypes());
+							}
+							else {
+								// validate the aspect definition
+								if (info.getAdviceMethod() == null) {
+									return;
+								}
+								jdtAspectMethod = JdtUtils.getMethod(jdtAspectType, info.getAdviceMethodName(),
+										info.getAdviceMethod().getParameterTypes());
+							}
+
+							if (jdtAspectMethod != null) {
+								// long start = System.currentTimeMillis();
+								Set<IMethod> matchingMethods = aspectDefinitionMatcher.matches(targetClass, bean, info,
+										aopProject.getProject().getProject());
+								for (IMethod method : matchingMethods) {
+									IAopReference ref = new AopReference(info.getType(), jdtAspectMethod, JdtUtils
+											.getLineNumber(jdtAspectMethod), method, JdtUtils.getLineNumber(method),
+											info, file, bean);
+									aopProject.addAopReference(ref);
+								}
+								// System.out.println(String.format("--- matching on '%s' took '%s'", targetClass,
+								// (System.currentTimeMillis() - start)));
+							}
+						}
+					}
+				});
+			}
+			catch (Throwable t) {
+				markerJob.addThrowableHolder(new ThrowableHolder(t, file, bean, info));
+			}
+		}
 
-				// System.out.println(String.format("-- preparing aop model for file '%s' took '%s'", currentFile,
-				// (System
-				// .currentTimeMillis() - start)));
-				//
-				// start = System.currentTimeMillis();
+		private void buildAopReferencesForBeans(IModelElement config, IAspectDefinition info, IProgressMonitor monitor,
+				IResource file, IAopProject aopProject, Set<IBean> beans) {
 
-				for (IAspectDefinition info : aspectInfos) {
-					// build model for config
-					buildAopReferencesForBeansConfig(config, info, monitor);
+			subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferences"));
 
-					// build model for config sets
-					buildAopReferencesFromBeansConfigSets(project, config, info, monitor);
-				}
+			for (IBean bean : beans) {
+				subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferencesForBean", bean
+						.getElementName(), bean.getElementResource().getFullPath()));
+				buildAopReferencesForBean(bean, config, info, file, aopProject);
 
-				// System.out.println(String.format("-- building aop model for file '%s' took '%s'", currentFile,
-				// (System
-				// .currentTimeMillis() - start)));
+				// Make sure that inner beans are handled as well
+				buildAopReferencesForBeans(config, info, monitor, file, aopProject,
+						BeansModelUtils.getInnerBeans(bean));
 			}
 		}
-		return aopProject;
-	}
 
-	private void addAspectInfosFromImport(IBeansConfig config, List<IAspectDefinition> aspectInfos) {
-		for (IBeansImport beansImport : config.getImports()) {
-			for (IImportedBeansConfig importedConfig : beansImport.getImportedBeansConfigs()) {
-				if (importedConfig.getElementResource() instanceof IFile) {
-					aspectInfos.addAll(buildAspectDefinitions((IFile) importedConfig.getElementResource()));
-					addAspectInfosFromImport(importedConfig, aspectInfos);
+		private void buildAopReferencesForBeansConfig(IBeansConfig config, IAspectDefinition info,
+				IProgressMonitor monitor) {
+
+			IResource file = config.getElementResource();
+			IJavaProject javaProject = JdtUtils.getJavaProject(file.getProject());
+
+			if (javaProject != null) {
+				IAopProject aopProject = ((AopReferenceModel) Activator.getModel())
+						.getProjectWithInitialization(javaProject);
+
+				Set<IBean> beans = new LinkedHashSet<>();
+				beans.addAll(config.getBeans());
+
+				// add component registered beans
+				for (IBeansComponent component : config.getComponents()) {
+					addBeansFromComponent(component, beans);
 				}
+
+				buildAopReferencesForBeans(config, info, monitor, file, aopProject, beans);
 			}
 		}
-	}
 
-	/**
-	 * Iterates over the list of {@link IBeansConfigSet} to determine if the given <code>config</code> is part of a
-	 * certain config set and as such the {@link IAspectDefinition} need to be matched against the beans contained in
-	 * the config set.
-	 */
-	private void buildAopReferencesFromBeansConfigSets(IBeansProject project, IBeansConfig config,
-			IAspectDefinition info, IProgressMonitor monitor) {
-
-		Set<IBeansConfig> foundConfigs = new LinkedHashSet<>();
-		for (IBeansConfigSet configSet : project.getConfigSets()) {
-			if (configSet.getConfigs().contains(config)) {
-				Set<IBeansConfig> configs = configSet.getConfigs();
-				for (IBeansConfig configSetConfig : configs) {
-					if (!config.equals(configSetConfig)) {
-						foundConfigs.add(configSetConfig);
-					}
+		private void addBeansFromComponent(IBeansComponent bc, Set<IBean> beans) {
+			Set<IBean> nestedBeans = bc.getBeans();
+			for (IBean nestedBean : nestedBeans) {
+				if (!nestedBean.isInfrastructure()) {
+					beans.add(nestedBean);
 				}
 			}
-		}
-		for (IBeansConfig bc : foundConfigs) {
-			buildAopReferencesForBeansConfig(bc, info, monitor);
-		}
-	}
 
-	private List<IAspectDefinition> buildAspectDefinitions(IFile file) {
-		if (aspectDefinitionCache.containsKey(file)) {
-			return aspectDefinitionCache.get(file);
+			for (IBeansComponent component : bc.getComponents()) {
+				addBeansFromComponent(component, beans);
+			}
 		}
 
-		List<IAspectDefinition> definitions = aspectDefinitionBuilder.buildAspectDefinitions(file, classLoaderSupport);
-		aspectDefinitionCache.put(file, definitions);
-
-		return definitions;
-	}
+		private IAopProject buildAopReferencesForFile(IFile currentFile, IProgressMonitor monitor) {
+			IAopProject aopProject = null;
+			IBeansProject project = BeansCorePlugin.getModel().getProject(currentFile.getProject());
 
-	/**
-	 * Handles the creation of the AOP reference model
-	 * @param monitor the progressMonitor
-	 * @param filesToBuild the files to build the model from
-	 */
-	protected void buildAopModel(IProgressMonitor monitor) {
-		AopLog.logStart(PROCESSING_TOOK_MSG);
-		AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage("AopReferenceModelBuilder.startBuildReferenceModel",
-				affectedResources.size()));
+			if (project != null) {
+				IBeansConfig config = project.getConfig(currentFile, true);
+				IJavaProject javaProject = JdtUtils.getJavaProject(project.getProject());
 
-		markerJob = new MarkerModifyingJob();
-		aspectDefinitionMatcher = new AspectDefinitionMatcher();
-		aspectDefinitionCache = new HashMap<>();
-		aspectDefinitionBuilder = new AspectDefinitionBuilderHelper();
-		classLoaderSupport = createWeavingClassLoaderSupport();
+				if (javaProject != null && config != null) {
 
-		monitor.beginTask(Activator.getFormattedMessage("AopReferenceModelBuilder.startBuildingAopReferenceModel"),
-				affectedResources.size());
+					// long start = System.currentTimeMillis();
 
-		Map<IResource, IAopProject> processedProjects = new HashMap<>();
-		try {
-			for (IResource currentResource : affectedResources) {
-				if (currentResource instanceof IFile) {
-					IFile currentFile = (IFile) currentResource;
+					aopProject = ((AopReferenceModel) Activator.getModel()).getProjectWithInitialization(javaProject);
 
-					if (monitor.isCanceled()) {
-						throw new OperationCanceledException();
-					}
+					// AopLog.log(AopLog.BUILDER_CLASSPATH, Activator.getFormattedMessage(
+					// "AopReferenceModelBuilder.aopBuilderClassPath", StringUtils.arrayToDelimitedString(
+					// ((URLClassLoader) classLoaderSupport.getProjectClassLoader()).getURLs(), ";")));
 
-					AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage(
-							"AopReferenceModelBuilder.buildingAopReferenceModel", currentFile.getFullPath().toString()));
-					monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferenceModel",
-							currentFile.getFullPath().toString()));
+					List<IAspectDefinition> aspectInfos = new ArrayList<>();
+					aspectInfos.addAll(buildAspectDefinitions(currentFile));
 
-					markerJob.addResource(currentFile);
+					addAspectInfosFromImport(config, aspectInfos);
 
-					// do the actual aop matching
-					IAopProject aopProject = buildAopReferencesForFile(currentFile, monitor);
+					// System.out.println(String.format("-- preparing aop model for file '%s' took '%s'", currentFile,
+					// (System
+					// .currentTimeMillis() - start)));
+					//
+					// start = System.currentTimeMillis();
 
-					AopLog.log(AopLog.BUILDER_MESSAGES, Activator
-							.getFormattedMessage("AopReferenceModelBuilder.constructedAopReferenceModel"));
+					for (IAspectDefinition info : aspectInfos) {
+						// build model for config
+						buildAopReferencesForBeansConfig(config, info, monitor);
 
-					if (aopProject != null) {
-						processedProjects.put(currentFile, aopProject);
+						// build model for config sets
+						buildAopReferencesFromBeansConfigSets(project, config, info, monitor);
 					}
 
-					monitor.worked(1);
-					AopLog.log(AopLog.BUILDER, Activator
-							.getFormattedMessage("AopReferenceModelBuilder.doneBuildingReferenceModel", currentFile
-									.getFullPath().toString()));
-
+					// System.out.println(String.format("-- building aop model for file '%s' took '%s'", currentFile,
+					// (System
+					// .currentTimeMillis() - start)));
 				}
 			}
+			return aopProject;
+		}
 
-			for (Map.Entry<IResource, IAopProject> entry : processedProjects.entrySet()) {
-				Set<IAopReference> references = entry.getValue().getAllReferences();
-				markerJob.addAopReference(entry.getKey(), references);
+		private void addAspectInfosFromImport(IBeansConfig config, List<IAspectDefinition> aspectInfos) {
+			for (IBeansImport beansImport : config.getImports()) {
+				for (IImportedBeansConfig importedConfig : beansImport.getImportedBeansConfigs()) {
+					if (importedConfig.getElementResource() instanceof IFile) {
+						aspectInfos.addAll(buildAspectDefinitions((IFile) importedConfig.getElementResource()));
+						addAspectInfosFromImport(importedConfig, aspectInfos);
+					}
+				}
 			}
-
-			AopLog.logEnd(AopLog.BUILDER, PROCESSING_TOOK_MSG);
 		}
-		finally {
-			aspectDefinitionMatcher.close();
-			aspectDefinitionBuilder.close();
-			// schedule marker update job
-			markerJob.schedule();
+
+		/**
+		 * Iterates over the list of {@link IBeansConfigSet} to determine if the given <code>config</code> is part of a
+		 * certain config set and as such the {@link IAspectDefinition} need to be matched against the beans contained
+		 * in the config set.
+		 */
+		private void buildAopReferencesFromBeansConfigSets(IBeansProject project, IBeansConfig config,
+				IAspectDefinition info, IProgressMonitor monitor) {
+
+			Set<IBeansConfig> foundConfigs = new LinkedHashSet<>();
+			for (IBeansConfigSet configSet : project.getConfigSets()) {
+				if (configSet.getConfigs().contains(config)) {
+					Set<IBeansConfig> configs = configSet.getConfigs();
+					for (IBeansConfig configSetConfig : configs) {
+						if (!config.equals(configSetConfig)) {
+							foundConfigs.add(configSetConfig);
+						}
+					}
+				}
+			}
+			for (IBeansConfig bc : foundConfigs) {
+				buildAopReferencesForBeansConfig(bc, info, monitor);
+			}
 		}
 
-	}
+		private List<IAspectDefinition> buildAspectDefinitions(IFile file) {
+			if (aspectDefinitionCache.containsKey(file)) {
+				return aspectDefinitionCache.get(file);
+			}
 
-	/**
-	 * Template method to create a {@link IProjectClassLoaderSupport} instance.
-	 * <p>
-	 * This implementation simply calls {@link JdtUtils#getProjectClassLoaderSupport(IProject)}
-	 */
-	protected IProjectClassLoaderSupport createWeavingClassLoaderSupport() {
-		return JdtUtils.getProjectClassLoaderSupport(project, null);
+			List<IAspectDefinition> definitions = aspectDefinitionBuilder.buildAspectDefinitions(file,
+					classLoaderSupport);
+			aspectDefinitionCache.put(file, definitions);
+
+			return definitions;
+		}
 	}
 
+
 	/**
-	 * {@link ISchedulingRule} implementation that always conflicts with other {@link BlockingOnSelfSchedulingRule}s.
+	 * {@link ISchedulingRule} implementation that conflicts with other {@link BlockingOnSelfSchedulingRule}s of the
+	 * same project.
 	 * <p>
-	 * This rule prevents that at no time more than one job with this scheduling rule attached runs.
+	 * This rule prevents that at no time more than one job with this scheduling rule attached runs for a project,
+	 * while the AOP reference models of different projects are built in parallel.
 	 * @since 2.0.4
 	 */
 	private class BlockingOnSelfSchedulingRule implements ISchedulingRule {
 
+		private final IProject project;
+
+		public BlockingOnSelfSchedulingRule(IProject project) {
+			this.project = project;
+		}
+
 		/**
 		 * Always returns <code>false</code>.
 		 */
@@ -519,10 +865,12 @@ public class AopReferenceModelBuilderJob extends Job {
 		}
 
 		/**
-		 * Returns <code>true</code> if <code>rule</code> is of type {@link BlockingOnSelfSchedulingRule}.
+		 * Returns <code>true</code> if <code>rule</code> is of type {@link BlockingOnSelfSchedulingRule} and for the
+		 * same project.
 		 */
 		public boolean isConflicting(ISchedulingRule rule) {
-			return rule instanceof BlockingOnSelfSchedulingRule;
+			return rule instanceof BlockingOnSelfSchedulingRule
+					&& ObjectUtils.nullSafeEquals(project, ((BlockingOnSelfSchedulingRule) rule).project);
 		}
 	}
 
@@ -535,11 +883,13 @@ public class AopReferenceModelBuilderJob extends Job {
 	 */
 	private class MarkerModifyingJob extends Job {
 
-		private Map<IResource, List<IAopReference>> references = new HashMap<>();
+		// filled by concurrent build workers
+		private Map<IResource, List<IAopReference>> references = new ConcurrentHashMap<>();
 
-		private Set<IResource> resources = new HashSet<>();
+		private Set<IResource> resources = Collections.newSetFromMap(new ConcurrentHashMap<IResource, Boolean>());
 
-		private Set<ThrowableHolder> throwables = new HashSet<>();
+		private Set<ThrowableHolder> throwables = Collections
+				.newSetFromMap(new ConcurrentHashMap<ThrowableHolder, Boolean>());
 
 		public MarkerModifyingJob() {
 			super("Creating AOP reference model markers");
@@ -581,7 +931,7 @@ public class AopReferenceModelBuilderJob extends Job {
 				AopReferenceModelMarkerUtils.createProblemMarker(info.getResource(), Activator.getFormattedMessage(
 						"AopReferenceModelBuilder.pointcutIsMalformed", t.getMessage()), IMarker.SEVERITY_WARNING, info
 						.getAspectStartLineNumber(), AopReferenceModelMarkerUtils.AOP_PROBLEM_MARKER, info
-						.getResource());
+						.getResource(), bean.getElementID(), info.getAspectClassName());
 			}
 			else if (t instanceof InvocationTargetException || t instanceof RuntimeException) {
 				AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage(
@@ -594,7 +944,8 @@ public class AopReferenceModelBuilderJob extends Job {
 					AopReferenceModelMarkerUtils.createProblemMarker(file, Activator.getFormattedMessage(
 							"AopReferenceModelBuilder.exceptionFromReflection", t.getMessage()),
 							IMarker.SEVERITY_WARNING, info.getAspectStartLineNumber(),
-							AopReferenceModelMarkerUtils.AOP_PROBLEM_MARKER, file);
+							AopReferenceModelMarkerUtils.AOP_PROBLEM_MARKER, file, bean.getElementID(),
+							info.getAspectClassName());
 				}
 			}
 			else {
@@ -603,7 +954,8 @@ public class AopReferenceModelBuilderJob extends Job {
 				Activator.log(t);
 				AopReferenceModelMarkerUtils.createProblemMarker(file, Activator.getFormattedMessage(
 						"AopReferenceModelBuilder.exception", t.getMessage()), IMarker.SEVERITY_WARNING, info
-						.getAspectStartLineNumber(), AopReferenceModelMarkerUtils.AOP_PROBLEM_MARKER, file);
+						.getAspectStartLineNumber(), AopReferenceModelMarkerUtils.AOP_PROBLEM_MARKER, file, bean
+						.getElementID(), info.getAspectClassName());
 			}
 		}
 
@@ -616,7 +968,8 @@ public class AopReferenceModelBuilderJob extends Job {
 				for (IResource currentFile : resources) {
 					monitor.beginTask("Creating AOP reference model markers for file ["
 							+ currentFile.getFullPath().toString() + "]", IProgressMonitor.UNKNOWN);
-					AopReferenceModelMarkerUtils.deleteProblemMarkers(currentFile);
+					// an incremental build keeps the problem markers of the beans it doesn't rebuild
+					AopReferenceModelMarkerUtils.deleteProblemMarkers(currentFile, matchedBeanIds, changedTypes);
 					AopLog.log(AopLog.BUILDER_MESSAGES, Activator.getFormattedMessage(
 							"AopReferenceModelBuilder.deletedProblemMarkers", currentFile.getFullPath().toString()));
 					// could be that no references have been recorded as the problem during pc matching occurred
@@ -691,4 +1044,43 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	}
 
+	/**
+	 * Immutable snapshot of the statistics of the {@link AopReferenceModelBuilderJob}s.
+	 * @since 3.9.3
+	 */
+	public static class Statistics {
+
+		private final long fullBuilds;
+		private final long incrementalBuilds;
+		private final long checkedPairs;
+
+		public Statistics(long fullBuilds, long incrementalBuilds, long checkedPairs) {
+			this.fullBuilds = fullBuilds;
+			this.incrementalBuilds = incrementalBuilds;
+			this.checkedPairs = checkedPairs;
+		}
+
+		public long getFullBuilds() {
+			return fullBuilds;
+		}
+
+		public long getIncrementalBuilds() {
+			return incrementalBuilds;
+		}
+
+		/**
+		 * Returns the number of aspect definition and bean pairs that have been considered for matching, including
+		 * those ruled out by the {@link PointcutPreFilter}.
+		 */
+		public long getCheckedPairs() {
+			return checkedPairs;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("full builds: %s, incremental builds: %s, checked pairs: %s", fullBuilds,
+					incrementalBuilds, checkedPairs);
+		}
+	}
+
 }
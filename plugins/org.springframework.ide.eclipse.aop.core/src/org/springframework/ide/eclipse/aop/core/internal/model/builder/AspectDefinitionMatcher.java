@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -51,14 +51,38 @@ import org.springframework.util.ReflectionUtils;
  * Uses Spring AOP's {@link AspectJExpressionPointcut} infrastructure to determine matches.
  * <p>
  * With Spring 2.5 this class supports the bean pointcut primitive as well.
+ * <p>
+ * Every matcher parses its pointcuts into AspectJ worlds of its own, so that different matchers can be used by
+ * different threads at the same time. A matcher itself must not be used concurrently and needs to be closed once it
+ * is not used anymore.
  * @author Christian Dupuis
+ * @author Martin Lippert
  * @since 2.0
  */
 public class AspectDefinitionMatcher {
 
+	/**
+	 * Guards {@link #openMatchers} and {@link #usedResolvedTypeClasses}; the AspectJ weaver is loaded once for all
+	 * projects, so its static primitive types are shared by the worlds of all matchers
+	 */
+	private static final Object PRIMITIVES_LOCK = new Object();
+
+	private static int openMatchers = 0;
+
+	/** AspectJ <code>ResolvedType</code> classes whose primitives are reset once no matcher is open anymore */
+	private static final Set<Class<?>> usedResolvedTypeClasses = new HashSet<Class<?>>();
+
 	/** Internal cache to used with {@link AspectJExpressionPointcut} */
 	private Map<IAspectDefinition, Object> pointcutExpressionCache = new HashMap<IAspectDefinition, Object>();
 
+	private boolean closed = false;
+
+	public AspectDefinitionMatcher() {
+		synchronized (PRIMITIVES_LOCK) {
+			openMatchers++;
+		}
+	}
+
 	/**
 	 * Returns all matches on {@link Method} in form of the corresponding {@link IMethod}.
 	 * @param targetClass the target class to check for a match
@@ -100,23 +124,44 @@ public class AspectDefinitionMatcher {
 		return matches;
 	}
 
+	/**
+	 * Releases the pointcuts of this matcher. The static primitive types of AspectJ reference the world they have been
+	 * resolved in last; they are reset once the last open matcher is closed, as other matchers might still use them.
+	 */
 	public void close() {
+		Set<Class<?>> resolvedTypeClasses = new HashSet<Class<?>>();
 		for (Object pce : pointcutExpressionCache.values()) {
 			Field field = ReflectionUtils.findField(pce.getClass(), "shadowMatchCache");
 			field.setAccessible(true);
 			Map<?, ?> shadowMatchCache = (Map<?, ?>) ReflectionUtils.getField(field, pce);
 
 			try {
-				Class<?> resolvedTypeClass = pce.getClass().getClassLoader().loadClass(
-						"org.aspectj.weaver.ResolvedType");
-				Method resetPrimitivesMethod = resolvedTypeClass.getMethod("resetPrimitives");
-				resetPrimitivesMethod.invoke(resolvedTypeClass);
+				resolvedTypeClasses.add(pce.getClass().getClassLoader().loadClass("org.aspectj.weaver.ResolvedType"));
 			}
 			catch (Exception e) {
 			}
 			shadowMatchCache.clear();
 		}
 		pointcutExpressionCache.clear();
+
+		synchronized (PRIMITIVES_LOCK) {
+			usedResolvedTypeClasses.addAll(resolvedTypeClasses);
+			if (!closed) {
+				closed = true;
+				openMatchers--;
+			}
+			if (openMatchers == 0) {
+				for (Class<?> resolvedTypeClass : usedResolvedTypeClasses) {
+					try {
+						Method resetPrimitivesMethod = resolvedTypeClass.getMethod("resetPrimitives");
+						resetPrimitivesMethod.invoke(resolvedTypeClass);
+					}
+					catch (Exception e) {
+					}
+				}
+				usedResolvedTypeClasses.clear();
+			}
+		}
 	}
 
 	/**
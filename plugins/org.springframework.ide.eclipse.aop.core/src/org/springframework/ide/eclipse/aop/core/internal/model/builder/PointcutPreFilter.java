@@ -0,0 +1,431 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.ide.eclipse.aop.core.model.IAspectDefinition;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.SpringCoreUtils;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+
+/**
+ * Decides before the bean class is loaded whether the pointcut expression of an {@link IAspectDefinition} can match
+ * a bean class at all.
+ * <p>
+ * The decision is based on the names of the bean class and all its supertypes as read from the class files by the
+ * {@link TypeHierarchyEngine} and on the annotations of these types and their methods in the JDT model. Only the
+ * <code>within</code>, <code>execution</code>, <code>target</code>, <code>@within</code>, <code>@target</code> and
+ * <code>@annotation</code> primitives with fully qualified types are evaluated, combined with <code>&&</code> and
+ * <code>||</code>. Every other construct (negations, named pointcuts, unqualified or bound types, ...) and every type
+ * that can't be found is assumed to match, so a bean is only skipped if AspectJ wouldn't match any of its methods
+ * either.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class PointcutPreFilter {
+
+	/**
+	 * System property to disable the pre-filter, defaults to <code>true</code>.
+	 */
+	public static final String ENABLE_PROPERTY =
+			"org.springframework.ide.eclipse.aop.core.model.builder.enablePointcutPreFilter";
+
+	private static final String OBJECT_CLASS_NAME = Object.class.getName();
+
+	/** Fully qualified type pattern; package names are expected to start with a lower case letter */
+	private static final Pattern TYPE_PATTERN = Pattern.compile("[a-z_*][\\w$*]*(\\.\\.?[\\w$*]+)*(\\.\\.)?");
+
+	private static final Pattern TYPE_NAME = Pattern.compile("[a-z_][\\w$]*(\\.[\\w$]+)+");
+
+	/** Marks types whose hierarchy can't be determined */
+	private static final Set<String> UNKNOWN_HIERARCHY = Collections.emptySet();
+
+	private final boolean enabled;
+
+	private final Map<String, Set<String>> hierarchies = new ConcurrentHashMap<String, Set<String>>();
+
+	private final Map<String, Pattern> typePatterns = new ConcurrentHashMap<String, Pattern>();
+
+	private final AtomicLong checkedCount = new AtomicLong();
+
+	private final AtomicLong skippedCount = new AtomicLong();
+
+	public PointcutPreFilter() {
+		this.enabled = System.getProperty(ENABLE_PROPERTY, "true").equals("true")
+				&& System.getProperty(TypeHierarchyEngine.ENABLE_PROPERTY, "true").equals("true");
+	}
+
+	/**
+	 * Returns <code>false</code> if the pointcut of the given aspect definition can't match any method of the given
+	 * class.
+	 * @param info the aspect definition
+	 * @param project the project to resolve the class and its supertypes in
+	 * @param className the fully qualified name of the bean class
+	 */
+	public boolean mayMatch(IAspectDefinition info, IProject project, String className) {
+		String expression = info.getPointcutExpression();
+		if (!enabled || expression == null || SpringCoreUtils.hasPlaceHolder(expression)) {
+			return true;
+		}
+
+		checkedCount.incrementAndGet();
+		boolean mayMatch = true;
+		try {
+			mayMatch = mayMatch(replaceBooleanOperators(expression), new Target(project, className));
+		}
+		catch (IllegalArgumentException e) {
+			// expression not understood; leave it to AspectJ
+		}
+		if (!mayMatch) {
+			skippedCount.incrementAndGet();
+		}
+		return mayMatch;
+	}
+
+	/**
+	 * Returns the number of aspect definition and bean pairs that have been checked.
+	 */
+	public long getCheckedCount() {
+		return checkedCount.get();
+	}
+
+	/**
+	 * Returns the number of aspect definition and bean pairs that have been ruled out.
+	 */
+	public long getSkippedCount() {
+		return skippedCount.get();
+	}
+
+	private boolean mayMatch(String expression, Target target) {
+		String expr = stripParentheses(expression.trim());
+
+		List<String> alternatives = split(expr, "||");
+		if (alternatives.size() > 1) {
+			for (String alternative : alternatives) {
+				if (mayMatch(alternative, target)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		List<String> conditions = split(expr, "&&");
+		if (conditions.size() > 1) {
+			for (String condition : conditions) {
+				if (!mayMatch(condition, target)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		return primitiveMayMatch(expr, target);
+	}
+
+	private boolean primitiveMayMatch(String expr, Target target) {
+		int open = expr.indexOf('(');
+		if (open <= 0 || findClosingParenthesis(expr, open) != expr.length() - 1) {
+			return true;
+		}
+		String designator = expr.substring(0, open).trim();
+		String argument = expr.substring(open + 1, expr.length() - 1).trim();
+
+		if ("within".equals(designator)) {
+			return typePatternMayMatch(argument, target, true);
+		}
+		else if ("execution".equals(designator)) {
+			return typePatternMayMatch(getDeclaringTypePattern(argument), target, false);
+		}
+		else if ("target".equals(designator)) {
+			return !TYPE_NAME.matcher(argument).matches() || target.isSubtypeOf(argument);
+		}
+		else if ("@within".equals(designator) || "@target".equals(designator)) {
+			return !TYPE_NAME.matcher(argument).matches() || target.isAnnotatedWith(argument, false);
+		}
+		else if ("@annotation".equals(designator)) {
+			return !TYPE_NAME.matcher(argument).matches() || target.isAnnotatedWith(argument, true);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given type pattern matches the target type or one of its supertypes. Because of
+	 * the latter the <code>+</code> suffix of a type pattern doesn't need to be evaluated.
+	 * @param includeEnclosingTypes whether the pattern may match the enclosing types of nested types as well, as
+	 * <code>within</code> does for the code that is lexically nested in a matching type
+	 */
+	private boolean typePatternMayMatch(String typePattern, Target target, boolean includeEnclosingTypes) {
+		if (typePattern == null) {
+			return true;
+		}
+		String pattern = typePattern.endsWith("+") ? typePattern.substring(0, typePattern.length() - 1) : typePattern;
+		if (pattern.indexOf('.') == -1 || !TYPE_PATTERN.matcher(pattern).matches()) {
+			return true;
+		}
+
+		Set<String> hierarchy = target.getHierarchy();
+		if (hierarchy == UNKNOWN_HIERARCHY) {
+			return true;
+		}
+		Pattern regex = getTypePattern(pattern);
+		for (String typeName : hierarchy) {
+			if (typeNameMatches(regex, typeName)) {
+				return true;
+			}
+			if (includeEnclosingTypes) {
+				for (int ix = typeName.lastIndexOf('$'); ix > 0; ix = typeName.lastIndexOf('$', ix - 1)) {
+					if (typeNameMatches(regex, typeName.substring(0, ix))) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean typeNameMatches(Pattern regex, String typeName) {
+		return regex.matcher(typeName).matches() || regex.matcher(typeName.replace('$', '.')).matches();
+	}
+
+	private Pattern getTypePattern(String pattern) {
+		Pattern regex = typePatterns.get(pattern);
+		if (regex == null) {
+			StringBuilder buf = new StringBuilder();
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = pattern.charAt(i);
+				if (c == '.' && pattern.startsWith("..", i)) {
+					// any number of packages (or none at the end of the pattern)
+					buf.append(i + 2 == pattern.length() ? "(\\..*)?" : "\\.(.*\\.)?");
+					i++;
+				}
+				else if (c == '.') {
+					buf.append("\\.");
+				}
+				else if (c == '*') {
+					buf.append("[^.]*");
+				}
+				else if (c == '$') {
+					buf.append("\\$");
+				}
+				else {
+					buf.append(c);
+				}
+			}
+			regex = Pattern.compile(buf.toString());
+			typePatterns.put(pattern, regex);
+		}
+		return regex;
+	}
+
+	/**
+	 * Returns the declaring type pattern of the given method execution signature pattern or <code>null</code> if the
+	 * signature doesn't restrict the declaring type.
+	 */
+	private static String getDeclaringTypePattern(String signature) {
+		int parameters = signature.indexOf('(');
+		if (parameters == -1) {
+			throw new IllegalArgumentException(signature);
+		}
+		String[] tokens = signature.substring(0, parameters).trim().split("\\s+");
+		String name = tokens[tokens.length - 1];
+		int ix = name.lastIndexOf('.');
+		if (ix <= 0 || tokens.length < 2) {
+			return null;
+		}
+		if (name.charAt(ix - 1) == '.') {
+			// declaring type pattern ends with '..'
+			return name.substring(0, ix + 1);
+		}
+		return name.substring(0, ix);
+	}
+
+	private static String replaceBooleanOperators(String expression) {
+		String result = expression.replace(" and ", " && ");
+		result = result.replace(" or ", " || ");
+		return result.replace(" not ", " ! ");
+	}
+
+	private static String stripParentheses(String expr) {
+		while (expr.startsWith("(") && findClosingParenthesis(expr, 0) == expr.length() - 1) {
+			expr = expr.substring(1, expr.length() - 1).trim();
+		}
+		return expr;
+	}
+
+	private static int findClosingParenthesis(String expr, int open) {
+		int depth = 0;
+		for (int i = open; i < expr.length(); i++) {
+			char c = expr.charAt(i);
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')' && --depth == 0) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException(expr);
+	}
+
+	/**
+	 * Splits the given expression at the given operator, ignoring operators within parentheses.
+	 */
+	private static List<String> split(String expr, String operator) {
+		List<String> parts = new ArrayList<String>();
+		int depth = 0;
+		int start = 0;
+		for (int i = 0; i < expr.length(); i++) {
+			char c = expr.charAt(i);
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+			}
+			else if (depth == 0 && expr.startsWith(operator, i)) {
+				parts.add(expr.substring(start, i));
+				start = i + operator.length();
+				i = start - 1;
+			}
+		}
+		if (depth != 0) {
+			throw new IllegalArgumentException(expr);
+		}
+		parts.add(expr.substring(start));
+		return parts;
+	}
+
+	/**
+	 * The bean class a pointcut is checked against.
+	 */
+	private class Target {
+
+		private final IProject project;
+
+		private final String className;
+
+		public Target(IProject project, String className) {
+			this.project = project;
+			this.className = className;
+		}
+
+		/**
+		 * Returns the names of the class and all its superclasses and interfaces or {@link #UNKNOWN_HIERARCHY} if one
+		 * of them can't be found.
+		 */
+		public Set<String> getHierarchy() {
+			String key = project.getName() + '/' + className;
+			Set<String> hierarchy = hierarchies.get(key);
+			if (hierarchy == null) {
+				hierarchy = new LinkedHashSet<String>();
+				if (!addHierarchy(SpringCore.getTypeHierarchyEngine(), className, hierarchy)) {
+					hierarchy = UNKNOWN_HIERARCHY;
+				}
+				hierarchies.put(key, hierarchy);
+			}
+			return hierarchy;
+		}
+
+		public boolean isSubtypeOf(String typeName) {
+			Set<String> hierarchy = getHierarchy();
+			if (hierarchy == UNKNOWN_HIERARCHY) {
+				return true;
+			}
+			for (String name : hierarchy) {
+				if (name.equals(typeName) || name.replace('$', '.').equals(typeName)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Returns <code>true</code> if the class or one of its supertypes (or methods of those, if
+		 * <code>includeMethods</code> is set) might be annotated with the given annotation type.
+		 */
+		public boolean isAnnotatedWith(String annotationName, boolean includeMethods) {
+			Set<String> hierarchy = getHierarchy();
+			if (hierarchy == UNKNOWN_HIERARCHY) {
+				return true;
+			}
+			try {
+				for (String typeName : hierarchy) {
+					IType type = JdtUtils.getJavaType(project, typeName);
+					if (type == null) {
+						return true;
+					}
+					if (!includeMethods && hasAnnotation(type.getAnnotations(), annotationName)) {
+						return true;
+					}
+					if (includeMethods) {
+						for (IMethod method : type.getMethods()) {
+							if (hasAnnotation(method.getAnnotations(), annotationName)) {
+								return true;
+							}
+						}
+					}
+				}
+			}
+			catch (JavaModelException e) {
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Annotations of source types carry the name as written in the source, which might be a simple name.
+		 */
+		private boolean hasAnnotation(IAnnotation[] annotations, String annotationName) {
+			for (IAnnotation annotation : annotations) {
+				String name = annotation.getElementName().replace('$', '.');
+				if (name.equals(annotationName) || annotationName.endsWith('.' + name)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean addHierarchy(TypeHierarchyEngine engine, String typeName, Set<String> hierarchy) {
+			if (!hierarchy.add(typeName) || OBJECT_CLASS_NAME.equals(typeName)) {
+				return true;
+			}
+			// every type but java.lang.Object has a superclass in its class file, so no superclass means not found
+			String superclassName = engine.getSupertype(project, typeName);
+			if (superclassName == null || !addHierarchy(engine, superclassName, hierarchy)) {
+				return false;
+			}
+			String[] interfaces = engine.getInterfaces(project, typeName);
+			if (interfaces != null) {
+				for (String interfaceName : interfaces) {
+					if (!addHierarchy(engine, interfaceName, hierarchy)) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import org.eclipse.jdt.core.IJavaProject;
 
 /**
  * @author Christian Dupuis
+ * @author Martin Lippert
  */
 public interface IAopProject {
 
@@ -28,5 +29,18 @@ public interface IAopProject {
 
 	void clearReferencesForResource(IResource resource);
 
+	/**
+	 * Removes all references to the bean with the given element id.
+	 * @since 3.9.3
+	 */
+	void clearReferencesForBean(String beanId);
+
+	/**
+	 * Removes all references whose aspect definition is implemented by one of the given classes.
+	 * @param aspectClassNames the fully qualified names of the aspect classes
+	 * @since 3.9.3
+	 */
+	void clearReferencesForAspects(Set<String> aspectClassNames);
+
 	Set<IAopReference> getReferencesForResource(IResource resource);
 }
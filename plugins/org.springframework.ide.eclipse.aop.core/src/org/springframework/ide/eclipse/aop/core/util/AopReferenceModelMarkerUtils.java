@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.springframework.ide.eclipse.aop.core.util;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
@@ -28,6 +29,7 @@ import org.springframework.ide.eclipse.core.java.JdtUtils;
 
 /**
  * @author Christian Dupuis
+ * @author Martin Lippert
  */
 public class AopReferenceModelMarkerUtils {
 
@@ -35,6 +37,10 @@ public class AopReferenceModelMarkerUtils {
 
 	private static final String MARKER_COUNT = "marker_count";
 
+	private static final String BEAN_ID = "bean_id";
+
+	private static final String ASPECT_CLASS_NAME = "aspect_class_name";
+
 	public static final String AOP_MARKER = Activator.PLUGIN_ID + ".marker";
 
 	public static final String AOP_PROBLEM_MARKER = Activator.PLUGIN_ID + ".problemmarker";
@@ -136,9 +142,36 @@ public class AopReferenceModelMarkerUtils {
 	}
 
 	public static void deleteProblemMarkers(IResource resource) {
+		deleteProblemMarkers(resource, null, null);
+	}
+
+	/**
+	 * Deletes the AOP markers of the given resource. Of the problem markers of the project only those are deleted that
+	 * have been created for one of the given beans or aspect classes; all are deleted if <code>beanIds</code> is
+	 * <code>null</code>.
+	 * @param beanIds the element ids of the beans whose references are rebuilt; <code>null</code> if the references
+	 * of all beans are rebuilt
+	 * @param aspectClassNames the names of the aspect classes whose references are rebuilt for all beans
+	 * @since 3.9.3
+	 */
+	public static void deleteProblemMarkers(IResource resource, Set<String> beanIds, Set<String> aspectClassNames) {
 		if (resource != null && resource.isAccessible()) {
 			try {
-				resource.getProject().deleteMarkers(AopReferenceModelMarkerUtils.AOP_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
+				if (beanIds == null) {
+					resource.getProject().deleteMarkers(AopReferenceModelMarkerUtils.AOP_PROBLEM_MARKER, true,
+							IResource.DEPTH_INFINITE);
+				}
+				else {
+					IMarker[] problemMarkers = resource.getProject().findMarkers(
+							AopReferenceModelMarkerUtils.AOP_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
+					for (IMarker marker : problemMarkers) {
+						if (beanIds.contains(marker.getAttribute(BEAN_ID, ""))
+								|| (aspectClassNames != null && aspectClassNames.contains(marker.getAttribute(
+										ASPECT_CLASS_NAME, "")))) {
+							marker.delete();
+						}
+					}
+				}
 
 				IProject project = resource.getProject();
 				String resourceName = resource.getFullPath().toString();
@@ -185,8 +218,24 @@ public class AopReferenceModelMarkerUtils {
 		createProblemMarker(resource, message, severity, line, markerId, 1, sourceResource);
 	}
 
+	/**
+	 * Creates a problem marker that is deleted again when the references of the given bean or aspect are rebuilt.
+	 * @param beanId the element id of the bean the problem has been found for
+	 * @param aspectClassName the name of the class of the aspect the problem has been found for
+	 * @since 3.9.3
+	 */
+	public static void createProblemMarker(IResource resource, String message, int severity, int line, String markerId,
+			IResource sourceResource, String beanId, String aspectClassName) {
+		createProblemMarker(resource, message, severity, line, markerId, 1, sourceResource, beanId, aspectClassName);
+	}
+
 	public static void createProblemMarker(IResource resource, String message, int severity, int line, String markerId,
 			int markerCount, IResource sourceResource) {
+		createProblemMarker(resource, message, severity, line, markerId, markerCount, sourceResource, null, null);
+	}
+
+	private static void createProblemMarker(IResource resource, String message, int severity, int line,
+			String markerId, int markerCount, IResource sourceResource, String beanId, String aspectClassName) {
 		if (resource != null && resource.isAccessible()) {
 			try {
 				// First check if specified marker already exists
@@ -238,6 +287,12 @@ public class AopReferenceModelMarkerUtils {
 				if (line > 0) {
 					attributes.put(IMarker.LINE_NUMBER, new Integer(line));
 				}
+				if (beanId != null) {
+					attributes.put(BEAN_ID, beanId);
+				}
+				if (aspectClassName != null) {
+					attributes.put(ASPECT_CLASS_NAME, aspectClassName);
+				}
 				marker.setAttributes(attributes);
 			}
 			catch (CoreException e) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -45,6 +45,7 @@ import org.springframework.util.Assert;
  * {@link ISearchQuery} implementation matches pointcut expression on {@link IBeansConfig}s that are contained in the
  * given scope.
  * @author Christian Dupuis
+ * @author Martin Lippert
  * @since 2.0.2
  */
 public class PointcutMatchQuery implements ISearchQuery {
@@ -220,10 +221,16 @@ public class PointcutMatchQuery implements ISearchQuery {
 							getClassLoaderSupport(project).executeCallback(
 									new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
 										public void doWithActiveProjectClassLoader() throws Throwable {
-											for (IAopReference reference : getMatches(beans, definition,
-													new AspectDefinitionMatcher())) {
-												Match match = new Match(reference, Match.UNIT_LINE, -1, -1);
-												result.addMatch(match);
+											AspectDefinitionMatcher matcher = new AspectDefinitionMatcher();
+											try {
+												for (IAopReference reference : getMatches(beans, definition,
+														matcher)) {
+													Match match = new Match(reference, Match.UNIT_LINE, -1, -1);
+													result.addMatch(match);
+												}
+											}
+											finally {
+												matcher.close();
 											}
 										}
 									});
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,11 +12,11 @@ package org.springframework.ide.eclipse.beans.core.autowire.internal.provider;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Member;
-import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -57,7 +57,6 @@ import org.springframework.ide.eclipse.beans.core.autowire.IAutowireDependencyRe
 import org.springframework.ide.eclipse.beans.core.autowire.IFactoryBeanTypeResolver;
 import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.InjectionMetadata.InjectedElement;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
-import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.ValidationRuleUtils;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeanAlias;
 import org.springframework.ide.eclipse.beans.core.model.IBeanReference;
@@ -118,6 +117,12 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	private Class<?> objectFactoryClass;
 	private Class<?> providerClass;
 
+	/** The beans by type, created on first lookup as that needs the project class loader */
+	private BeanTypeIndex beanTypeIndex;
+
+	/** The beans by name and alias, created on first lookup */
+	private Map<String, IBean> beansByName;
+
 	public AutowireDependencyProvider(IBeansModelElement element, IBeansModelElement context) {
 		this.context = (context == null ? element : context);
 		this.element = element;
@@ -302,6 +307,9 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 		} catch (Throwable e) {
 			// Ignore here as this can easily happen if project class path is not complete
 		}
+
+		// the index depends on the factory bean class of the current class loader
+		beanTypeIndex = null;
 	}
 
 	public boolean containsBean(String beanName) {
@@ -310,118 +318,75 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 
 	public String[] getAliases(String beanName) {
 		Set<String> aliases = new HashSet<String>();
-		if (context instanceof IBeansConfig) {
-			for (IBeanAlias alias : ((IBeansConfig) context).getAliases()) {
-				if (beanName.equals(alias.getBeanName())) {
-					aliases.add(alias.getElementName());
-				}
+		for (IBeanAlias alias : getContextAliases()) {
+			if (beanName.equals(alias.getBeanName())) {
+				aliases.add(alias.getElementName());
 			}
 		}
+		return (String[]) aliases.toArray(new String[aliases.size()]);
+	}
+
+	private Set<IBeanAlias> getContextAliases() {
+		if (context instanceof IBeansConfig) {
+			return ((IBeansConfig) context).getAliases();
+		}
 		else if (context instanceof IBeansConfigSet) {
-			for (IBeanAlias alias : ((IBeansConfigSet) context).getAliases()) {
-				if (beanName.equals(alias.getBeanName())) {
-					aliases.add(alias.getElementName());
-				}
-			}
+			return ((IBeansConfigSet) context).getAliases();
 		}
-		return (String[]) aliases.toArray(new String[aliases.size()]);
+		return Collections.emptySet();
 	}
 
 	public IBean getBean(String candidateName) {
-		for (IBean bean : beans) {
-			if (bean.getElementName().equals(candidateName)) {
-				return bean;
+		if (beansByName == null) {
+			Map<String, Set<String>> aliasesByBeanName = new HashMap<String, Set<String>>();
+			for (IBeanAlias alias : getContextAliases()) {
+				Set<String> aliases = aliasesByBeanName.get(alias.getBeanName());
+				if (aliases == null) {
+					aliases = new HashSet<String>();
+					aliasesByBeanName.put(alias.getBeanName(), aliases);
+				}
+				aliases.add(alias.getElementName());
 			}
-			else {
-				for (String alias : getAliases(bean.getElementName())) {
-					if (alias.equals(candidateName)) {
-						return bean;
+
+			// the first bean wins for names and aliases that are used more than once
+			Map<String, IBean> beansByName = new HashMap<String, IBean>();
+			for (IBean bean : beans) {
+				if (!beansByName.containsKey(bean.getElementName())) {
+					beansByName.put(bean.getElementName(), bean);
+				}
+				Set<String> aliases = aliasesByBeanName.get(bean.getElementName());
+				if (aliases != null) {
+					for (String alias : aliases) {
+						if (!beansByName.containsKey(alias)) {
+							beansByName.put(alias, bean);
+						}
 					}
 				}
 			}
+			this.beansByName = beansByName;
 		}
-		return null;
+		return beansByName.get(candidateName);
 	}
 	
 	public String[] getBeansForType(String requiredTypeName) {
-		try {
-			Class<?> requiredType = ClassUtils.loadClass(requiredTypeName);
-			return getBeansForType(requiredType);
-		}
-		catch (ClassNotFoundException e) {
-			// Ignore here as this can easily happen if project class path is not complete
-		}
-		catch (NoClassDefFoundError e) {
-			// Ignore here as this can easily happen if project class path is not complete
-		}
-		catch (Throwable e) {
-			BeansCorePlugin.log(e);
-		}
-		return new String[0];
+		Set<String> matchingBeans = getBeanTypeIndex().getBeanNames(requiredTypeName);
+		return (String[]) matchingBeans.toArray(new String[matchingBeans.size()]);
 	}
 
 	public String[] getBeansForType(Class<?> requiredType) {
-		Set<String> matchingBeans = new HashSet<String>();
-		
-		for (IBean bean : beans) {
-			String beanClassName = ValidationRuleUtils.getBeanClassName(bean, context);
-			if (beanClassName != null) {
-				try {
-					Class<?> beanClass = ClassUtils.loadClass(beanClassName);
-					if (requiredType.isAssignableFrom(beanClass)) {
-						matchingBeans.add(bean.getElementName());
-					}
-					else if (factoryBeanClass != null && factoryBeanClass.isAssignableFrom(beanClass)) {
-						if (isFactoryForType(beanClass, requiredType)) {
-							matchingBeans.add(bean.getElementName());
-						} 
-						else if (isExtensibleFactoryForType(bean, beanClass, requiredType)) {
-							matchingBeans.add(bean.getElementName());
-						}
-					}
-				}
-				catch (ClassNotFoundException e) {
-					// Ignore here as this can easily happen if project class path is not complete
-				}
-				catch (NoClassDefFoundError e) {
-					// Ignore here as this can easily happen if project class path is not complete
-				}
-				catch (Throwable e) {
-					BeansCorePlugin.log(e);
-				}
-			}
-		}
+		Set<String> matchingBeans = getBeanTypeIndex().getBeanNames(requiredType);
 		return (String[]) matchingBeans.toArray(new String[matchingBeans.size()]);
 	}
 
-	private boolean isFactoryForType(Class<?> beanClass, Class<?> requiredType) {
-		try {
-			Method factoryMethod = beanClass.getMethod("getObject", new Class[] {});
-			if (factoryMethod != null && requiredType.isAssignableFrom(factoryMethod.getReturnType())) {
-				return true;
-			}
-		}
-		catch (NoClassDefFoundError e) {
-			// Ignore here as this can easily happen if project class path is not complete
-		}
-		catch (Throwable e) {
-			BeansCorePlugin.log(e);
-		}
-
-		return false;
-	}
-
-	private boolean isExtensibleFactoryForType(IBean bean, Class<?> beanClass, Class<?> requiredType) {
-		IFactoryBeanTypeResolver[] resolvers = FactoryBeanTypeResolverExtensions.getFactoryBeanTypeResolvers();
-		
-		for (IFactoryBeanTypeResolver factoryTypeResolver : resolvers) {
-			Class<?> beanType = factoryTypeResolver.resolveBeanTypeFromFactory(bean, beanClass);
-			if (beanType != null && requiredType.isAssignableFrom(beanType)) {
-				return true;
-			}
+	/**
+	 * Returns the index of the beans by type; it is created on first use, so that the project class loader is active
+	 * and the contributed {@link IFactoryBeanTypeResolver}s are the ones of this run.
+	 */
+	private BeanTypeIndex getBeanTypeIndex() {
+		if (beanTypeIndex == null) {
+			beanTypeIndex = new BeanTypeIndex(beans, context, factoryBeanClass);
 		}
-
-		return false;
+		return beanTypeIndex;
 	}
 
 	public boolean isAutowireCandidate(String beanName, DependencyDescriptor descriptor)
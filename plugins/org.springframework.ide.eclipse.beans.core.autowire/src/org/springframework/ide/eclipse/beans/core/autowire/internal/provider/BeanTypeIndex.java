@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.autowire.internal.provider;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.autowire.IFactoryBeanTypeResolver;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.ValidationRuleUtils;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModelElement;
+import org.springframework.ide.eclipse.core.java.ClassUtils;
+
+/**
+ * Index of beans by the names of all types they can be assigned to.
+ * <p>
+ * The class of every bean is loaded once and the bean is registered for that class and all of its super classes and
+ * interfaces. {@link FactoryBean}s are registered for the types of their products as well, as determined by the return
+ * type of <code>getObject()</code> and by the contributed {@link IFactoryBeanTypeResolver}s. Looking up the candidates
+ * for a type is a single map access then. Types are indexed by name, so the index doesn't depend on the class loader of
+ * the looked up type.
+ * <p>
+ * The index needs to be created with the project class loader being the context class loader.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class BeanTypeIndex {
+
+	private static final String OBJECT_CLASS_NAME = Object.class.getName();
+
+	private final Map<String, Set<String>> beanNamesByType = new HashMap<String, Set<String>>();
+
+	private final Map<String, Class<?>> beanClasses = new HashMap<String, Class<?>>();
+
+	private final Set<String> missingBeanClasses = new HashSet<String>();
+
+	/**
+	 * Creates the index of the given beans.
+	 * @param factoryBeanClass the {@link FactoryBean} class of the project class loader; <code>null</code> if not
+	 * available, in which case factory beans are only registered for their own types
+	 */
+	public BeanTypeIndex(Set<IBean> beans, IBeansModelElement context, Class<?> factoryBeanClass) {
+		IFactoryBeanTypeResolver[] resolvers = FactoryBeanTypeResolverExtensions.getFactoryBeanTypeResolvers();
+		for (IBean bean : beans) {
+			String beanClassName = ValidationRuleUtils.getBeanClassName(bean, context);
+			if (beanClassName != null) {
+				try {
+					Class<?> beanClass = loadBeanClass(beanClassName);
+					if (beanClass != null) {
+						addType(beanClass, bean.getElementName(), new HashSet<Class<?>>());
+						if (factoryBeanClass != null && factoryBeanClass.isAssignableFrom(beanClass)) {
+							addFactoryProductTypes(bean, beanClass, resolvers);
+						}
+					}
+				}
+				catch (NoClassDefFoundError e) {
+					// Ignore here as this can easily happen if project class path is not complete
+				}
+				catch (Throwable e) {
+					BeansCorePlugin.log(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the names of the beans that can be assigned to the type with the given name. Nested types can be given
+	 * with their source name (<code>a.Outer.Inner</code>) or their binary name (<code>a.Outer$Inner</code>).
+	 */
+	public Set<String> getBeanNames(String typeName) {
+		Set<String> beanNames = beanNamesByType.get(typeName);
+
+		// the types are indexed by their binary names, try the enclosing types from the innermost one outwards
+		String binaryName = typeName;
+		int index = binaryName.lastIndexOf('.');
+		while (beanNames == null && index > 0) {
+			binaryName = binaryName.substring(0, index) + '$' + binaryName.substring(index + 1);
+			beanNames = beanNamesByType.get(binaryName);
+			index = binaryName.lastIndexOf('.', index - 1);
+		}
+		return beanNames != null ? Collections.unmodifiableSet(beanNames) : Collections.<String> emptySet();
+	}
+
+	/**
+	 * Returns the names of the beans that can be assigned to the given type.
+	 */
+	public Set<String> getBeanNames(Class<?> type) {
+		return getBeanNames(type.getName());
+	}
+
+	/**
+	 * Loads the given bean class once for all beans of that class; returns <code>null</code> if the class can't be
+	 * loaded.
+	 */
+	private Class<?> loadBeanClass(String beanClassName) {
+		Class<?> beanClass = beanClasses.get(beanClassName);
+		if (beanClass == null && !missingBeanClasses.contains(beanClassName)) {
+			try {
+				beanClass = ClassUtils.loadClass(beanClassName);
+				beanClasses.put(beanClassName, beanClass);
+			}
+			catch (ClassNotFoundException e) {
+				// Ignore here as this can easily happen if project class path is not complete
+				missingBeanClasses.add(beanClassName);
+			}
+			catch (NoClassDefFoundError e) {
+				// Ignore here as this can easily happen if project class path is not complete
+				missingBeanClasses.add(beanClassName);
+			}
+		}
+		return beanClass;
+	}
+
+	private void addFactoryProductTypes(IBean bean, Class<?> beanClass, IFactoryBeanTypeResolver[] resolvers) {
+		try {
+			Method factoryMethod = beanClass.getMethod("getObject", new Class[] {});
+			if (factoryMethod != null) {
+				addType(factoryMethod.getReturnType(), bean.getElementName(), new HashSet<Class<?>>());
+			}
+		}
+		catch (NoClassDefFoundError e) {
+			// Ignore here as this can easily happen if project class path is not complete
+		}
+		catch (Throwable e) {
+			BeansCorePlugin.log(e);
+		}
+
+		for (IFactoryBeanTypeResolver factoryTypeResolver : resolvers) {
+			Class<?> beanType = factoryTypeResolver.resolveBeanTypeFromFactory(bean, beanClass);
+			if (beanType != null) {
+				addType(beanType, bean.getElementName(), new HashSet<Class<?>>());
+			}
+		}
+	}
+
+	/**
+	 * Registers the bean for the given type and all of its super classes and interfaces.
+	 */
+	private void addType(Class<?> type, String beanName, Set<Class<?>> visitedTypes) {
+		if (!visitedTypes.add(type)) {
+			return;
+		}
+		addBeanName(type.getName(), beanName);
+		if (!type.isPrimitive()) {
+			// interfaces don't have Object as super class, but can be assigned to it
+			addBeanName(OBJECT_CLASS_NAME, beanName);
+		}
+		if (type.getSuperclass() != null) {
+			addType(type.getSuperclass(), beanName, visitedTypes);
+		}
+		for (Class<?> interfaceType : type.getInterfaces()) {
+			addType(interfaceType, beanName, visitedTypes);
+		}
+	}
+
+	private void addBeanName(String typeName, String beanName) {
+		Set<String> beanNames = beanNamesByType.get(typeName);
+		if (beanNames == null) {
+			beanNames = new LinkedHashSet<String>();
+			beanNamesByType.put(typeName, beanNames);
+		}
+		beanNames.add(beanName);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -147,9 +147,12 @@ public class BeanMetadataBuilderJob extends Job {
 				}
 			}
 
-			// Notify that the model has changed.
+			// Notify that the model has changed and write back the changed meta data.
 			for (IBeansProject project : projects) {
 				((BeansModel) BeansCorePlugin.getModel()).notifyListeners(project, Type.CHANGED);
+				if (project != null && BeansMetadataPlugin.getMetadataModel() instanceof BeanMetadataModel) {
+					((BeanMetadataModel) BeansMetadataPlugin.getMetadataModel()).save(project);
+				}
 			}
 
 		}
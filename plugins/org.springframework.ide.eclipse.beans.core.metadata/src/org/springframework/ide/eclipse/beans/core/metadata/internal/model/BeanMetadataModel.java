@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,24 +11,29 @@
 package org.springframework.ide.eclipse.beans.core.metadata.internal.model;
 
 import java.util.Collections;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentMap;
 
+import org.eclipse.core.resources.IResource;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
 import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadata;
 import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadataModel;
 import org.springframework.ide.eclipse.beans.core.metadata.model.IMethodMetadata;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeanProperty;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.core.SpringCore;
 
 /**
  * {@link IBeanMetadataModel} implementation that saves and reloads its contents from a backing
  * store.
+ * <p>
+ * The contents are kept per project and the stored contents of a project are loaded when the
+ * meta data of one of its beans is requested for the first time.
  * @author Christian Dupuis
+ * @author Martin Lippert
  * @since 2.0.5
  */
 public class BeanMetadataModel implements IBeanMetadataModel {
@@ -37,122 +42,119 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 
 	public static final boolean DEBUG = SpringCore.isDebug(DEBUG_OPTION);
 
-	private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
+	/** Key of the contents of beans that don't belong to a project; these are not persisted */
+	private static final String NO_PROJECT = "";
 
-	private final Lock r = rwl.readLock();
-
-	private final Lock w = rwl.writeLock();
-
-	private Map<String, BeanMetadataHolder> beanMetadata = new ConcurrentHashMap<String, BeanMetadataHolder>();
-
-	private Map<String, BeanPropertyDataHolder> beanPropertyData = new ConcurrentHashMap<String, BeanPropertyDataHolder>();
+	private final ConcurrentMap<String, ProjectBeanMetadata> projects = new ConcurrentHashMap<String, ProjectBeanMetadata>();
 
 	public Set<IBeanMetadata> getBeanMetadata(IBean bean) {
-		try {
-			r.lock();
-			if (beanMetadata.containsKey(bean.getElementID())) {
-				return beanMetadata.get(bean.getElementID()).getBeanMetaData();
-			}
-			return Collections.emptySet();
-		}
-		finally {
-			r.unlock();
+		BeanMetadataHolder holder = getProjectMetadata(bean).getBeanMetadata(bean.getElementID());
+		if (holder != null) {
+			return holder.getBeanMetaData();
 		}
+		return Collections.emptySet();
 	}
 
 	public void setBeanMetadata(IBean bean, Set<IBeanMetadata> bMetaData,
 			Set<IMethodMetadata> methodMetaData) {
-		try {
-			w.lock();
-			BeanMetadataHolder holder = new BeanMetadataHolder();
-			holder.setElemenetId(bean.getElementID());
-			holder.setBeanMetaData(bMetaData);
-			holder.setMethodMetaData(methodMetaData);
-			// safe time so we can purge very old entries after a while
-			holder.setLastModified(System.currentTimeMillis());
-			beanMetadata.put(bean.getElementID(), holder);
-		}
-		finally {
-			w.unlock();
-		}
+		BeanMetadataHolder holder = new BeanMetadataHolder();
+		holder.setElemenetId(bean.getElementID());
+		holder.setBeanMetaData(bMetaData);
+		holder.setMethodMetaData(methodMetaData);
+		// safe time so we can purge very old entries after a while
+		holder.setLastModified(System.currentTimeMillis());
+		getProjectMetadata(bean).setBeanMetadata(holder);
 	}
 
 	public void clearBeanMetadata(IBean bean) {
-		try {
-			w.lock();
-			beanMetadata.remove(bean.getElementID());
-		}
-		finally {
-			w.unlock();
-		}
+		getProjectMetadata(bean).removeBeanMetadata(bean.getElementID());
 	}
 
 	public Set<IBeanProperty> getBeanProperties(IBean bean) {
-		try {
-			r.lock();
-			if (beanPropertyData.containsKey(bean.getElementID())) {
-				return beanPropertyData.get(bean.getElementID()).getBeanProperties();
-			}
-			return Collections.emptySet();
-		}
-		finally {
-			r.unlock();
+		BeanPropertyDataHolder holder = getProjectMetadata(bean).getBeanPropertyData(bean.getElementID());
+		if (holder != null) {
+			return holder.getBeanProperties();
 		}
+		return Collections.emptySet();
 	}
 
 	public void setBeanProperties(IBean bean, Set<IBeanProperty> beanProperties) {
-		try {
-			w.lock();
-			BeanPropertyDataHolder holder = new BeanPropertyDataHolder();
-			holder.setElemenetId(bean.getElementID());
-			holder.setBeanProperties(beanProperties);
-			// safe time so we can purge very old entries after a while
-			holder.setLastModified(System.currentTimeMillis());
-			beanPropertyData.put(bean.getElementID(), holder);
-		}
-		finally {
-			w.unlock();
-		}
+		BeanPropertyDataHolder holder = new BeanPropertyDataHolder();
+		holder.setElemenetId(bean.getElementID());
+		holder.setBeanProperties(beanProperties);
+		// safe time so we can purge very old entries after a while
+		holder.setLastModified(System.currentTimeMillis());
+		getProjectMetadata(bean).setBeanPropertyData(holder);
 	}
 
 	public void clearBeanProperties(IBean bean) {
-		try {
-			w.lock();
-			beanPropertyData.remove(bean.getElementID());
-		}
-		finally {
-			w.unlock();
-		}
+		getProjectMetadata(bean).removeBeanPropertyData(bean.getElementID());
 	}
 
 	/**
-	 * Starts and loads the internal model.
+	 * Starts the internal model; the contents of the projects are loaded on demand.
 	 */
 	public void start() {
-
-		Map<String, BeanMetadataHolder> storedBeanMetadata = BeanMetadataPersistence.loadMetadata();
-		Map<String, BeanPropertyDataHolder> storedProperties = BeanMetadataPersistence
-				.loadProperties();
-		try {
-			w.lock();
-			beanMetadata = storedBeanMetadata;
-			beanPropertyData = storedProperties;
-		}
-		catch (Exception e) {
-			beanMetadata = new ConcurrentHashMap<String, BeanMetadataHolder>();
-			beanPropertyData = new ConcurrentHashMap<String, BeanPropertyDataHolder>();
-		}
-		finally {
-			w.unlock();
-		}
+		BeanMetadataPersistence.removeObsoleteFiles();
 	}
 
 	/**
 	 * Stops and saves the internal model.
 	 */
 	public void stop() {
-		BeanMetadataPersistence.storeMetadata(beanMetadata);
-		BeanMetadataPersistence.storeProperties(beanPropertyData);
+		for (ProjectBeanMetadata metadata : projects.values()) {
+			save(metadata);
+		}
+	}
+
+	/**
+	 * Saves the contents of the given project if they have been changed since they have been
+	 * loaded or saved.
+	 */
+	public void save(IBeansProject project) {
+		ProjectBeanMetadata metadata = projects.get(project.getElementName());
+		if (metadata != null) {
+			save(metadata);
+		}
+	}
+
+	private void save(ProjectBeanMetadata metadata) {
+		if (metadata.isModified() && !NO_PROJECT.equals(metadata.getProjectName())) {
+			long start = System.currentTimeMillis();
+			BeanMetadataPersistence.store(metadata);
+			if (DEBUG) {
+				System.out.println("Saving meta data of project [" + metadata.getProjectName() + "] took "
+						+ (System.currentTimeMillis() - start) + "ms");
+			}
+		}
+	}
+
+	private ProjectBeanMetadata getProjectMetadata(IBean bean) {
+		String projectName = getProjectName(bean);
+		ProjectBeanMetadata metadata = projects.get(projectName);
+		if (metadata == null) {
+			synchronized (projects) {
+				metadata = projects.get(projectName);
+				if (metadata == null) {
+					metadata = NO_PROJECT.equals(projectName) ? new ProjectBeanMetadata(projectName)
+							: BeanMetadataPersistence.load(projectName);
+					projects.put(projectName, metadata);
+				}
+			}
+		}
+		return metadata;
+	}
+
+	private static String getProjectName(IBean bean) {
+		IBeansProject project = BeansModelUtils.getParentOfClass(bean, IBeansProject.class);
+		if (project != null) {
+			return project.getElementName();
+		}
+		IResource resource = bean.getElementResource();
+		if (resource != null && resource.getProject() != null) {
+			return resource.getProject().getName();
+		}
+		return NO_PROJECT;
 	}
 
 }
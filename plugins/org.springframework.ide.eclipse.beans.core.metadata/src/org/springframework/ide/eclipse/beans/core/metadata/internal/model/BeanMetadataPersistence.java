@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,117 +10,155 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.metadata.internal.model;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.springframework.ide.eclipse.beans.core.metadata.BeansMetadataPlugin;
 import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadata;
 
 /**
- * Stores and loads the {@link IBeanMetadata}s from the persisted file.
+ * Stores and loads the {@link IBeanMetadata}s from one persisted file per project.
  * @author Christian Dupuis
  * @author Martin Lippert
  * @since 2.0.5
  */
 public class BeanMetadataPersistence {
 
+	private static final int FORMAT_VERSION = 2;
+
+	private static final String FILE_EXTENSION = ".dat";
+
+	private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+	private static final String ENCODING = "UTF-8";
+
 	private static final String STATE_FILE_NAME = ".state";
 
 	private static final String METADATA_FOLDER_NAME = "/metadata/";
 
 	private static final String BEANPROPERTIES_FOLDER_NAME = "/properties/";
 
-	public static void storeMetadata(Map<String, BeanMetadataHolder> metaData) {
-		File file = BeansMetadataPlugin.getDefault().getStateLocation().append(METADATA_FOLDER_NAME + STATE_FILE_NAME)
-				.toFile();
-		store(metaData, file);
-	}
-
-	public static void storeProperties(Map<String, BeanPropertyDataHolder> properties) {
-		File file = BeansMetadataPlugin.getDefault().getStateLocation()
-				.append(BEANPROPERTIES_FOLDER_NAME + STATE_FILE_NAME).toFile();
-		store(properties, file);
-	}
-
-	private static void store(Object obj, File file) {
-		ObjectOutputStream out = null;
+	private static final String PROJECTS_FOLDER_NAME = "/projects/";
 
+	/**
+	 * Stores the meta data and properties of the beans of the given project; the file is written to a temporary file
+	 * first and replaces the previous file when it is complete.
+	 */
+	public static void store(ProjectBeanMetadata metadata) {
+		File file = getProjectFile(metadata.getProjectName());
+		File tempFile = new File(file.getPath() + TEMP_FILE_EXTENSION);
 		try {
-			if (!file.exists()) {
-				file.getParentFile().mkdirs();
-				file.createNewFile();
+			file.getParentFile().mkdirs();
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				out.writeInt(FORMAT_VERSION);
+				metadata.write(out);
+			}
+			finally {
+				out.close();
 			}
-			out = new ObjectOutputStream(new FileOutputStream(file));
-			out.writeObject(obj);
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
 		}
 		catch (IOException e) {
+			tempFile.delete();
 			BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID,
-					"Exception saving meta data model for class " + obj.getClass(), e));
+					"Exception saving meta data model of project " + metadata.getProjectName(), e));
+		}
+	}
+
+	/**
+	 * Loads the meta data and properties of the beans of the given project; the returned instance is empty if nothing
+	 * has been stored for the project or the stored file cannot be read, a file that cannot be read is removed.
+	 */
+	public static ProjectBeanMetadata load(String projectName) {
+		ProjectBeanMetadata metadata = new ProjectBeanMetadata(projectName);
+		File file = getProjectFile(projectName);
+		if (!file.exists()) {
+			return metadata;
 		}
-		finally {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
 			try {
-				if (out != null)
-					out.close();
+				if (in.readInt() == FORMAT_VERSION) {
+					metadata.read(in, file.length() - 4);
+				}
 			}
-			catch (IOException e) {
+			finally {
+				in.close();
 			}
+			return metadata;
+		}
+		catch (IOException e) {
+			return handleCorruptFile(projectName, file, e);
+		}
+		catch (RuntimeException e) {
+			return handleCorruptFile(projectName, file, e);
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	public static Map<String, BeanMetadataHolder> loadMetadata() {
-		File f = BeansMetadataPlugin.getDefault().getStateLocation().append(METADATA_FOLDER_NAME + STATE_FILE_NAME)
-				.toFile();
-		Map<String, BeanMetadataHolder> metaData = load(f, Map.class);
-		if (metaData != null && metaData.size() > 0) {
-			return metaData;
-		}
-		// create new empty model
-		return new ConcurrentHashMap<String, BeanMetadataHolder>();
+	private static ProjectBeanMetadata handleCorruptFile(String projectName, File file, Exception e) {
+		file.delete();
+		BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID,
+				"Exception restoring meta data model of project " + projectName, e));
+		return new ProjectBeanMetadata(projectName);
 	}
 
-	@SuppressWarnings("unchecked")
-	public static Map<String, BeanPropertyDataHolder> loadProperties() {
-		File f = BeansMetadataPlugin.getDefault().getStateLocation().append(BEANPROPERTIES_FOLDER_NAME + STATE_FILE_NAME)
-				.toFile();
-		Map<String, BeanPropertyDataHolder> metaData = load(f, Map.class);
-		if (metaData != null && metaData.size() > 0) {
-			return metaData;
+	/**
+	 * Removes the stored files of projects that don't exist anymore and the files of the previous format that stored
+	 * the meta data of all projects at once.
+	 */
+	public static void removeObsoleteFiles() {
+		File stateLocation = BeansMetadataPlugin.getDefault().getStateLocation().toFile();
+		new File(stateLocation, METADATA_FOLDER_NAME + STATE_FILE_NAME).delete();
+		new File(stateLocation, BEANPROPERTIES_FOLDER_NAME + STATE_FILE_NAME).delete();
+
+		File[] files = new File(stateLocation, PROJECTS_FOLDER_NAME).listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String projectName = getProjectName(file);
+				if (projectName == null || !ResourcesPlugin.getWorkspace().getRoot().getProject(projectName).exists()) {
+					file.delete();
+				}
+			}
 		}
-		// create new empty model
-		return new ConcurrentHashMap<String, BeanPropertyDataHolder>();
 	}
 
-	public static <T> T load(File file, Class<T> clazz) {
-		ObjectInputStream in = null;
-
+	private static File getProjectFile(String projectName) {
 		try {
-			if (file.exists()) {
-				in = new ObjectInputStream(new FileInputStream(file));
-				return (T) in.readObject();
-			}
+			return BeansMetadataPlugin.getDefault().getStateLocation()
+					.append(PROJECTS_FOLDER_NAME + URLEncoder.encode(projectName, ENCODING) + FILE_EXTENSION).toFile();
 		}
-		catch (Exception e) {
-			BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID,
-					"Exception restoring meta data model for class " + clazz, e));
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
 		}
-		finally {
-			try {
-				if (in != null)
-					in.close();
-			}
-			catch (IOException e) {
-			}
+	}
+
+	private static String getProjectName(File file) {
+		String name = file.getName();
+		if (!name.endsWith(FILE_EXTENSION)) {
+			return null;
+		}
+		try {
+			return URLDecoder.decode(name.substring(0, name.length() - FILE_EXTENSION.length()), ENCODING);
+		}
+		catch (UnsupportedEncodingException e) {
+			return null;
 		}
-		return null;
 	}
 
 }
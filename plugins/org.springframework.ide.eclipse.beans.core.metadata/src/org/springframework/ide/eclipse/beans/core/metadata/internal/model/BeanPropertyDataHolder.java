@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -58,6 +58,29 @@ public class BeanPropertyDataHolder implements Serializable {
 		return elemenetId;
 	}
 
+	/**
+	 * Returns the stored properties, every value is a {@link SerializableRuntimeBeanReference}.
+	 * @since 3.9.3
+	 */
+	public Set<PropertyValue> getPropertyValues() {
+		return beanProperties;
+	}
+
+	/**
+	 * Adds a stored property that refers to the bean with the given name.
+	 * @since 3.9.3
+	 */
+	public void addPropertyValue(String name, String beanName, Object source) {
+		if (beanProperties == null) {
+			beanProperties = new LinkedHashSet<PropertyValue>();
+		}
+		SerializableRuntimeBeanReference rbr = new SerializableRuntimeBeanReference();
+		rbr.setBeanName(beanName);
+		rbr.setToParent(false);
+		rbr.setSource(source);
+		beanProperties.add(new PropertyValue(name, rbr));
+	}
+
 	public void setBeanProperties(Set<IBeanProperty> properties) {
 		beanProperties = new LinkedHashSet<PropertyValue>();
 		for (IBeanProperty property : properties) {
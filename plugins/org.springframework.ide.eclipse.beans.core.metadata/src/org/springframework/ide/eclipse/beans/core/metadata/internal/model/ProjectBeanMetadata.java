@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.metadata.internal.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.springframework.beans.PropertyValue;
+import org.springframework.core.io.Resource;
+import org.springframework.ide.eclipse.beans.core.internal.model.SerializableRuntimeBeanReference;
+import org.springframework.ide.eclipse.beans.core.metadata.BeansMetadataPlugin;
+import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadata;
+import org.springframework.ide.eclipse.beans.core.metadata.model.IMethodMetadata;
+import org.springframework.ide.eclipse.beans.core.model.IBeanProperty;
+import org.springframework.ide.eclipse.core.io.FileResource;
+import org.springframework.ide.eclipse.core.model.DefaultModelSourceLocation;
+import org.springframework.ide.eclipse.core.model.IModelSourceLocation;
+import org.springframework.ide.eclipse.core.model.java.JavaModelMethodSourceLocation;
+import org.springframework.ide.eclipse.core.model.java.JavaModelSourceLocation;
+
+/**
+ * The {@link BeanMetadataHolder}s and {@link BeanPropertyDataHolder}s of the beans of a single project, keyed by the
+ * element id of the bean.
+ * <p>
+ * The entries of a bean are kept in their stored binary form until they are requested for the first time. Bean
+ * properties and their source locations are written field by field; the {@link IBeanMetadata} contributed by metadata
+ * providers is written with Java serialization per bean, because the contributed implementations are not known to
+ * this plug-in.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class ProjectBeanMetadata {
+
+	private static final byte NO_SOURCE = 0;
+
+	private static final byte JAVA_SOURCE = 1;
+
+	private static final byte JAVA_METHOD_SOURCE = 2;
+
+	private static final byte MODEL_SOURCE = 3;
+
+	private final String projectName;
+
+	private final Map<String, BeanMetadataHolder> beanMetadata = new HashMap<String, BeanMetadataHolder>();
+
+	private final Map<String, byte[]> storedBeanMetadata = new HashMap<String, byte[]>();
+
+	private final Map<String, BeanPropertyDataHolder> beanPropertyData = new HashMap<String, BeanPropertyDataHolder>();
+
+	private final Map<String, byte[]> storedBeanPropertyData = new HashMap<String, byte[]>();
+
+	private boolean modified = false;
+
+	public ProjectBeanMetadata(String projectName) {
+		this.projectName = projectName;
+	}
+
+	public String getProjectName() {
+		return projectName;
+	}
+
+	public synchronized boolean isModified() {
+		return modified;
+	}
+
+	public synchronized BeanMetadataHolder getBeanMetadata(String elementId) {
+		BeanMetadataHolder holder = beanMetadata.get(elementId);
+		if (holder == null) {
+			byte[] data = storedBeanMetadata.remove(elementId);
+			if (data != null) {
+				holder = decodeBeanMetadata(elementId, data);
+				if (holder != null) {
+					beanMetadata.put(elementId, holder);
+				}
+			}
+		}
+		return holder;
+	}
+
+	public synchronized void setBeanMetadata(BeanMetadataHolder holder) {
+		storedBeanMetadata.remove(holder.getElemenetId());
+		beanMetadata.put(holder.getElemenetId(), holder);
+		modified = true;
+	}
+
+	public synchronized void removeBeanMetadata(String elementId) {
+		if (beanMetadata.remove(elementId) != null | storedBeanMetadata.remove(elementId) != null) {
+			modified = true;
+		}
+	}
+
+	public synchronized BeanPropertyDataHolder getBeanPropertyData(String elementId) {
+		BeanPropertyDataHolder holder = beanPropertyData.get(elementId);
+		if (holder == null) {
+			byte[] data = storedBeanPropertyData.remove(elementId);
+			if (data != null) {
+				holder = decodeBeanPropertyData(elementId, data);
+				if (holder != null) {
+					beanPropertyData.put(elementId, holder);
+				}
+			}
+		}
+		return holder;
+	}
+
+	public synchronized void setBeanPropertyData(BeanPropertyDataHolder holder) {
+		storedBeanPropertyData.remove(holder.getElemenetId());
+		beanPropertyData.put(holder.getElemenetId(), holder);
+		modified = true;
+	}
+
+	public synchronized void removeBeanPropertyData(String elementId) {
+		if (beanPropertyData.remove(elementId) != null | storedBeanPropertyData.remove(elementId) != null) {
+			modified = true;
+		}
+	}
+
+	/**
+	 * Writes all entries of this project; entries that have not been requested are written as they have been read.
+	 */
+	public synchronized void write(DataOutputStream out) throws IOException {
+		Map<String, byte[]> metadata = new HashMap<String, byte[]>(storedBeanMetadata);
+		for (BeanMetadataHolder holder : beanMetadata.values()) {
+			byte[] data = encodeBeanMetadata(holder);
+			if (data != null) {
+				metadata.put(holder.getElemenetId(), data);
+			}
+		}
+		writeEntries(out, metadata);
+
+		Map<String, byte[]> properties = new HashMap<String, byte[]>(storedBeanPropertyData);
+		for (BeanPropertyDataHolder holder : beanPropertyData.values()) {
+			byte[] data = encodeBeanPropertyData(holder);
+			if (data != null) {
+				properties.put(holder.getElemenetId(), data);
+			}
+		}
+		writeEntries(out, properties);
+		modified = false;
+	}
+
+	/**
+	 * Reads the entries written by {@link #write(DataOutputStream)}, the entries are decoded on first request.
+	 * @param length the number of bytes left in the given stream, the stored counts and lengths are checked against it
+	 * @throws IOException if the stream ends early or contains counts or lengths that don't fit into it
+	 */
+	public synchronized void read(DataInputStream in, long length) throws IOException {
+		long remaining = readEntries(in, storedBeanMetadata, length);
+		readEntries(in, storedBeanPropertyData, remaining);
+	}
+
+	private static void writeEntries(DataOutputStream out, Map<String, byte[]> entries) throws IOException {
+		out.writeInt(entries.size());
+		for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeInt(entry.getValue().length);
+			out.write(entry.getValue());
+		}
+	}
+
+	/**
+	 * Reads the entries written by {@link #writeEntries(DataOutputStream, Map)} and returns the number of bytes that
+	 * are left at most.
+	 */
+	private static long readEntries(DataInputStream in, Map<String, byte[]> entries, long remaining)
+			throws IOException {
+		int size = in.readInt();
+		remaining -= 4;
+		// every entry takes at least the two bytes of its id length and the four bytes of its data length
+		if (size < 0 || size > remaining / 6) {
+			throw new IOException("Invalid number of stored entries: " + size);
+		}
+		for (int i = 0; i < size; i++) {
+			String elementId = in.readUTF();
+			int length = in.readInt();
+			// an encoded id takes at least one byte per character
+			remaining -= 6 + elementId.length();
+			if (length < 0 || length > remaining) {
+				throw new IOException("Invalid length " + length + " of stored entry " + elementId);
+			}
+			byte[] data = new byte[length];
+			in.readFully(data);
+			entries.put(elementId, data);
+			remaining -= length;
+		}
+		return remaining;
+	}
+
+	private static byte[] encodeBeanMetadata(BeanMetadataHolder holder) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeLong(holder.getLastModified());
+			ObjectOutputStream objects = new ObjectOutputStream(out);
+			objects.writeObject(holder.getBeanMetaData());
+			objects.writeObject(holder.getMethodMetaData());
+			objects.close();
+			return bytes.toByteArray();
+		}
+		catch (IOException e) {
+			log("Exception saving meta data of bean " + holder.getElemenetId(), e);
+			return null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BeanMetadataHolder decodeBeanMetadata(String elementId, byte[] data) {
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+			BeanMetadataHolder holder = new BeanMetadataHolder();
+			holder.setElemenetId(elementId);
+			holder.setLastModified(in.readLong());
+			ObjectInputStream objects = new ObjectInputStream(in);
+			holder.setBeanMetaData((Set<IBeanMetadata>) objects.readObject());
+			holder.setMethodMetaData((Set<IMethodMetadata>) objects.readObject());
+			return holder;
+		}
+		catch (Exception e) {
+			log("Exception restoring meta data of bean " + elementId, e);
+			return null;
+		}
+	}
+
+	private static byte[] encodeBeanPropertyData(BeanPropertyDataHolder holder) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeLong(holder.getLastModified());
+			Set<PropertyValue> properties = holder.getPropertyValues();
+			if (properties == null) {
+				properties = new LinkedHashSet<PropertyValue>();
+			}
+			out.writeInt(properties.size());
+			for (PropertyValue property : properties) {
+				SerializableRuntimeBeanReference reference = (SerializableRuntimeBeanReference) property.getValue();
+				out.writeUTF(property.getName());
+				out.writeUTF(reference.getBeanName());
+				writeSource(out, reference.getSource());
+			}
+			out.close();
+			return bytes.toByteArray();
+		}
+		catch (IOException e) {
+			log("Exception saving properties of bean " + holder.getElemenetId(), e);
+			return null;
+		}
+	}
+
+	private static BeanPropertyDataHolder decodeBeanPropertyData(String elementId, byte[] data) {
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+			BeanPropertyDataHolder holder = new BeanPropertyDataHolder();
+			holder.setElemenetId(elementId);
+			holder.setLastModified(in.readLong());
+			holder.setBeanProperties(Collections.<IBeanProperty> emptySet());
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				String name = in.readUTF();
+				String beanName = in.readUTF();
+				holder.addPropertyValue(name, beanName, readSource(in));
+			}
+			return holder;
+		}
+		catch (Exception e) {
+			log("Exception restoring properties of bean " + elementId, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the fields of the given source location; locations of other types are written with their lines and their
+	 * workspace file and are restored as {@link DefaultModelSourceLocation}.
+	 */
+	private static void writeSource(DataOutputStream out, Object source) throws IOException {
+		if (source instanceof JavaModelMethodSourceLocation) {
+			JavaModelMethodSourceLocation location = (JavaModelMethodSourceLocation) source;
+			out.writeByte(JAVA_METHOD_SOURCE);
+			out.writeUTF(location.getHandleIdentifier());
+			out.writeInt(location.getStartLine());
+			writeNullableString(out, location.getReturnType());
+		}
+		else if (source instanceof JavaModelSourceLocation) {
+			JavaModelSourceLocation location = (JavaModelSourceLocation) source;
+			out.writeByte(JAVA_SOURCE);
+			out.writeUTF(location.getHandleIdentifier());
+			out.writeInt(location.getStartLine());
+		}
+		else if (source instanceof IModelSourceLocation) {
+			IModelSourceLocation location = (IModelSourceLocation) source;
+			out.writeByte(MODEL_SOURCE);
+			out.writeInt(location.getStartLine());
+			out.writeInt(location.getEndLine());
+			Resource resource = location.getResource();
+			IFile file = resource instanceof FileResource ? ((FileResource) resource).getRawFile() : null;
+			writeNullableString(out, file != null ? file.getFullPath().toString() : null);
+		}
+		else {
+			out.writeByte(NO_SOURCE);
+		}
+	}
+
+	private static Object readSource(DataInputStream in) throws IOException {
+		byte kind = in.readByte();
+		switch (kind) {
+		case NO_SOURCE:
+			return null;
+		case JAVA_SOURCE:
+			return new JavaModelSourceLocation(in.readUTF(), in.readInt());
+		case JAVA_METHOD_SOURCE:
+			return new JavaModelMethodSourceLocation(in.readUTF(), in.readInt(), readNullableString(in));
+		case MODEL_SOURCE:
+			int startLine = in.readInt();
+			int endLine = in.readInt();
+			String path = readNullableString(in);
+			return new DefaultModelSourceLocation(startLine, endLine, path != null ? new FileResource(path) : null);
+		default:
+			throw new IOException("Unknown kind of stored source location: " + kind);
+		}
+	}
+
+	private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readNullableString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void log(String message, Exception e) {
+		BeansMetadataPlugin.getDefault().getLog().log(
+				new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID, message, e));
+	}
+
+}
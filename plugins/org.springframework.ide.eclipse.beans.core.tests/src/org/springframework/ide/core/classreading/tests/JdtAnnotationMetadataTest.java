@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2015 Spring IDE Developers
+ * Copyright (c) 2012, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,10 +12,14 @@ package org.springframework.ide.core.classreading.tests;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Map;
 import java.util.Set;
 
@@ -49,7 +53,9 @@ import org.springframework.core.type.MethodMetadata;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.classreading.CachingJdtMetadataReaderFactory;
 import org.springframework.ide.eclipse.core.java.classreading.JdtConnectedMetadata;
+import org.springframework.ide.eclipse.core.java.classreading.JdtMetadataReaderCache;
 import org.springframework.ide.eclipse.core.java.classreading.JdtMetadataReaderFactory;
 import org.springframework.stereotype.Controller;
 import org.springframework.stereotype.Service;
@@ -529,4 +535,40 @@ public class JdtAnnotationMetadataTest {
 		return false;
 	}
 
+	@Test
+	public void testSharedMetadataReaderCache() throws Exception {
+		JdtMetadataReaderCache cache = SpringCore.getMetadataReaderCache();
+		cache.clear(project);
+		cache.resetStatistics();
+
+		MetadataReader metadataReader = new CachingJdtMetadataReaderFactory(javaProject, classloader)
+				.getMetadataReader("org.test.spring.NoAnnotations");
+		assertSame(metadataReader, new CachingJdtMetadataReaderFactory(javaProject, classloader)
+				.getMetadataReader("org.test.spring.NoAnnotations"));
+		assertEquals(1, cache.getStatistics().getMisses());
+		assertEquals(1, cache.getStatistics().getHits());
+
+		cache.clear(project);
+		assertTrue(metadataReader != new CachingJdtMetadataReaderFactory(javaProject, classloader)
+				.getMetadataReader("org.test.spring.NoAnnotations"));
+		assertEquals(2, cache.getStatistics().getMisses());
+	}
+
+	@Test
+	public void testSharedMetadataReaderCacheIsKeyedByClassLoader() throws Exception {
+		JdtMetadataReaderCache cache = SpringCore.getMetadataReaderCache();
+		cache.clear(project);
+		cache.resetStatistics();
+
+		ClassLoader otherClassloader = new URLClassLoader(new URL[0], classloader);
+		MetadataReader metadataReader = new CachingJdtMetadataReaderFactory(javaProject, classloader)
+				.getMetadataReader("org.test.spring.NoAnnotations");
+		assertNotSame(metadataReader, new CachingJdtMetadataReaderFactory(javaProject, otherClassloader)
+				.getMetadataReader("org.test.spring.NoAnnotations"));
+		assertSame(metadataReader, new CachingJdtMetadataReaderFactory(javaProject, classloader)
+				.getMetadataReader("org.test.spring.NoAnnotations"));
+		assertEquals(2, cache.getStatistics().getMisses());
+		assertEquals(1, cache.getStatistics().getHits());
+	}
+
 }
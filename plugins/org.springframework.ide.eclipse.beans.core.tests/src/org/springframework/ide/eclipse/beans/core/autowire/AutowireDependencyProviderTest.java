@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -38,6 +38,9 @@ import org.springframework.ide.eclipse.beans.core.model.IBeanReference;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.IProjectClassLoaderSupport;
+import org.springframework.ide.eclipse.core.java.IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
 
 /**
@@ -722,6 +725,33 @@ public class AutowireDependencyProviderTest {
 		}
 	}
 
+	@Test
+	public void testBeansForTypeIncludesSuperTypesAndFactoryBeanProducts() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "src/org/springframework/beans/factory/annotation/testStringTypeFactoryBean-context.xml", IBeansConfig.Type.MANUAL);
 
+		final AutowireDependencyProvider provider = new AutowireDependencyProvider(config, config);
+		final Map<String, String[]> beansForType = new HashMap<String, String[]>();
+		IProjectClassLoaderSupport classLoaderSupport = JdtUtils.getProjectClassLoaderSupport(project, null);
+		provider.setProjectClassLoaderSupport(classLoaderSupport);
+		classLoaderSupport.executeCallback(new IProjectClassLoaderAwareCallback() {
+			public void doWithActiveProjectClassLoader() throws Throwable {
+				provider.preloadClasses();
+				beansForType.put("product", provider.getBeansForType("java.lang.CharSequence"));
+				beansForType.put("factory", provider.getBeansForType("org.springframework.beans.factory.FactoryBean"));
+				beansForType.put("object", provider.getBeansForType("java.lang.Object"));
+				beansForType.put("unknown", provider.getBeansForType("java.lang.Runnable"));
+				String outerClassName = "org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessorTests";
+				beansForType.put("nested", provider.getBeansForType(outerClassName + ".StringFactoryBean"));
+				beansForType.put("binaryNested", provider.getBeansForType(outerClassName + "$StringFactoryBean"));
+			}
+		});
+
+		assertEquals(Arrays.asList("testBean"), Arrays.asList(beansForType.get("product")));
+		assertEquals(Arrays.asList("testBean"), Arrays.asList(beansForType.get("factory")));
+		assertEquals(2, beansForType.get("object").length);
+		assertEquals(0, beansForType.get("unknown").length);
+		assertEquals(Arrays.asList("testBean"), Arrays.asList(beansForType.get("nested")));
+		assertEquals(Arrays.asList("testBean"), Arrays.asList(beansForType.get("binaryNested")));
+	}
 
 }
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model.namespaces.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Properties;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.SchemaMappingCache;
+
+/**
+ * @author Martin Lippert
+ */
+public class SchemaMappingCacheTest {
+
+	private File jarFile;
+
+	private File cacheFile;
+
+	@Before
+	public void setUp() throws Exception {
+		jarFile = File.createTempFile("schemas", ".jar");
+		cacheFile = File.createTempFile("schema-mappings", ".cache");
+		cacheFile.delete();
+		writeJar("http\\://www.example.org/schema/test.xsd=org/example/test.xsd\n");
+	}
+
+	@After
+	public void tearDown() {
+		jarFile.delete();
+		cacheFile.delete();
+	}
+
+	@Test
+	public void testMappingsAreCachedAndPersisted() throws Exception {
+		SchemaMappingCache cache = new SchemaMappingCache(cacheFile);
+		assertEquals("org/example/test.xsd", loadSchemaMappings(cache).getProperty("http://www.example.org/schema/test.xsd"));
+		cache.save();
+		assertTrue(cacheFile.exists());
+
+		// an unchanged jar is served from the persisted cache
+		SchemaMappingCache restoredCache = new SchemaMappingCache(cacheFile);
+		assertEquals("org/example/test.xsd", loadSchemaMappings(restoredCache).getProperty("http://www.example.org/schema/test.xsd"));
+	}
+
+	@Test
+	public void testChangedJarIsReadAgain() throws Exception {
+		SchemaMappingCache cache = new SchemaMappingCache(cacheFile);
+		loadSchemaMappings(cache);
+
+		writeJar("http\\://www.example.org/schema/test.xsd=org/example/test.xsd\n"
+				+ "http\\://www.example.org/schema/test-1.0.xsd=org/example/test-1.0.xsd\n");
+		jarFile.setLastModified(jarFile.lastModified() + 2000);
+
+		Properties mappings = loadSchemaMappings(cache);
+		assertEquals(2, mappings.size());
+		assertEquals("org/example/test-1.0.xsd", mappings.getProperty("http://www.example.org/schema/test-1.0.xsd"));
+	}
+
+	private Properties loadSchemaMappings(SchemaMappingCache cache) throws Exception {
+		URLClassLoader classLoader = new URLClassLoader(new URL[] { jarFile.toURI().toURL() }, null);
+		try {
+			return cache.loadAllProperties("META-INF/spring.schemas", classLoader);
+		}
+		finally {
+			classLoader.close();
+		}
+	}
+
+	private void writeJar(String schemaMappings) throws Exception {
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile));
+		try {
+			out.putNextEntry(new ZipEntry("META-INF/spring.schemas"));
+			out.write(schemaMappings.getBytes("ISO-8859-1"));
+			out.closeEntry();
+		}
+		finally {
+			out.close();
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoader;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class BeansConfigLoaderTest {
+
+	private IProject project;
+
+	private BeansProject beansProject;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests",
+				"org.springframework.ide.eclipse.beans.core.tests");
+		beansProject = new BeansProject(new BeansModel(), project);
+		beansProject.addConfig("basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		beansProject.addConfig("alias-bean-config.xml", IBeansConfig.Type.MANUAL);
+		beansProject.addConfig("importing-bean-config.xml", IBeansConfig.Type.MANUAL);
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testConfigsAreLoadedOnTheExecutor() throws Exception {
+		Map<IBeansConfig, Long> loadTimes = BeansConfigLoader.loadConfigs(beansProject.getConfigs(),
+				new NullProgressMonitor());
+		assertEquals(beansProject.getConfigs(), new HashSet<IBeansConfig>(loadTimes.keySet()));
+
+		IBeansConfig importingConfig = beansProject.getConfig("importing-bean-config.xml");
+		assertNotNull(BeansModelUtils.getBean("simpleBean", importingConfig));
+		assertEquals(1, importingConfig.getImports().size());
+
+		Map<String, Long> executorLoadTimes = BeansCorePlugin.getConfigLoadingExecutor().getLoadTimes();
+		for (String name : Arrays.asList("basic-bean-config.xml", "alias-bean-config.xml",
+				"importing-bean-config.xml")) {
+			assertTrue(name, executorLoadTimes.containsKey(project.getName() + "/" + name));
+		}
+	}
+
+	@Test
+	public void testCanceledMonitorStopsLoading() throws Exception {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		try {
+			BeansConfigLoader.loadConfigs(beansProject.getConfigs(), monitor);
+			fail("expected cancellation");
+		}
+		catch (OperationCanceledException e) {
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,396 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoadingExecutor;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoadingExecutor.PendingLoad;
+
+/**
+ * @author Martin Lippert
+ */
+public class BeansConfigLoadingExecutorTest {
+
+	private BeansConfigLoadingExecutor executor;
+
+	@Before
+	public void setUp() {
+		executor = new BeansConfigLoadingExecutor(Executors.defaultThreadFactory());
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testTimeoutInterruptsLoad() throws Exception {
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		try {
+			executor.execute("hanging.xml", null, new Callable<Integer>() {
+				public Integer call() throws Exception {
+					try {
+						Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+					}
+					catch (InterruptedException e) {
+						interrupted.countDown();
+					}
+					return 0;
+				}
+			}, 100, TimeUnit.MILLISECONDS);
+			fail("expected timeout");
+		}
+		catch (TimeoutException e) {
+			// expected
+		}
+		assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+		assertEquals(1, executor.getStatistics().getTimedOutLoads());
+	}
+
+	@Test
+	public void testNestedLoadRunsOnCallingThread() throws Exception {
+		int count = executor.execute("outer.xml", null, new Callable<Integer>() {
+			public Integer call() throws Exception {
+				final Thread outerThread = Thread.currentThread();
+				return executor.execute("inner.xml", null, new Callable<Integer>() {
+					public Integer call() throws Exception {
+						return Thread.currentThread() == outerThread ? 1 : 0;
+					}
+				}, 10, TimeUnit.SECONDS) + 1;
+			}
+		}, 10, TimeUnit.SECONDS);
+		assertEquals(2, count);
+		assertTrue(executor.getLoadTimes().containsKey("outer.xml"));
+		assertTrue(executor.getLoadTimes().containsKey("inner.xml"));
+		assertEquals(0, executor.getStatistics().getActiveLoads());
+	}
+
+	@Test
+	public void testTimeoutStartsWhenLoadRuns() throws Exception {
+		final BeansConfigLoadingExecutor singleThreadExecutor = createExecutor(1, 200);
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			block(singleThreadExecutor, release);
+
+			// the second load waits in the queue and runs for less than its timeout each, but longer in total
+			releaseLater(release, 300);
+			int result = singleThreadExecutor.execute("queued.xml", null, new Callable<Integer>() {
+				public Integer call() throws Exception {
+					Thread.sleep(300);
+					return 1;
+				}
+			}, 500, TimeUnit.MILLISECONDS);
+			assertEquals(1, result);
+			assertEquals(0, singleThreadExecutor.getStatistics().getTimedOutLoads());
+		}
+		finally {
+			release.countDown();
+			singleThreadExecutor.shutdown();
+		}
+	}
+
+	@Test
+	public void testQueuedLoadTimesOut() throws Exception {
+		final BeansConfigLoadingExecutor singleThreadExecutor = createExecutor(1, 200);
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			block(singleThreadExecutor, release);
+
+			final AtomicBoolean loaded = new AtomicBoolean();
+			try {
+				singleThreadExecutor.execute("queued.xml", null, new Callable<Integer>() {
+					public Integer call() throws Exception {
+						loaded.set(true);
+						return 1;
+					}
+				}, 200, TimeUnit.MILLISECONDS);
+				fail("expected timeout");
+			}
+			catch (TimeoutException e) {
+				// expected
+			}
+			assertEquals(1, singleThreadExecutor.getStatistics().getTimedOutLoads());
+
+			// the canceled load isn't run once the thread is free again
+			release.countDown();
+			int result = singleThreadExecutor.execute("next.xml", null, new Callable<Integer>() {
+				public Integer call() throws Exception {
+					return 1;
+				}
+			}, 10, TimeUnit.SECONDS);
+			assertEquals(1, result);
+			assertFalse(loaded.get());
+		}
+		finally {
+			release.countDown();
+			singleThreadExecutor.shutdown();
+		}
+	}
+
+	@Test
+	public void testLoadOnCallingThreadTimesOut() throws Exception {
+		final BeansConfigLoadingExecutor singleThreadExecutor = createExecutor(1, 1);
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			block(singleThreadExecutor, release);
+
+			// fill the queue
+			final CountDownLatch queued = new CountDownLatch(1);
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						queued.countDown();
+						singleThreadExecutor.execute("queued.xml", null, new Callable<Integer>() {
+							public Integer call() throws Exception {
+								return 0;
+							}
+						}, 1, TimeUnit.MINUTES);
+					}
+					catch (Exception e) {
+						// ignore
+					}
+				}
+			}.start();
+			assertTrue(queued.await(10, TimeUnit.SECONDS));
+			long deadline = System.currentTimeMillis() + 10000;
+			while (singleThreadExecutor.getStatistics().getQueuedLoads() == 0) {
+				assertTrue(System.currentTimeMillis() < deadline);
+				Thread.sleep(10);
+			}
+
+			final Thread callingThread = Thread.currentThread();
+			final AtomicBoolean ranOnCallingThread = new AtomicBoolean();
+			final AtomicBoolean interrupted = new AtomicBoolean();
+			try {
+				singleThreadExecutor.execute("hanging.xml", null, new Callable<Integer>() {
+					public Integer call() throws Exception {
+						ranOnCallingThread.set(Thread.currentThread() == callingThread);
+						try {
+							Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+						}
+						catch (InterruptedException e) {
+							interrupted.set(true);
+						}
+						return 0;
+					}
+				}, 100, TimeUnit.MILLISECONDS);
+				fail("expected timeout");
+			}
+			catch (TimeoutException e) {
+				// expected
+			}
+			assertTrue(ranOnCallingThread.get());
+			assertTrue(interrupted.get());
+			assertFalse(Thread.currentThread().isInterrupted());
+			assertEquals(1, singleThreadExecutor.getStatistics().getCallerRunsLoads());
+			assertEquals(1, singleThreadExecutor.getStatistics().getTimedOutLoads());
+		}
+		finally {
+			release.countDown();
+			singleThreadExecutor.shutdown();
+		}
+	}
+
+	@Test
+	public void testSubmittedLoadsRunConcurrently() throws Exception {
+		final CountDownLatch bothRunning = new CountDownLatch(2);
+		Callable<Boolean> load = new Callable<Boolean>() {
+			public Boolean call() throws Exception {
+				bothRunning.countDown();
+				return bothRunning.await(10, TimeUnit.SECONDS);
+			}
+		};
+		PendingLoad<Boolean> first = executor.submit("first.xml", null, load, 1, TimeUnit.MINUTES);
+		PendingLoad<Boolean> second = executor.submit("second.xml", null, load, 1, TimeUnit.MINUTES);
+		assertTrue(first.get(null));
+		assertTrue(second.get(null));
+	}
+
+	@Test
+	public void testCanceledSubmittedLoadIsNotRun() throws Exception {
+		final BeansConfigLoadingExecutor singleThreadExecutor = createExecutor(1, 200);
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			block(singleThreadExecutor, release);
+
+			final AtomicBoolean loaded = new AtomicBoolean();
+			PendingLoad<Integer> pendingLoad = singleThreadExecutor.submit("queued.xml", null,
+					new Callable<Integer>() {
+						public Integer call() throws Exception {
+							loaded.set(true);
+							return 1;
+						}
+					}, 10, TimeUnit.SECONDS);
+			NullProgressMonitor monitor = new NullProgressMonitor();
+			monitor.setCanceled(true);
+			try {
+				pendingLoad.get(monitor);
+				fail("expected cancellation");
+			}
+			catch (OperationCanceledException e) {
+				// expected
+			}
+			pendingLoad.cancel();
+
+			release.countDown();
+			int result = singleThreadExecutor.execute("next.xml", null, new Callable<Integer>() {
+				public Integer call() throws Exception {
+					return 1;
+				}
+			}, 10, TimeUnit.SECONDS);
+			assertEquals(1, result);
+			assertFalse(loaded.get());
+			assertEquals(0, singleThreadExecutor.getStatistics().getTimedOutLoads());
+		}
+		finally {
+			release.countDown();
+			singleThreadExecutor.shutdown();
+		}
+	}
+
+	@Test
+	public void testStuckLoadIsNotLoadedAgain() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			try {
+				executor.execute("stuck.xml", null, new Callable<Integer>() {
+					public Integer call() throws Exception {
+						while (true) {
+							try {
+								release.await();
+								return 0;
+							}
+							catch (InterruptedException e) {
+								// ignore the cancellation
+							}
+						}
+					}
+				}, 100, TimeUnit.MILLISECONDS);
+				fail("expected timeout");
+			}
+			catch (TimeoutException e) {
+				// expected
+			}
+
+			final AtomicBoolean loaded = new AtomicBoolean();
+			try {
+				executor.execute("stuck.xml", null, new Callable<Integer>() {
+					public Integer call() throws Exception {
+						loaded.set(true);
+						return 0;
+					}
+				}, 10, TimeUnit.SECONDS);
+				fail("expected timeout");
+			}
+			catch (TimeoutException e) {
+				// expected
+			}
+			assertFalse(loaded.get());
+
+			int result = executor.execute("other.xml", null, new Callable<Integer>() {
+				public Integer call() throws Exception {
+					return 1;
+				}
+			}, 10, TimeUnit.SECONDS);
+			assertEquals(1, result);
+		}
+		finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void testLoadTimesAreKeyedByProject() throws Exception {
+		Callable<Integer> load = new Callable<Integer>() {
+			public Integer call() throws Exception {
+				return 0;
+			}
+		};
+		executor.execute("beans.xml", ResourcesPlugin.getWorkspace().getRoot().getProject("first"), load, 10,
+				TimeUnit.SECONDS);
+		executor.execute("beans.xml", ResourcesPlugin.getWorkspace().getRoot().getProject("second"), load, 10,
+				TimeUnit.SECONDS);
+		assertTrue(executor.getLoadTimes().containsKey("first/beans.xml"));
+		assertTrue(executor.getLoadTimes().containsKey("second/beans.xml"));
+	}
+
+	private static BeansConfigLoadingExecutor createExecutor(int threads, int queueSize) {
+		System.setProperty(BeansConfigLoadingExecutor.THREADS_PROPERTY, String.valueOf(threads));
+		System.setProperty(BeansConfigLoadingExecutor.QUEUE_SIZE_PROPERTY, String.valueOf(queueSize));
+		try {
+			return new BeansConfigLoadingExecutor(Executors.defaultThreadFactory());
+		}
+		finally {
+			System.clearProperty(BeansConfigLoadingExecutor.THREADS_PROPERTY);
+			System.clearProperty(BeansConfigLoadingExecutor.QUEUE_SIZE_PROPERTY);
+		}
+	}
+
+	/**
+	 * Occupies a thread of the given executor until the given latch is released.
+	 */
+	private static void block(final BeansConfigLoadingExecutor executor, final CountDownLatch release)
+			throws InterruptedException {
+		final CountDownLatch running = new CountDownLatch(1);
+		new Thread() {
+			@Override
+			public void run() {
+				try {
+					executor.execute("blocking.xml", null, new Callable<Integer>() {
+						public Integer call() throws Exception {
+							running.countDown();
+							release.await();
+							return 0;
+						}
+					}, 1, TimeUnit.MINUTES);
+				}
+				catch (Exception e) {
+					// ignore
+				}
+			}
+		}.start();
+		assertTrue(running.await(10, TimeUnit.SECONDS));
+	}
+
+	private static void releaseLater(final CountDownLatch release, final long millis) {
+		new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(millis);
+				}
+				catch (InterruptedException e) {
+					// release right away
+				}
+				release.countDown();
+			}
+		}.start();
+	}
+
+}
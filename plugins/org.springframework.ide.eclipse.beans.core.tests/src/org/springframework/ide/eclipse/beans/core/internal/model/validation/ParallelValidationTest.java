@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IContributor;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.validation.IBeansValidationContext;
+import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinition;
+import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.ide.eclipse.core.model.validation.IValidationContext;
+import org.springframework.ide.eclipse.core.model.validation.IValidationRule;
+import org.springframework.ide.eclipse.core.project.DefaultProjectContributorState;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Tests that parallel validation creates the same markers as sequential validation and that resources with rules
+ * that are declared as <code>sequential</code> are validated on the calling thread with the build's progress monitor.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class ParallelValidationTest {
+
+	private static final String MARKER_ID = "org.springframework.ide.eclipse.beans.core.problemmarker";
+
+	private static final String VALIDATOR_ID = "org.springframework.ide.eclipse.beans.core.tests.validator";
+
+	private static final String WORKER_THREAD_PREFIX = "Spring Validation Thread-";
+
+	private static final String SEQUENTIAL_CONFIG = "basic-bean-config.xml";
+
+	private IProject project;
+
+	private Set<IResource> resources;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests",
+				"org.springframework.ide.eclipse.beans.core.tests");
+		BeansProject beansProject = (BeansProject) BeansCorePlugin.getModel().getProject(project);
+		resources = new LinkedHashSet<IResource>();
+		for (String name : new String[] { SEQUENTIAL_CONFIG, "alias-bean-config.xml", "advanced-bean-config.xml",
+				"importing-bean-config.xml" }) {
+			beansProject.addConfig(name, IBeansConfig.Type.MANUAL);
+			resources.add(project.getFile(name));
+		}
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testParallelValidationCreatesSameMarkersAsSequentialValidation() throws Exception {
+		RecordingRule sequentialRule = new RecordingRule();
+		new TestValidator(false, createRuleDefinition(sequentialRule, false), null).validate(resources,
+				IncrementalProjectBuilder.FULL_BUILD, new NullProgressMonitor());
+		Map<IResource, Set<String>> sequentialMarkers = getMarkerMessages();
+		assertEquals(resources.size(), sequentialRule.threadNames.size());
+
+		RecordingRule parallelRule = new RecordingRule();
+		new TestValidator(true, createRuleDefinition(parallelRule, false), null).validate(resources,
+				IncrementalProjectBuilder.FULL_BUILD, new NullProgressMonitor());
+		assertEquals(sequentialMarkers, getMarkerMessages());
+
+		assertEquals(resources.size(), parallelRule.threadNames.size());
+		for (String threadName : parallelRule.threadNames.values()) {
+			assertTrue(threadName, threadName.startsWith(WORKER_THREAD_PREFIX));
+		}
+	}
+
+	@Test
+	public void testResourcesWithSequentialRulesAreValidatedOnCallingThread() throws Exception {
+		RecordingRule rule = new RecordingRule();
+		ValidationRuleDefinition sequentialRuleDefinition = createRuleDefinition(new RecordingRule(), true);
+		IProgressMonitor monitor = new NullProgressMonitor();
+		new TestValidator(true, createRuleDefinition(rule, false), sequentialRuleDefinition).validate(resources,
+				IncrementalProjectBuilder.FULL_BUILD, monitor);
+
+		assertEquals(resources.size(), rule.threadNames.size());
+		for (Map.Entry<String, String> entry : rule.threadNames.entrySet()) {
+			if (entry.getKey().equals(SEQUENTIAL_CONFIG)) {
+				assertEquals(Thread.currentThread().getName(), entry.getValue());
+				assertSame(monitor, unwrap(rule.monitors.get(entry.getKey())));
+			}
+			else {
+				assertTrue(entry.getValue(), entry.getValue().startsWith(WORKER_THREAD_PREFIX));
+				assertNotSame(monitor, unwrap(rule.monitors.get(entry.getKey())));
+			}
+		}
+
+		Map<IResource, Set<String>> markers = getMarkerMessages();
+		for (IResource resource : resources) {
+			assertEquals(Collections.singleton("Validated " + resource.getName()), markers.get(resource));
+		}
+	}
+
+	private Map<IResource, Set<String>> getMarkerMessages() throws Exception {
+		Map<IResource, Set<String>> result = new HashMap<IResource, Set<String>>();
+		for (IResource resource : resources) {
+			Set<String> messages = new HashSet<String>();
+			for (IMarker marker : resource.findMarkers(MARKER_ID, true, IResource.DEPTH_ZERO)) {
+				messages.add(marker.getAttribute(IMarker.MESSAGE, ""));
+			}
+			result.put(resource, messages);
+		}
+		return result;
+	}
+
+	private static IProgressMonitor unwrap(IProgressMonitor monitor) {
+		while (monitor instanceof ProgressMonitorWrapper) {
+			monitor = ((ProgressMonitorWrapper) monitor).getWrappedProgressMonitor();
+		}
+		return monitor;
+	}
+
+	/**
+	 * Creates a rule definition for the given rule from a configuration element that only provides the attributes
+	 * the definition reads.
+	 */
+	private static ValidationRuleDefinition createRuleDefinition(final IValidationRule<?, ?> rule,
+			boolean sequential) throws Exception {
+		final Map<String, String> attributes = new HashMap<String, String>();
+		attributes.put("id", "recordingRule" + (sequential ? "Sequential" : ""));
+		attributes.put("name", "Recording Rule");
+		attributes.put("sequential", Boolean.toString(sequential));
+
+		InvocationHandler handler = new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+				if (method.getDeclaringClass() == Object.class) {
+					return method.invoke(this, args);
+				}
+				else if (method.getName().equals("getAttribute")) {
+					return attributes.get(args[0]);
+				}
+				else if (method.getName().equals("createExecutableExtension")) {
+					return rule;
+				}
+				else if (method.getName().equals("getChildren")) {
+					return new IConfigurationElement[0];
+				}
+				else if (method.getName().equals("getContributor")) {
+					return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { IContributor.class },
+							this);
+				}
+				else if (method.getName().equals("getName")) {
+					return "org.springframework.ide.eclipse.beans.core.tests";
+				}
+				throw new UnsupportedOperationException(method.getName());
+			}
+		};
+		return new ValidationRuleDefinition(VALIDATOR_ID, (IConfigurationElement) Proxy.newProxyInstance(
+				ParallelValidationTest.class.getClassLoader(), new Class<?>[] { IConfigurationElement.class },
+				handler));
+	}
+
+	/**
+	 * Validates with the given rule, adding the sequential rule for {@link #SEQUENTIAL_CONFIG} only.
+	 */
+	private static class TestValidator extends BeansConfigValidator {
+
+		private final boolean parallel;
+
+		private final ValidationRuleDefinition ruleDefinition;
+
+		private final ValidationRuleDefinition sequentialRuleDefinition;
+
+		public TestValidator(boolean parallel, ValidationRuleDefinition ruleDefinition,
+				ValidationRuleDefinition sequentialRuleDefinition) {
+			this.parallel = parallel;
+			this.ruleDefinition = ruleDefinition;
+			this.sequentialRuleDefinition = sequentialRuleDefinition;
+			setMarkerId(MARKER_ID);
+			setProjectContributorState(new DefaultProjectContributorState());
+		}
+
+		@Override
+		protected Set<ValidationRuleDefinition> getRuleDefinitions(IResource resource) {
+			Set<ValidationRuleDefinition> result = new LinkedHashSet<ValidationRuleDefinition>();
+			result.add(ruleDefinition);
+			if (sequentialRuleDefinition != null && resource.getName().equals(SEQUENTIAL_CONFIG)) {
+				result.add(sequentialRuleDefinition);
+			}
+			return result;
+		}
+
+		@Override
+		protected boolean isParallelValidationEnabled() {
+			return parallel;
+		}
+	}
+
+	/**
+	 * Records the thread and the progress monitor every root config is validated with and reports one error for it.
+	 */
+	private static class RecordingRule implements IValidationRule<IBeansConfig, IBeansValidationContext> {
+
+		private final Map<String, String> threadNames = new ConcurrentHashMap<String, String>();
+
+		private final Map<String, IProgressMonitor> monitors = new ConcurrentHashMap<String, IProgressMonitor>();
+
+		public boolean supports(IModelElement element, IValidationContext context) {
+			return element instanceof IBeansConfig && element.equals(context.getRootElement());
+		}
+
+		public void validate(IBeansConfig config, IBeansValidationContext context, IProgressMonitor monitor) {
+			String name = config.getElementResource().getName();
+			threadNames.put(name, Thread.currentThread().getName());
+			monitors.put(name, monitor);
+			context.error(config, "VALIDATED", "Validated " + name);
+		}
+	}
+
+}
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.metadata.internal.model.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.PropertyValue;
+import org.springframework.ide.eclipse.beans.core.internal.model.SerializableRuntimeBeanReference;
+import org.springframework.ide.eclipse.beans.core.metadata.BeansMetadataPlugin;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.BeanMetadataHolder;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.BeanMetadataPersistence;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.BeanPropertyDataHolder;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.ProjectBeanMetadata;
+import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadata;
+import org.springframework.ide.eclipse.beans.core.metadata.model.IMethodMetadata;
+import org.springframework.ide.eclipse.core.model.DefaultModelSourceLocation;
+import org.springframework.ide.eclipse.core.model.IModelSourceLocation;
+import org.springframework.ide.eclipse.core.model.java.JavaModelMethodSourceLocation;
+import org.springframework.ide.eclipse.core.model.java.JavaModelSourceLocation;
+
+/**
+ * Tests that the stored meta data and properties of a project survive a round-trip, are decoded on request only and
+ * that files that cannot be read are dropped.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class ProjectBeanMetadataTest {
+
+	private static final String PROJECT_NAME = "metadata test/project";
+
+	private static final String BEAN_ID = "1|/test/beans.xml|beanA";
+
+	private static final String OTHER_BEAN_ID = "1|/test/beans.xml|beanB";
+
+	private static final String CLASS_HANDLE = "=test/src<org.test{Service.java[Service";
+
+	private static final String METHOD_HANDLE = CLASS_HANDLE + "~service";
+
+	@After
+	public void deleteStoredFile() {
+		getProjectFile().delete();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		ProjectBeanMetadata metadata = new ProjectBeanMetadata(PROJECT_NAME);
+		metadata.setBeanMetadata(createBeanMetadata(BEAN_ID, 42));
+		BeanPropertyDataHolder properties = new BeanPropertyDataHolder();
+		properties.setElemenetId(BEAN_ID);
+		properties.setLastModified(43);
+		properties.addPropertyValue("plain", "plainBean", null);
+		properties.addPropertyValue("java", "javaBean", new JavaModelSourceLocation(CLASS_HANDLE, 7));
+		properties.addPropertyValue("method", "methodBean", new JavaModelMethodSourceLocation(METHOD_HANDLE, 11,
+				"org.test.Service"));
+		properties.addPropertyValue("model", "modelBean", new DefaultModelSourceLocation(3, 5, null));
+		metadata.setBeanPropertyData(properties);
+		assertTrue(metadata.isModified());
+
+		ProjectBeanMetadata restored = read(write(metadata));
+		assertFalse(metadata.isModified());
+
+		BeanMetadataHolder restoredMetadata = restored.getBeanMetadata(BEAN_ID);
+		assertEquals(BEAN_ID, restoredMetadata.getElemenetId());
+		assertEquals(42, restoredMetadata.getLastModified());
+		assertTrue(restoredMetadata.getBeanMetaData().isEmpty());
+		assertTrue(restoredMetadata.getMethodMetaData().isEmpty());
+
+		BeanPropertyDataHolder restoredProperties = restored.getBeanPropertyData(BEAN_ID);
+		assertEquals(43, restoredProperties.getLastModified());
+		Iterator<PropertyValue> values = restoredProperties.getPropertyValues().iterator();
+		assertNull(nextReference(values, "plain", "plainBean").getSource());
+
+		JavaModelSourceLocation java = (JavaModelSourceLocation) nextReference(values, "java", "javaBean").getSource();
+		assertEquals(CLASS_HANDLE, java.getHandleIdentifier());
+		assertEquals(7, java.getStartLine());
+
+		JavaModelMethodSourceLocation method = (JavaModelMethodSourceLocation) nextReference(values, "method",
+				"methodBean").getSource();
+		assertEquals(METHOD_HANDLE, method.getHandleIdentifier());
+		assertEquals(11, method.getStartLine());
+		assertEquals("org.test.Service", method.getReturnType());
+
+		IModelSourceLocation model = (IModelSourceLocation) nextReference(values, "model", "modelBean").getSource();
+		assertEquals(DefaultModelSourceLocation.class, model.getClass());
+		assertEquals(3, model.getStartLine());
+		assertEquals(5, model.getEndLine());
+		assertNull(model.getResource());
+		assertFalse(values.hasNext());
+
+		assertNull(restored.getBeanMetadata(OTHER_BEAN_ID));
+		assertNull(restored.getBeanPropertyData(OTHER_BEAN_ID));
+	}
+
+	@Test
+	public void testEntriesAreDecodedOnRequestOnly() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(2);
+		writeEntry(out, BEAN_ID, new byte[] { 1, 2, 3 });
+		writeEntry(out, OTHER_BEAN_ID, encodeBeanMetadata(createBeanMetadata(OTHER_BEAN_ID, 42)));
+		out.writeInt(0);
+		out.close();
+
+		// the entry that cannot be decoded doesn't keep the other entries from being read
+		ProjectBeanMetadata metadata = read(bytes.toByteArray());
+		assertEquals(42, metadata.getBeanMetadata(OTHER_BEAN_ID).getLastModified());
+
+		// entries that haven't been requested are written as they have been read
+		ProjectBeanMetadata rewritten = read(write(metadata));
+		assertArrayEquals(write(read(bytes.toByteArray())), write(rewritten));
+
+		assertNull(metadata.getBeanMetadata(BEAN_ID));
+		assertEquals(42, rewritten.getBeanMetadata(OTHER_BEAN_ID).getLastModified());
+	}
+
+	@Test
+	public void testInvalidLengthsAreRejected() throws Exception {
+		assertInvalid(Integer.MAX_VALUE);
+		assertInvalid(-1);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(1);
+		out.writeUTF(BEAN_ID);
+		out.writeInt(Integer.MAX_VALUE);
+		out.close();
+		try {
+			read(bytes.toByteArray());
+			fail("expected an invalid entry length");
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testStoreAndLoad() throws Exception {
+		ProjectBeanMetadata metadata = new ProjectBeanMetadata(PROJECT_NAME);
+		metadata.setBeanMetadata(createBeanMetadata(BEAN_ID, 42));
+		BeanMetadataPersistence.store(metadata);
+
+		File file = getProjectFile();
+		assertTrue(file.exists());
+		assertFalse(new File(file.getPath() + ".tmp").exists());
+		assertEquals(42, BeanMetadataPersistence.load(PROJECT_NAME).getBeanMetadata(BEAN_ID).getLastModified());
+	}
+
+	@Test
+	public void testLoadRemovesCorruptFile() throws Exception {
+		File file = getProjectFile();
+		file.getParentFile().mkdirs();
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+		out.writeInt(2);
+		out.writeInt(Integer.MAX_VALUE);
+		out.close();
+
+		ProjectBeanMetadata metadata = BeanMetadataPersistence.load(PROJECT_NAME);
+		assertNull(metadata.getBeanMetadata(BEAN_ID));
+		assertFalse(file.exists());
+	}
+
+	private void assertInvalid(int count) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(count);
+		out.close();
+		try {
+			read(bytes.toByteArray());
+			fail("expected an invalid number of entries: " + count);
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	private static SerializableRuntimeBeanReference nextReference(Iterator<PropertyValue> values, String name,
+			String beanName) {
+		PropertyValue value = values.next();
+		assertEquals(name, value.getName());
+		SerializableRuntimeBeanReference reference = (SerializableRuntimeBeanReference) value.getValue();
+		assertEquals(beanName, reference.getBeanName());
+		return reference;
+	}
+
+	private static BeanMetadataHolder createBeanMetadata(String elementId, long lastModified) {
+		BeanMetadataHolder holder = new BeanMetadataHolder();
+		holder.setElemenetId(elementId);
+		holder.setLastModified(lastModified);
+		holder.setBeanMetaData(Collections.<IBeanMetadata> emptySet());
+		holder.setMethodMetaData(Collections.<IMethodMetadata> emptySet());
+		return holder;
+	}
+
+	/**
+	 * Returns the stored form of the given meta data entry, as written by a project that contains nothing else.
+	 */
+	private static byte[] encodeBeanMetadata(BeanMetadataHolder holder) throws IOException {
+		ProjectBeanMetadata metadata = new ProjectBeanMetadata(PROJECT_NAME);
+		metadata.setBeanMetadata(holder);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(write(metadata)));
+		in.readInt();
+		in.readUTF();
+		byte[] data = new byte[in.readInt()];
+		in.readFully(data);
+		return data;
+	}
+
+	private static void writeEntry(DataOutputStream out, String elementId, byte[] data) throws IOException {
+		out.writeUTF(elementId);
+		out.writeInt(data.length);
+		out.write(data);
+	}
+
+	private static byte[] write(ProjectBeanMetadata metadata) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		metadata.write(out);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static ProjectBeanMetadata read(byte[] bytes) throws IOException {
+		ProjectBeanMetadata metadata = new ProjectBeanMetadata(PROJECT_NAME);
+		metadata.read(new DataInputStream(new ByteArrayInputStream(bytes)), bytes.length);
+		return metadata;
+	}
+
+	private static File getProjectFile() {
+		return BeansMetadataPlugin.getDefault().getStateLocation()
+				.append("/projects/metadata+test%2Fproject.dat").toFile();
+	}
+
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.model.locate.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.parsers.SAXParser;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.model.locate.ProjectScanningBeansConfigLocator;
+
+/**
+ * @author Martin Lippert
+ */
+public class ProjectScanningBeansConfigLocatorTest {
+
+	private static final String BEANS_NAMESPACE = "http://www.springframework.org/schema/beans";
+
+	private static final String OTHER_NAMESPACE = "http://www.example.org/schema/other";
+
+	private IProject project;
+
+	private CountingLocator locator;
+
+	@Before
+	public void setUp() throws Exception {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("ProjectScanningBeansConfigLocatorTest");
+		project.create(null);
+		project.open(null);
+		locator = new CountingLocator();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		project.delete(true, true, null);
+	}
+
+	@Test
+	public void testNamespaceIsCachedByModificationStamp() throws Exception {
+		IFile file = createFile("config.xml", BEANS_NAMESPACE);
+		assertEquals(BEANS_NAMESPACE, locator.getNamespace(file));
+		assertEquals(BEANS_NAMESPACE, locator.getNamespace(file));
+		assertEquals(1, locator.reads.get());
+
+		file.setContents(new ByteArrayInputStream(xml(OTHER_NAMESPACE)), true, false, null);
+		assertEquals(OTHER_NAMESPACE, locator.getNamespace(file));
+		assertEquals(2, locator.reads.get());
+	}
+
+	@Test
+	public void testFilesWithoutNamespaceOrMalformedContent() throws Exception {
+		IFile noNamespace = project.getFile("plain.xml");
+		noNamespace.create(new ByteArrayInputStream("<beans/>".getBytes("UTF-8")), true, null);
+		IFile malformed = project.getFile("malformed.xml");
+		malformed.create(new ByteArrayInputStream("no xml".getBytes("UTF-8")), true, null);
+
+		assertNull(locator.getNamespace(noNamespace));
+		assertNull(locator.getNamespace(malformed));
+		assertNull(locator.getNamespace(malformed));
+		assertEquals(2, locator.reads.get());
+	}
+
+	@Test
+	public void testRemovedFilesArePruned() throws Exception {
+		IFile file = createFile("config.xml", BEANS_NAMESPACE);
+		assertEquals(BEANS_NAMESPACE, locator.getNamespace(file));
+
+		file.delete(true, null);
+		file = createFile("config.xml", OTHER_NAMESPACE);
+		assertEquals(OTHER_NAMESPACE, locator.getNamespace(file));
+		assertEquals(2, locator.reads.get());
+	}
+
+	@Test
+	public void testClosedProjectsArePruned() throws Exception {
+		IFile file = createFile("config.xml", BEANS_NAMESPACE);
+		assertEquals(BEANS_NAMESPACE, locator.getNamespace(file));
+
+		// the modification stamp survives closing and opening the project
+		project.close(null);
+		project.open(null);
+		assertEquals(BEANS_NAMESPACE, locator.getNamespace(file));
+		assertEquals(2, locator.reads.get());
+	}
+
+	@Test
+	public void testConcurrentScans() throws Exception {
+		final Set<IFile> files = new LinkedHashSet<IFile>();
+		Set<IFile> expectedFiles = new LinkedHashSet<IFile>();
+		for (int i = 0; i < 40; i++) {
+			IFile file = createFile("config" + i + ".xml", i % 2 == 0 ? BEANS_NAMESPACE : OTHER_NAMESPACE + i);
+			files.add(file);
+			if (i % 2 == 0) {
+				expectedFiles.add(file);
+			}
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Set<IFile>>> results = new ArrayList<Future<Set<IFile>>>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(new Callable<Set<IFile>>() {
+					public Set<IFile> call() throws Exception {
+						return locator.filter(project, files);
+					}
+				}));
+			}
+			for (Future<Set<IFile>> result : results) {
+				assertEquals(expectedFiles, result.get());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private IFile createFile(String name, String namespaceUri) throws Exception {
+		IFile file = project.getFile(name);
+		file.create(new ByteArrayInputStream(xml(namespaceUri)), true, null);
+		return file;
+	}
+
+	private static byte[] xml(String namespaceUri) throws Exception {
+		return ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<beans xmlns=\"" + namespaceUri + "\">\n</beans>\n")
+				.getBytes("UTF-8");
+	}
+
+	/**
+	 * Counts how often a file is actually parsed.
+	 */
+	private static class CountingLocator extends ProjectScanningBeansConfigLocator {
+
+		private final AtomicInteger reads = new AtomicInteger();
+
+		public CountingLocator() {
+			super("xml");
+		}
+
+		public String getNamespace(IFile file) {
+			return getRootElementNamespace(file);
+		}
+
+		public Set<IFile> filter(IProject project, Set<IFile> files) {
+			getRootDirectories(project);
+			return filterMatchingFiles(files);
+		}
+
+		@Override
+		protected String readRootElementNamespace(IFile file, SAXParser parser) {
+			reads.incrementAndGet();
+			return super.readRootElementNamespace(file, parser);
+		}
+	}
+
+}
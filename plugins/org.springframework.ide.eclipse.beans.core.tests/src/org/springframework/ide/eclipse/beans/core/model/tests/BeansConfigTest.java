@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,20 +11,33 @@
 package org.springframework.ide.eclipse.beans.core.model.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.RandomAccessFile;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelSnapshot;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelSnapshot.ConfigSnapshot;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
@@ -33,6 +46,7 @@ import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.beans.core.model.IProfileAwareBeansComponent;
 import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.io.FileResource;
 import org.springframework.ide.eclipse.core.model.IModelElement;
 import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
 
@@ -98,6 +112,115 @@ public class BeansConfigTest {
 		assertEquals("org.springframework.aop.aspectj.annotation.AnnotationAwareAspectJAutoProxyCreator", aspectjBean.getClassName());
 	}
 
+	@Test
+	public void testFindBeanByNameAndAlias() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "alias-bean-config.xml", IBeansConfig.Type.MANUAL);
+
+		IBean bean = config.findBean("simpleBean");
+		assertNotNull(bean);
+		assertSame(bean, config.findBean("simpleBeanAlias"));
+		assertSame(bean, BeansModelUtils.getBean("simpleBeanAlias", config));
+		assertNull(config.findBean("unknownBeanAlias"));
+		assertNull(config.findBean(null));
+
+		config.reload();
+		IBean reloadedBean = config.findBean("simpleBeanAlias");
+		assertNotNull(reloadedBean);
+		assertEquals("simpleBean", reloadedBean.getElementName());
+	}
+
+	@Test
+	public void testRestoreFromSnapshot() throws Exception {
+		File directory = File.createTempFile("beans-model-snapshots", "");
+		directory.delete();
+
+		((BeansProject) beansProject).addConfig("alias-bean-config.xml", IBeansConfig.Type.MANUAL);
+		IBeansConfig config = beansProject.getConfig("alias-bean-config.xml");
+		IBean bean = config.getBean("simpleBean");
+		assertNotNull(bean);
+		new BeansModelSnapshot(directory, "test").save(beansProject);
+
+		BeansModelSnapshot snapshot = new BeansModelSnapshot(directory, "test");
+		snapshot.load(beansProject);
+		BeansConfig restoredConfig = new BeansConfig(beansProject, "alias-bean-config.xml", IBeansConfig.Type.MANUAL);
+		IFile file = (IFile) restoredConfig.getElementResource();
+		ConfigSnapshot content = snapshot.readSnapshot(restoredConfig, new FileResource(file));
+		assertNotNull(content);
+
+		IBean restoredBean = content.getBeans().get("simpleBean");
+		assertEquals(bean.getClassName(), restoredBean.getClassName());
+		assertEquals(bean.getElementStartLine(), restoredBean.getElementStartLine());
+		assertEquals(bean.getElementEndLine(), restoredBean.getElementEndLine());
+		assertEquals(file, restoredBean.getElementResource());
+		assertEquals("simpleBean", content.getAliases().get("simpleBeanAlias").getBeanName());
+		assertEquals(2, content.getAliases().size());
+
+		// entries are used only once
+		assertNull(snapshot.readSnapshot(restoredConfig, new FileResource(file)));
+
+		// changed files are read again
+		snapshot = new BeansModelSnapshot(directory, "test");
+		snapshot.load(beansProject);
+		file.touch(null);
+		assertNull(snapshot.readSnapshot(restoredConfig, new FileResource(file)));
+	}
+
+	@Test
+	public void testSnapshotFilesAreReplacedAndRemoved() throws Exception {
+		File directory = File.createTempFile("beans-model-snapshots", "");
+		directory.delete();
+
+		((BeansProject) beansProject).addConfig("alias-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertNotNull(beansProject.getConfig("alias-bean-config.xml").getBean("simpleBean"));
+		new BeansModelSnapshot(directory, "test").save(beansProject);
+		new BeansModelSnapshot(directory, "test").save(beansProject);
+		File snapshotFile = new File(directory, project.getName() + ".snapshot");
+		assertTrue(snapshotFile.exists());
+		assertEquals(1, directory.listFiles().length);
+
+		// snapshots of projects that don't exist anymore are removed
+		File obsoleteFile = new File(directory, "deleted-project.snapshot");
+		assertTrue(obsoleteFile.createNewFile());
+		new BeansModelSnapshot(directory, "test").removeObsoleteFiles();
+		assertFalse(obsoleteFile.exists());
+		assertTrue(snapshotFile.exists());
+
+		// snapshots that cannot be read are removed
+		RandomAccessFile content = new RandomAccessFile(snapshotFile, "rw");
+		try {
+			content.setLength(content.length() - 1);
+		}
+		finally {
+			content.close();
+		}
+		BeansModelSnapshot snapshot = new BeansModelSnapshot(directory, "test");
+		snapshot.load(beansProject);
+		assertFalse(snapshotFile.exists());
+		BeansConfig restoredConfig = new BeansConfig(beansProject, "alias-bean-config.xml", IBeansConfig.Type.MANUAL);
+		IFile file = (IFile) restoredConfig.getElementResource();
+		assertNull(snapshot.readSnapshot(restoredConfig, new FileResource(file)));
+	}
+
+	@Test
+	public void testNoSnapshotWithClassFolder() throws Exception {
+		File directory = File.createTempFile("beans-model-snapshots", "");
+		directory.delete();
+
+		IFolder classFolder = project.getFolder("classes");
+		classFolder.create(true, true, null);
+		IJavaProject javaProject = JavaCore.create(project);
+		IClasspathEntry[] rawClasspath = javaProject.getRawClasspath();
+		IClasspathEntry[] classpath = new IClasspathEntry[rawClasspath.length + 1];
+		System.arraycopy(rawClasspath, 0, classpath, 0, rawClasspath.length);
+		classpath[rawClasspath.length] = JavaCore.newLibraryEntry(classFolder.getFullPath(), null, null);
+		javaProject.setRawClasspath(classpath, null);
+
+		((BeansProject) beansProject).addConfig("alias-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertNotNull(beansProject.getConfig("alias-bean-config.xml").getBean("simpleBean"));
+		new BeansModelSnapshot(directory, "test").save(beansProject);
+		assertFalse(new File(directory, project.getName() + ".snapshot").exists());
+	}
+
 	@Test
 	public void testBasicComponentScanning() throws Exception {
 		BeansConfig config = new BeansConfig(beansProject, "basic-component-scanning.xml", IBeansConfig.Type.MANUAL);
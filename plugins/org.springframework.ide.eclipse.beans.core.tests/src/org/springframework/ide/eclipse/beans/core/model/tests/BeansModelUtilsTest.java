@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 GoPivotal, Inc.
+ * Copyright (c) 2013, 2017 GoPivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -9,11 +9,16 @@ package org.springframework.ide.eclipse.beans.core.model.tests;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jdt.core.IJavaProject;
@@ -28,6 +33,7 @@ import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IReloadableBeansConfig;
 import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
@@ -297,4 +303,94 @@ public class BeansModelUtilsTest {
 		assertTrue(realConfig2 == config1 || realConfig2 == config2);
 	}
 
+	@Test
+	public void testReloadedConfigInGetBeansAndConfigsByType() throws Exception {
+		IResource resource = javaProject.findType("org.test.spring.SimpleBeanClass").getResource();
+		assertEquals(0, BeansModelUtils.getBeansByContainingTypes(getNotInvolvedResource(), typeEngine, null).size());
+		assertEquals(0, BeansModelUtils.getConfigsByContainingTypes(getNotInvolvedResource(), typeEngine, null).size());
+
+		IFile configFile = project.getFile("basic-bean-config-2.xml");
+		setContents(configFile, getConfigSource(
+				"<bean id=\"simpleBean3\" class=\"org.test.spring.SimpleBeanClass\"/>"));
+		((IReloadableBeansConfig) beansProject.getConfig("basic-bean-config-2.xml")).reload();
+
+		assertEquals(beanNames("simpleBean1", "simpleBean2", "simpleBean3"),
+				getBeanNames(BeansModelUtils.getBeansByContainingTypes(resource, typeEngine, null)));
+		assertEquals(2, BeansModelUtils.getConfigsByContainingTypes(resource, typeEngine, null).size());
+	}
+
+	@Test
+	public void testBeanClassCreatedAfterIndexingInGetBeansAndConfigsByType() throws Exception {
+		IFile configFile = project.getFile("later-bean-config.xml");
+		configFile.create(new ByteArrayInputStream(getConfigSource(
+				"<bean id=\"laterCreatedBean\" class=\"org.test.spring.LaterCreatedBean\"/>").getBytes("UTF-8")),
+				true, null);
+		beansProject.addConfig("later-bean-config.xml", IBeansConfig.Type.MANUAL);
+
+		assertEquals(0, BeansModelUtils.getBeansByContainingTypes(getNotInvolvedResource(), typeEngine, null).size());
+		assertEquals(0, BeansModelUtils.getConfigsByContainingTypes(getNotInvolvedResource(), typeEngine, null).size());
+
+		// the type hierarchy of the bean class is resolved once the class exists
+		IFile classFile = project.getFile("src/org/test/spring/LaterCreatedBean.java");
+		classFile.create(new ByteArrayInputStream(("package org.test.spring;\n\n"
+				+ "public class LaterCreatedBean extends SuperType {\n}\n").getBytes("UTF-8")), true, null);
+		build();
+
+		IResource resource = javaProject.findType("org.test.spring.SuperType").getResource();
+		assertEquals(beanNames("supertypeChangedBean", "laterCreatedBean"),
+				getBeanNames(BeansModelUtils.getBeansByContainingTypes(resource, typeEngine, null)));
+		assertTrue(BeansModelUtils.getConfigsByContainingTypes(resource, typeEngine, null).contains(
+				beansProject.getConfig("later-bean-config.xml")));
+	}
+
+	@Test
+	public void testClearedTypeHierarchyCacheInGetBeansByType() throws Exception {
+		assertEquals(0, BeansModelUtils.getBeansByContainingTypes(getNotInvolvedResource(), typeEngine, null).size());
+
+		// change the hierarchy of a bean class without asking for the beans of the changed class
+		IFile classFile = (IFile) javaProject.findType("org.test.spring.DifferentBeanClass").getResource();
+		setContents(classFile, "package org.test.spring;\n\npublic class DifferentBeanClass extends SuperType {\n}\n");
+		build();
+		typeEngine.clearCache(project);
+
+		IResource resource = javaProject.findType("org.test.spring.SuperType").getResource();
+		assertEquals(beanNames("supertypeChangedBean", "differentBean"),
+				getBeanNames(BeansModelUtils.getBeansByContainingTypes(resource, typeEngine, null)));
+	}
+
+	private IResource getNotInvolvedResource() throws Exception {
+		return javaProject.findType("org.test.spring.NotInvolvedClass").getResource();
+	}
+
+	private void build() throws Exception {
+		StsTestUtil.waitForAutoBuild();
+		project.build(IncrementalProjectBuilder.INCREMENTAL_BUILD, null);
+	}
+
+	private static void setContents(IFile file, String contents) throws Exception {
+		file.setContents(new ByteArrayInputStream(contents.getBytes("UTF-8")), true, false, null);
+	}
+
+	private static String getConfigSource(String beans) {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<beans xmlns=\"http://www.springframework.org/schema/beans\"\n"
+				+ "	xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+				+ "	xsi:schemaLocation=\"http://www.springframework.org/schema/beans "
+				+ "http://www.springframework.org/schema/beans/spring-beans.xsd\">\n"
+				+ "	" + beans + "\n"
+				+ "</beans>\n";
+	}
+
+	private static Set<String> getBeanNames(Set<IBean> beans) {
+		Set<String> names = new HashSet<String>();
+		for (IBean bean : beans) {
+			names.add(bean.getElementName());
+		}
+		return names;
+	}
+
+	private static Set<String> beanNames(String... names) {
+		return new HashSet<String>(Arrays.asList(names));
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,7 +18,11 @@ import org.springframework.ide.core.classreading.tests.JdtBasedAnnotationMetadat
 import org.springframework.ide.core.classreading.tests.JdtClassMetadataTest;
 import org.springframework.ide.eclipse.beans.core.autowire.AutowireDependencyProviderTest;
 import org.springframework.ide.eclipse.beans.core.autowire.CommonAnnotationInjectionMetadataProviderTests;
+import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.tests.SchemaMappingCacheTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.resources.tests.ResourceChangeEventHandlerTest;
+import org.springframework.ide.eclipse.beans.core.internal.model.tests.BeansConfigLoaderTest;
+import org.springframework.ide.eclipse.beans.core.internal.model.tests.BeansConfigLoadingExecutorTest;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.ParallelValidationTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanClassRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanConstructorArgumentRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanConstructorArgumentRulesAutowireTest;
@@ -30,6 +34,8 @@ import org.springframework.ide.eclipse.beans.core.internal.model.validation.rule
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanReferenceRuleWithConfigSetTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.NamespaceElementsRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.RequiredPropertyRuleTest;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.tests.ProjectBeanMetadataTest;
+import org.springframework.ide.eclipse.beans.core.model.locate.tests.ProjectScanningBeansConfigLocatorTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectAutoConfigTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectDescriptionWriterTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansConfigFactoryTest;
@@ -38,9 +44,15 @@ import org.springframework.ide.eclipse.beans.core.model.tests.BeansJavaConfigTes
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansModelUtilsTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectTest;
 import org.springframework.ide.eclipse.beans.ui.refactoring.tests.BeansJavaConfigRenameTypeRefactoringParticipantTest;
+import org.springframework.ide.eclipse.core.java.BytecodeTypeHierarchyClassReaderTest;
+import org.springframework.ide.eclipse.core.java.IndexedTypeHierarchyClassReaderTest;
 import org.springframework.ide.eclipse.core.java.IntrospectorTest;
 import org.springframework.ide.eclipse.core.java.JdtUtilsTest;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyElementCacheTest;
 import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyIndexManagerTest;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyIndexTest;
+import org.springframework.ide.eclipse.core.model.validation.ValidationRuleProfilerTest;
 
 /**
  * Test suite for <code>beans.core</code> plugin.
@@ -64,6 +76,7 @@ import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
 	BeanReferenceRuleWithConfigSetTest.class,
 	BeanReferenceRuleWithConfigSetAndProfileTest.class,
 	NamespaceElementsRuleTest.class,
+	ParallelValidationTest.class,
 	IntrospectorTest.class,
 	JdtUtilsTest.class,
 	AutowireDependencyProviderTest.class,
@@ -80,7 +93,18 @@ import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
 	BeansJavaConfigRenameTypeRefactoringParticipantTest.class,
 	ResourceChangeEventHandlerTest.class,
 	TypeHierarchyEngineTest.class,
-	BeansModelUtilsTest.class
+	TypeHierarchyElementCacheTest.class,
+	TypeHierarchyIndexTest.class,
+	TypeHierarchyIndexManagerTest.class,
+	BytecodeTypeHierarchyClassReaderTest.class,
+	IndexedTypeHierarchyClassReaderTest.class,
+	ValidationRuleProfilerTest.class,
+	BeansConfigLoadingExecutorTest.class,
+	BeansConfigLoaderTest.class,
+	SchemaMappingCacheTest.class,
+	BeansModelUtilsTest.class,
+	ProjectScanningBeansConfigLocatorTest.class,
+	ProjectBeanMetadataTest.class
 })
 public class AllBeansCoreTests {
 	// goofy junit4, no class body needed
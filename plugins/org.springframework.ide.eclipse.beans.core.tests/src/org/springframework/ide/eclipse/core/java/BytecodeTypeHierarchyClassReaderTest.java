@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.typehierarchy.BytecodeTypeHierarchyClassReader;
+import org.springframework.ide.eclipse.core.java.typehierarchy.ClasspathElementDirectory;
+import org.springframework.ide.eclipse.core.java.typehierarchy.ClasspathLookupDirect;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Compares the names read by {@link BytecodeTypeHierarchyClassReader} with the ones read by the previous,
+ * stream based reader for the classes and the libraries of the type hierarchy test project.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class BytecodeTypeHierarchyClassReaderTest {
+
+	private IProject project;
+
+	private BytecodeTypeHierarchyClassReader reader;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("type-hierarchy-engine-testcases",
+				"org.springframework.ide.eclipse.beans.core.tests");
+		reader = new BytecodeTypeHierarchyClassReader(new ClasspathLookupDirect(new URL[0]));
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		reader.cleanup();
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testProjectClassesAreReadLikeBefore() throws Exception {
+		File outputFolder = project.getFolder("bin").getLocation().toFile();
+		String[] classFileNames = new ClasspathElementDirectory(outputFolder).getClassFileNames();
+		assertTrue(classFileNames.length > 0);
+
+		for (String classFileName : classFileNames) {
+			InputStream stream = new FileInputStream(new File(outputFolder, classFileName));
+			try {
+				compare(classFileName, readBytes(stream));
+			}
+			finally {
+				stream.close();
+			}
+		}
+	}
+
+	@Test
+	public void testLibraryClassesAreReadLikeBefore() throws Exception {
+		File[] jarFiles = project.getFolder("lib").getLocation().toFile().listFiles();
+		assertNotNull(jarFiles);
+		assertTrue(jarFiles.length > 0);
+
+		int classCount = 0;
+		for (File jarFile : jarFiles) {
+			JarFile jar = new JarFile(jarFile);
+			try {
+				Enumeration<JarEntry> entries = jar.entries();
+				while (entries.hasMoreElements()) {
+					JarEntry entry = entries.nextElement();
+					if (entry.getName().endsWith(".class")) {
+						InputStream stream = jar.getInputStream(entry);
+						try {
+							compare(entry.getName(), readBytes(stream));
+						}
+						finally {
+							stream.close();
+						}
+						classCount++;
+					}
+				}
+			}
+			finally {
+				jar.close();
+			}
+		}
+		assertTrue(classCount > 0);
+	}
+
+	private void compare(String classFileName, byte[] bytes) throws Exception {
+		TypeHierarchyElement expected = readWithStreamReader(new ByteArrayInputStream(bytes));
+		assertNotNull(classFileName, expected);
+		assertEquals(classFileName, classFileName.substring(0, classFileName.length() - ".class".length()),
+				new String(expected.className));
+
+		// the buffer doesn't start at the beginning of its array to make sure offsets are relative to its position
+		byte[] shiftedBytes = new byte[bytes.length + 3];
+		System.arraycopy(bytes, 0, shiftedBytes, 3, bytes.length);
+		ByteBuffer buffer = ByteBuffer.wrap(shiftedBytes, 3, bytes.length);
+
+		assertSameElement(classFileName, expected, reader.readTypeHierarchy(buffer));
+		assertEquals(3, buffer.position());
+		assertSameElement(classFileName, expected, reader.readTypeHierarchy(new ByteArrayInputStream(bytes)));
+	}
+
+	private static void assertSameElement(String classFileName, TypeHierarchyElement expected,
+			TypeHierarchyElement actual) {
+		assertNotNull(classFileName, actual);
+		assertArrayEquals(classFileName, expected.className, actual.className);
+		assertArrayEquals(classFileName, expected.superclassName, actual.superclassName);
+		assertArrayEquals(classFileName, expected.interfaces, actual.interfaces);
+	}
+
+	private static byte[] readBytes(InputStream stream) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int read;
+		while ((read = stream.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * The stream based implementation of {@link BytecodeTypeHierarchyClassReader#readTypeHierarchy(InputStream)}
+	 * before it was changed to read from a {@link ByteBuffer}, kept as the reference for the comparison.
+	 */
+	@SuppressWarnings("restriction")
+	private static TypeHierarchyElement readWithStreamReader(InputStream stream) throws IOException {
+		DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
+		int magic = dis.readInt(); // magic 0xCAFEBABE
+		if (magic != 0xCAFEBABE) {
+			throw new IllegalStateException("not bytecode, magic was 0x" + Integer.toString(magic, 16));
+		}
+		skip(dis, 4);
+
+		int constantPoolCount = dis.readShort();
+		Object[] constantPoolData = new Object[constantPoolCount];
+		for (int i = 1; i < constantPoolCount; i++) {
+			int tag = dis.readByte();
+			switch (tag) {
+				case ClassFileConstants.Utf8Tag :
+					constantPoolData[i] = dis.readUTF();
+					break;
+				case ClassFileConstants.IntegerTag :
+				case ClassFileConstants.FloatTag :
+				case ClassFileConstants.FieldRefTag :
+				case ClassFileConstants.MethodRefTag :
+				case ClassFileConstants.InterfaceMethodRefTag :
+				case ClassFileConstants.NameAndTypeTag :
+				case 18 : // ClassFileConstants.InvokeDynamicTag
+					skip(dis, 4);
+					break;
+				case ClassFileConstants.LongTag :
+				case ClassFileConstants.DoubleTag :
+					skip(dis, 8);
+					i++;
+					break;
+				case ClassFileConstants.ClassTag :
+					constantPoolData[i] = dis.readShort();
+					break;
+				case ClassFileConstants.StringTag :
+				case 16 : // ClassFileConstants.MethodTypeTag
+					skip(dis, 2);
+					break;
+				case 15 : // ClassFileConstants.MethodHandleTag
+					skip(dis, 3);
+					break;
+			}
+		}
+
+		skip(dis, 2);
+
+		// classname
+		short classNameIndex = dis.readShort();
+		short classNameUTF8index = (Short) constantPoolData[classNameIndex];
+		char[] className = ((String) constantPoolData[classNameUTF8index]).toCharArray();
+
+		// superclass name
+		short superclassNameIndex = dis.readShort();
+		char[] superclassName = null;
+		if (superclassNameIndex != 0) {
+			short superclassNameUTF8index = (Short) constantPoolData[superclassNameIndex];
+			superclassName = ((String) constantPoolData[superclassNameUTF8index]).toCharArray();
+		}
+
+		// interfaces
+		short interfacesCount = dis.readShort();
+		char[][] interfaceNames = null;
+		if (interfacesCount != 0) {
+			interfaceNames = new char[interfacesCount][];
+			for (int i = 0; i < interfacesCount; i++) {
+				short interfaceNameIndex = dis.readShort();
+				short interfaceNameUTF8index = (Short) constantPoolData[interfaceNameIndex];
+				interfaceNames[i] = ((String) constantPoolData[interfaceNameUTF8index]).toCharArray();
+			}
+		}
+
+		return new TypeHierarchyElement(className, superclassName, interfaceNames);
+	}
+
+	private static void skip(InputStream stream, long n) throws IOException {
+		long bytesToSkip = n;
+		do {
+			long skipped = stream.skip(bytesToSkip);
+			bytesToSkip = bytesToSkip - skipped;
+		} while (bytesToSkip > 0);
+	}
+
+}
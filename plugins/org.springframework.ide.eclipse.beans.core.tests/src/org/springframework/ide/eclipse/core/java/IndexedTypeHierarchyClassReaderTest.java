@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.ide.eclipse.core.java.TypeHierarchyIndexManagerTest.className;
+import static org.springframework.ide.eclipse.core.java.TypeHierarchyIndexManagerTest.writeJar;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyIndexManagerTest.Base;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyIndexManagerTest.Other;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyIndexManagerTest.Sub;
+import org.springframework.ide.eclipse.core.java.typehierarchy.IndexedTypeHierarchyClassReader;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyClassReader;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyIndex;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyIndexManager;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchySubtypeIndex;
+
+/**
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class IndexedTypeHierarchyClassReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File jarFile;
+
+	private File classFolder;
+
+	private RecordingReader fallbackReader;
+
+	private TypeHierarchyIndexManager indexManager;
+
+	private IndexedTypeHierarchyClassReader reader;
+
+	@Before
+	public void createClasspath() throws Exception {
+		jarFile = new File(folder.getRoot(), "test.jar");
+		writeJar(jarFile, Base.class, Sub.class);
+
+		// the class folder contains a class of the jar as well, the jar comes first
+		classFolder = folder.newFolder("classes");
+		copyClassFile(Other.class);
+		copyClassFile(Sub.class);
+
+		fallbackReader = new RecordingReader();
+		indexManager = new TypeHierarchyIndexManager(folder.newFolder("index"));
+		reader = new IndexedTypeHierarchyClassReader(new URL[] { jarFile.toURI().toURL(),
+				classFolder.toURI().toURL() }, indexManager, fallbackReader);
+	}
+
+	@Test
+	public void testClassesAreReadFromJarsBeforeClassFolders() throws Exception {
+		TypeHierarchyElement sub = read(Sub.class);
+		assertEquals(className(Base.class), new String(sub.superclassName));
+		assertEquals(jarFile.getAbsolutePath(), sub.location);
+
+		TypeHierarchyElement other = read(Other.class);
+		assertEquals("java/lang/Object", new String(other.superclassName));
+		assertEquals(classFolder.getAbsolutePath(), other.location);
+
+		assertEquals(0, fallbackReader.requestedClassNames.size());
+	}
+
+	@Test
+	public void testUnknownClassesAreReadByFallbackReader() throws Exception {
+		assertSame(RecordingReader.ELEMENT, reader.readTypeHierarchyInformation("java/lang/Runnable".toCharArray(),
+				null));
+		assertEquals(Arrays.asList("java/lang/Runnable"), fallbackReader.requestedClassNames);
+	}
+
+	@Test
+	public void testSubtypeIndexContainsClassesOfJarsAndClassFolders() throws Exception {
+		TypeHierarchySubtypeIndex subtypeIndex = reader.createSubtypeIndex(null);
+		assertTrue(subtypeIndex.contains(className(Base.class)));
+		assertTrue(subtypeIndex.contains(className(Sub.class)));
+		assertTrue(subtypeIndex.contains(className(Other.class)));
+		assertEquals(Collections.singleton(className(Sub.class)), subtypeIndex.getAllSubtypes(className(Base.class)));
+		assertEquals(new HashSet<String>(Arrays.asList(className(Base.class), className(Sub.class))),
+				subtypeIndex.getAllSubtypes("java/io/Serializable"));
+
+		// the class of the jar is not added again from the class folder
+		assertEquals(3, subtypeIndex.size());
+	}
+
+	@Test
+	public void testSubtypeIndexesShareJarSubtypeIndexes() throws Exception {
+		TypeHierarchyIndex jarIndex = indexManager.getIndex(jarFile);
+		TypeHierarchySubtypeIndex jarSubtypeIndex = jarIndex.getSubtypeIndex();
+		assertSame(jarSubtypeIndex, jarIndex.getSubtypeIndex());
+		assertEquals(2, jarSubtypeIndex.size());
+
+		IndexedTypeHierarchyClassReader otherReader = new IndexedTypeHierarchyClassReader(
+				new URL[] { jarFile.toURI().toURL() }, indexManager, fallbackReader);
+		TypeHierarchySubtypeIndex subtypeIndex = otherReader.createSubtypeIndex(null);
+		subtypeIndex.add(read(Other.class));
+		assertEquals(3, subtypeIndex.size());
+
+		// classes that are added to a project index don't show up in the shared jar index
+		assertEquals(2, jarSubtypeIndex.size());
+		assertFalse(jarSubtypeIndex.contains(className(Other.class)));
+		assertSame(jarSubtypeIndex, indexManager.getIndex(jarFile).getSubtypeIndex());
+	}
+
+	@Test
+	public void testCleanupRevalidatesIndexes() throws Exception {
+		assertEquals(jarFile.getAbsolutePath(), read(Sub.class).location);
+
+		long lastModified = jarFile.lastModified();
+		writeJar(jarFile, Base.class);
+		jarFile.setLastModified(lastModified + 10000);
+		reader.cleanup();
+
+		assertEquals(classFolder.getAbsolutePath(), read(Sub.class).location);
+		assertEquals(1, fallbackReader.cleanups);
+	}
+
+	private TypeHierarchyElement read(Class<?> clazz) {
+		return reader.readTypeHierarchyInformation(className(clazz).toCharArray(), null);
+	}
+
+	private void copyClassFile(Class<?> clazz) throws Exception {
+		String name = className(clazz) + ".class";
+		File file = new File(classFolder, name);
+		file.getParentFile().mkdirs();
+		InputStream in = clazz.getResourceAsStream("/" + name);
+		OutputStream out = new FileOutputStream(file);
+		try {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		}
+		finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	private static class RecordingReader implements TypeHierarchyClassReader {
+
+		private static final TypeHierarchyElement ELEMENT = new TypeHierarchyElement(
+				"java/lang/Runnable".toCharArray(), "java/lang/Object".toCharArray(), null);
+
+		private final List<String> requestedClassNames = new ArrayList<String>();
+
+		private int cleanups;
+
+		public TypeHierarchyElement readTypeHierarchyInformation(char[] fullyQualifiedClassName, IProject project) {
+			requestedClassNames.add(new String(fullyQualifiedClassName));
+			return ELEMENT;
+		}
+
+		public void cleanup() {
+			cleanups++;
+		}
+
+	}
+
+}
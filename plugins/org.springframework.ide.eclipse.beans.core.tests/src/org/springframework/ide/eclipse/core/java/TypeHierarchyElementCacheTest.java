@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElementCache;
+
+/**
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class TypeHierarchyElementCacheTest {
+
+	@Test
+	public void testCollidingHashCodes() throws Exception {
+		// "Aa" and "BB" share the same 31-multiplier hash code
+		assertEquals("org/Aa".hashCode(), "org/BB".hashCode());
+
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		TypeHierarchyElement first = element("org/Aa");
+		TypeHierarchyElement second = element("org/BB");
+		cache.put(first.className, first);
+		cache.put(second.className, second);
+
+		assertSame(first, cache.get("org/Aa".toCharArray()));
+		assertSame(second, cache.get("org/BB".toCharArray()));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testReplaceExistingElement() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		cache.put("org/SimpleClass".toCharArray(), element("org/SimpleClass"));
+		TypeHierarchyElement replacement = element("org/SimpleClass");
+		cache.put("org/SimpleClass".toCharArray(), replacement);
+
+		assertSame(replacement, cache.get("org/SimpleClass".toCharArray()));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testGrowBeyondInitialCapacity() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		for (int i = 0; i < 10000; i++) {
+			String name = "org/sub/Class" + i;
+			cache.put(name.toCharArray(), element(name));
+		}
+
+		assertEquals(10000, cache.size());
+		for (int i = 0; i < 10000; i++) {
+			String name = "org/sub/Class" + i;
+			assertEquals(name, new String(cache.get(name.toCharArray()).className));
+		}
+		assertNull(cache.get("org/sub/Class10000".toCharArray()));
+	}
+
+	@Test
+	public void testMaximumSize() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache(100);
+		for (int i = 0; i < 150; i++) {
+			String name = "org/sub/Class" + i;
+			cache.put(name.toCharArray(), element(name));
+		}
+
+		assertEquals(50, cache.size());
+		assertNull(cache.get("org/sub/Class0".toCharArray()));
+		assertEquals("org/sub/Class149", new String(cache.get("org/sub/Class149".toCharArray()).className));
+	}
+
+	@Test
+	public void testInvalidateClassesAndLocations() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		TypeHierarchyElement superclass = element("org/Superclass");
+		superclass.location = "/lib/library.jar";
+		TypeHierarchyElement subclass = new TypeHierarchyElement("org/Subclass".toCharArray(), "org/Superclass".toCharArray(), null);
+		subclass.location = "/project/bin";
+		subclass.superclassElement = superclass;
+		TypeHierarchyElement other = element("org/Other");
+		other.location = "/project/bin";
+
+		cache.put(superclass.className, superclass);
+		cache.put(subclass.className, subclass);
+		cache.put(other.className, other);
+
+		List<TypeHierarchyElement> removed = cache.invalidate(Collections.singleton("org/Subclass"), Collections.<String>emptySet());
+		assertEquals(1, removed.size());
+		assertSame(subclass, removed.get(0));
+		assertNull(cache.get("org/Subclass".toCharArray()));
+		assertSame(other, cache.get("org/Other".toCharArray()));
+		assertEquals(2, cache.size());
+
+		cache.put(subclass.className, subclass);
+		removed = cache.invalidate(Collections.<String>emptySet(), Collections.singleton("/lib/library.jar"));
+		assertEquals(1, removed.size());
+		assertNull(cache.get("org/Superclass".toCharArray()));
+		assertNull(subclass.superclassElement);
+		assertEquals(2, cache.size());
+	}
+
+	private TypeHierarchyElement element(String className) {
+		return new TypeHierarchyElement(className.toCharArray(), "java/lang/Object".toCharArray(), null);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,9 +15,12 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.Platform;
@@ -237,6 +240,33 @@ public class TypeHierarchyEngineTest {
 		assertEquals("java.lang.Object", engine.getSupertype(type));
 	}
 	
+	@Test
+	public void testGetAllSubtypesOfInterface() throws Exception {
+		Set<String> subtypes = new HashSet<String>(Arrays.asList(engine.getAllSubtypes(project, "org.SimpleInterface")));
+		assertTrue(subtypes.contains("org.SubInterface"));
+		assertTrue(subtypes.contains("org.CombinedSubclass"));
+		assertTrue(subtypes.contains("org.ClassImplementingInterfaceThroughSubInterface"));
+		assertTrue(subtypes.contains("org.ClassImplementingInterfaceThroughSuperclass"));
+		assertTrue(subtypes.contains("org.OuterClassA$InnerClassA"));
+		assertFalse(subtypes.contains("org.SimpleClass"));
+		assertFalse(subtypes.contains("org.SimpleInterface"));
+	}
+
+	@Test
+	public void testGetAllSubtypesOfClass() throws Exception {
+		Set<String> subtypes = new HashSet<String>(Arrays.asList(engine.getAllSubtypes(project, "org.ClassA")));
+		assertEquals(2, subtypes.size());
+		assertTrue(subtypes.contains("org.sub.ClassB"));
+		assertTrue(subtypes.contains("org.sub.ClassABCD"));
+	}
+
+	@Test
+	public void testGetAllSubtypesFromLibrary() throws Exception {
+		Set<String> subtypes = new HashSet<String>(Arrays.asList(engine.getAllSubtypes(project, "org.springframework.beans.factory.FactoryBean")));
+		assertTrue(subtypes.contains("org.springframework.beans.factory.config.AbstractFactoryBean"));
+		assertTrue(subtypes.contains("org.ImplementingInterfaceThroughExtendingTypeFromLibrary"));
+	}
+
 	@Test
 	public void testUseCachedElementsFirst() throws Exception {
 		AccessLoggingClassReaderFactory readerFactory = new AccessLoggingClassReaderFactory(classReaderFactory);
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyIndex;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyIndexManager;
+
+/**
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class TypeHierarchyIndexManagerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File indexDirectory;
+
+	private File jarFile;
+
+	@Before
+	public void createJar() throws Exception {
+		indexDirectory = folder.newFolder("index");
+		jarFile = new File(folder.getRoot(), "test.jar");
+		writeJar(jarFile, Base.class, Sub.class);
+	}
+
+	@Test
+	public void testIndexIsCreatedAndReused() throws Exception {
+		TypeHierarchyIndexManager manager = new TypeHierarchyIndexManager(indexDirectory);
+		TypeHierarchyIndex index = manager.getIndex(jarFile);
+		assertEquals(2, index.getClassCount());
+		assertSame(index, manager.getIndex(jarFile));
+
+		TypeHierarchyElement sub = index.get(className(Sub.class).toCharArray());
+		assertEquals(className(Base.class), new String(sub.superclassName));
+		assertEquals("java/lang/Runnable", new String(sub.interfaces[0]));
+		assertEquals("java/io/Serializable", new String(
+				index.get(className(Base.class).toCharArray()).interfaces[0]));
+
+		// the stored index file is loaded again instead of reading the jar
+		File indexFile = getIndexFile();
+		long indexLastModified = indexFile.lastModified();
+		TypeHierarchyIndex restored = new TypeHierarchyIndexManager(indexDirectory).getIndex(jarFile);
+		assertEquals(2, restored.getClassCount());
+		assertEquals(indexLastModified, indexFile.lastModified());
+	}
+
+	@Test
+	public void testChangedJarIsIndexedAgain() throws Exception {
+		TypeHierarchyIndexManager manager = new TypeHierarchyIndexManager(indexDirectory);
+		assertNull(manager.getIndex(jarFile).get(className(Other.class).toCharArray()));
+
+		long lastModified = jarFile.lastModified();
+		writeJar(jarFile, Base.class, Sub.class, Other.class);
+		jarFile.setLastModified(lastModified + 10000);
+
+		TypeHierarchyIndex index = manager.getIndex(jarFile);
+		assertEquals(3, index.getClassCount());
+		assertNotNull(index.get(className(Other.class).toCharArray()));
+		assertEquals(1, indexDirectory.listFiles().length);
+	}
+
+	@Test
+	public void testCorruptIndexFileIsRebuilt() throws Exception {
+		new TypeHierarchyIndexManager(indexDirectory).getIndex(jarFile);
+		File indexFile = getIndexFile();
+		RandomAccessFile file = new RandomAccessFile(indexFile, "rw");
+		try {
+			file.setLength(file.length() / 2);
+		}
+		finally {
+			file.close();
+		}
+
+		TypeHierarchyIndex index = new TypeHierarchyIndexManager(indexDirectory).getIndex(jarFile);
+		assertEquals(2, index.getClassCount());
+		assertNotNull(index.get(className(Sub.class).toCharArray()));
+	}
+
+	@Test
+	public void testIndexFilesOfMissingJarsArePruned() throws Exception {
+		new TypeHierarchyIndexManager(indexDirectory).getIndex(jarFile);
+		File indexFile = getIndexFile();
+		assertTrue(jarFile.delete());
+
+		File otherJarFile = new File(folder.getRoot(), "other.jar");
+		writeJar(otherJarFile, Other.class);
+		new TypeHierarchyIndexManager(indexDirectory).getIndex(otherJarFile);
+		assertFalse(indexFile.exists());
+		assertEquals(1, indexDirectory.listFiles().length);
+	}
+
+	@Test
+	public void testUnusedIndexFilesArePruned() throws Exception {
+		File otherJarFile = new File(folder.getRoot(), "other.jar");
+		writeJar(otherJarFile, Other.class);
+		new TypeHierarchyIndexManager(indexDirectory).getIndex(jarFile);
+		File indexFile = getIndexFile();
+		assertTrue(indexFile.setLastModified(System.currentTimeMillis()
+				- TypeHierarchyIndexManager.UNUSED_INDEX_FILE_EXPIRATION - 10000));
+
+		new TypeHierarchyIndexManager(indexDirectory).getIndex(otherJarFile);
+		assertFalse(indexFile.exists());
+	}
+
+	private File getIndexFile() {
+		File[] files = indexDirectory.listFiles();
+		assertEquals(1, files.length);
+		return files[0];
+	}
+
+	static String className(Class<?> clazz) {
+		return clazz.getName().replace('.', '/');
+	}
+
+	/**
+	 * Writes a jar that contains the class files of the given classes.
+	 */
+	static void writeJar(File file, Class<?>... classes) throws IOException {
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(file));
+		try {
+			for (Class<?> clazz : classes) {
+				String name = className(clazz) + ".class";
+				out.putNextEntry(new ZipEntry(name));
+				InputStream in = clazz.getResourceAsStream("/" + name);
+				try {
+					byte[] buffer = new byte[4096];
+					int read;
+					while ((read = in.read(buffer)) != -1) {
+						out.write(buffer, 0, read);
+					}
+				}
+				finally {
+					in.close();
+				}
+				out.closeEntry();
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	static class Base implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+	}
+
+	static class Sub extends Base implements Runnable {
+
+		private static final long serialVersionUID = 1L;
+
+		public void run() {
+		}
+
+	}
+
+	static class Other {
+	}
+
+}
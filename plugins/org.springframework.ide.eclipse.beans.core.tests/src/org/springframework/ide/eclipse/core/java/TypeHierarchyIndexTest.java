@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElementVisitor;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyIndex;
+
+/**
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class TypeHierarchyIndexTest {
+
+	private static final String JAR_PATH = "/test/lib/test.jar";
+
+	private static final long JAR_SIZE = 1234;
+
+	private static final long JAR_LAST_MODIFIED = 5678;
+
+	// offset of the string count, behind magic, version, jar size, last modified and jar path
+	private static final int STRING_COUNT_OFFSET = 28 + JAR_PATH.length() * 2;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File indexFile;
+
+	@Before
+	public void writeIndex() throws Exception {
+		indexFile = new File(folder.getRoot(), "test.idx");
+		TypeHierarchyIndex.write(indexFile, JAR_PATH, JAR_SIZE, JAR_LAST_MODIFIED, Arrays.asList(
+				element("org/test/Sub", "org/test/Base", "java/io/Serializable", "java/lang/Runnable"),
+				element("org/test/Base", "java/lang/Object"),
+				element("java/lang/Object", null)));
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		TypeHierarchyIndex index = load();
+		assertEquals(3, index.getClassCount());
+
+		TypeHierarchyElement sub = index.get("org/test/Sub".toCharArray());
+		assertEquals("org/test/Base", new String(sub.superclassName));
+		assertEquals(2, sub.interfaces.length);
+		assertEquals("java/io/Serializable", new String(sub.interfaces[0]));
+		assertEquals("java/lang/Runnable", new String(sub.interfaces[1]));
+
+		TypeHierarchyElement base = index.get("org/test/Base".toCharArray());
+		assertEquals("java/lang/Object", new String(base.superclassName));
+		assertNull(base.interfaces);
+		assertNull(index.get("java/lang/Object".toCharArray()).superclassName);
+
+		assertNull(index.get("org/test/Missing".toCharArray()));
+		assertNull(index.get("java/io/Serializable".toCharArray()));
+
+		Set<String> classNames = new HashSet<String>();
+		for (char[] className : index.getClassNames()) {
+			classNames.add(new String(className));
+		}
+		assertEquals(names("java/lang/Object", "org/test/Base", "org/test/Sub"), classNames);
+
+		final Set<String> visited = new HashSet<String>();
+		index.accept(new TypeHierarchyElementVisitor() {
+			public void visit(TypeHierarchyElement element) {
+				visited.add(new String(element.className));
+			}
+		});
+		assertEquals(classNames, visited);
+
+		assertEquals(JAR_PATH, TypeHierarchyIndex.readJarPath(indexFile));
+	}
+
+	@Test
+	public void testIndexOfOtherJarIsNotLoaded() throws Exception {
+		assertNull(TypeHierarchyIndex.load(indexFile, JAR_PATH, JAR_SIZE + 1, JAR_LAST_MODIFIED));
+		assertNull(TypeHierarchyIndex.load(indexFile, JAR_PATH, JAR_SIZE, JAR_LAST_MODIFIED + 1));
+		assertNull(TypeHierarchyIndex.load(indexFile, "/test/lib/other.jar", JAR_SIZE, JAR_LAST_MODIFIED));
+		assertNull(TypeHierarchyIndex.load(new File(folder.getRoot(), "missing.idx"), JAR_PATH, JAR_SIZE,
+				JAR_LAST_MODIFIED));
+	}
+
+	@Test
+	public void testTruncatedIndexIsNotLoaded() throws Exception {
+		RandomAccessFile file = new RandomAccessFile(indexFile, "rw");
+		try {
+			file.setLength(file.length() - 1);
+		}
+		finally {
+			file.close();
+		}
+		assertNull(load());
+	}
+
+	@Test
+	public void testInvalidCountsAreNotLoaded() throws Exception {
+		assertNull(loadWithInt(STRING_COUNT_OFFSET, Integer.MAX_VALUE));
+		assertNull(loadWithInt(STRING_COUNT_OFFSET, -1));
+		assertNull(loadWithInt(STRING_COUNT_OFFSET + 4, Integer.MAX_VALUE));
+		assertNull(loadWithInt(STRING_COUNT_OFFSET + 4, -1));
+		assertNull(loadWithInt(24, Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void testInvalidOffsetsAreNotLoaded() throws Exception {
+		int recordOffsetsStart = STRING_COUNT_OFFSET + 8;
+		int stringOffsetsStart = recordOffsetsStart + 3 * 4;
+		assertNull(loadWithInt(recordOffsetsStart, Integer.MAX_VALUE));
+		assertNull(loadWithInt(recordOffsetsStart + 4, 0));
+		assertNull(loadWithInt(stringOffsetsStart, -1));
+		assertNull(loadWithInt(stringOffsetsStart + 4, (int) indexFile.length() - 1));
+	}
+
+	@Test
+	public void testInvalidStringIdsAreNotLoaded() throws Exception {
+		int firstRecord = readInt(STRING_COUNT_OFFSET + 8);
+		assertNull(loadWithInt(firstRecord, 100));
+		assertNull(loadWithInt(firstRecord + 4, -2));
+		assertNull(loadWithInt(firstRecord + 4, 100));
+	}
+
+	private TypeHierarchyIndex load() throws Exception {
+		return TypeHierarchyIndex.load(indexFile, JAR_PATH, JAR_SIZE, JAR_LAST_MODIFIED);
+	}
+
+	/**
+	 * Loads the index after replacing the int at the given offset and restores the original file afterwards.
+	 */
+	private TypeHierarchyIndex loadWithInt(int offset, int value) throws Exception {
+		int original = readInt(offset);
+		writeInt(offset, value);
+		try {
+			return load();
+		}
+		finally {
+			writeInt(offset, original);
+			assertNotNull(load());
+		}
+	}
+
+	private int readInt(int offset) throws Exception {
+		RandomAccessFile file = new RandomAccessFile(indexFile, "r");
+		try {
+			file.seek(offset);
+			return file.readInt();
+		}
+		finally {
+			file.close();
+		}
+	}
+
+	private void writeInt(int offset, int value) throws Exception {
+		RandomAccessFile file = new RandomAccessFile(indexFile, "rw");
+		try {
+			file.seek(offset);
+			file.writeInt(value);
+		}
+		finally {
+			file.close();
+		}
+	}
+
+	private static TypeHierarchyElement element(String className, String superclassName, String... interfaces) {
+		char[][] interfaceNames = null;
+		if (interfaces.length > 0) {
+			interfaceNames = new char[interfaces.length][];
+			for (int i = 0; i < interfaces.length; i++) {
+				interfaceNames[i] = interfaces[i].toCharArray();
+			}
+		}
+		return new TypeHierarchyElement(className.toCharArray(),
+				superclassName != null ? superclassName.toCharArray() : null, interfaceNames);
+	}
+
+	private static Set<String> names(String... names) {
+		return new HashSet<String>(Arrays.asList(names));
+	}
+
+}
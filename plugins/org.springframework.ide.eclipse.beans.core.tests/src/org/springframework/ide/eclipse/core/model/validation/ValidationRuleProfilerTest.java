@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.model.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.model.validation.ValidationRuleProfiler.RuleStatistics;
+
+/**
+ * @author Martin Lippert
+ */
+public class ValidationRuleProfilerTest {
+
+	@Test
+	public void testRecordRuleAndResourceStatistics() throws Exception {
+		ValidationRuleProfiler profiler = new ValidationRuleProfiler();
+		profiler.record("beanClass", "/project/a.xml", TimeUnit.MILLISECONDS.toNanos(3));
+		profiler.record("beanClass", "/project/a.xml", TimeUnit.MILLISECONDS.toNanos(5));
+		profiler.record("beanClass", "/project/b.xml", TimeUnit.MILLISECONDS.toNanos(2));
+		profiler.record("beanProperty", null, TimeUnit.MILLISECONDS.toNanos(1));
+
+		Map<String, RuleStatistics> rules = profiler.getRuleStatistics();
+		assertEquals(2, rules.size());
+		assertEquals(3, rules.get("beanClass").getCount());
+		assertEquals(10, rules.get("beanClass").getTotalTimeMillis());
+		assertEquals(5, rules.get("beanClass").getMaxTimeMillis());
+		assertEquals(1, rules.get("beanProperty").getCount());
+
+		Map<String, RuleStatistics> resources = profiler.getResourceStatistics("beanClass");
+		assertEquals(2, resources.size());
+		assertEquals(2, resources.get("/project/a.xml").getCount());
+		assertEquals(8, resources.get("/project/a.xml").getTotalTimeMillis());
+		assertTrue(profiler.getResourceStatistics("beanProperty").isEmpty());
+
+		profiler.resetStatistics();
+		assertTrue(profiler.getRuleStatistics().isEmpty());
+	}
+
+	@Test
+	public void testWriteReport() throws Exception {
+		ValidationRuleProfiler profiler = new ValidationRuleProfiler();
+		profiler.record("beanClass", "/project/a.xml", TimeUnit.MILLISECONDS.toNanos(3));
+
+		File reportFile = File.createTempFile("validation-profile", ".csv");
+		try {
+			profiler.writeReport(reportFile);
+			String report = new String(Files.readAllBytes(reportFile.toPath()), "UTF-8");
+			assertTrue(report.startsWith("rule,resource,count,total ms,max ms\n"));
+			assertTrue(report.contains("\"beanClass\",\"\",1,3,3\n"));
+			assertTrue(report.contains("\"beanClass\",\"/project/a.xml\",1,3,3\n"));
+		}
+		finally {
+			reportFile.delete();
+		}
+	}
+
+	@Test
+	public void testShutdownWritesPendingReport() throws Exception {
+		File reportFile = getReportFile();
+		reportFile.delete();
+		ValidationRuleProfiler profiler = new ValidationRuleProfiler();
+		profiler.record("beanClass", "/project/a.xml", TimeUnit.MILLISECONDS.toNanos(3));
+
+		// without a scheduled report nothing is written
+		profiler.shutdown();
+		assertFalse(reportFile.exists());
+
+		try {
+			profiler.scheduleReport();
+			assertFalse(reportFile.exists());
+			profiler.shutdown();
+			String report = new String(Files.readAllBytes(reportFile.toPath()), "UTF-8");
+			assertTrue(report.contains("\"beanClass\",\"/project/a.xml\",1,3,3\n"));
+		}
+		finally {
+			reportFile.delete();
+		}
+	}
+
+	@Test
+	public void testResetDropsPendingReport() throws Exception {
+		File reportFile = getReportFile();
+		reportFile.delete();
+		ValidationRuleProfiler profiler = new ValidationRuleProfiler();
+		profiler.record("beanClass", "/project/a.xml", TimeUnit.MILLISECONDS.toNanos(3));
+		profiler.scheduleReport();
+
+		profiler.resetStatistics();
+		assertTrue(profiler.getRuleStatistics().isEmpty());
+		profiler.shutdown();
+		assertFalse(reportFile.exists());
+	}
+
+	private static File getReportFile() {
+		return SpringCore.getDefault().getStateLocation().append(ValidationRuleProfiler.REPORT_FILE_NAME).toFile();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -45,9 +45,11 @@ import org.osgi.framework.Version;
 import org.osgi.service.url.URLConstants;
 import org.osgi.service.url.URLStreamHandlerService;
 import org.springframework.beans.factory.xml.NamespaceHandlerResolver;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoadingExecutor;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
 import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.NamespaceManager;
 import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.ProjectClasspathNamespaceDefinitionResolverCache;
+import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.SchemaMappingCache;
 import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
 import org.springframework.ide.eclipse.beans.core.model.INamespaceDefinitionListener;
 import org.springframework.ide.eclipse.beans.core.model.INamespaceDefinitionResolver;
@@ -112,8 +114,15 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 
 	/** Internal executor service */
 	private ExecutorService executorService;
+
+	/** Internal executor used to load configs */
+	private BeansConfigLoadingExecutor configLoadingExecutor;
 	private AtomicInteger threadCount = new AtomicInteger(0);
+
+	/** Workspace wide cache of schema mappings contained in jar files */
+	private SchemaMappingCache schemaMappingCache;
 	private static final String THREAD_NAME_TEMPLATE = "Background Thread-%s (%s/%s.%s.%s)";
+	private static final String SCHEMA_MAPPING_CACHE_FILE = "schema-mappings.cache";
 
 	/**
 	 * Preference ID to globally disable any beans auto detection scanning.
@@ -165,7 +174,7 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 				URLStreamHandlerService.class.getName(),
 				new ProjectAwareUrlStreamHandlerService(), properties);
 		
-		executorService = Executors.newCachedThreadPool(new ThreadFactory() {
+		ThreadFactory threadFactory = new ThreadFactory() {
 			
 			public Thread newThread(Runnable runnable) {
 				Version version = Version.parseVersion(getPluginVersion());
@@ -178,9 +187,12 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 				reportingThread.setDaemon(true);
 				return reportingThread;
 			}
-		});
+		};
+		executorService = Executors.newCachedThreadPool(threadFactory);
+		configLoadingExecutor = new BeansConfigLoadingExecutor(threadFactory);
 
 		
+		schemaMappingCache = new SchemaMappingCache(getStateLocation().append(SCHEMA_MAPPING_CACHE_FILE).toFile());
 		nsManager = new NamespaceManager(context);
 		getPreferenceStore().setDefault(TIMEOUT_CONFIG_LOADING_PREFERENCE_ID, 60);
 		getPreferenceStore().setDefault(NAMESPACE_DEFAULT_FROM_CLASSPATH_ID, true);
@@ -211,6 +223,12 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 			isClosed = true;
 		}
 		model.stop();
+		if (configLoadingExecutor != null) {
+			configLoadingExecutor.shutdown();
+		}
+		if (schemaMappingCache != null) {
+			schemaMappingCache.save();
+		}
 		if (projectAwareUrlService != null) {
 			projectAwareUrlService.unregister();
 		}
@@ -253,10 +271,29 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 		return getDefault().nsManager.getNamespacePlugins();
 	}
 
+	/**
+	 * Returns the executor for background tasks; configs are loaded by the {@link #getConfigLoadingExecutor()}.
+	 */
 	public static ExecutorService getExecutorService() {
 		return getDefault().executorService;
 	}
 
+	/**
+	 * Returns the executor that loads configs on a bounded number of threads.
+	 * @since 3.9.3
+	 */
+	public static BeansConfigLoadingExecutor getConfigLoadingExecutor() {
+		return getDefault().configLoadingExecutor;
+	}
+
+	/**
+	 * Returns the workspace wide cache of schema mappings and XSD target namespaces contained in jar files.
+	 * @since 3.9.3
+	 */
+	public static SchemaMappingCache getSchemaMappingCache() {
+		return getDefault().schemaMappingCache;
+	}
+
 	public static void notifyNamespaceDefinitionListeners(IProject project) {
 		for (INamespaceDefinitionListener listener : getDefault().namespaceDefinitionListeners) {
 			listener.onNamespaceDefinitionRegistered(new INamespaceDefinitionListener.NamespaceDefinitionChangeEvent(
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Spring IDE Developers
+ * Copyright (c) 2008, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,13 +10,16 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.internal.model;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -87,11 +90,19 @@ public abstract class AbstractBeansConfig extends AbstractResourceModelElement i
 
 	protected volatile boolean isBeanClassesMapPopulated = false;
 
+	/** Bean names and aliases mapped to beans, including the beans of components and imported configs */
+	protected volatile Map<String, IBean> beanLookupMap = new HashMap<String, IBean>();
+
+	protected volatile boolean isBeanLookupMapPopulated = false;
+
 	protected volatile boolean isModelPopulated = false;
 
 	/** This bean config file's timestamp of last modification */
 	protected volatile long modificationTimestamp;
 
+	/** Number of times this config has been reloaded */
+	protected final AtomicInteger reloadCount = new AtomicInteger();
+
 	/** Set of parsing errors */
 	protected Set<ValidationProblem> problems = new CopyOnWriteArraySet<ValidationProblem>();
 
@@ -265,6 +276,16 @@ public abstract class AbstractBeansConfig extends AbstractResourceModelElement i
 		return null;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public IBean findBean(String nameOrAlias) {
+		if (nameOrAlias != null) {
+			return getBeanLookupMap().get(nameOrAlias);
+		}
+		return null;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -572,6 +593,15 @@ public abstract class AbstractBeansConfig extends AbstractResourceModelElement i
 		return file instanceof ExternalFile;
 	}
 
+	/**
+	 * Returns the number of times this config has been reloaded. Data derived from the beans of this config is stale
+	 * if the number changed since the data has been derived.
+	 * @since 3.9.3
+	 */
+	public int getReloadCount() {
+		return reloadCount.get();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -708,6 +738,69 @@ public abstract class AbstractBeansConfig extends AbstractResourceModelElement i
 		return beanClassesMap;
 	}
 
+	/**
+	 * Returns lazily initialized map with all bean names and aliases of this config. Bean names take precedence over
+	 * aliases and aliases over the names of beans defined within components.
+	 */
+	protected Map<String, IBean> getBeanLookupMap() {
+		if (!this.isBeanLookupMapPopulated) {
+			try {
+				w.lock();
+				if (this.isBeanLookupMapPopulated) {
+					return beanLookupMap;
+				}
+				beanLookupMap = createBeanLookupMap(getBeans(), getAliases(), getComponents());
+			}
+			finally {
+				this.isBeanLookupMapPopulated = true;
+				w.unlock();
+			}
+		}
+		return beanLookupMap;
+	}
+
+	/**
+	 * Creates a map of the given beans, aliases and component beans keyed by bean name or alias. The first element with
+	 * a given name wins.
+	 */
+	static Map<String, IBean> createBeanLookupMap(Collection<IBean> beans, Collection<IBeanAlias> aliases,
+			Collection<IBeansComponent> components) {
+		Map<String, IBean> lookupMap = new HashMap<String, IBean>();
+		Map<String, IBean> beansByName = new HashMap<String, IBean>();
+		for (IBean bean : beans) {
+			if (!beansByName.containsKey(bean.getElementName())) {
+				beansByName.put(bean.getElementName(), bean);
+			}
+		}
+		lookupMap.putAll(beansByName);
+
+		Set<String> aliasNames = new HashSet<String>();
+		for (IBeanAlias alias : aliases) {
+			if (aliasNames.add(alias.getElementName()) && !lookupMap.containsKey(alias.getElementName())) {
+				IBean bean = beansByName.get(alias.getBeanName());
+				if (bean != null) {
+					lookupMap.put(alias.getElementName(), bean);
+				}
+			}
+		}
+
+		for (IBeansComponent component : components) {
+			addComponentBeans(component, lookupMap);
+		}
+		return lookupMap;
+	}
+
+	private static void addComponentBeans(IBeansComponent component, Map<String, IBean> lookupMap) {
+		for (IBean bean : component.getBeans()) {
+			if (!lookupMap.containsKey(bean.getElementName())) {
+				lookupMap.put(bean.getElementName(), bean);
+			}
+		}
+		for (IBeansComponent nestedComponent : component.getComponents()) {
+			addComponentBeans(nestedComponent, lookupMap);
+		}
+	}
+
 	public boolean doesAnnotationScanning() {
 		for (IBeansComponent component : this.getComponents()) {
 			boolean result = doesAnnotationScanning(component);
@@ -24,7 +24,6 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -84,6 +83,7 @@ import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.MethodMetadata;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelSnapshot.ConfigSnapshot;
 import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.DelegatingNamespaceHandlerResolver;
 import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.DocumentAccessor;
 import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.XmlCatalogDelegatingEntityResolver;
@@ -95,6 +95,7 @@ import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfigEventListener;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfigSet;
 import org.springframework.ide.eclipse.beans.core.model.IBeansImport;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.beans.core.model.IReloadableBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.process.IBeansConfigPostProcessor;
@@ -222,6 +223,7 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 				// System.out.println(String.format("++- resetting config '%s'", file.getFullPath().toString()));
 				isModelPopulated = false;
 				modificationTimestamp = IResource.NULL_STAMP;
+				reloadCount.incrementAndGet();
 				defaults = null;
 				imports.clear();
 				aliases.clear();
@@ -229,6 +231,8 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 				components.clear();
 				isBeanClassesMapPopulated = false;
 				beanClassesMap.clear();
+				isBeanLookupMapPopulated = false;
+				beanLookupMap = new HashMap<String, IBean>();
 				problems.clear();
 				children = null;
 
@@ -331,7 +335,7 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 					eventListener.onReadStart(this);
 				}
 
-				if (file != null && file.exists()) {
+				if (file != null && file.exists() && !restoreSnapshot()) {
 
 					// Only install Eclipse-based resource loader if enabled in project properties
 					// IMPORTANT: the following block needs to stay before the w.lock()
@@ -474,10 +478,9 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 						};
 
 						try {
-							FutureTask<Integer> task = new FutureTask<Integer>(loadBeanDefinitionOperation);
-							BeansCorePlugin.getExecutorService().submit(task);
-							count = task.get(BeansCorePlugin.getDefault().getPreferenceStore().getInt(BeansCorePlugin.TIMEOUT_CONFIG_LOADING_PREFERENCE_ID),
-									TimeUnit.SECONDS);
+							count = BeansCorePlugin.getConfigLoadingExecutor().execute(getElementName(), file.getProject(),
+									loadBeanDefinitionOperation, BeansCorePlugin.getDefault().getPreferenceStore()
+											.getInt(BeansCorePlugin.TIMEOUT_CONFIG_LOADING_PREFERENCE_ID), TimeUnit.SECONDS);
 
 							// if we recored an exception use this instead of stupid concurrent exception
 							if (throwables.size() > 0) {
@@ -569,6 +572,47 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 		}
 	}
 
+	/**
+	 * Populates this config from the {@link BeansModelSnapshot} of the model if the snapshot contains an up-to-date
+	 * entry for this config.
+	 * @return <code>true</code> if this config has been restored from the snapshot
+	 */
+	private boolean restoreSnapshot() {
+		IBeansModel model = BeansCorePlugin.getModel();
+		BeansModelSnapshot snapshot = model instanceof BeansModel ? ((BeansModel) model).getSnapshot() : null;
+		if (snapshot == null) {
+			return false;
+		}
+
+		Resource fileResource = new FileResource(file);
+		ConfigSnapshot content = snapshot.readSnapshot(this, fileResource);
+		if (content == null) {
+			return false;
+		}
+
+		modificationTimestamp = file.getModificationStamp();
+		resource = fileResource;
+		registry = new ScannedGenericBeanDefinitionSuppressingBeanDefinitionRegistry();
+		problemReporter = new BeansConfigProblemReporter();
+		beanNameGenerator = new UniqueBeanNameGenerator(this);
+
+		defaults = content.getDefaults();
+		problems.addAll(content.getProblems());
+		aliases.putAll(content.getAliases());
+		components.addAll(content.getComponents());
+		beans.putAll(content.getBeans());
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if the content of this config depends on nothing else than its workspace file and the
+	 * classpath of its project, which is the precondition for storing it in a {@link BeansModelSnapshot}.
+	 */
+	boolean isSelfContained() {
+		return file != null && !isArchived && !(file instanceof ExternalFile) && imports.isEmpty()
+				&& ownPostProcessors.isEmpty() && externalPostProcessors.isEmpty();
+	}
+
 	public ClassLoader getProjectRelatedClassLoader() {
 		if (file != null && file.exists()) {
 			return JdtUtils.getClassLoader(file.getProject(), BeansCorePlugin.getClassLoader());
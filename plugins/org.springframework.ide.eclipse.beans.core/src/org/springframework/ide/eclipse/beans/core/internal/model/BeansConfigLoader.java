@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoadingExecutor.PendingLoad;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+
+/**
+ * Reads a number of {@link IBeansConfig}s concurrently on the {@link BeansConfigLoadingExecutor}.
+ * <p>
+ * Every config is read by a single load together with the configs it imports, because imported configs are read from
+ * within {@link AbstractBeansConfig#readConfig()} of the importing config and therefore run as nested loads on the
+ * same thread. A load therefore never waits for another load, which keeps the bounded pool of the executor free of
+ * deadlocks. Configs with the longest load time recorded by the executor are submitted first so that large import
+ * trees don't end up as the last load of a run.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class BeansConfigLoader {
+
+	/**
+	 * Reads the given configs and returns the load time of each config in nanoseconds. Configs that have already been
+	 * read are reported with the (short) time it takes to find that out.
+	 * @param configs the configs to read
+	 * @param monitor the progress monitor used to report progress and check for cancellation
+	 * @throws OperationCanceledException if the monitor has been canceled
+	 */
+	public static Map<IBeansConfig, Long> loadConfigs(Collection<IBeansConfig> configs,
+			final IProgressMonitor monitor) {
+		BeansConfigLoadingExecutor executor = BeansCorePlugin.getConfigLoadingExecutor();
+		final Map<String, Long> previousLoadTimes = executor.getLoadTimes();
+		List<IBeansConfig> orderedConfigs = new ArrayList<IBeansConfig>(configs);
+		Collections.sort(orderedConfigs, new Comparator<IBeansConfig>() {
+			public int compare(IBeansConfig config1, IBeansConfig config2) {
+				long time1 = getLoadTime(previousLoadTimes, config1);
+				long time2 = getLoadTime(previousLoadTimes, config2);
+				return time1 < time2 ? 1 : (time1 == time2 ? 0 : -1);
+			}
+		});
+
+		int timeout = BeansCorePlugin.getDefault().getPreferenceStore()
+				.getInt(BeansCorePlugin.TIMEOUT_CONFIG_LOADING_PREFERENCE_ID);
+		monitor.beginTask("Loading Spring bean configs", orderedConfigs.size());
+		Map<IBeansConfig, PendingLoad<Long>> results = new LinkedHashMap<IBeansConfig, PendingLoad<Long>>();
+		try {
+			for (final IBeansConfig config : orderedConfigs) {
+				results.put(config, executor.submit(config.getElementName(), getProject(config), new Callable<Long>() {
+					public Long call() throws Exception {
+						if (monitor.isCanceled()) {
+							throw new OperationCanceledException();
+						}
+						long start = System.nanoTime();
+						loadConfig(config);
+						return System.nanoTime() - start;
+					}
+				}, timeout, TimeUnit.SECONDS));
+			}
+
+			Map<IBeansConfig, Long> loadTimes = new LinkedHashMap<IBeansConfig, Long>();
+			for (Map.Entry<IBeansConfig, PendingLoad<Long>> result : results.entrySet()) {
+				monitor.subTask("Loading '" + result.getKey().getElementName() + "'");
+				Long loadTime = waitForResult(result.getKey(), result.getValue(), monitor);
+				if (loadTime != null) {
+					loadTimes.put(result.getKey(), loadTime);
+				}
+				monitor.worked(1);
+			}
+			return loadTimes;
+		}
+		finally {
+			for (PendingLoad<Long> result : results.values()) {
+				result.cancel();
+			}
+			monitor.done();
+		}
+	}
+
+	private static void loadConfig(IBeansConfig config) {
+		if (config instanceof AbstractBeansConfig) {
+			((AbstractBeansConfig) config).readConfig();
+		}
+		else {
+			config.getElementChildren();
+		}
+	}
+
+	private static IProject getProject(IBeansConfig config) {
+		IResource resource = config.getElementResource();
+		return resource != null ? resource.getProject() : null;
+	}
+
+	private static long getLoadTime(Map<String, Long> loadTimes, IBeansConfig config) {
+		Long loadTime = loadTimes.get(BeansConfigLoadingExecutor.getKey(config.getElementName(), getProject(config)));
+		return loadTime != null ? loadTime.longValue() : 0;
+	}
+
+	private static Long waitForResult(IBeansConfig config, PendingLoad<Long> result, IProgressMonitor monitor) {
+		try {
+			return result.get(monitor);
+		}
+		catch (TimeoutException e) {
+			BeansCorePlugin.log(new Status(IStatus.WARNING, BeansCorePlugin.PLUGIN_ID, e.getMessage()));
+			return null;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof OperationCanceledException) {
+				throw (OperationCanceledException) e.getCause();
+			}
+			BeansCorePlugin.log(new Status(IStatus.WARNING, BeansCorePlugin.PLUGIN_ID, String.format(
+					"Error occured while loading config '%s'", config.getElementName()), e.getCause()));
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,487 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+
+/**
+ * Bounded pool of threads that loads the bean definitions of configs with a timeout.
+ * <p>
+ * The timeout of a load starts when the load starts running. A load waits at most the timeout in the queue as well
+ * and is canceled without running if it doesn't start in time. A load that doesn't finish in time is canceled by
+ * interrupting its thread and the cached class loader of its project is dropped, so that following loads don't run
+ * into the same (possibly locked) class loader again. A load that ignores the interrupt keeps its thread busy; the
+ * pool gets an additional thread until the load returns, and the config isn't loaded again until then, so a single
+ * pathological config can neither exhaust nor grow the pool. Loads that are started from within a running load (e.g.
+ * for imported configs) are executed directly on the calling thread, covered by the timeout of the outer load, which
+ * keeps the bounded pool free of deadlocks. If the queue of the pool is full the load is executed on the calling
+ * thread as well and is interrupted when it doesn't finish in time.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class BeansConfigLoadingExecutor {
+
+	/**
+	 * System property to configure the number of threads, defaults to twice the number of processors.
+	 */
+	public static final String THREADS_PROPERTY =
+			"org.springframework.ide.eclipse.beans.core.model.loadingExecutorThreads";
+
+	/**
+	 * System property to configure the number of loads that can be queued, defaults to 200.
+	 */
+	public static final String QUEUE_SIZE_PROPERTY =
+			"org.springframework.ide.eclipse.beans.core.model.loadingExecutorQueueSize";
+
+	/** Marks threads that are currently executing a load */
+	private static final ThreadLocal<Boolean> LOADING = new ThreadLocal<Boolean>();
+
+	private final ThreadPoolExecutor executor;
+
+	/** Interrupts loads that run on the calling thread when they time out */
+	private final ScheduledThreadPoolExecutor watchdog;
+
+	private final Map<String, Long> loadTimes = new ConcurrentHashMap<String, Long>();
+
+	/** Canceled loads that are still running, by config key; also guards the pool size */
+	private final Map<String, InstrumentedLoad<?>> stuckLoads = new HashMap<String, InstrumentedLoad<?>>();
+
+	private final AtomicInteger activeLoads = new AtomicInteger();
+
+	private final AtomicInteger abandonedLoads = new AtomicInteger();
+
+	private final AtomicLong completedLoads = new AtomicLong();
+
+	private final AtomicLong timedOutLoads = new AtomicLong();
+
+	private final AtomicLong callerRunsLoads = new AtomicLong();
+
+	public BeansConfigLoadingExecutor(ThreadFactory threadFactory) {
+		int threads = Math.max(1, Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors() * 2));
+		int queueSize = Math.max(1, Integer.getInteger(QUEUE_SIZE_PROPERTY, 200));
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueSize), threadFactory);
+		this.executor.allowCoreThreadTimeOut(true);
+		this.watchdog = new ScheduledThreadPoolExecutor(1, threadFactory);
+		this.watchdog.setKeepAliveTime(60, TimeUnit.SECONDS);
+		this.watchdog.allowCoreThreadTimeOut(true);
+		this.watchdog.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Executes the given load and waits at most the given timeout for its result, starting when the load starts
+	 * running. The load waits at most the given timeout for a thread as well.
+	 * @param name the name of the loaded config, used to record the load time
+	 * @param project the project whose class loader is used by the load; might be <code>null</code>
+	 * @throws TimeoutException if the load didn't start or finish in time; the load has been canceled. Also thrown
+	 * without loading if a canceled load of the same config is still running.
+	 * @throws ExecutionException if the load threw an exception
+	 * @throws InterruptedException if the calling thread has been interrupted; the load has been canceled
+	 */
+	public <T> T execute(String name, IProject project, Callable<T> load, long timeout, TimeUnit unit)
+			throws TimeoutException, ExecutionException, InterruptedException {
+		return submit(name, project, load, timeout, unit).get(null);
+	}
+
+	/**
+	 * Submits the given load without waiting for it, so that a number of loads can be submitted before waiting for
+	 * the first of them. The timeouts of {@link #execute(String, IProject, Callable, long, TimeUnit)} are enforced
+	 * while waiting for the result with {@link PendingLoad#get(IProgressMonitor)}, the time in the queue counts from
+	 * the submission. A load that doesn't fit into the queue is executed on the calling thread right away.
+	 */
+	public <T> PendingLoad<T> submit(String name, IProject project, Callable<T> load, long timeout, TimeUnit unit) {
+		PendingLoad<T> pendingLoad = new PendingLoad<T>(name, project, load, unit.toNanos(timeout));
+		if (Boolean.TRUE.equals(LOADING.get())) {
+			pendingLoad.task.run();
+			return pendingLoad;
+		}
+
+		synchronized (stuckLoads) {
+			if (stuckLoads.containsKey(pendingLoad.load.key)) {
+				pendingLoad.stuck = true;
+				return pendingLoad;
+			}
+		}
+
+		try {
+			executor.execute(pendingLoad.task);
+		}
+		catch (RejectedExecutionException e) {
+			callerRunsLoads.incrementAndGet();
+			pendingLoad.runOnCallingThread();
+		}
+		return pendingLoad;
+	}
+
+	public void shutdown() {
+		executor.shutdownNow();
+		watchdog.shutdownNow();
+	}
+
+	/**
+	 * Returns the time in nanoseconds the last load of every config took, keyed by project name and config name
+	 * separated by a slash, or by the config name only if the load has no project.
+	 */
+	public Map<String, Long> getLoadTimes() {
+		return Collections.unmodifiableMap(new HashMap<String, Long>(loadTimes));
+	}
+
+	public Statistics getStatistics() {
+		return new Statistics(executor.getQueue().size(), activeLoads.get(), abandonedLoads.get(),
+				completedLoads.get(), timedOutLoads.get(), callerRunsLoads.get());
+	}
+
+	/**
+	 * Returns the key of the given config in {@link #getLoadTimes()}.
+	 */
+	static String getKey(String name, IProject project) {
+		return project != null ? project.getName() + "/" + name : name;
+	}
+
+	private void cancelLoad(String name, IProject project, FutureTask<?> task, InstrumentedLoad<?> load) {
+		load.abandon();
+		if (task.cancel(true)) {
+			BeansCorePlugin.log(new Status(IStatus.WARNING, BeansCorePlugin.PLUGIN_ID, String.format(
+					"Canceled loading of config '%s'", name)));
+		}
+		if (project != null) {
+			JdtUtils.removeClassLoaderEntryFromCache(project);
+		}
+	}
+
+	private static void checkCanceled(IProgressMonitor monitor) {
+		if (monitor != null && monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	/**
+	 * A load that has been submitted to the executor and whose result hasn't been requested yet.
+	 */
+	public class PendingLoad<T> {
+
+		private final String name;
+
+		private final IProject project;
+
+		private final InstrumentedLoad<T> load;
+
+		private final FutureTask<T> task;
+
+		private final long timeout;
+
+		private final long submitted = System.nanoTime();
+
+		/** Set if the load hasn't been submitted because a canceled load of the same config is still running */
+		private boolean stuck = false;
+
+		/** Set if the load ran on the calling thread and has been interrupted because it didn't finish in time */
+		private boolean timedOut = false;
+
+		private PendingLoad(String name, IProject project, Callable<T> load, long timeout) {
+			this.name = name;
+			this.project = project;
+			this.load = new InstrumentedLoad<T>(getKey(name, project), load);
+			this.task = new FutureTask<T>(this.load);
+			this.timeout = timeout;
+		}
+
+		/**
+		 * Waits for the result of the load; the load is canceled if it doesn't start or finish in time.
+		 * @param monitor checked for cancellation while waiting; might be <code>null</code>
+		 * @throws TimeoutException if the load didn't start or finish in time; the load has been canceled. Also
+		 * thrown without loading if a canceled load of the same config is still running.
+		 * @throws ExecutionException if the load threw an exception
+		 * @throws InterruptedException if the calling thread has been interrupted; the load has been canceled
+		 * @throws OperationCanceledException if the monitor has been canceled; the load keeps running unless it gets
+		 * canceled by {@link #cancel()}
+		 */
+		public T get(IProgressMonitor monitor) throws TimeoutException, ExecutionException, InterruptedException {
+			if (stuck) {
+				throw new TimeoutException(String.format("Canceled loading of config '%s' is still running", name));
+			}
+			if (timedOut) {
+				throw new TimeoutException(String.format("Loading of config '%s' didn't finish in time", name));
+			}
+
+			try {
+				if (!load.awaitStart(task, submitted + timeout, monitor)) {
+					// the load didn't get a thread in time, which is no reason to drop the class loader of the project
+					timedOutLoads.incrementAndGet();
+					load.abandon();
+					task.cancel(true);
+					throw new TimeoutException(String.format("Loading of config '%s' didn't start in time", name));
+				}
+				if (!awaitDone(load.startTime + timeout, monitor)) {
+					timedOutLoads.incrementAndGet();
+					cancelLoad(name, project, task, load);
+					throw new TimeoutException(String.format("Loading of config '%s' didn't finish in time", name));
+				}
+			}
+			catch (InterruptedException e) {
+				cancelLoad(name, project, task, load);
+				throw e;
+			}
+			return task.get();
+		}
+
+		/**
+		 * Cancels the load if it hasn't been started yet; a running load is left to finish.
+		 */
+		public void cancel() {
+			if (task.cancel(false)) {
+				executor.remove(task);
+			}
+		}
+
+		private boolean awaitDone(long deadline, IProgressMonitor monitor) throws InterruptedException {
+			while (!task.isDone()) {
+				checkCanceled(monitor);
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return false;
+				}
+				try {
+					task.get(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)), TimeUnit.NANOSECONDS);
+				}
+				catch (TimeoutException e) {
+					// check for cancellation again
+				}
+				catch (ExecutionException e) {
+					// the load is done
+				}
+				catch (CancellationException e) {
+					// the load is done
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Runs the load on the calling thread and interrupts it if it doesn't finish in time; a load that ignores the
+		 * interrupt keeps the calling thread busy until it returns.
+		 */
+		private void runOnCallingThread() {
+			ScheduledFuture<?> timer = watchdog.schedule(new Runnable() {
+				public void run() {
+					task.cancel(true);
+				}
+			}, timeout, TimeUnit.NANOSECONDS);
+			try {
+				task.run();
+			}
+			finally {
+				timer.cancel(false);
+			}
+
+			if (task.isCancelled()) {
+				// the interrupt of the watchdog was meant for the load, not for the calling thread
+				Thread.interrupted();
+				timedOut = true;
+				timedOutLoads.incrementAndGet();
+				BeansCorePlugin.log(new Status(IStatus.WARNING, BeansCorePlugin.PLUGIN_ID, String.format(
+						"Canceled loading of config '%s'", name)));
+				if (project != null) {
+					JdtUtils.removeClassLoaderEntryFromCache(project);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Wraps a load to record its time and to keep track of loads that keep running after being canceled.
+	 */
+	private class InstrumentedLoad<T> implements Callable<T> {
+
+		private final String key;
+
+		private final Callable<T> load;
+
+		private final CountDownLatch started = new CountDownLatch(1);
+
+		/** Start time in nanoseconds, set before {@link #started} is counted down */
+		private volatile long startTime;
+
+		// guarded by this
+		private boolean running = false;
+
+		// guarded by this
+		private boolean abandoned = false;
+
+		public InstrumentedLoad(String key, Callable<T> load) {
+			this.key = key;
+			this.load = load;
+		}
+
+		/**
+		 * Waits at most until the given deadline for the load to be started by a thread of the pool or for the given
+		 * task to be done without having started the load.
+		 * @return <code>false</code> if the load didn't start in time
+		 */
+		public boolean awaitStart(FutureTask<T> task, long deadline, IProgressMonitor monitor)
+				throws InterruptedException {
+			while (!task.isDone() && !started.await(100, TimeUnit.MILLISECONDS)) {
+				checkCanceled(monitor);
+				if (System.nanoTime() - deadline >= 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Marks the load as canceled. A load that is running already occupies its thread until it returns, so the pool
+		 * gets an additional thread until then.
+		 */
+		public synchronized void abandon() {
+			abandoned = true;
+			if (running) {
+				synchronized (stuckLoads) {
+					stuckLoads.put(key, this);
+					executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+					executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+				}
+			}
+		}
+
+		private synchronized void markRunning() {
+			if (abandoned) {
+				throw new CancellationException();
+			}
+			running = true;
+		}
+
+		private synchronized void markFinished() {
+			running = false;
+			if (abandoned) {
+				synchronized (stuckLoads) {
+					stuckLoads.remove(key);
+					executor.setCorePoolSize(executor.getCorePoolSize() - 1);
+					executor.setMaximumPoolSize(executor.getMaximumPoolSize() - 1);
+				}
+			}
+		}
+
+		public T call() throws Exception {
+			boolean nested = Boolean.TRUE.equals(LOADING.get());
+			if (!nested) {
+				markRunning();
+				LOADING.set(Boolean.TRUE);
+				activeLoads.incrementAndGet();
+				startTime = System.nanoTime();
+				started.countDown();
+			}
+			long start = System.nanoTime();
+			try {
+				return load.call();
+			}
+			finally {
+				loadTimes.put(key, System.nanoTime() - start);
+				completedLoads.incrementAndGet();
+				if (!nested) {
+					activeLoads.decrementAndGet();
+					LOADING.remove();
+					if (Thread.interrupted()) {
+						// canceled while running; don't pass the interrupt on to the next load of this thread
+						abandonedLoads.incrementAndGet();
+					}
+					markFinished();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Queue depth and counters of the executor.
+	 */
+	public static class Statistics {
+
+		private final int queuedLoads;
+		private final int activeLoads;
+		private final int abandonedLoads;
+		private final long completedLoads;
+		private final long timedOutLoads;
+		private final long callerRunsLoads;
+
+		public Statistics(int queuedLoads, int activeLoads, int abandonedLoads, long completedLoads,
+				long timedOutLoads, long callerRunsLoads) {
+			this.queuedLoads = queuedLoads;
+			this.activeLoads = activeLoads;
+			this.abandonedLoads = abandonedLoads;
+			this.completedLoads = completedLoads;
+			this.timedOutLoads = timedOutLoads;
+			this.callerRunsLoads = callerRunsLoads;
+		}
+
+		public int getQueuedLoads() {
+			return queuedLoads;
+		}
+
+		public int getActiveLoads() {
+			return activeLoads;
+		}
+
+		/**
+		 * Returns the number of canceled loads that finished only after they have been interrupted.
+		 */
+		public int getAbandonedLoads() {
+			return abandonedLoads;
+		}
+
+		public long getCompletedLoads() {
+			return completedLoads;
+		}
+
+		public long getTimedOutLoads() {
+			return timedOutLoads;
+		}
+
+		/**
+		 * Returns the number of loads that have been executed on the calling thread because the queue was full.
+		 */
+		public long getCallerRunsLoads() {
+			return callerRunsLoads;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("queued=%s, active=%s, abandoned=%s, completed=%s, timedOut=%s, callerRuns=%s",
+					queuedLoads, activeLoads, abandonedLoads, completedLoads, timedOutLoads, callerRunsLoads);
+		}
+	}
+
+}
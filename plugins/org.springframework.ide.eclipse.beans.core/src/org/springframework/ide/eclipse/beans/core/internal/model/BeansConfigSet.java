@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2011 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -37,6 +37,7 @@ import org.springframework.ide.eclipse.core.model.IModelElement;
  * @author Torsten Juergeleit
  * @author Dave Watkins
  * @author Christian Dupuis
+ * @author Martin Lippert
  */
 public class BeansConfigSet extends AbstractResourceModelElement implements IBeansConfigSet {
 
@@ -70,6 +71,10 @@ public class BeansConfigSet extends AbstractResourceModelElement implements IBea
 
 	private volatile boolean isBeanClassesMapPopulated = false;
 
+	private volatile Map<String, IBean> beanLookupMap;
+
+	private volatile boolean isBeanLookupMapPopulated = false;
+
 	private volatile Type type;
 
 	private volatile Set<String> profiles;
@@ -101,6 +106,8 @@ public class BeansConfigSet extends AbstractResourceModelElement implements IBea
 			isBeansMapPopulated = false;
 			beanClassesMap = null;
 			isBeanClassesMapPopulated = false;
+			beanLookupMap = null;
+			isBeanLookupMapPopulated = false;
 		}
 		finally {
 			w.unlock();
@@ -248,6 +255,13 @@ public class BeansConfigSet extends AbstractResourceModelElement implements IBea
 		return new LinkedHashSet<IBean>(getBeansMap().values());
 	}
 
+	public IBean findBean(String nameOrAlias) {
+		if (nameOrAlias != null) {
+			return getBeanLookupMap().get(nameOrAlias);
+		}
+		return null;
+	}
+
 	public boolean isBeanClass(String className) {
 		return getBeanClassesMap().containsKey(className);
 	}
@@ -432,6 +446,33 @@ public class BeansConfigSet extends AbstractResourceModelElement implements IBea
 		}
 	}
 
+	/**
+	 * Returns lazily initialized map with all bean names and aliases of this config set.
+	 */
+	private Map<String, IBean> getBeanLookupMap() {
+		if (!this.isBeanLookupMapPopulated) {
+			try {
+				w.lock();
+				if (this.isBeanLookupMapPopulated) {
+					return beanLookupMap;
+				}
+				beanLookupMap = AbstractBeansConfig.createBeanLookupMap(getBeansMap().values(), getAliasesMap()
+						.values(), getComponentsList());
+			}
+			finally {
+				this.isBeanLookupMapPopulated = true;
+				w.unlock();
+			}
+		}
+		try {
+			r.lock();
+			return beanLookupMap;
+		}
+		finally {
+			r.unlock();
+		}
+	}
+
 	private void addBeanClassToMap(IBean bean) {
 
 		// Get name of bean class - strip name of any inner class
@@ -14,12 +14,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -242,10 +242,9 @@ public class BeansJavaConfig extends AbstractBeansConfig implements IBeansConfig
 					}
 				};
 
-				FutureTask<Integer> task = new FutureTask<Integer>(loadBeanDefinitionOperation);
-				BeansCorePlugin.getExecutorService().submit(task);
-				task.get(BeansCorePlugin.getDefault().getPreferenceStore().getInt(BeansCorePlugin.TIMEOUT_CONFIG_LOADING_PREFERENCE_ID),
-						TimeUnit.SECONDS);
+				BeansCorePlugin.getConfigLoadingExecutor().execute(getElementName(), beansProject.getProject(),
+						loadBeanDefinitionOperation, BeansCorePlugin.getDefault().getPreferenceStore()
+								.getInt(BeansCorePlugin.TIMEOUT_CONFIG_LOADING_PREFERENCE_ID), TimeUnit.SECONDS);
 			}
 			catch (TimeoutException e) {
 				problems.add(new ValidationProblem(IMarker.SEVERITY_ERROR, "Loading of configuration '"
@@ -291,6 +290,7 @@ public class BeansJavaConfig extends AbstractBeansConfig implements IBeansConfig
 				// System.out.println(String.format("++- resetting config '%s'", file.getFullPath().toString()));
 				isModelPopulated = false;
 				modificationTimestamp = IResource.NULL_STAMP;
+				reloadCount.incrementAndGet();
 				defaults = null;
 				imports.clear();
 				aliases.clear();
@@ -298,6 +298,8 @@ public class BeansJavaConfig extends AbstractBeansConfig implements IBeansConfig
 				components.clear();
 				isBeanClassesMapPopulated = false;
 				beanClassesMap.clear();
+				isBeanLookupMapPopulated = false;
+				beanLookupMap = new HashMap<String, IBean>();
 				problems.clear();
 				children = null;
 				//				componentDefinitions.clear();
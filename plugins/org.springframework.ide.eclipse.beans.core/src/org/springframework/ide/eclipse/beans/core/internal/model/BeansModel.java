@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -31,7 +32,10 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.wst.common.project.facet.core.FacetedProjectFramework;
@@ -74,6 +78,20 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 
 	public static final boolean DEBUG = SpringCore.isDebug(DEBUG_OPTION);
 
+	/**
+	 * System property to read all configs of all projects concurrently on startup instead of lazily on first access.
+	 * @since 3.9.3
+	 */
+	public static final String PARALLEL_LOADING_PROPERTY = "org.springframework.ide.eclipse.beans.core.model.parallelLoading";
+
+	/**
+	 * System property to restore unchanged configs from a snapshot of the previous session instead of reading them.
+	 * @since 3.9.3
+	 */
+	public static final String SNAPSHOTS_PROPERTY = "org.springframework.ide.eclipse.beans.core.model.snapshots";
+
+	private static final String SNAPSHOTS_DIRECTORY = "model-snapshots";
+
 	private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
 
 	private final Lock r = rwl.readLock();
@@ -91,6 +109,10 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 
 	private IFacetedProjectListener facetedProjectListener;
 
+	private volatile BeansModelSnapshot snapshot;
+
+	private volatile Job configLoadingJob;
+
 	public BeansModel() {
 		super(null, IBeansModel.ELEMENT_NAME);
 		projects = new ConcurrentHashMap<IProject, IBeansProject>();
@@ -164,6 +186,37 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 			w.unlock();
 		}
 
+		if (System.getProperty(SNAPSHOTS_PROPERTY, "false").equals("true")) {
+			BeansModelSnapshot modelSnapshot = new BeansModelSnapshot(BeansCorePlugin.getDefault().getStateLocation()
+					.append(SNAPSHOTS_DIRECTORY).toFile(), BeansCorePlugin.getDefault().getBundle().getVersion()
+					.toString());
+			for (IBeansProject project : getProjects()) {
+				modelSnapshot.load(project);
+			}
+			modelSnapshot.removeObsoleteFiles();
+			snapshot = modelSnapshot;
+		}
+
+		// Read the configs in a job of its own, config loading accesses the model from other threads and must not
+		// hold the workspace root rule of the initializing job
+		if (System.getProperty(PARALLEL_LOADING_PROPERTY, "false").equals("true")) {
+			Job job = new Job("Loading Spring bean configs") {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					try {
+						loadConfigs(monitor);
+					}
+					catch (OperationCanceledException e) {
+						return Status.CANCEL_STATUS;
+					}
+					return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+				}
+			};
+			job.setPriority(Job.DECORATE);
+			configLoadingJob = job;
+			job.schedule();
+		}
+
 		// Add a ResourceChangeListener to the Eclipse Workspace
 		workspaceListener = new BeansResourceChangeListener(new ResourceChangeEventHandler());
 		IWorkspace workspace = ResourcesPlugin.getWorkspace();
@@ -175,6 +228,55 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 
 	}
 
+	/**
+	 * Reads the configs of all projects concurrently.
+	 * @see BeansProject#loadConfigs(IProgressMonitor)
+	 * @since 3.9.3
+	 */
+	public void loadConfigs(IProgressMonitor monitor) {
+		Set<IBeansProject> beansProjects = getProjects();
+		monitor.beginTask("Loading Spring bean configs", beansProjects.size());
+		try {
+			for (IBeansProject project : beansProjects) {
+				if (monitor.isCanceled()) {
+					return;
+				}
+				if (project instanceof BeansProject) {
+					loadConfigs((BeansProject) project, new SubProgressMonitor(monitor, 1));
+				}
+				else {
+					monitor.worked(1);
+				}
+			}
+		}
+		finally {
+			monitor.done();
+		}
+	}
+
+	private void loadConfigs(BeansProject project, IProgressMonitor monitor) {
+		long start = System.currentTimeMillis();
+		Map<IBeansConfig, Long> loadTimes = project.loadConfigs(monitor);
+		if (DEBUG) {
+			System.out.println(String.format("Loading %s configs of project '%s' took %sms", loadTimes.size(),
+					project.getElementName(), System.currentTimeMillis() - start));
+			for (Map.Entry<IBeansConfig, Long> loadTime : loadTimes.entrySet()) {
+				System.out.println(String.format("  '%s' took %sms", loadTime.getKey().getElementName(),
+						TimeUnit.NANOSECONDS.toMillis(loadTime.getValue())));
+			}
+		}
+	}
+
+	/**
+	 * Returns the snapshot of the previous session the configs are restored from or <code>null</code> if snapshots
+	 * are disabled.
+	 * @see #SNAPSHOTS_PROPERTY
+	 * @since 3.9.3
+	 */
+	public BeansModelSnapshot getSnapshot() {
+		return snapshot;
+	}
+
 	public void addProject(IBeansProject project) {
 		projects.put(project.getProject(), project);
 	}
@@ -192,6 +294,22 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 		FacetedProjectFramework.removeListener(facetedProjectListener);
 		facetedProjectListener = null;
 
+		Job job = configLoadingJob;
+		configLoadingJob = null;
+		if (job != null) {
+			job.cancel();
+		}
+
+		// Store the current state of all configs for the next session
+		BeansModelSnapshot modelSnapshot = snapshot;
+		snapshot = null;
+		if (modelSnapshot != null) {
+			for (IBeansProject project : getProjects()) {
+				modelSnapshot.save(project);
+			}
+			modelSnapshot.clear();
+		}
+
 		try {
 			w.lock();
 			// Remove all projects
@@ -343,11 +461,7 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 		try {
 			r.lock();
 			for (IBeansProject project : projects.values()) {
-				for (IBeansConfig config : project.getConfigs()) {
-					if (config.isBeanClass(className)) {
-						configs.add(config);
-					}
-				}
+				configs.addAll(project.getConfigsByBeanClass(className));
 			}
 		}
 		finally {
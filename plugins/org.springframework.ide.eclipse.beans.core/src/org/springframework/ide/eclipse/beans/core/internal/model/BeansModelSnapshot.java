@@ -0,0 +1,1274 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.beans.BeanMetadataAttribute;
+import org.springframework.beans.BeanMetadataAttributeAccessor;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.parsing.AliasDefinition;
+import org.springframework.beans.factory.parsing.CompositeComponentDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.ChildBeanDefinition;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.MethodOverride;
+import org.springframework.beans.factory.support.MethodOverrides;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.factory.xml.DocumentDefaultsDefinition;
+import org.springframework.core.io.Resource;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeanAlias;
+import org.springframework.ide.eclipse.beans.core.model.IBeansComponent;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IProfileAwareBeansComponent;
+import org.springframework.ide.eclipse.beans.core.namespaces.NamespaceUtils;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.model.DefaultModelSourceLocation;
+import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.ide.eclipse.core.model.IModelSourceLocation;
+import org.springframework.ide.eclipse.core.model.validation.ValidationProblem;
+import org.springframework.ide.eclipse.core.model.validation.ValidationProblemAttribute;
+import org.springframework.ide.eclipse.core.model.xml.XmlSourceLocation;
+
+/**
+ * Versioned binary snapshot of the populated {@link BeansConfig}s of the beans projects, stored as one file per project
+ * in the state location of the beans core plugin.
+ * <p>
+ * A config is restored from the snapshot instead of being parsed if neither its file (compared by modification stamp)
+ * nor the resolved classpath of its project (compared by a hash of the classpath entries and the time stamps of the
+ * archives) changed since the snapshot has been taken. Projects whose classpath contains class folders, or that resolve
+ * namespaces from the classpath and have namespace handlers or schemas in the output folders of workspace projects,
+ * aren't stored at all, because changes of these folders aren't covered by the hash. Only configs whose content depends
+ * on nothing else are stored:
+ * configs without imports and post processors whose beans, components and source locations are of the types created by
+ * the XML bean definition reader. All other configs are read from their files as usual.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class BeansModelSnapshot {
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String SNAPSHOT_FILE_EXTENSION = ".snapshot";
+
+	private static final String TEMP_FILE_EXTENSION = ".tmp";
+
+	private static final String[] NAMESPACE_FILES = { "META-INF/spring.handlers", "META-INF/spring.schemas" };
+
+	private static final int NULL_VALUE = 0;
+	private static final int STRING_VALUE = 1;
+	private static final int TYPED_STRING_VALUE = 2;
+	private static final int BEAN_REFERENCE_VALUE = 3;
+	private static final int BEAN_NAME_REFERENCE_VALUE = 4;
+	private static final int BEAN_DEFINITION_HOLDER_VALUE = 5;
+	private static final int BEAN_DEFINITION_VALUE = 6;
+	private static final int LIST_VALUE = 7;
+	private static final int SET_VALUE = 8;
+	private static final int MAP_VALUE = 9;
+	private static final int PROPERTIES_VALUE = 10;
+	private static final int ARRAY_VALUE = 11;
+	private static final int BOOLEAN_VALUE = 12;
+	private static final int INTEGER_VALUE = 13;
+
+	private static final int GENERIC_BEAN_DEFINITION = 1;
+	private static final int ROOT_BEAN_DEFINITION = 2;
+	private static final int CHILD_BEAN_DEFINITION = 3;
+
+	private static final int NO_LOCATION = 0;
+	private static final int XML_LOCATION = 1;
+	private static final int DEFAULT_LOCATION = 2;
+
+	private static final int COMPONENT = 1;
+	private static final int PROFILE_AWARE_COMPONENT = 2;
+
+	private final File directory;
+
+	private final String version;
+
+	private final ConcurrentMap<IProject, ProjectSnapshot> projectSnapshots = new ConcurrentHashMap<IProject, ProjectSnapshot>();
+
+	/**
+	 * Creates a snapshot that stores its files in the given directory.
+	 * @param version the version of the code that creates the model; snapshots of other versions are ignored
+	 */
+	public BeansModelSnapshot(File directory, String version) {
+		this.directory = directory;
+		this.version = version;
+	}
+
+	/**
+	 * Reads the snapshot of the given project, if there is one. Its configs are validated and decoded on the first
+	 * {@link #readSnapshot(BeansConfig, Resource)} of every single config. A snapshot file that cannot be read is
+	 * removed.
+	 */
+	public void load(IBeansProject project) {
+		File snapshotFile = getSnapshotFile(project.getProject());
+		if (!snapshotFile.exists()) {
+			return;
+		}
+
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+			try {
+				if (in.readInt() != FORMAT_VERSION || !version.equals(in.readUTF())) {
+					return;
+				}
+				ProjectSnapshot snapshot = new ProjectSnapshot(in.readLong());
+				int configCount = in.readInt();
+				if (configCount < 0) {
+					throw new IOException("Invalid number of configs: " + configCount);
+				}
+				for (int i = 0; i < configCount; i++) {
+					String configName = in.readUTF();
+					long modificationStamp = in.readLong();
+					int length = in.readInt();
+					if (length < 0 || length > snapshotFile.length()) {
+						throw new IOException(String.format("Invalid length of config '%s': %s", configName, length));
+					}
+					byte[] content = new byte[length];
+					in.readFully(content);
+					snapshot.configs.put(configName, new ConfigEntry(modificationStamp, content));
+				}
+				projectSnapshots.put(project.getProject(), snapshot);
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch (IOException e) {
+			handleCorruptFile(project, snapshotFile, e);
+		}
+		catch (RuntimeException e) {
+			handleCorruptFile(project, snapshotFile, e);
+		}
+	}
+
+	private void handleCorruptFile(IBeansProject project, File snapshotFile, Exception e) {
+		snapshotFile.delete();
+		BeansCorePlugin.log(new Status(IStatus.WARNING, BeansCorePlugin.PLUGIN_ID, String.format(
+				"Error occured while reading beans model snapshot of project '%s'", project.getElementName()), e));
+	}
+
+	/**
+	 * Writes the snapshot of the given project. Populated configs are stored with their current content; configs that
+	 * haven't been read since the snapshot has been loaded keep their previous entry if the classpath didn't change.
+	 * The file is written to a temporary file first and replaces the previous file when it is complete.
+	 */
+	public void save(IBeansProject project) {
+		File snapshotFile = getSnapshotFile(project.getProject());
+		ProjectSnapshot previousSnapshot = projectSnapshots.remove(project.getProject());
+
+		Long classpathHash;
+		try {
+			classpathHash = getClasspathHash(project);
+		}
+		catch (JavaModelException e) {
+			classpathHash = null;
+		}
+		if (classpathHash == null) {
+			snapshotFile.delete();
+			return;
+		}
+
+		Map<String, ConfigEntry> entries = new LinkedHashMap<String, ConfigEntry>();
+		for (IBeansConfig config : project.getConfigs()) {
+			ConfigEntry entry = null;
+			if (config instanceof BeansConfig && ((BeansConfig) config).isInitialized()) {
+				entry = writeConfig((BeansConfig) config);
+			}
+			else if (previousSnapshot != null && previousSnapshot.classpathHash == classpathHash.longValue()) {
+				entry = previousSnapshot.configs.get(config.getElementName());
+			}
+			if (entry != null) {
+				entries.put(config.getElementName(), entry);
+			}
+		}
+
+		if (entries.isEmpty()) {
+			snapshotFile.delete();
+			return;
+		}
+
+		File tempFile = new File(snapshotFile.getPath() + TEMP_FILE_EXTENSION);
+		try {
+			directory.mkdirs();
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(version);
+				out.writeLong(classpathHash);
+				out.writeInt(entries.size());
+				for (Map.Entry<String, ConfigEntry> entry : entries.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeLong(entry.getValue().modificationStamp);
+					out.writeInt(entry.getValue().content.length);
+					out.write(entry.getValue().content);
+				}
+			}
+			finally {
+				out.close();
+			}
+			Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			tempFile.delete();
+			snapshotFile.delete();
+			BeansCorePlugin.log(new Status(IStatus.WARNING, BeansCorePlugin.PLUGIN_ID, String.format(
+					"Error occured while writing beans model snapshot of project '%s'", project.getElementName()), e));
+		}
+	}
+
+	/**
+	 * Returns the content of the given config as stored in the snapshot or <code>null</code> if the snapshot doesn't
+	 * contain the config or is outdated. The entry of the config is removed from the snapshot in any case, so the
+	 * config is read from its file on the next reload.
+	 * @param resource the resource to use for the source locations of the restored elements
+	 */
+	public ConfigSnapshot readSnapshot(BeansConfig config, Resource resource) {
+		IFile file = config.file;
+		if (file == null || !config.isSelfContained()) {
+			return null;
+		}
+		ProjectSnapshot projectSnapshot = projectSnapshots.get(file.getProject());
+		if (projectSnapshot == null) {
+			return null;
+		}
+		ConfigEntry entry = projectSnapshot.configs.remove(config.getElementName());
+		if (entry == null || entry.modificationStamp != file.getModificationStamp()
+				|| !projectSnapshot.isClasspathValid(BeansModelUtils.getProject(config))) {
+			return null;
+		}
+
+		try {
+			SnapshotReader reader = new SnapshotReader(new DataInputStream(new ByteArrayInputStream(entry.content)),
+					config, resource);
+			return reader.readConfig();
+		}
+		catch (IOException e) {
+			BeansCorePlugin.log(new Status(IStatus.WARNING, BeansCorePlugin.PLUGIN_ID, String.format(
+					"Error occured while restoring config '%s' from beans model snapshot", file.getFullPath()), e));
+			return null;
+		}
+	}
+
+	/**
+	 * Removes the loaded snapshots of all projects.
+	 */
+	public void clear() {
+		projectSnapshots.clear();
+	}
+
+	/**
+	 * Removes the snapshot files of projects that don't exist anymore.
+	 */
+	public void removeObsoleteFiles() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (!name.endsWith(SNAPSHOT_FILE_EXTENSION) || !ResourcesPlugin.getWorkspace().getRoot().getProject(
+						name.substring(0, name.length() - SNAPSHOT_FILE_EXTENSION.length())).exists()) {
+					file.delete();
+				}
+			}
+		}
+	}
+
+	private ConfigEntry writeConfig(BeansConfig config) {
+		config.r.lock();
+		try {
+			if (!config.isInitialized() || !config.isSelfContained()) {
+				return null;
+			}
+
+			ByteArrayOutputStream content = new ByteArrayOutputStream();
+			SnapshotWriter writer = new SnapshotWriter(new DataOutputStream(content), config.file);
+			writer.writeConfig(config);
+			return new ConfigEntry(config.modificationTimestamp, content.toByteArray());
+		}
+		catch (UnsupportedContentException e) {
+			if (BeansModel.DEBUG) {
+				System.out.println(String.format("Config '%s' not stored in snapshot: %s", config.getElementName(),
+						e.getMessage()));
+			}
+			return null;
+		}
+		catch (IOException e) {
+			BeansCorePlugin.log(new Status(IStatus.WARNING, BeansCorePlugin.PLUGIN_ID, String.format(
+					"Error occured while storing config '%s' in beans model snapshot", config.getElementName()), e));
+			return null;
+		}
+		finally {
+			config.r.unlock();
+		}
+	}
+
+	private File getSnapshotFile(IProject project) {
+		return new File(directory, project.getName() + SNAPSHOT_FILE_EXTENSION);
+	}
+
+	/**
+	 * Returns a hash of everything besides the config file itself that influences the content of a config: the project
+	 * settings for imports and namespace resolution as well as the resolved classpath entries and the time stamps of
+	 * the archives on the classpath. Returns <code>null</code> if the content depends on folders whose changes aren't
+	 * covered by the hash: class folders on the classpath and, if namespaces are resolved from the classpath, output
+	 * folders of workspace projects that contain namespace handlers or schemas.
+	 */
+	static Long getClasspathHash(IBeansProject project) throws JavaModelException {
+		boolean useNamespacesFromClasspath = NamespaceUtils.useNamespacesFromClasspath(project.getProject());
+		long hash = 17;
+		hash = 31 * hash + (project.isImportsEnabled() ? 1 : 0);
+		hash = 31 * hash + (useNamespacesFromClasspath ? 1 : 0);
+
+		IJavaProject javaProject = JdtUtils.getJavaProject(project.getProject());
+		if (javaProject != null) {
+			if (useNamespacesFromClasspath && containsNamespaceFiles(javaProject)) {
+				return null;
+			}
+			for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+				hash = 31 * hash + entry.getEntryKind();
+				hash = 31 * hash + entry.getPath().toString().hashCode();
+				if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+					File archive = getLocalFile(entry.getPath());
+					if (archive.isDirectory()) {
+						return null;
+					}
+					hash = 31 * hash + archive.lastModified();
+					hash = 31 * hash + archive.length();
+				}
+				else if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT && useNamespacesFromClasspath) {
+					IJavaProject requiredProject = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject(
+							entry.getPath().lastSegment()));
+					if (requiredProject.exists() && containsNamespaceFiles(requiredProject)) {
+						return null;
+					}
+				}
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Checks if one of the output folders of the given project contains namespace handlers or schemas.
+	 */
+	private static boolean containsNamespaceFiles(IJavaProject javaProject) throws JavaModelException {
+		Set<IPath> outputLocations = new LinkedHashSet<IPath>();
+		outputLocations.add(javaProject.getOutputLocation());
+		for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+			if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE && entry.getOutputLocation() != null) {
+				outputLocations.add(entry.getOutputLocation());
+			}
+		}
+		for (IPath outputLocation : outputLocations) {
+			File folder = getLocalFile(outputLocation);
+			for (String namespaceFile : NAMESPACE_FILES) {
+				if (new File(folder, namespaceFile).exists()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static File getLocalFile(IPath path) {
+		IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember(path);
+		if (resource != null && resource.getLocation() != null) {
+			return resource.getLocation().toFile();
+		}
+		return path.toFile();
+	}
+
+	/**
+	 * The content of a single config as restored from the snapshot.
+	 */
+	public static class ConfigSnapshot {
+
+		private DocumentDefaultsDefinition defaults;
+
+		private final Set<ValidationProblem> problems = new LinkedHashSet<ValidationProblem>();
+
+		private final Map<String, IBeanAlias> aliases = new LinkedHashMap<String, IBeanAlias>();
+
+		private final Set<IBeansComponent> components = new LinkedHashSet<IBeansComponent>();
+
+		private final Map<String, IBean> beans = new LinkedHashMap<String, IBean>();
+
+		public DocumentDefaultsDefinition getDefaults() {
+			return defaults;
+		}
+
+		public Set<ValidationProblem> getProblems() {
+			return problems;
+		}
+
+		public Map<String, IBeanAlias> getAliases() {
+			return aliases;
+		}
+
+		public Set<IBeansComponent> getComponents() {
+			return components;
+		}
+
+		public Map<String, IBean> getBeans() {
+			return beans;
+		}
+	}
+
+	/**
+	 * The stored configs of a single project.
+	 */
+	private static class ProjectSnapshot {
+
+		private final long classpathHash;
+
+		private final ConcurrentMap<String, ConfigEntry> configs = new ConcurrentHashMap<String, ConfigEntry>();
+
+		private Boolean isClasspathValid;
+
+		public ProjectSnapshot(long classpathHash) {
+			this.classpathHash = classpathHash;
+		}
+
+		public synchronized boolean isClasspathValid(IBeansProject project) {
+			if (isClasspathValid == null) {
+				try {
+					Long hash = project != null ? getClasspathHash(project) : null;
+					isClasspathValid = hash != null && hash.longValue() == classpathHash;
+				}
+				catch (JavaModelException e) {
+					isClasspathValid = Boolean.FALSE;
+				}
+			}
+			return isClasspathValid;
+		}
+	}
+
+	/**
+	 * The encoded content of a config together with the modification stamp of its file.
+	 */
+	private static class ConfigEntry {
+
+		private final long modificationStamp;
+
+		private final byte[] content;
+
+		public ConfigEntry(long modificationStamp, byte[] content) {
+			this.modificationStamp = modificationStamp;
+			this.content = content;
+		}
+	}
+
+	/**
+	 * Thrown if a config contains elements, definitions or values that can't be stored in the snapshot.
+	 */
+	private static class UnsupportedContentException extends Exception {
+
+		private static final long serialVersionUID = 6457542183264016829L;
+
+		public UnsupportedContentException(Object content) {
+			super("unsupported " + (content != null ? content.getClass().getName() : "null"));
+		}
+	}
+
+	/**
+	 * Encodes the content of a config.
+	 */
+	private static class SnapshotWriter {
+
+		private final DataOutputStream out;
+
+		private final IFile file;
+
+		public SnapshotWriter(DataOutputStream out, IFile file) {
+			this.out = out;
+			this.file = file;
+		}
+
+		public void writeConfig(BeansConfig config) throws IOException, UnsupportedContentException {
+			writeDefaults(config.defaults);
+
+			out.writeInt(config.problems.size());
+			for (ValidationProblem problem : config.problems) {
+				writeProblem(problem);
+			}
+
+			out.writeInt(config.aliases.size());
+			for (IBeanAlias alias : config.aliases.values()) {
+				writeAlias(alias);
+			}
+
+			out.writeInt(config.components.size());
+			for (IBeansComponent component : config.components) {
+				writeComponent(component);
+			}
+
+			out.writeInt(config.beans.size());
+			for (IBean bean : config.beans.values()) {
+				writeBean(bean);
+			}
+		}
+
+		private void writeDefaults(DocumentDefaultsDefinition defaults) throws IOException,
+				UnsupportedContentException {
+			out.writeBoolean(defaults != null);
+			if (defaults != null) {
+				writeString(defaults.getLazyInit());
+				writeString(defaults.getMerge());
+				writeString(defaults.getAutowire());
+				writeString(defaults.getDependencyCheck());
+				writeString(defaults.getAutowireCandidates());
+				writeString(defaults.getInitMethod());
+				writeString(defaults.getDestroyMethod());
+				writeLocation(defaults.getSource());
+			}
+		}
+
+		private void writeProblem(ValidationProblem problem) throws IOException, UnsupportedContentException {
+			if (problem.getResource() != null && !problem.getResource().equals(file)) {
+				throw new UnsupportedContentException(problem.getResource());
+			}
+			writeString(problem.getRuleId());
+			writeString(problem.getErrorId());
+			out.writeInt(problem.getSeverity());
+			writeString(problem.getMessage());
+			out.writeBoolean(problem.getResource() != null);
+			out.writeInt(problem.getLine());
+
+			ValidationProblemAttribute[] attributes = problem.getAttributes();
+			out.writeInt(attributes != null ? attributes.length : 0);
+			if (attributes != null) {
+				for (ValidationProblemAttribute attribute : attributes) {
+					writeString(attribute.getKey());
+					writeValue(attribute.getValue());
+				}
+			}
+		}
+
+		private void writeAlias(IBeanAlias alias) throws IOException, UnsupportedContentException {
+			if (alias.getClass() != BeanAlias.class) {
+				throw new UnsupportedContentException(alias);
+			}
+			writeString(alias.getElementName());
+			writeString(alias.getBeanName());
+			writeLocation(alias.getElementSourceLocation());
+		}
+
+		private void writeComponent(IBeansComponent component) throws IOException, UnsupportedContentException {
+			if (component.getClass() == ProfileAwareBeansComponent.class) {
+				out.writeByte(PROFILE_AWARE_COMPONENT);
+				Set<String> profiles = ((IProfileAwareBeansComponent) component).getProfiles();
+				writeStringArray(profiles != null ? profiles.toArray(new String[profiles.size()]) : null);
+			}
+			else if (component.getClass() == BeansComponent.class) {
+				out.writeByte(COMPONENT);
+			}
+			else {
+				throw new UnsupportedContentException(component);
+			}
+			writeString(component.getElementName());
+			writeLocation(component.getElementSourceLocation());
+
+			out.writeInt(component.getBeans().size());
+			for (IBean bean : component.getBeans()) {
+				writeBean(bean);
+			}
+			out.writeInt(component.getComponents().size());
+			for (IBeansComponent nestedComponent : component.getComponents()) {
+				writeComponent(nestedComponent);
+			}
+		}
+
+		private void writeBean(IBean bean) throws IOException, UnsupportedContentException {
+			if (bean.getClass() != Bean.class) {
+				throw new UnsupportedContentException(bean);
+			}
+			writeString(bean.getElementName());
+			writeStringArray(bean.getAliases());
+			writeBeanDefinition(((Bean) bean).getBeanDefinition());
+		}
+
+		private void writeBeanDefinition(BeanDefinition definition) throws IOException, UnsupportedContentException {
+			if (definition.getClass() == GenericBeanDefinition.class) {
+				out.writeByte(GENERIC_BEAN_DEFINITION);
+			}
+			else if (definition.getClass() == RootBeanDefinition.class
+					&& ((RootBeanDefinition) definition).getDecoratedDefinition() == null) {
+				out.writeByte(ROOT_BEAN_DEFINITION);
+			}
+			else if (definition.getClass() == ChildBeanDefinition.class) {
+				out.writeByte(CHILD_BEAN_DEFINITION);
+			}
+			else {
+				throw new UnsupportedContentException(definition);
+			}
+
+			AbstractBeanDefinition beanDefinition = (AbstractBeanDefinition) definition;
+			if (!beanDefinition.getQualifiers().isEmpty()) {
+				throw new UnsupportedContentException(beanDefinition.getQualifiers().iterator().next());
+			}
+			writeString(beanDefinition.getBeanClassName());
+			writeString(beanDefinition.getParentName());
+			writeString(beanDefinition.getScope());
+			out.writeBoolean(beanDefinition.isAbstract());
+			out.writeBoolean(beanDefinition.isLazyInit());
+			out.writeInt(beanDefinition.getAutowireMode());
+			out.writeInt(beanDefinition.getDependencyCheck());
+			writeStringArray(beanDefinition.getDependsOn());
+			out.writeBoolean(beanDefinition.isAutowireCandidate());
+			out.writeBoolean(beanDefinition.isPrimary());
+			out.writeBoolean(beanDefinition.isNonPublicAccessAllowed());
+			out.writeBoolean(beanDefinition.isLenientConstructorResolution());
+			writeString(beanDefinition.getFactoryBeanName());
+			writeString(beanDefinition.getFactoryMethodName());
+			writeString(beanDefinition.getInitMethodName());
+			out.writeBoolean(beanDefinition.isEnforceInitMethod());
+			writeString(beanDefinition.getDestroyMethodName());
+			out.writeBoolean(beanDefinition.isEnforceDestroyMethod());
+			out.writeBoolean(beanDefinition.isSynthetic());
+			out.writeInt(beanDefinition.getRole());
+			writeString(beanDefinition.getDescription());
+			writeString(beanDefinition.getResourceDescription());
+			writeLocation(beanDefinition.getSource());
+			writeAttributes(beanDefinition);
+
+			PropertyValue[] propertyValues = beanDefinition.getPropertyValues().getPropertyValues();
+			out.writeInt(propertyValues.length);
+			for (PropertyValue propertyValue : propertyValues) {
+				writeString(propertyValue.getName());
+				writeValue(propertyValue.getValue());
+				writeLocation(propertyValue.getSource());
+				writeAttributes(propertyValue);
+			}
+
+			ConstructorArgumentValues argumentValues = beanDefinition.getConstructorArgumentValues();
+			Map<Integer, ValueHolder> indexedArgumentValues = argumentValues.getIndexedArgumentValues();
+			out.writeInt(indexedArgumentValues.size());
+			for (Map.Entry<Integer, ValueHolder> argumentValue : indexedArgumentValues.entrySet()) {
+				out.writeInt(argumentValue.getKey());
+				writeValueHolder(argumentValue.getValue());
+			}
+			List<ValueHolder> genericArgumentValues = argumentValues.getGenericArgumentValues();
+			out.writeInt(genericArgumentValues.size());
+			for (ValueHolder argumentValue : genericArgumentValues) {
+				writeValueHolder(argumentValue);
+			}
+
+			Set<MethodOverride> methodOverrides = beanDefinition.getMethodOverrides().getOverrides();
+			out.writeInt(methodOverrides.size());
+			for (MethodOverride methodOverride : methodOverrides) {
+				if (methodOverride.getClass() != LookupOverride.class) {
+					throw new UnsupportedContentException(methodOverride);
+				}
+				writeString(methodOverride.getMethodName());
+				writeString(((LookupOverride) methodOverride).getBeanName());
+				writeLocation(methodOverride.getSource());
+			}
+		}
+
+		private void writeValueHolder(ValueHolder valueHolder) throws IOException, UnsupportedContentException {
+			writeValue(valueHolder.getValue());
+			writeString(valueHolder.getType());
+			writeString(valueHolder.getName());
+			writeLocation(valueHolder.getSource());
+		}
+
+		private void writeAttributes(BeanMetadataAttributeAccessor accessor) throws IOException,
+				UnsupportedContentException {
+			String[] attributeNames = accessor.attributeNames();
+			out.writeInt(attributeNames.length);
+			for (String attributeName : attributeNames) {
+				BeanMetadataAttribute attribute = accessor.getMetadataAttribute(attributeName);
+				writeString(attributeName);
+				writeValue(attribute != null ? attribute.getValue() : null);
+				writeLocation(attribute != null ? attribute.getSource() : null);
+			}
+		}
+
+		private void writeValue(Object value) throws IOException, UnsupportedContentException {
+			if (value == null) {
+				out.writeByte(NULL_VALUE);
+			}
+			else if (value instanceof String) {
+				out.writeByte(STRING_VALUE);
+				writeString((String) value);
+			}
+			else if (value instanceof Boolean) {
+				out.writeByte(BOOLEAN_VALUE);
+				out.writeBoolean((Boolean) value);
+			}
+			else if (value instanceof Integer) {
+				out.writeByte(INTEGER_VALUE);
+				out.writeInt((Integer) value);
+			}
+			else if (value.getClass() == TypedStringValue.class) {
+				TypedStringValue typedValue = (TypedStringValue) value;
+				out.writeByte(TYPED_STRING_VALUE);
+				writeString(typedValue.getValue());
+				writeString(typedValue.getTargetTypeName());
+				writeString(typedValue.getSpecifiedTypeName());
+				out.writeBoolean(typedValue.isDynamic());
+				writeLocation(typedValue.getSource());
+			}
+			else if (value.getClass() == RuntimeBeanReference.class) {
+				RuntimeBeanReference reference = (RuntimeBeanReference) value;
+				out.writeByte(BEAN_REFERENCE_VALUE);
+				writeString(reference.getBeanName());
+				out.writeBoolean(reference.isToParent());
+				writeLocation(reference.getSource());
+			}
+			else if (value.getClass() == RuntimeBeanNameReference.class) {
+				RuntimeBeanNameReference reference = (RuntimeBeanNameReference) value;
+				out.writeByte(BEAN_NAME_REFERENCE_VALUE);
+				writeString(reference.getBeanName());
+				writeLocation(reference.getSource());
+			}
+			else if (value instanceof BeanDefinitionHolder) {
+				BeanDefinitionHolder holder = (BeanDefinitionHolder) value;
+				out.writeByte(BEAN_DEFINITION_HOLDER_VALUE);
+				writeString(holder.getBeanName());
+				writeStringArray(holder.getAliases());
+				writeBeanDefinition(holder.getBeanDefinition());
+			}
+			else if (value instanceof BeanDefinition) {
+				out.writeByte(BEAN_DEFINITION_VALUE);
+				writeBeanDefinition((BeanDefinition) value);
+			}
+			else if (value.getClass() == ManagedArray.class) {
+				ManagedArray array = (ManagedArray) value;
+				out.writeByte(ARRAY_VALUE);
+				writeString(array.getElementTypeName());
+				out.writeBoolean(array.isMergeEnabled());
+				writeLocation(array.getSource());
+				writeElements(array);
+			}
+			else if (value.getClass() == ManagedList.class) {
+				ManagedList<?> list = (ManagedList<?>) value;
+				out.writeByte(LIST_VALUE);
+				writeString(list.getElementTypeName());
+				out.writeBoolean(list.isMergeEnabled());
+				writeLocation(list.getSource());
+				writeElements(list);
+			}
+			else if (value.getClass() == ManagedSet.class) {
+				ManagedSet<?> set = (ManagedSet<?>) value;
+				out.writeByte(SET_VALUE);
+				writeString(set.getElementTypeName());
+				out.writeBoolean(set.isMergeEnabled());
+				writeLocation(set.getSource());
+				writeElements(set);
+			}
+			else if (value.getClass() == ManagedMap.class) {
+				ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+				out.writeByte(MAP_VALUE);
+				writeString(map.getKeyTypeName());
+				writeString(map.getValueTypeName());
+				out.writeBoolean(map.isMergeEnabled());
+				writeLocation(map.getSource());
+				writeEntries(map);
+			}
+			else if (value.getClass() == ManagedProperties.class) {
+				ManagedProperties properties = (ManagedProperties) value;
+				out.writeByte(PROPERTIES_VALUE);
+				out.writeBoolean(properties.isMergeEnabled());
+				writeLocation(properties.getSource());
+				writeEntries(properties);
+			}
+			else {
+				throw new UnsupportedContentException(value);
+			}
+		}
+
+		private void writeElements(Iterable<?> elements) throws IOException, UnsupportedContentException {
+			List<Object> values = new ArrayList<Object>();
+			for (Object element : elements) {
+				values.add(element);
+			}
+			out.writeInt(values.size());
+			for (Object value : values) {
+				writeValue(value);
+			}
+		}
+
+		private void writeEntries(Map<?, ?> entries) throws IOException, UnsupportedContentException {
+			out.writeInt(entries.size());
+			for (Map.Entry<?, ?> entry : entries.entrySet()) {
+				writeValue(entry.getKey());
+				writeValue(entry.getValue());
+			}
+		}
+
+		private void writeLocation(Object source) throws IOException, UnsupportedContentException {
+			if (source == null) {
+				out.writeByte(NO_LOCATION);
+			}
+			else if (source.getClass() == XmlSourceLocation.class) {
+				XmlSourceLocation location = (XmlSourceLocation) source;
+				checkResource(location.getResource());
+				out.writeByte(XML_LOCATION);
+				writeString(location.getLocalName());
+				writeString(location.getPrefix());
+				writeString(location.getNamespaceURI());
+				out.writeInt(location.getStartLine());
+				out.writeInt(location.getEndLine());
+			}
+			else if (source.getClass() == DefaultModelSourceLocation.class) {
+				IModelSourceLocation location = (IModelSourceLocation) source;
+				checkResource(location.getResource());
+				out.writeByte(DEFAULT_LOCATION);
+				out.writeInt(location.getStartLine());
+				out.writeInt(location.getEndLine());
+			}
+			else {
+				throw new UnsupportedContentException(source);
+			}
+		}
+
+		/**
+		 * Source locations are restored with the resource of the config file, other resources can't be stored.
+		 */
+		private void checkResource(Resource resource) throws UnsupportedContentException {
+			if (!(resource instanceof IAdaptable) || !file.equals(((IAdaptable) resource).getAdapter(IResource.class))) {
+				throw new UnsupportedContentException(resource);
+			}
+		}
+
+		private void writeStringArray(String[] values) throws IOException {
+			out.writeInt(values != null ? values.length : -1);
+			if (values != null) {
+				for (String value : values) {
+					writeString(value);
+				}
+			}
+		}
+
+		/**
+		 * Writes the given string, which might be <code>null</code> or longer than supported by
+		 * {@link DataOutputStream#writeUTF(String)}.
+		 */
+		private void writeString(String value) throws IOException {
+			if (value == null) {
+				out.writeInt(-1);
+			}
+			else {
+				byte[] bytes = value.getBytes("UTF-8");
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+		}
+	}
+
+	/**
+	 * Decodes the content of a config written by a {@link SnapshotWriter} into new model elements of the given config.
+	 */
+	private static class SnapshotReader {
+
+		private final DataInputStream in;
+
+		private final BeansConfig config;
+
+		private final Resource resource;
+
+		public SnapshotReader(DataInputStream in, BeansConfig config, Resource resource) {
+			this.in = in;
+			this.config = config;
+			this.resource = resource;
+		}
+
+		public ConfigSnapshot readConfig() throws IOException {
+			ConfigSnapshot snapshot = new ConfigSnapshot();
+			snapshot.defaults = readDefaults();
+
+			int problemCount = in.readInt();
+			for (int i = 0; i < problemCount; i++) {
+				snapshot.problems.add(readProblem());
+			}
+
+			int aliasCount = in.readInt();
+			for (int i = 0; i < aliasCount; i++) {
+				IBeanAlias alias = readAlias();
+				snapshot.aliases.put(alias.getElementName(), alias);
+			}
+
+			int componentCount = in.readInt();
+			for (int i = 0; i < componentCount; i++) {
+				snapshot.components.add(readComponent(config));
+			}
+
+			int beanCount = in.readInt();
+			for (int i = 0; i < beanCount; i++) {
+				IBean bean = readBean(config);
+				snapshot.beans.put(bean.getElementName(), bean);
+			}
+			return snapshot;
+		}
+
+		private DocumentDefaultsDefinition readDefaults() throws IOException {
+			if (!in.readBoolean()) {
+				return null;
+			}
+			DocumentDefaultsDefinition defaults = new DocumentDefaultsDefinition();
+			defaults.setLazyInit(readString());
+			defaults.setMerge(readString());
+			defaults.setAutowire(readString());
+			defaults.setDependencyCheck(readString());
+			defaults.setAutowireCandidates(readString());
+			defaults.setInitMethod(readString());
+			defaults.setDestroyMethod(readString());
+			defaults.setSource(readLocation());
+			return defaults;
+		}
+
+		private ValidationProblem readProblem() throws IOException {
+			String ruleId = readString();
+			String errorId = readString();
+			int severity = in.readInt();
+			String message = readString();
+			IResource problemResource = in.readBoolean() ? config.file : null;
+			int line = in.readInt();
+
+			ValidationProblemAttribute[] attributes = new ValidationProblemAttribute[in.readInt()];
+			for (int i = 0; i < attributes.length; i++) {
+				attributes[i] = new ValidationProblemAttribute(readString(), readValue());
+			}
+			return new ValidationProblem(ruleId, errorId, severity, message, problemResource, line, attributes);
+		}
+
+		private IBeanAlias readAlias() throws IOException {
+			String alias = readString();
+			String beanName = readString();
+			return new BeanAlias(config, new AliasDefinition(beanName, alias, readLocation()));
+		}
+
+		private IBeansComponent readComponent(IModelElement parent) throws IOException {
+			int kind = in.readByte();
+			String[] profiles = kind == PROFILE_AWARE_COMPONENT ? readStringArray() : null;
+			String name = readString();
+			Object location = readLocation();
+
+			BeansComponent component;
+			if (kind == PROFILE_AWARE_COMPONENT) {
+				component = new ProfileAwareBeansComponent(parent, new ProfileAwareCompositeComponentDefinition(name,
+						location, profiles));
+			}
+			else if (kind == COMPONENT) {
+				component = new BeansComponent(parent, new CompositeComponentDefinition(name, location));
+			}
+			else {
+				throw new IOException("Unknown component kind " + kind);
+			}
+
+			int beanCount = in.readInt();
+			for (int i = 0; i < beanCount; i++) {
+				component.addBean(readBean(component));
+			}
+			int componentCount = in.readInt();
+			for (int i = 0; i < componentCount; i++) {
+				component.addComponent(readComponent(component));
+			}
+			return component;
+		}
+
+		private IBean readBean(IModelElement parent) throws IOException {
+			String name = readString();
+			String[] aliases = readStringArray();
+			return new Bean(parent, name, aliases, readBeanDefinition());
+		}
+
+		private AbstractBeanDefinition readBeanDefinition() throws IOException {
+			int kind = in.readByte();
+			AbstractBeanDefinition beanDefinition;
+			if (kind == GENERIC_BEAN_DEFINITION) {
+				beanDefinition = new GenericBeanDefinition();
+			}
+			else if (kind == ROOT_BEAN_DEFINITION) {
+				beanDefinition = new RootBeanDefinition();
+			}
+			else if (kind == CHILD_BEAN_DEFINITION) {
+				beanDefinition = new ChildBeanDefinition((String) null);
+			}
+			else {
+				throw new IOException("Unknown bean definition kind " + kind);
+			}
+
+			beanDefinition.setBeanClassName(readString());
+			String parentName = readString();
+			if (parentName != null) {
+				beanDefinition.setParentName(parentName);
+			}
+			beanDefinition.setScope(readString());
+			beanDefinition.setAbstract(in.readBoolean());
+			beanDefinition.setLazyInit(in.readBoolean());
+			beanDefinition.setAutowireMode(in.readInt());
+			beanDefinition.setDependencyCheck(in.readInt());
+			beanDefinition.setDependsOn(readStringArray());
+			beanDefinition.setAutowireCandidate(in.readBoolean());
+			beanDefinition.setPrimary(in.readBoolean());
+			beanDefinition.setNonPublicAccessAllowed(in.readBoolean());
+			beanDefinition.setLenientConstructorResolution(in.readBoolean());
+			beanDefinition.setFactoryBeanName(readString());
+			beanDefinition.setFactoryMethodName(readString());
+			beanDefinition.setInitMethodName(readString());
+			beanDefinition.setEnforceInitMethod(in.readBoolean());
+			beanDefinition.setDestroyMethodName(readString());
+			beanDefinition.setEnforceDestroyMethod(in.readBoolean());
+			beanDefinition.setSynthetic(in.readBoolean());
+			beanDefinition.setRole(in.readInt());
+			beanDefinition.setDescription(readString());
+			beanDefinition.setResourceDescription(readString());
+			beanDefinition.setSource(readLocation());
+			readAttributes(beanDefinition);
+
+			MutablePropertyValues propertyValues = beanDefinition.getPropertyValues();
+			int propertyCount = in.readInt();
+			for (int i = 0; i < propertyCount; i++) {
+				PropertyValue propertyValue = new PropertyValue(readString(), readValue());
+				propertyValue.setSource(readLocation());
+				readAttributes(propertyValue);
+				propertyValues.addPropertyValue(propertyValue);
+			}
+
+			ConstructorArgumentValues argumentValues = beanDefinition.getConstructorArgumentValues();
+			int indexedArgumentCount = in.readInt();
+			for (int i = 0; i < indexedArgumentCount; i++) {
+				int index = in.readInt();
+				argumentValues.addIndexedArgumentValue(index, readValueHolder());
+			}
+			int genericArgumentCount = in.readInt();
+			for (int i = 0; i < genericArgumentCount; i++) {
+				argumentValues.addGenericArgumentValue(readValueHolder());
+			}
+
+			MethodOverrides methodOverrides = beanDefinition.getMethodOverrides();
+			int methodOverrideCount = in.readInt();
+			for (int i = 0; i < methodOverrideCount; i++) {
+				LookupOverride methodOverride = new LookupOverride(readString(), readString());
+				methodOverride.setSource(readLocation());
+				methodOverrides.addOverride(methodOverride);
+			}
+			return beanDefinition;
+		}
+
+		private ValueHolder readValueHolder() throws IOException {
+			Object value = readValue();
+			String type = readString();
+			String name = readString();
+			ValueHolder valueHolder = new ValueHolder(value, type, name);
+			valueHolder.setSource(readLocation());
+			return valueHolder;
+		}
+
+		private void readAttributes(BeanMetadataAttributeAccessor accessor) throws IOException {
+			int attributeCount = in.readInt();
+			for (int i = 0; i < attributeCount; i++) {
+				String attributeName = readString();
+				BeanMetadataAttribute attribute = new BeanMetadataAttribute(attributeName, readValue());
+				attribute.setSource(readLocation());
+				accessor.addMetadataAttribute(attribute);
+			}
+		}
+
+		private Object readValue() throws IOException {
+			int kind = in.readByte();
+			switch (kind) {
+			case NULL_VALUE:
+				return null;
+			case STRING_VALUE:
+				return readString();
+			case BOOLEAN_VALUE:
+				return in.readBoolean();
+			case INTEGER_VALUE:
+				return in.readInt();
+			case TYPED_STRING_VALUE: {
+				TypedStringValue value = new TypedStringValue(readString(), readString());
+				value.setSpecifiedTypeName(readString());
+				if (in.readBoolean()) {
+					value.setDynamic();
+				}
+				value.setSource(readLocation());
+				return value;
+			}
+			case BEAN_REFERENCE_VALUE: {
+				String beanName = readString();
+				RuntimeBeanReference reference = new RuntimeBeanReference(beanName, in.readBoolean());
+				reference.setSource(readLocation());
+				return reference;
+			}
+			case BEAN_NAME_REFERENCE_VALUE: {
+				RuntimeBeanNameReference reference = new RuntimeBeanNameReference(readString());
+				reference.setSource(readLocation());
+				return reference;
+			}
+			case BEAN_DEFINITION_HOLDER_VALUE: {
+				String beanName = readString();
+				String[] aliases = readStringArray();
+				return new BeanDefinitionHolder(readBeanDefinition(), beanName, aliases);
+			}
+			case BEAN_DEFINITION_VALUE:
+				return readBeanDefinition();
+			case ARRAY_VALUE: {
+				String elementTypeName = readString();
+				boolean mergeEnabled = in.readBoolean();
+				Object source = readLocation();
+				int size = in.readInt();
+				ManagedArray array = new ManagedArray(elementTypeName, size);
+				array.setMergeEnabled(mergeEnabled);
+				array.setSource(source);
+				readElements(array, size);
+				return array;
+			}
+			case LIST_VALUE: {
+				ManagedList<Object> list = new ManagedList<Object>();
+				list.setElementTypeName(readString());
+				list.setMergeEnabled(in.readBoolean());
+				list.setSource(readLocation());
+				readElements(list, in.readInt());
+				return list;
+			}
+			case SET_VALUE: {
+				ManagedSet<Object> set = new ManagedSet<Object>();
+				set.setElementTypeName(readString());
+				set.setMergeEnabled(in.readBoolean());
+				set.setSource(readLocation());
+				readElements(set, in.readInt());
+				return set;
+			}
+			case MAP_VALUE: {
+				ManagedMap<Object, Object> map = new ManagedMap<Object, Object>();
+				map.setKeyTypeName(readString());
+				map.setValueTypeName(readString());
+				map.setMergeEnabled(in.readBoolean());
+				map.setSource(readLocation());
+				readEntries(map);
+				return map;
+			}
+			case PROPERTIES_VALUE: {
+				ManagedProperties properties = new ManagedProperties();
+				properties.setMergeEnabled(in.readBoolean());
+				properties.setSource(readLocation());
+				readEntries(properties);
+				return properties;
+			}
+			default:
+				throw new IOException("Unknown value kind " + kind);
+			}
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void readElements(Collection elements, int size) throws IOException {
+			for (int i = 0; i < size; i++) {
+				elements.add(readValue());
+			}
+		}
+
+		private void readEntries(Map<Object, Object> entries) throws IOException {
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				Object key = readValue();
+				entries.put(key, readValue());
+			}
+		}
+
+		private Object readLocation() throws IOException {
+			int kind = in.readByte();
+			if (kind == XML_LOCATION) {
+				String localName = readString();
+				String prefix = readString();
+				String namespaceURI = readString();
+				XmlSourceLocation location = new XmlSourceLocation(resource, null, in.readInt(), in.readInt());
+				location.setLocalName(localName);
+				location.setPrefix(prefix);
+				location.setNamespaceURI(namespaceURI);
+				return location;
+			}
+			else if (kind == DEFAULT_LOCATION) {
+				int startLine = in.readInt();
+				return new DefaultModelSourceLocation(startLine, in.readInt(), resource);
+			}
+			else if (kind != NO_LOCATION) {
+				throw new IOException("Unknown location kind " + kind);
+			}
+			return null;
+		}
+
+		private String[] readStringArray() throws IOException {
+			int length = in.readInt();
+			if (length < 0) {
+				return null;
+			}
+			String[] values = new String[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = readString();
+			}
+			return values;
+		}
+
+		private String readString() throws IOException {
+			int length = in.readInt();
+			if (length < 0) {
+				return null;
+			}
+			byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			return new String(bytes, "UTF-8");
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -94,6 +94,9 @@ import org.w3c.dom.Node;
  */
 public abstract class BeansModelUtils {
 
+	/** Reverse index from types to the configs and beans that depend on them */
+	private static final BeansTypeDependencyIndex TYPE_DEPENDENCY_INDEX = new BeansTypeDependencyIndex();
+
 	/**
 	 * Returns the <code>IBean</code> for a given bean name from specified context ( <code>IBeansConfig</code> or
 	 * <code>IBeansConfigSet</code>). If the corresponding bean is not found then the context's list of
@@ -104,66 +107,16 @@ public abstract class BeansModelUtils {
 	 */
 	public static IBean getBean(String name, IModelElement context) {
 		if (context instanceof IBeansConfig) {
-			IBeansConfig config = (IBeansConfig) context;
-			IBean bean = config.getBean(name);
-			if (bean == null) {
-				IBeanAlias alias = config.getAlias(name);
-				if (alias != null) {
-					bean = config.getBean(alias.getBeanName());
-				}
-			}
-			if (bean == null) {
-				for (IBeansComponent component : config.getComponents()) {
-					bean = getBean(name, component);
-					if (bean != null) {
-						return bean;
-					}
-				}
-			}
-			return bean;
+			return ((IBeansConfig) context).findBean(name);
 		}
 		else if (context instanceof IBeansConfigSet) {
-			IBeansConfigSet configSet = (IBeansConfigSet) context;
-			IBean bean = configSet.getBean(name);
-			if (bean == null) {
-				IBeanAlias alias = configSet.getAlias(name);
-				if (alias != null) {
-					bean = configSet.getBean(alias.getBeanName());
-				}
-			}
-			if (bean == null) {
-				for (IBeansComponent component : configSet.getComponents()) {
-					bean = getBean(name, component);
-					if (bean != null) {
-						return bean;
-					}
-				}
-			}
-			return bean;
+			return ((IBeansConfigSet) context).findBean(name);
 		}
 		else {
 			throw new IllegalArgumentException("Unsupported context " + context);
 		}
 	}
 
-	/**
-	 * Return's the {@link IBean} for the given name by recursively looking into the {@link IBeansComponent}.
-	 */
-	private static IBean getBean(String name, IBeansComponent component) {
-		for (IBean componentBean : component.getBeans()) {
-			if (componentBean.getElementName().equals(name)) {
-				return componentBean;
-			}
-		}
-		for (IBeansComponent nestedComponent : component.getComponents()) {
-			IBean bean = getBean(name, nestedComponent);
-			if (bean != null) {
-				return bean;
-			}
-		}
-		return null;
-	}
-
 	/**
 	 * Returns the given bean's class name.
 	 * @param bean the bean to lookup the bean class name for
@@ -841,10 +794,8 @@ public abstract class BeansModelUtils {
 		for (IBeansProject project : BeansCorePlugin.getModel().getProjects()) {
 			IJavaProject javaProject = JdtUtils.getJavaProject(project.getProject());
 			if (javaProject != null && javaProject.isOnClasspath(type)) {
-				for (IBeansConfig config : project.getConfigs()) {
-					if (config.isBeanClass(type.getFullyQualifiedName())) {
-						return true;
-					}
+				if (project.isBeanClass(type.getFullyQualifiedName())) {
+					return true;
 				}
 			}
 		}
@@ -1297,18 +1248,13 @@ public abstract class BeansModelUtils {
 				&& resource.getName().endsWith(".java")) {
 			Set<IBeansProject> projects = BeansCorePlugin.getModel().getProjects();
 			if (projects != null) {
+				TYPE_DEPENDENCY_INDEX.retainProjects(projects);
 
 				IJavaElement element = JavaCore.create(resource);
 				if (element instanceof ICompilationUnit && element.getJavaProject().isOnClasspath(element)) {
 					
 					try {
-						IType[] types = ((ICompilationUnit) element).getAllTypes();
-						String[] changedTypeNames = new String[types.length];
-						boolean[] changedTypeIsInterface = new boolean[types.length];
-						for (int i = 0; i < types.length; i++) {
-							changedTypeNames[i] = types[i].getFullyQualifiedName();
-							changedTypeIsInterface[i] = types[i].isInterface();
-						}
+						String[] changedTypeNames = getTypeNames(((ICompilationUnit) element).getAllTypes());
 						
 						for (IBeansProject project : projects) {
 							if (project != null) {
@@ -1318,28 +1264,7 @@ public abstract class BeansModelUtils {
 									continue;
 								}
 								
-								Set<IBeansConfig> configs = project.getConfigs();
-								for (IBeansConfig config : configs) {
-									boolean configAdded = false;
-									Set<String> allBeanClasses = config.getBeanClasses();
-									for (int i = 0; i < changedTypeNames.length; i++) {
-										for (String className : allBeanClasses) {
-											if (changedTypeIsInterface[i] && typeEngine.doesImplement(className, changedTypeNames[i], project.getProject())) {
-												files.add(config);
-												configAdded = true;
-												break;
-											}
-											else if (!changedTypeIsInterface[i] && typeEngine.doesExtend(className, changedTypeNames[i], project.getProject())) {
-												files.add(config);
-												configAdded = true;
-												break;
-											}
-										}
-										if (configAdded) break;
-									}
-								}
-								
-//								typeHierarchyEngine.cleanup(project.getProject());
+								files.addAll(TYPE_DEPENDENCY_INDEX.getConfigsByTypes(project, changedTypeNames, typeEngine));
 							}
 						}
 					}
@@ -1352,6 +1277,14 @@ public abstract class BeansModelUtils {
 		return files;
 	}
 
+	private static String[] getTypeNames(IType[] types) {
+		String[] typeNames = new String[types.length];
+		for (int i = 0; i < types.length; i++) {
+			typeNames[i] = types[i].getFullyQualifiedName();
+		}
+		return typeNames;
+	}
+
 	protected static Set<IBeansConfig> getConfigsByContainingTypesJDT(IResource resource, IProgressMonitor monitor) {
 		Set<IBeansConfig> files = new LinkedHashSet<IBeansConfig>();
 
@@ -1437,18 +1370,13 @@ public abstract class BeansModelUtils {
 				&& resource.getName().endsWith(".java")) {
 			Set<IBeansProject> projects = BeansCorePlugin.getModel().getProjects();
 			if (projects != null) {
+				TYPE_DEPENDENCY_INDEX.retainProjects(projects);
 
 				IJavaElement element = JavaCore.create(resource);
 				if (element instanceof ICompilationUnit && element.getJavaProject().isOnClasspath(element)) {
 
 					try {
-						IType[] types = ((ICompilationUnit) element).getAllTypes();
-						String[] changedTypeNames = new String[types.length];
-						boolean[] changedTypeIsInterface = new boolean[types.length];
-						for (int i = 0; i < types.length; i++) {
-							changedTypeNames[i] = types[i].getFullyQualifiedName();
-							changedTypeIsInterface[i] = types[i].isInterface();
-						}
+						String[] changedTypeNames = getTypeNames(((ICompilationUnit) element).getAllTypes());
 						
 						for (IBeansProject project : projects) {
 							if (project != null) {
@@ -1458,41 +1386,15 @@ public abstract class BeansModelUtils {
 									continue;
 								}
 								
-								Set<IBeansConfig> configs = project.getConfigs();
-								for (IBeansConfig config : configs) {
-									Set<IBean> allBeans = getBeans(config);
-
-									for (IBean bean : allBeans) {
-										String className = resolveBeanTypeAsString(bean);
-										
-										if (className != null) {
-											for (int i = 0; i < changedTypeNames.length; i++) {
-												if (changedTypeIsInterface[i] && typeEngine.doesImplement(className, changedTypeNames[i], project.getProject())) {
-													files.add(bean);
-													break;
-												}
-												else if (!changedTypeIsInterface[i] && typeEngine.doesExtend(className, changedTypeNames[i], project.getProject())) {
-													files.add(bean);
-													break;
-												}
-											}
-										}
-										else {
-											// We can't determine the beans type so don't be cleverer as we can and let
-											// it be processed again
-											// One last check before adding too much that is not even on the resource's
-											// classpath
-											if (project != null
-													&& JdtUtils.isJavaProject(project.getProject())
-													&& JdtUtils.getJavaProject(project.getProject()).isOnClasspath(
-															resource)) {
-												files.add(bean);
-											}
-										}
-									}
-								}
-								
-//								typeHierarchyEngine.cleanup(project.getProject());
+								// We can't determine the type of some beans so don't be cleverer as we can and let
+								// them be processed again
+								// One last check before adding too much that is not even on the resource's
+								// classpath
+								boolean includeBeansWithUnknownType = JdtUtils.isJavaProject(project.getProject())
+										&& JdtUtils.getJavaProject(project.getProject()).isOnClasspath(resource);
+
+								files.addAll(TYPE_DEPENDENCY_INDEX.getBeansByTypes(project, changedTypeNames, typeEngine,
+										includeBeansWithUnknownType));
 							}
 						}
 					}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2016 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,9 +20,8 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -76,6 +75,12 @@ import org.springframework.util.ObjectUtils;
  * <p>
  * The information can be persisted by calling the method
  * {@link #saveDescription()}.
+ * <p>
+ * Modifications are serialized by a single lock and work on the protected
+ * fields of this class. After every modification an immutable snapshot of the
+ * configs and config sets is published, which is all that readers access, so
+ * reading never blocks on a running modification. Only the initial population
+ * of the project from its description blocks readers.
  * 
  * @author Torsten Juergeleit
  * @author Dave Watkins
@@ -88,13 +93,16 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	private static final int AUTO_CONFIG_RESCHEDULE_SLEEP_TIME_MILLIS = 3000;
 	private static final int AUTO_CONFIG_RESCHEDULE_MAX_COUNT = 10;
 
-	private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
+	/** Serializes all modifications of the fields below */
+	private final ReentrantLock w = new ReentrantLock();
 
-	private final Lock r = rwl.readLock();
+	protected volatile boolean modelPopulated = false;
 
-	private final Lock w = rwl.writeLock();
+	/** Set while the model is populated, suppresses publishing incomplete states */
+	private boolean isPopulating = false;
 
-	protected volatile boolean modelPopulated = false;
+	/** The published state readers work on, <code>null</code> until the model is populated */
+	private volatile ProjectState state;
 
 	private final IProject project;
 
@@ -108,7 +116,6 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 
 	protected volatile Map<String, IBeansConfig> configs = new LinkedHashMap<String, IBeansConfig>();
 	protected volatile Map<String, IBeansConfig> autoDetectedConfigs = new LinkedHashMap<String, IBeansConfig>();
-	protected volatile Set<IBeansConfig> allConfigs = Collections.unmodifiableSet(new CopyOnWriteArraySet<IBeansConfig>());
 
 	protected volatile Map<String, Set<String>> autoDetectedConfigsByLocator = new LinkedHashMap<String, Set<String>>();
 
@@ -124,6 +131,12 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 
 	private boolean isAutoConfigStatePersisted = false;
 
+	/** Bean class names mapped to the configs using them, built lazily and dropped when a config changes */
+	private volatile Map<String, Set<IBeansConfig>> configsByBeanClass;
+
+	/** Incremented whenever {@link #configsByBeanClass} gets outdated */
+	private final AtomicInteger configsByBeanClassVersion = new AtomicInteger();
+
 	public BeansProject(IBeansModel model, IProject project) {
 		super(model, project.getName());
 		this.project = project;
@@ -215,6 +228,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 			configSuffixes.clear();
 			configSuffixes.addAll(suffixes);
 		} finally {
+			publishState();
 			w.unlock();
 		}
 	}
@@ -231,6 +245,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 					return true;
 				}
 			} finally {
+				publishState();
 				w.unlock();
 			}
 		}
@@ -239,15 +254,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 
 	@Override
 	public Set<String> getConfigSuffixes() {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			return Collections.unmodifiableSet(configSuffixes);
-		} finally {
-			r.unlock();
-		}
+		return getState().configSuffixes;
 	}
 
 	/**
@@ -261,12 +268,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 
 	@Override
 	public boolean hasConfigSuffix(String suffix) {
-		try {
-			r.lock();
-			return getConfigSuffixes().contains(suffix);
-		} finally {
-			r.unlock();
-		}
+		return getConfigSuffixes().contains(suffix);
 	}
 
 	/**
@@ -298,7 +300,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 			// Look for removed configs and
 			// 1. delete all problem markers from them
 			// 2. remove config from any config set
-			for (IBeansConfig config : configs.values()) {
+			for (IBeansConfig config : new ArrayList<IBeansConfig>(configs.values())) {
 				String configName = config.getElementName();
 				if (!configNames.contains(configName)) {
 					removeConfig(configName);
@@ -436,9 +438,15 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	 * @return <code>true</code> if config was removed to this project
 	 */
 	public boolean removeConfig(String configName) {
-		if (hasConfig(configName)) {
+		if (!this.modelPopulated) {
+			populateModel();
+		}
+		try {
+			w.lock();
+			if (!containsConfig(configName)) {
+				return false;
+			}
 			try {
-				w.lock();
 				IBeansConfig config = configs.remove(configName);
 				IBeansConfig autoDetectedConfig = autoDetectedConfigs.remove(configName);
 				if (config != null) {
@@ -453,12 +461,12 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 				}
 			} finally {
 				updateAllConfigsCache();
-				w.unlock();
 			}
 			removeConfigFromConfigSets(configName);
 			return true;
+		} finally {
+			w.unlock();
 		}
-		return false;
 	}
 
 	@Override
@@ -468,15 +476,8 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 
 	@Override
 	public boolean hasConfig(String configName) {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			return (configs.containsKey(configName) || autoDetectedConfigs.containsKey(configName));
-		} finally {
-			r.unlock();
-		}
+		ProjectState state = getState();
+		return (state.configs.containsKey(configName) || state.autoDetectedConfigs.containsKey(configName));
 	}
 
 	@Override
@@ -492,15 +493,10 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		}
 
 		if (isImportsEnabled() && includeImported) {
-			try {
-				r.lock();
-				for (IBeansConfig bc : getConfigs()) {
-					if (hasImportedBeansConfig(configFile, bc)) {
-						return true;
-					}
+			for (IBeansConfig bc : getConfigs()) {
+				if (hasImportedBeansConfig(configFile, bc)) {
+					return true;
 				}
-			} finally {
-				r.unlock();
 			}
 		}
 		return false;
@@ -545,15 +541,10 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		// configuration files don't
 		// need to get loaded.
 		if ((isImportsEnabled() && includeImported)) {
-			try {
-				r.lock();
-				if (ownConfigs != null) {
-					for (IBeansConfig bc : ownConfigs) {
-						checkForImportedBeansConfig(file, bc, beansConfigs);
-					}
+			if (ownConfigs != null) {
+				for (IBeansConfig bc : ownConfigs) {
+					checkForImportedBeansConfig(file, bc, beansConfigs);
 				}
-			} finally {
-				r.unlock();
 			}
 		}
 		return beansConfigs;
@@ -593,20 +584,11 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	public IBeansConfig getConfig(IFile file) {
 		IBeansConfig config = getConfig(getConfigName(file));
 		if (config == null) {
-			if (!this.modelPopulated) {
-				populateModel();
-			}
-			try {
-				r.lock();
-				for (IBeansConfig beansConfig : configs.values()) {
-					if (beansConfig.getElementResource() != null && beansConfig.getElementResource().equals(file)) {
-						return beansConfig;
-					}
+			for (IBeansConfig beansConfig : getState().configs.values()) {
+				if (beansConfig.getElementResource() != null && beansConfig.getElementResource().equals(file)) {
+					return beansConfig;
 				}
-			} finally {
-				r.unlock();
 			}
-
 		}
 		return config;
 	}
@@ -619,82 +601,36 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		if (configName != null && configName.length() > 0 && configName.charAt(0) == '/') {
 			return BeansCorePlugin.getModel().getConfig(configName);
 		}
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			if (configs.containsKey(configName)) {
-				return configs.get(configName);
-			} else if (autoDetectedConfigs.containsKey(configName)) {
-				return autoDetectedConfigs.get(configName);
-			}
-			return null;
-		} finally {
-			r.unlock();
+		ProjectState state = getState();
+		if (state.configs.containsKey(configName)) {
+			return state.configs.get(configName);
+		} else if (state.autoDetectedConfigs.containsKey(configName)) {
+			return state.autoDetectedConfigs.get(configName);
 		}
+		return null;
 	}
 
 	public Set<String> getConfigNames() {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			Set<String> configNames = new LinkedHashSet<String>(configs.keySet());
-			configNames.addAll(autoDetectedConfigs.keySet());
-			return configNames;
-		} finally {
-			r.unlock();
-		}
+		ProjectState state = getState();
+		Set<String> configNames = new LinkedHashSet<String>(state.configs.keySet());
+		configNames.addAll(state.autoDetectedConfigs.keySet());
+		return configNames;
 	}
 
 	public Set<String> getManualConfigNames() {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			return new LinkedHashSet<String>(configs.keySet());
-		} finally {
-			r.unlock();
-		}
+		return new LinkedHashSet<String>(getState().configs.keySet());
 	}
 
 	public Set<String> getAutoConfigNames() {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			return new LinkedHashSet<String>(autoDetectedConfigs.keySet());
-		} finally {
-			r.unlock();
-		}
+		return new LinkedHashSet<String>(getState().autoDetectedConfigs.keySet());
 	}
 
 	public Set<String> getManualConfigSetNames() {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			return new LinkedHashSet<String>(configSets.keySet());
-		} finally {
-			r.unlock();
-		}
+		return new LinkedHashSet<String>(getState().configSets.keySet());
 	}
 
 	public Set<String> getAutoConfigSetNames() {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			return new LinkedHashSet<String>(autoDetectedConfigSets.keySet());
-		} finally {
-			r.unlock();
-		}
+		return new LinkedHashSet<String>(getState().autoDetectedConfigSets.keySet());
 	}
 
 	/**
@@ -702,19 +638,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	 */
 	@Override
 	public Set<IBeansConfig> getConfigs() {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			return allConfigs;
-			// Set<IBeansConfig> beansConfigs = new
-			// LinkedHashSet<IBeansConfig>(configs.values());
-			// beansConfigs.addAll(autoDetectedConfigs.values());
-			// return beansConfigs;
-		} finally {
-			r.unlock();
-		}
+		return getState().allConfigs;
 	}
 
 	/**
@@ -737,6 +661,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 				this.configSets.put(configSet.getElementName(), configSet);
 			}
 		} finally {
+			publishState();
 			w.unlock();
 		}
 	}
@@ -746,7 +671,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 			populateModel();
 		}
 		try {
-			r.lock();
+			w.lock();
 			if (!configSets.values().contains(configSet)) {
 				configSets.put(configSet.getElementName(), configSet);
 
@@ -758,7 +683,8 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 				return true;
 			}
 		} finally {
-			r.unlock();
+			publishState();
+			w.unlock();
 		}
 		return false;
 	}
@@ -768,6 +694,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 			w.lock();
 			configSets.remove(configSetName);
 		} finally {
+			publishState();
 			w.unlock();
 		}
 	}
@@ -777,15 +704,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	 */
 	@Override
 	public boolean hasConfigSet(String configSetName) {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			return configSets.containsKey(configSetName);
-		} finally {
-			r.unlock();
-		}
+		return getState().configSets.containsKey(configSetName);
 	}
 
 	/**
@@ -793,19 +712,12 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	 */
 	@Override
 	public IBeansConfigSet getConfigSet(String configSetName) {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			IBeansConfigSet set = configSets.get(configSetName);
-			if (set != null) {
-				return set;
-			}
-			return autoDetectedConfigSets.get(configSetName);
-		} finally {
-			r.unlock();
+		ProjectState state = getState();
+		IBeansConfigSet set = state.configSets.get(configSetName);
+		if (set != null) {
+			return set;
 		}
+		return state.autoDetectedConfigSets.get(configSetName);
 	}
 
 	/**
@@ -813,17 +725,10 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	 */
 	@Override
 	public Set<IBeansConfigSet> getConfigSets() {
-		if (!this.modelPopulated) {
-			populateModel();
-		}
-		try {
-			r.lock();
-			Set<IBeansConfigSet> configSets = new LinkedHashSet<IBeansConfigSet>(this.configSets.values());
-			configSets.addAll(autoDetectedConfigSets.values());
-			return configSets;
-		} finally {
-			r.unlock();
-		}
+		ProjectState state = getState();
+		Set<IBeansConfigSet> configSets = new LinkedHashSet<IBeansConfigSet>(state.configSets.values());
+		configSets.addAll(state.autoDetectedConfigSets.values());
+		return configSets;
 	}
 
 	/**
@@ -831,12 +736,19 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	 */
 	@Override
 	public boolean isBeanClass(String className) {
-		for (IBeansConfig config : getConfigs()) {
-			if (config.isBeanClass(className)) {
-				return true;
-			}
+		return getConfigsByBeanClassMap().containsKey(className);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<IBeansConfig> getConfigsByBeanClass(String className) {
+		Set<IBeansConfig> configs = getConfigsByBeanClassMap().get(className);
+		if (configs != null) {
+			return Collections.unmodifiableSet(configs);
 		}
-		return false;
+		return Collections.emptySet();
 	}
 
 	/**
@@ -857,14 +769,21 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	@Override
 	public Set<IBean> getBeans(String className) {
 		Set<IBean> beans = new LinkedHashSet<IBean>();
-		for (IBeansConfig config : getConfigs()) {
-			if (config.isBeanClass(className)) {
-				beans.addAll(config.getBeans(className));
-			}
+		for (IBeansConfig config : getConfigsByBeanClass(className)) {
+			beans.addAll(config.getBeans(className));
 		}
 		return beans;
 	}
 
+	/**
+	 * Reads all configs of this project concurrently and returns the load time of each config in nanoseconds.
+	 * @see BeansConfigLoader
+	 * @since 3.9.3
+	 */
+	public Map<IBeansConfig, Long> loadConfigs(IProgressMonitor monitor) {
+		return BeansConfigLoader.loadConfigs(getConfigs(), monitor);
+	}
+
 	/**
 	 * Writes the current project description to the corresponding XML file
 	 * defined in {@link IBeansProject#DESCRIPTION_FILE}.
@@ -886,6 +805,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		try {
 			w.lock();
 			this.modelPopulated = false;
+			this.state = null;
 			configSuffixes.clear();
 			configs.clear();
 			configSets.clear();
@@ -895,7 +815,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 			autoDetectedConfigSets.clear();
 			autoDetectedConfigSetsByLocator.clear();
 		} finally {
-			updateAllConfigsCache();
+			resetConfigsByBeanClassMap();
 			w.unlock();
 		}
 	}
@@ -931,13 +851,12 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	 */
 	@Override
 	public String toString() {
-		try {
-			r.lock();
-			return "Project=" + getElementName() + ", ConfigExtensions=" + configSuffixes + ", Configs=" + configs.values() + ", ConfigsSets="
-					+ configSets;
-		} finally {
-			r.unlock();
+		ProjectState state = this.state;
+		if (state == null) {
+			return "Project=" + getElementName();
 		}
+		return "Project=" + getElementName() + ", ConfigExtensions=" + state.configSuffixes + ", Configs="
+				+ state.configs.values() + ", ConfigsSets=" + state.configSets;
 	}
 
 	/**
@@ -1012,7 +931,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		}
 		boolean hasRemoved = false;
 		try {
-			r.lock();
+			w.lock();
 			for (IBeansConfigSet configSet : configSets.values()) {
 				if (configSet.hasConfig(configName)) {
 					((BeansConfigSet) configSet).removeConfig(configName);
@@ -1026,7 +945,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 				}
 			}
 		} finally {
-			r.unlock();
+			w.unlock();
 		}
 		return hasRemoved;
 	}
@@ -1053,6 +972,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 			}
 			this.eventListener = new DefaultBeansConfigEventListener();
 			this.modelPopulated = true;
+			this.isPopulating = true;
 
 			BeansProjectDescriptionReader.read(this);
 
@@ -1069,7 +989,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 			IBeansModel model = BeansCorePlugin.getModel();
 			for (IBeansConfigSet configSet : configSets.values()) {
 				for (String configName : configSet.getConfigNames()) {
-					if (!hasConfig(configName) && model.getConfig(configName) == null) {
+					if (!containsConfig(configName) && model.getConfig(configName) == null) {
 						((BeansConfigSet) configSet).removeConfig(configName);
 
 						Set<String> removedConfigs = removedConfigsFromSets.get(configSet);
@@ -1089,6 +1009,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 				config.registerEventListener(eventListener);
 			}
 		} finally {
+			this.isPopulating = false;
 			updateAllConfigsCache();
 			w.unlock();
 		}
@@ -1288,6 +1209,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 			}
 
 		} finally {
+			updateAllConfigsCache();
 			w.unlock();
 			
 			//The commented line below was a fix for 'STS-3541: added additional project build after asynchronous beans config scanning'
@@ -1302,7 +1224,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 			for (IBeansConfigSet configSet : removedConfigsFromSets.keySet()) {
 				Set<String> removedConfigs = removedConfigsFromSets.get(configSet);
 				for (String removedConfig : removedConfigs) {
-					if (hasConfig(removedConfig) || model.getConfig(removedConfig) != null) {
+					if (containsConfig(removedConfig) || model.getConfig(removedConfig) != null) {
 						((BeansConfigSet) configSet).addConfig(removedConfig);
 					}
 				}
@@ -1316,9 +1238,88 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 	 * write-guarded block.
 	 */
 	protected void updateAllConfigsCache() {
-		CopyOnWriteArraySet<IBeansConfig> newAllConfigs = new CopyOnWriteArraySet<IBeansConfig>(configs.values());
-		newAllConfigs.addAll(autoDetectedConfigs.values());
-		this.allConfigs = Collections.unmodifiableSet(newAllConfigs);
+		publishState();
+		resetConfigsByBeanClassMap();
+	}
+
+	/**
+	 * Publishes the current content of the protected fields to readers. This
+	 * has to be called in a write-guarded block. Nothing is published while
+	 * the model is not (completely) populated.
+	 */
+	private void publishState() {
+		if (this.modelPopulated && !this.isPopulating) {
+			this.state = new ProjectState(configSuffixes, configs, autoDetectedConfigs, configSets,
+					autoDetectedConfigSets);
+		}
+	}
+
+	/**
+	 * Returns the published state, populates the model first if necessary.
+	 */
+	private ProjectState getState() {
+		ProjectState state = this.state;
+		if (state == null) {
+			populateModel();
+			state = this.state;
+			if (state == null) {
+				// Called from within the population or a concurrent reset; use
+				// the current content of the fields
+				try {
+					w.lock();
+					state = new ProjectState(configSuffixes, configs, autoDetectedConfigs, configSets,
+							autoDetectedConfigSets);
+				} finally {
+					w.unlock();
+				}
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Checks the unpublished configs for the given name. This has to be called
+	 * in a write-guarded block.
+	 */
+	private boolean containsConfig(String configName) {
+		return configs.containsKey(configName) || autoDetectedConfigs.containsKey(configName);
+	}
+
+	/**
+	 * Returns the lazily initialized map of bean class names to the configs using them.
+	 * <p>
+	 * The map is built without holding the lock of this project, as reading the configs might access this project from
+	 * other threads. A map built while a config has been reset is not published.
+	 */
+	private Map<String, Set<IBeansConfig>> getConfigsByBeanClassMap() {
+		Map<String, Set<IBeansConfig>> result = this.configsByBeanClass;
+		if (result == null) {
+			int version = configsByBeanClassVersion.get();
+			result = new HashMap<String, Set<IBeansConfig>>();
+			for (IBeansConfig config : getConfigs()) {
+				for (String className : config.getBeanClasses()) {
+					Set<IBeansConfig> classConfigs = result.get(className);
+					if (classConfigs == null) {
+						classConfigs = new LinkedHashSet<IBeansConfig>();
+						result.put(className, classConfigs);
+					}
+					classConfigs.add(config);
+				}
+			}
+			synchronized (configsByBeanClassVersion) {
+				if (version == configsByBeanClassVersion.get()) {
+					this.configsByBeanClass = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	private void resetConfigsByBeanClassMap() {
+		synchronized (configsByBeanClassVersion) {
+			configsByBeanClassVersion.incrementAndGet();
+			this.configsByBeanClass = null;
+		}
 	}
 
 	/**
@@ -1386,6 +1387,7 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		 */
 		@Override
 		public void onReset(IBeansConfig config) {
+			resetConfigsByBeanClassMap();
 			for (IBeansProject project : BeansCorePlugin.getModel().getProjects()) {
 				for (IBeansConfigSet configSet : project.getConfigSets()) {
 					if (configSet.hasConfig((IFile) config.getElementResource())) {
@@ -1400,25 +1402,16 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 
 	@Override
 	public boolean isInitialized() {
-		if (!this.modelPopulated) {
+		ProjectState state = this.state;
+		if (!this.modelPopulated || state == null) {
 			return false;
 		}
-		try {
-			r.lock();
-			for (IBeansConfig config : configs.values()) {
-				if (!((ILazyInitializedModelElement) config).isInitialized()) {
-					return false;
-				}
-			}
-			for (IBeansConfig config : autoDetectedConfigs.values()) {
-				if (!((ILazyInitializedModelElement) config).isInitialized()) {
-					return false;
-				}
+		for (IBeansConfig config : state.allConfigs) {
+			if (!((ILazyInitializedModelElement) config).isInitialized()) {
+				return false;
 			}
-			return true;
-		} finally {
-			r.unlock();
 		}
+		return true;
 	}
 
 	@Override
@@ -1430,4 +1423,38 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		this.isAutoConfigStatePersisted = autoConfigPersisted;
 	}
 
+	/**
+	 * Immutable copy of the configs and config sets of a project that is
+	 * replaced as a whole on every modification.
+	 */
+	private static class ProjectState {
+
+		private final Set<String> configSuffixes;
+
+		private final Map<String, IBeansConfig> configs;
+
+		private final Map<String, IBeansConfig> autoDetectedConfigs;
+
+		private final Set<IBeansConfig> allConfigs;
+
+		private final Map<String, IBeansConfigSet> configSets;
+
+		private final Map<String, IBeansConfigSet> autoDetectedConfigSets;
+
+		public ProjectState(Set<String> configSuffixes, Map<String, IBeansConfig> configs,
+				Map<String, IBeansConfig> autoDetectedConfigs, Map<String, IBeansConfigSet> configSets,
+				Map<String, IBeansConfigSet> autoDetectedConfigSets) {
+			this.configSuffixes = Collections.unmodifiableSet(new LinkedHashSet<String>(configSuffixes));
+			this.configs = Collections.unmodifiableMap(new LinkedHashMap<String, IBeansConfig>(configs));
+			this.autoDetectedConfigs = Collections.unmodifiableMap(new LinkedHashMap<String, IBeansConfig>(
+					autoDetectedConfigs));
+			Set<IBeansConfig> allConfigs = new LinkedHashSet<IBeansConfig>(configs.values());
+			allConfigs.addAll(autoDetectedConfigs.values());
+			this.allConfigs = Collections.unmodifiableSet(allConfigs);
+			this.configSets = Collections.unmodifiableMap(new LinkedHashMap<String, IBeansConfigSet>(configSets));
+			this.autoDetectedConfigSets = Collections.unmodifiableMap(new LinkedHashMap<String, IBeansConfigSet>(
+					autoDetectedConfigSets));
+		}
+	}
+
 }
@@ -0,0 +1,394 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+
+/**
+ * Reverse index from type names to the {@link IBeansConfig}s and {@link IBean}s whose bean classes are these types or
+ * extend or implement them (directly or indirectly).
+ * <p>
+ * The index is maintained per project and updated lazily on every query: configs that have been added, removed or
+ * reloaded are re-indexed, which is detected by their identity and {@link AbstractBeansConfig#getReloadCount() reload
+ * count} without looking at their beans. Configs and beans that are returned for a changed type are re-indexed on the
+ * next query as well, since the change of the type might have changed the type hierarchy of their bean classes.
+ * Configs with beans whose type or type hierarchy couldn't be resolved completely are re-indexed on every query, as
+ * the missing types might have been created in the meantime. The complete index of a project is thrown away if the
+ * {@link TypeHierarchyEngine#getCacheGeneration() type hierarchy cache} has been cleared, e.g. because of a changed
+ * classpath.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class BeansTypeDependencyIndex {
+
+	private static final String OBJECT_CLASS_NAME = "java.lang.Object";
+
+	private final Map<IProject, ProjectIndex> projectIndexes = new HashMap<IProject, ProjectIndex>();
+
+	/**
+	 * Returns the configs of the given project that contain a bean whose bean class is or extends or implements one
+	 * of the given (fully qualified) type names.
+	 */
+	public Set<IBeansConfig> getConfigsByTypes(IBeansProject project, String[] typeNames, TypeHierarchyEngine typeEngine) {
+		ProjectIndex index = getProjectIndex(project);
+		synchronized (index) {
+			index.checkCacheGeneration(typeEngine);
+			index.refreshConfigs(project, typeEngine);
+
+			Set<IBeansConfig> result = new LinkedHashSet<IBeansConfig>();
+			for (String typeName : typeNames) {
+				Set<IBeansConfig> configs = index.configsByType.get(typeName);
+				if (configs != null) {
+					result.addAll(configs);
+				}
+			}
+
+			// the hierarchy of their bean classes might have changed
+			for (IBeansConfig config : result) {
+				index.removeConfig(config);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Returns the beans of the given project whose bean class is or extends or implements one of the given (fully
+	 * qualified) type names.
+	 * @param includeBeansWithUnknownType include all beans whose bean class can't be resolved
+	 */
+	public Set<IBean> getBeansByTypes(IBeansProject project, String[] typeNames, TypeHierarchyEngine typeEngine,
+			boolean includeBeansWithUnknownType) {
+		ProjectIndex index = getProjectIndex(project);
+		synchronized (index) {
+			index.checkCacheGeneration(typeEngine);
+			index.refreshBeans(project, typeEngine);
+
+			Set<IBean> result = new LinkedHashSet<IBean>();
+			for (String typeName : typeNames) {
+				Set<IBean> beans = index.beansByType.get(typeName);
+				if (beans != null) {
+					result.addAll(beans);
+				}
+			}
+
+			// the hierarchy of their bean classes might have changed
+			Set<IBeansConfig> changedConfigs = new LinkedHashSet<IBeansConfig>();
+			for (IBean bean : result) {
+				changedConfigs.add(index.configsByBean.get(bean));
+			}
+			for (IBeansConfig config : changedConfigs) {
+				index.removeBeans(config);
+			}
+
+			if (includeBeansWithUnknownType) {
+				result.addAll(index.beansWithUnknownType);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Removes the indexes of all projects that are not contained in the given set of projects anymore.
+	 */
+	public synchronized void retainProjects(Set<IBeansProject> projects) {
+		Set<IProject> currentProjects = new HashSet<IProject>();
+		for (IBeansProject project : projects) {
+			currentProjects.add(project.getProject());
+		}
+		projectIndexes.keySet().retainAll(currentProjects);
+	}
+
+	public synchronized void clear() {
+		projectIndexes.clear();
+	}
+
+	private synchronized ProjectIndex getProjectIndex(IBeansProject project) {
+		ProjectIndex index = projectIndexes.get(project.getProject());
+		if (index == null) {
+			index = new ProjectIndex();
+			projectIndexes.put(project.getProject(), index);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the reload count of the given config, or <code>-1</code> if it is unknown and the config therefore needs
+	 * to be re-indexed on every query.
+	 */
+	private static int getReloadCount(IBeansConfig config) {
+		if (config instanceof AbstractBeansConfig) {
+			return ((AbstractBeansConfig) config).getReloadCount();
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the names of the given type and all its superclasses and (super) interfaces.
+	 */
+	private static TypeClosure getTypeClosure(String className, IProject project, TypeHierarchyEngine typeEngine,
+			Map<String, TypeClosure> closures) {
+		TypeClosure result = closures.get(className);
+		if (result != null) {
+			return result;
+		}
+
+		result = new TypeClosure();
+		ArrayDeque<String> typesToAnalyze = new ArrayDeque<String>();
+		typesToAnalyze.add(className);
+		while (!typesToAnalyze.isEmpty()) {
+			String type = typesToAnalyze.pop();
+			if (OBJECT_CLASS_NAME.equals(type) || !result.typeNames.add(type)) {
+				continue;
+			}
+
+			// every class file but the one of java.lang.Object names a superclass, so the type couldn't be found
+			String supertype = typeEngine.getSupertype(project, type);
+			if (supertype != null) {
+				typesToAnalyze.add(supertype);
+			}
+			else {
+				result.complete = false;
+			}
+			String[] interfaces = typeEngine.getInterfaces(project, type);
+			if (interfaces != null) {
+				Collections.addAll(typesToAnalyze, interfaces);
+			}
+		}
+
+		closures.put(className, result);
+		return result;
+	}
+
+	private static <T> void addToIndex(Map<String, Set<T>> index, Set<String> typeNames, T element) {
+		for (String typeName : typeNames) {
+			Set<T> elements = index.get(typeName);
+			if (elements == null) {
+				elements = new LinkedHashSet<T>();
+				index.put(typeName, elements);
+			}
+			elements.add(element);
+		}
+	}
+
+	private static <T> void removeFromIndex(Map<String, Set<T>> index, Set<String> typeNames, T element) {
+		for (String typeName : typeNames) {
+			Set<T> elements = index.get(typeName);
+			if (elements != null) {
+				elements.remove(element);
+				if (elements.isEmpty()) {
+					index.remove(typeName);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Index of a single project, guarded by its own monitor.
+	 */
+	private static class ProjectIndex {
+
+		private final Map<IBeansConfig, ConfigEntry> configEntries = new IdentityHashMap<IBeansConfig, ConfigEntry>();
+
+		private final Map<String, Set<IBeansConfig>> configsByType = new HashMap<String, Set<IBeansConfig>>();
+
+		private final Map<IBeansConfig, BeansEntry> beansEntries = new IdentityHashMap<IBeansConfig, BeansEntry>();
+
+		private final Map<String, Set<IBean>> beansByType = new HashMap<String, Set<IBean>>();
+
+		private final Map<IBean, IBeansConfig> configsByBean = new IdentityHashMap<IBean, IBeansConfig>();
+
+		private final Set<IBean> beansWithUnknownType = new LinkedHashSet<IBean>();
+
+		private long cacheGeneration = -1;
+
+		/**
+		 * Throws away the complete index if the type hierarchy information it has been built from is outdated.
+		 */
+		public void checkCacheGeneration(TypeHierarchyEngine typeEngine) {
+			long currentGeneration = typeEngine.getCacheGeneration();
+			if (currentGeneration != cacheGeneration) {
+				configEntries.clear();
+				configsByType.clear();
+				beansEntries.clear();
+				beansByType.clear();
+				configsByBean.clear();
+				beansWithUnknownType.clear();
+				cacheGeneration = currentGeneration;
+			}
+		}
+
+		public void refreshConfigs(IBeansProject project, TypeHierarchyEngine typeEngine) {
+			Set<IBeansConfig> configs = project.getConfigs();
+			Map<IBeansConfig, Boolean> currentConfigs = new IdentityHashMap<IBeansConfig, Boolean>();
+			for (IBeansConfig config : configs) {
+				currentConfigs.put(config, Boolean.TRUE);
+			}
+			for (IBeansConfig config : new ArrayList<IBeansConfig>(configEntries.keySet())) {
+				if (!currentConfigs.containsKey(config)) {
+					removeConfig(config);
+				}
+			}
+
+			Map<String, TypeClosure> closures = new HashMap<String, TypeClosure>();
+			for (IBeansConfig config : configs) {
+				int reloadCount = getReloadCount(config);
+				ConfigEntry entry = configEntries.get(config);
+				if (entry != null && entry.isUpToDate(reloadCount)) {
+					continue;
+				}
+				if (entry != null) {
+					removeConfig(config);
+				}
+
+				entry = new ConfigEntry(reloadCount);
+				for (String beanClass : config.getBeanClasses()) {
+					TypeClosure closure = getTypeClosure(beanClass, project.getProject(), typeEngine, closures);
+					entry.typeNames.addAll(closure.typeNames);
+					entry.complete &= closure.complete;
+				}
+				addToIndex(configsByType, entry.typeNames, config);
+				configEntries.put(config, entry);
+			}
+		}
+
+		public void removeConfig(IBeansConfig config) {
+			ConfigEntry entry = configEntries.remove(config);
+			if (entry != null) {
+				removeFromIndex(configsByType, entry.typeNames, config);
+			}
+		}
+
+		public void refreshBeans(IBeansProject project, TypeHierarchyEngine typeEngine) {
+			Set<IBeansConfig> configs = project.getConfigs();
+			Map<IBeansConfig, Boolean> currentConfigs = new IdentityHashMap<IBeansConfig, Boolean>();
+			for (IBeansConfig config : configs) {
+				currentConfigs.put(config, Boolean.TRUE);
+			}
+			for (IBeansConfig config : new ArrayList<IBeansConfig>(beansEntries.keySet())) {
+				if (!currentConfigs.containsKey(config)) {
+					removeBeans(config);
+				}
+			}
+
+			Map<String, TypeClosure> closures = new HashMap<String, TypeClosure>();
+			for (IBeansConfig config : configs) {
+				int reloadCount = getReloadCount(config);
+				BeansEntry entry = beansEntries.get(config);
+				if (entry != null && entry.isUpToDate(reloadCount)) {
+					continue;
+				}
+				if (entry != null) {
+					removeBeans(config);
+				}
+
+				entry = new BeansEntry(reloadCount);
+				for (IBean bean : BeansModelUtils.getBeans(config)) {
+					String className = BeansModelUtils.resolveBeanTypeAsString(bean);
+					if (className != null) {
+						TypeClosure closure = getTypeClosure(className, project.getProject(), typeEngine, closures);
+						addToIndex(beansByType, closure.typeNames, bean);
+						entry.beans.put(bean, closure.typeNames);
+						entry.complete &= closure.complete;
+					}
+					else {
+						beansWithUnknownType.add(bean);
+						entry.beans.put(bean, Collections.<String>emptySet());
+						entry.complete = false;
+					}
+					configsByBean.put(bean, config);
+				}
+				beansEntries.put(config, entry);
+			}
+		}
+
+		public void removeBeans(IBeansConfig config) {
+			BeansEntry entry = beansEntries.remove(config);
+			if (entry != null) {
+				for (Map.Entry<IBean, Set<String>> bean : entry.beans.entrySet()) {
+					removeFromIndex(beansByType, bean.getValue(), bean.getKey());
+					beansWithUnknownType.remove(bean.getKey());
+					configsByBean.remove(bean.getKey());
+				}
+			}
+		}
+	}
+
+	/**
+	 * The names of a type and its supertypes; not complete if some of the types couldn't be found.
+	 */
+	private static class TypeClosure {
+
+		private final Set<String> typeNames = new LinkedHashSet<String>();
+
+		private boolean complete = true;
+	}
+
+	/**
+	 * State shared by the entries of the configs and beans indexes.
+	 */
+	private static abstract class IndexEntry {
+
+		private final int reloadCount;
+
+		protected boolean complete = true;
+
+		public IndexEntry(int reloadCount) {
+			this.reloadCount = reloadCount;
+		}
+
+		/**
+		 * Returns <code>true</code> if the entry has been created from the current state of its config and all types
+		 * have been found.
+		 */
+		public boolean isUpToDate(int currentReloadCount) {
+			return complete && reloadCount >= 0 && reloadCount == currentReloadCount;
+		}
+	}
+
+	/**
+	 * The type names the bean classes of a config have been registered with.
+	 */
+	private static class ConfigEntry extends IndexEntry {
+
+		private final Set<String> typeNames = new LinkedHashSet<String>();
+
+		public ConfigEntry(int reloadCount) {
+			super(reloadCount);
+		}
+	}
+
+	/**
+	 * The beans of a config and the type names each bean has been registered with.
+	 */
+	private static class BeansEntry extends IndexEntry {
+
+		private final Map<IBean, Set<String>> beans = new IdentityHashMap<IBean, Set<String>>();
+
+		public BeansEntry(int reloadCount) {
+			super(reloadCount);
+		}
+	}
+
+}
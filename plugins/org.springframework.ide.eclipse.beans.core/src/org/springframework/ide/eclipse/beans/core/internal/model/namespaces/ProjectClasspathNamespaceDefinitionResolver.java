@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2011 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,7 +28,6 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.Preferences.IPropertyChangeListener;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
-import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.model.INamespaceDefinition;
 import org.springframework.ide.eclipse.beans.core.model.INamespaceDefinitionListener;
@@ -116,10 +115,11 @@ public class ProjectClasspathNamespaceDefinitionResolver implements INamespaceDe
 			Properties schemaMappings = new Properties();
 
 			try {
-				Properties mappings = PropertiesLoaderUtils.loadAllProperties(DEFAULT_HANDLER_MAPPINGS_LOCATION, cls);
+				SchemaMappingCache cache = BeansCorePlugin.getSchemaMappingCache();
+				Properties mappings = cache.loadAllProperties(DEFAULT_HANDLER_MAPPINGS_LOCATION, cls);
 				CollectionUtils.mergePropertiesIntoMap(mappings, handlerMappings);
-				schemaMappings = PropertiesLoaderUtils.loadAllProperties(DEFAULT_SCHEMA_MAPPINGS_LOCATION, cls);
-				mappings = PropertiesLoaderUtils.loadAllProperties(DEFAULT_TOOLING_MAPPINGS_LOCATION, cls);
+				schemaMappings = cache.loadAllProperties(DEFAULT_SCHEMA_MAPPINGS_LOCATION, cls);
+				mappings = cache.loadAllProperties(DEFAULT_TOOLING_MAPPINGS_LOCATION, cls);
 				CollectionUtils.mergePropertiesIntoMap(mappings, toolingMappings);
 			}
 			catch (IOException e) {
@@ -141,7 +141,7 @@ public class ProjectClasspathNamespaceDefinitionResolver implements INamespaceDe
 					continue;
 				}
 
-				String namespaceUri = TargetNamespaceScanner.getTargetNamespace(url);
+				String namespaceUri = BeansCorePlugin.getSchemaMappingCache().getTargetNamespace(url);
 				
 				if (StringUtils.hasText(namespaceUri)) {
 				
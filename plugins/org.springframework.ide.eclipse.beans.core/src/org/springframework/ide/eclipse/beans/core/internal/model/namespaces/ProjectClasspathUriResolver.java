@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 Spring IDE Developers
+ * Copyright (c) 2011, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,7 +20,6 @@ import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
-import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.ProjectAwareUrlStreamHandlerService;
 import org.springframework.ide.eclipse.beans.core.namespaces.NamespaceUtils;
@@ -108,7 +107,7 @@ public class ProjectClasspathUriResolver {
 					typeUri.put(key, resolvedPath);
 
 					// collect base information to later extract the default uri
-					String namespaceUri = getTargetNamespace(resolvedPath);
+					String namespaceUri = getTargetNamespace(resolvedPath, classLoader);
 
 					if (namespaceDefinitionRegistry.containsKey(namespaceUri)) {
 						namespaceDefinitionRegistry.get(namespaceUri)
@@ -147,11 +146,17 @@ public class ProjectClasspathUriResolver {
 	 * Returns the target namespace URI of the XSD identified by the given
 	 * <code>resolvedPath</code>.
 	 */
-	private String getTargetNamespace(String resolvedPath) {
+	private String getTargetNamespace(String resolvedPath, ClassLoader classLoader) {
 		if (resolvedPath == null) {
 			return null;
 		}
 
+		// XSDs contained in jar files are looked up in the workspace wide cache
+		URL classpathUrl = classLoader.getResource(resolvedPath);
+		if (classpathUrl != null && "jar".equals(classpathUrl.getProtocol())) {
+			return BeansCorePlugin.getSchemaMappingCache().getTargetNamespace(classpathUrl);
+		}
+
 		try {
 			URL url = new URI(
 					ProjectAwareUrlStreamHandlerService.createProjectAwareUrl(
@@ -175,7 +180,7 @@ public class ProjectClasspathUriResolver {
 	private Map<String, String> getSchemaMappings(ClassLoader classLoader) {
 		Map<String, String> handlerMappings = new ConcurrentHashMap<String, String>();
 		try {
-			Properties mappings = PropertiesLoaderUtils
+			Properties mappings = BeansCorePlugin.getSchemaMappingCache()
 					.loadAllProperties(
 							ProjectClasspathNamespaceDefinitionResolver.DEFAULT_SCHEMA_MAPPINGS_LOCATION,
 							classLoader);
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model.namespaces;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+
+/**
+ * Workspace wide cache of the <code>spring.schemas</code>/<code>spring.handlers</code> mappings and XSD target
+ * namespaces that are contained in jar files.
+ * <p>
+ * Entries are keyed by the path of the jar file and are dropped as soon as the last modification time or the length
+ * of the jar changes, so the cache can be shared by all projects that have the same jar on their classpath. Resources
+ * that are not contained in a jar file (e.g. in output folders of projects) are always read. The cache is persisted in
+ * the state location of the plug-in between sessions.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class SchemaMappingCache {
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String JAR_URL_SEPARATOR = "!/";
+
+	private final File cacheFile;
+
+	private final Map<String, JarEntry> jars = new ConcurrentHashMap<String, JarEntry>();
+
+	private volatile boolean loaded = false;
+
+	private volatile boolean modified = false;
+
+	public SchemaMappingCache(File cacheFile) {
+		this.cacheFile = cacheFile;
+	}
+
+	/**
+	 * Loads and merges all properties files with the given name from the given class loader in the same way
+	 * {@link org.springframework.core.io.support.PropertiesLoaderUtils#loadAllProperties(String, ClassLoader)} does.
+	 */
+	public Properties loadAllProperties(String resourceName, ClassLoader classLoader) throws IOException {
+		Properties result = new Properties();
+		Enumeration<URL> urls = classLoader.getResources(resourceName);
+		while (urls.hasMoreElements()) {
+			URL url = urls.nextElement();
+			JarEntry jar = getJarEntry(url);
+			if (jar == null) {
+				result.putAll(readProperties(url));
+				continue;
+			}
+
+			Map<String, String> properties = jar.properties.get(resourceName);
+			if (properties == null) {
+				properties = new HashMap<String, String>();
+				for (Map.Entry<Object, Object> property : readProperties(url).entrySet()) {
+					properties.put((String) property.getKey(), (String) property.getValue());
+				}
+				jar.properties.put(resourceName, properties);
+				modified = true;
+			}
+			result.putAll(properties);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the target namespace of the XSD at the given <code>url</code>.
+	 * @see TargetNamespaceScanner#getTargetNamespace(URL)
+	 */
+	public String getTargetNamespace(URL url) {
+		JarEntry jar = url != null ? getJarEntry(url) : null;
+		if (jar == null) {
+			return TargetNamespaceScanner.getTargetNamespace(url);
+		}
+
+		String entryName = getEntryName(url);
+		String targetNamespace = jar.targetNamespaces.get(entryName);
+		if (targetNamespace == null) {
+			// XSDs that can't be read are not cached and tried again next time
+			targetNamespace = TargetNamespaceScanner.getTargetNamespace(url);
+			if (targetNamespace != null) {
+				jar.targetNamespaces.put(entryName, targetNamespace);
+				modified = true;
+			}
+		}
+		return targetNamespace;
+	}
+
+	public void clear() {
+		jars.clear();
+		modified = true;
+	}
+
+	/**
+	 * Writes the cache to its file if it has been modified since it has been loaded.
+	 */
+	public synchronized void save() {
+		if (!modified) {
+			return;
+		}
+		try {
+			cacheFile.getParentFile().mkdirs();
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile)));
+			try {
+				out.writeInt(FORMAT_VERSION);
+				Map<String, JarEntry> jars = new HashMap<String, JarEntry>(this.jars);
+				out.writeInt(jars.size());
+				for (Map.Entry<String, JarEntry> jar : jars.entrySet()) {
+					out.writeUTF(jar.getKey());
+					out.writeLong(jar.getValue().lastModified);
+					out.writeLong(jar.getValue().length);
+					Map<String, Map<String, String>> properties = new HashMap<String, Map<String, String>>(
+							jar.getValue().properties);
+					out.writeInt(properties.size());
+					for (Map.Entry<String, Map<String, String>> resource : properties.entrySet()) {
+						out.writeUTF(resource.getKey());
+						writeMap(out, resource.getValue());
+					}
+					writeMap(out, new HashMap<String, String>(jar.getValue().targetNamespaces));
+				}
+			}
+			finally {
+				out.close();
+			}
+			modified = false;
+		}
+		catch (IOException e) {
+			cacheFile.delete();
+			BeansCorePlugin.log(new Status(IStatus.WARNING, BeansCorePlugin.PLUGIN_ID,
+					"Error occured while saving schema mapping cache", e));
+		}
+	}
+
+	private synchronized void load() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+		if (!cacheFile.exists()) {
+			return;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+			try {
+				if (in.readInt() != FORMAT_VERSION) {
+					return;
+				}
+				int jarCount = in.readInt();
+				for (int i = 0; i < jarCount; i++) {
+					String path = in.readUTF();
+					JarEntry jar = new JarEntry(in.readLong(), in.readLong());
+					int resourceCount = in.readInt();
+					for (int j = 0; j < resourceCount; j++) {
+						String resourceName = in.readUTF();
+						jar.properties.put(resourceName, readMap(in));
+					}
+					jar.targetNamespaces.putAll(readMap(in));
+					jars.put(path, jar);
+				}
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch (IOException e) {
+			jars.clear();
+			cacheFile.delete();
+		}
+	}
+
+	/**
+	 * Returns the (current) entry of the jar that contains the resource at the given <code>url</code> or
+	 * <code>null</code> if the resource is not contained in a jar file.
+	 */
+	private JarEntry getJarEntry(URL url) {
+		File file = getJarFile(url);
+		if (file == null) {
+			return null;
+		}
+		if (!loaded) {
+			load();
+		}
+
+		String path = file.getAbsolutePath();
+		long lastModified = file.lastModified();
+		long length = file.length();
+		JarEntry jar = jars.get(path);
+		if (jar == null || jar.lastModified != lastModified || jar.length != length) {
+			jar = new JarEntry(lastModified, length);
+			jars.put(path, jar);
+			modified = true;
+		}
+		return jar;
+	}
+
+	private static File getJarFile(URL url) {
+		if (!"jar".equals(url.getProtocol())) {
+			return null;
+		}
+		String path = url.getPath();
+		int ix = path.indexOf(JAR_URL_SEPARATOR);
+		if (ix == -1 || !path.startsWith("file:")) {
+			return null;
+		}
+		try {
+			File file = new File(new URI(path.substring(0, ix)));
+			return file.isFile() ? file : null;
+		}
+		catch (URISyntaxException e) {
+			return null;
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static String getEntryName(URL url) {
+		String path = url.getPath();
+		return path.substring(path.indexOf(JAR_URL_SEPARATOR) + JAR_URL_SEPARATOR.length());
+	}
+
+	private static Properties readProperties(URL url) throws IOException {
+		Properties properties = new Properties();
+		// don't use the JVM wide cache of jar files that wouldn't notice changed jars
+		URLConnection connection = url.openConnection();
+		connection.setUseCaches(false);
+		InputStream is = connection.getInputStream();
+		try {
+			properties.load(is);
+		}
+		finally {
+			is.close();
+		}
+		return properties;
+	}
+
+	private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+		out.writeInt(map.size());
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeUTF(entry.getValue());
+		}
+	}
+
+	private static Map<String, String> readMap(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		Map<String, String> map = new HashMap<String, String>(size);
+		for (int i = 0; i < size; i++) {
+			map.put(in.readUTF(), in.readUTF());
+		}
+		return map;
+	}
+
+	/**
+	 * The cached content of a single jar file.
+	 */
+	private static class JarEntry {
+
+		private final long lastModified;
+
+		private final long length;
+
+		private final Map<String, Map<String, String>> properties = new ConcurrentHashMap<String, Map<String, String>>();
+
+		private final Map<String, String> targetNamespaces = new ConcurrentHashMap<String, String>();
+
+		public JarEntry(long lastModified, long length) {
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+	}
+
+}
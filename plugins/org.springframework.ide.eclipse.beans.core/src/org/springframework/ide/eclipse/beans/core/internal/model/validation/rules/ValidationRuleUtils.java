@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,11 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.internal.model.validation.rules;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
@@ -26,10 +28,13 @@ import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfigSet;
 import org.springframework.ide.eclipse.beans.core.model.validation.IBeansValidationContext;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.Introspector;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.ide.eclipse.core.java.SuperTypeHierarchyCache;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
 import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.ide.eclipse.core.model.validation.AbstractValidationContext;
 
 /**
  * Helpers for validation rules.
@@ -91,14 +96,17 @@ public final class ValidationRuleUtils {
 		}
 
 		// fall back for manual installation of the post processor
+		Set<String> subtypeNames = getAllSubtypeNames(beanClass, context);
 		IType[] allSubtypes = null;
-		try {
-			IType beanClassType = JdtUtils.getJavaType(context.getRootElementProject(), beanClass);
-			ITypeHierarchy hierarchy = SuperTypeHierarchyCache.getTypeHierarchy(beanClassType);
-			allSubtypes = hierarchy.getAllSubtypes(beanClassType);
-		}
-		catch (JavaModelException e) {
-			// ignore, falls back to JdtUtils.doesExtend
+		if (subtypeNames == null) {
+			try {
+				IType beanClassType = JdtUtils.getJavaType(context.getRootElementProject(), beanClass);
+				ITypeHierarchy hierarchy = SuperTypeHierarchyCache.getTypeHierarchy(beanClassType);
+				allSubtypes = hierarchy.getAllSubtypes(beanClassType);
+			}
+			catch (JavaModelException e) {
+				// ignore, falls back to JdtUtils.doesExtend
+			}
 		}
 
 		for (String name : context.getCompleteRegistry().getBeanDefinitionNames()) {
@@ -108,6 +116,11 @@ public final class ValidationRuleUtils {
 					if (db.getBeanClassName().equals(beanClass)) {
 						beanDefinition.add(db);
 					}
+					else if (subtypeNames != null) {
+						if (subtypeNames.contains(db.getBeanClassName())) {
+							beanDefinition.add(db);
+						}
+					}
 					else if (allSubtypes != null) {
 						for (int i = 0; i < allSubtypes.length; i++) {
 							if (allSubtypes[i].getFullyQualifiedName().equals(db.getBeanClassName()) &&
@@ -128,6 +141,24 @@ public final class ValidationRuleUtils {
 		return beanDefinition;
 	}
 
+	/**
+	 * Returns the names of all subclasses and implementors of the given class from the reverse index
+	 * of the {@link TypeHierarchyEngine}, which is a lot cheaper than building a JDT type hierarchy.
+	 * Returns <code>null</code> if the engine is switched off or isn't able to answer the question.
+	 */
+	private static Set<String> getAllSubtypeNames(String className, IBeansValidationContext context) {
+		IProject project = context.getRootElementProject();
+		if (project == null || Object.class.getName().equals(className)
+				|| !System.getProperty(TypeHierarchyEngine.ENABLE_PROPERTY, "true").equals("true")) {
+			return null;
+		}
+
+		TypeHierarchyEngine engine = (context instanceof AbstractValidationContext
+				? ((AbstractValidationContext) context).getTypeHierarchyEngine() : SpringCore.getTypeHierarchyEngine());
+		String[] subtypes = engine.getAllSubtypes(project, className);
+		return subtypes != null ? new HashSet<String>(Arrays.asList(subtypes)) : null;
+	}
+
 	/**
 	 * Extracts the {@link IType} of a bean definition.
 	 * <p>
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -73,6 +73,14 @@ public interface IBeansConfig extends IBeansModelElement, IResourceModelElement,
 
 	boolean hasBean(String name);
 
+	/**
+	 * Returns the bean with the given name or alias. Beans defined within {@link IBeansComponent}s are found as well.
+	 * The lookup is backed by an index which is rebuilt when this config is reloaded.
+	 * @return the bean or <code>null</code> if no bean with the given name or alias exists
+	 * @since 3.9.3
+	 */
+	IBean findBean(String nameOrAlias);
+
 	/**
 	 * Returns <code>true</code> if the underlying resource has been changed
 	 * @since 2.0.3
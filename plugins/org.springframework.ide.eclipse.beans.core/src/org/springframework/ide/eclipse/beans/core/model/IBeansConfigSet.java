@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2011 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,7 @@ import org.springframework.ide.eclipse.core.model.IResourceModelElement;
  * @author Torsten Juergeleit
  * @author Dave Watkins
  * @author Christian Dupuis
+ * @author Martin Lippert
  */
 public interface IBeansConfigSet extends IBeansModelElement,
 		IResourceModelElement, IBeanClassAware {
@@ -59,6 +60,14 @@ public interface IBeansConfigSet extends IBeansModelElement,
 	IBean getBean(String name);
 
 	public Set<IBean> getBeans();
+
+	/**
+	 * Returns the bean with the given name or alias. Beans defined within {@link IBeansComponent}s are found as well.
+	 * The lookup is backed by an index which is rebuilt when one of the configs of this config set is reloaded.
+	 * @return the bean or <code>null</code> if no bean with the given name or alias exists
+	 * @since 3.9.3
+	 */
+	IBean findBean(String nameOrAlias);
 	
 	/**
 	 * Type of this configuration file. Could either be manual or automatic configured
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -119,6 +119,14 @@ public interface IBeansProject extends IBeansModelElement, IResourceModelElement
 	 */
 	Set<IBeansConfig> getConfigs();
 
+	/**
+	 * Returns all configs of this project which contain a bean with the given bean class. The lookup is backed by an
+	 * index which is rebuilt when one of the configs of this project is reloaded.
+	 * @param className full qualified name of bean class
+	 * @since 3.9.3
+	 */
+	Set<IBeansConfig> getConfigsByBeanClass(String className);
+
 	/**
 	 * Returns true if a config set with the given name is defined within this project.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Spring IDE Developers
+ * Copyright (c) 2008, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,25 +10,31 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.model.locate;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.xml.parsers.SAXParser;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.wst.sse.core.StructuredModelManager;
-import org.eclipse.wst.sse.core.internal.provisional.IStructuredModel;
-import org.eclipse.wst.xml.core.internal.document.DOMModelImpl;
-import org.eclipse.wst.xml.core.internal.provisional.document.IDOMDocument;
 import org.springframework.beans.factory.xml.NamespaceHandlerResolver;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.DelegatingNamespaceHandlerResolver;
@@ -36,21 +42,38 @@ import org.springframework.ide.eclipse.beans.core.namespaces.NamespaceUtils;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.util.StringUtils;
 import org.springsource.ide.eclipse.commons.core.SpringCoreUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Basic {@link IBeansConfigLocator} that is capable for scanning an
  * {@link IProject} or {@link IJavaProject} for Spring XML configuration files.
  * <p>
  * Only those XML files that have any known namespace uri at the root element
- * level are being considered to be a suitable candidate.
+ * level are being considered to be a suitable candidate. The namespace uri is
+ * read with a SAX parser that stops at the root element and is cached by the
+ * modification stamp of the file. Cached entries are dropped when their file
+ * is removed or its project is closed.
  * 
  * @author Christian Dupuis
+ * @author Martin Lippert
  * @since 2.0.5
  */
-@SuppressWarnings("restriction")
 public class ProjectScanningBeansConfigLocator extends
 		AbstractJavaProjectPathMatchingBeansConfigLocator {
 
+	/**
+	 * Namespace uris of the root elements of already scanned files, shared by
+	 * all locators
+	 */
+	private static final ConcurrentMap<IFile, RootElementNamespace> ROOT_ELEMENT_NAMESPACES =
+			new ConcurrentHashMap<IFile, RootElementNamespace>();
+
+	/** Whether the listener that prunes the cached namespace uris is registered */
+	private static final AtomicBoolean PRUNER_REGISTERED = new AtomicBoolean();
+
 	/** Ant-style that matches on every XML file */
 	private String ALLOWED_FILE_PATTERN = "**/*";
 
@@ -58,7 +81,8 @@ public class ProjectScanningBeansConfigLocator extends
 	 * Internal cache for {@link NamespaceHandlerResolver}s keyed by their
 	 * {@link IProject}
 	 */
-	private Map<IProject, NamespaceHandlerResolver> namespaceResoverCache = new HashMap<IProject, NamespaceHandlerResolver>();
+	private ConcurrentMap<IProject, NamespaceHandlerResolver> namespaceResoverCache =
+			new ConcurrentHashMap<IProject, NamespaceHandlerResolver>();
 
 	/** Configured file patters derived from the configured file patterns */
 	private Set<String> configuredFilePatterns = null;
@@ -116,13 +140,17 @@ public class ProjectScanningBeansConfigLocator extends
 	 */
 	protected NamespaceHandlerResolver getNamespaceHandlerResolver(
 			IProject project) {
-		if (!namespaceResoverCache.containsKey(project)) {
-			namespaceResoverCache.put(project,
-					new DelegatingNamespaceHandlerResolver(
-							NamespaceHandlerResolver.class.getClassLoader(),
-							null));
+		NamespaceHandlerResolver resolver = namespaceResoverCache.get(project);
+		if (resolver == null) {
+			resolver = new DelegatingNamespaceHandlerResolver(
+					NamespaceHandlerResolver.class.getClassLoader(), null);
+			NamespaceHandlerResolver existing = namespaceResoverCache
+					.putIfAbsent(project, resolver);
+			if (existing != null) {
+				resolver = existing;
+			}
 		}
-		return namespaceResoverCache.get(project);
+		return resolver;
 	}
 
 	/**
@@ -153,6 +181,9 @@ public class ProjectScanningBeansConfigLocator extends
 			}
 		}
 
+		// the locator is shared by all projects and builders, so every scan
+		// gets a parser of its own
+		SAXParser parser = null;
 		Set<IFile> detectedFiles = new LinkedHashSet<IFile>();
 		for (IFile file : files) {
 			boolean skip = false;
@@ -168,43 +199,126 @@ public class ProjectScanningBeansConfigLocator extends
 			}
 
 			// check if the file is known Spring xml file
-			IStructuredModel model = null;
-			try {
-				try {
-					model = StructuredModelManager.getModelManager()
-							.getExistingModelForRead(file);
-				} catch (RuntimeException e) {
-					// sometimes WTP throws a NPE in concurrency situations
-				}
-				if (model == null) {
-					model = StructuredModelManager.getModelManager()
-							.getModelForRead(file);
-				}
-				if (model != null) {
-					IDOMDocument document = ((DOMModelImpl) model)
-							.getDocument();
-					if (document != null
-							&& document.getDocumentElement() != null) {
-						String namespaceUri = document.getDocumentElement()
-								.getNamespaceURI();
-						if (applyNamespaceFilter(file, namespaceUri)) {
-							detectedFiles.add(file);
-						}
-					}
-				}
-			} catch (IOException e) {
-				BeansCorePlugin.log(e);
-			} catch (CoreException e) {
-				BeansCorePlugin.log(e);
-			} finally {
-				if (model != null) {
-					model.releaseFromRead();
+			String namespaceUri;
+			RootElementNamespace cached = getCachedRootElementNamespace(file);
+			if (cached != null) {
+				namespaceUri = cached.namespaceUri;
+			} else {
+				if (parser == null) {
+					parser = org.springframework.ide.eclipse.core.SpringCoreUtils
+							.getSaxParser();
 				}
+				namespaceUri = getRootElementNamespace(file, parser);
+			}
+			if (applyNamespaceFilter(file, namespaceUri)) {
+				detectedFiles.add(file);
 			}
 		}
 		return detectedFiles;
 	}
 
+	/**
+	 * Returns the namespace uri of the root element of the given file or
+	 * <code>null</code> if the file has no root element with a namespace or
+	 * can't be parsed.
+	 * @since 3.9.3
+	 */
+	protected String getRootElementNamespace(IFile file) {
+		RootElementNamespace cached = getCachedRootElementNamespace(file);
+		if (cached != null) {
+			return cached.namespaceUri;
+		}
+		return getRootElementNamespace(file,
+				org.springframework.ide.eclipse.core.SpringCoreUtils
+						.getSaxParser());
+	}
+
+	/**
+	 * Returns the cached namespace uri of the root element of the given file
+	 * or <code>null</code> if the file has not been read since its last
+	 * modification.
+	 */
+	private RootElementNamespace getCachedRootElementNamespace(IFile file) {
+		RootElementNamespace cached = ROOT_ELEMENT_NAMESPACES.get(file);
+		if (cached != null
+				&& cached.modificationStamp == file.getModificationStamp()) {
+			return cached;
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the namespace uri of the root element of the given file with the
+	 * given parser and caches it by the modification stamp of the file.
+	 */
+	private String getRootElementNamespace(IFile file, SAXParser parser) {
+		long modificationStamp = file.getModificationStamp();
+		String namespaceUri = null;
+		if (parser != null) {
+			namespaceUri = readRootElementNamespace(file, parser);
+		}
+
+		if (PRUNER_REGISTERED.compareAndSet(false, true)) {
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(
+					new RootElementNamespacePruner(),
+					IResourceChangeEvent.POST_CHANGE
+							| IResourceChangeEvent.PRE_CLOSE
+							| IResourceChangeEvent.PRE_DELETE);
+		}
+		ROOT_ELEMENT_NAMESPACES.put(file, new RootElementNamespace(
+				modificationStamp, namespaceUri));
+		return namespaceUri;
+	}
+
+	/**
+	 * Parses the given file up to its root element and returns the namespace
+	 * uri of that element. The given parser is only used by the calling
+	 * thread.
+	 * @since 3.9.3
+	 */
+	protected String readRootElementNamespace(IFile file, SAXParser parser) {
+		InputStream contents = null;
+		RootElementHandler handler = new RootElementHandler();
+		try {
+			contents = file.getContents();
+			InputSource inputSource = new InputSource(contents);
+			if (file.getLocationURI() != null) {
+				inputSource.setSystemId(file.getLocationURI().toString());
+			}
+			parser.reset();
+			parser.parse(inputSource, handler);
+		} catch (RootElementFoundException e) {
+			// expected, parsing stops at the root element
+		} catch (SAXException e) {
+			// not a well-formed XML file
+		} catch (IOException e) {
+			BeansCorePlugin.log(e);
+		} catch (CoreException e) {
+			BeansCorePlugin.log(e);
+		} finally {
+			if (contents != null) {
+				try {
+					contents.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+		return handler.namespaceUri;
+	}
+
+	/**
+	 * Removes the cached namespace uris of all files at or below the given
+	 * path.
+	 */
+	private static void removeRootElementNamespaces(IPath path) {
+		for (IFile file : ROOT_ELEMENT_NAMESPACES.keySet()) {
+			if (path.isPrefixOf(file.getFullPath())) {
+				ROOT_ELEMENT_NAMESPACES.remove(file);
+			}
+		}
+	}
+
 	protected boolean applyNamespaceFilter(IFile file, String namespaceUri) {
 		return (namespaceUri != null && (NamespaceUtils.DEFAULT_NAMESPACE_URI
 				.equals(namespaceUri) || getNamespaceHandlerResolver(
@@ -239,4 +353,83 @@ public class ProjectScanningBeansConfigLocator extends
 		return rootDirectories;
 	}
 
+	/**
+	 * Cached namespace uri of the root element of a file.
+	 */
+	private static class RootElementNamespace {
+
+		private final long modificationStamp;
+
+		private final String namespaceUri;
+
+		public RootElementNamespace(long modificationStamp, String namespaceUri) {
+			this.modificationStamp = modificationStamp;
+			this.namespaceUri = namespaceUri;
+		}
+	}
+
+	/**
+	 * Removes the cached namespace uris of removed files and of the files of
+	 * projects that are closed or deleted.
+	 */
+	private static class RootElementNamespacePruner implements
+			IResourceChangeListener, IResourceDeltaVisitor {
+
+		public void resourceChanged(IResourceChangeEvent event) {
+			if (ROOT_ELEMENT_NAMESPACES.isEmpty()) {
+				return;
+			}
+			if (event.getType() == IResourceChangeEvent.PRE_CLOSE
+					|| event.getType() == IResourceChangeEvent.PRE_DELETE) {
+				if (event.getResource() != null) {
+					removeRootElementNamespaces(event.getResource().getFullPath());
+				}
+			} else if (event.getDelta() != null) {
+				try {
+					event.getDelta().accept(this);
+				} catch (CoreException e) {
+					BeansCorePlugin.log(e);
+				}
+			}
+		}
+
+		public boolean visit(IResourceDelta delta) {
+			if (delta.getKind() == IResourceDelta.REMOVED) {
+				removeRootElementNamespaces(delta.getResource().getFullPath());
+				return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * SAX handler that records the namespace uri of the root element and stops
+	 * the parser right after. External entities like DTDs are not loaded.
+	 */
+	private static class RootElementHandler extends DefaultHandler {
+
+		private String namespaceUri;
+
+		@Override
+		public InputSource resolveEntity(String publicId, String systemId) {
+			return new InputSource(new ByteArrayInputStream(new byte[0]));
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName,
+				Attributes attributes) throws SAXException {
+			if (uri != null && uri.length() > 0) {
+				namespaceUri = uri;
+			}
+			throw new RootElementFoundException();
+		}
+	}
+
+	/**
+	 * Thrown to stop parsing once the root element has been found.
+	 */
+	@SuppressWarnings("serial")
+	private static class RootElementFoundException extends SAXException {
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,15 +21,20 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.JavaCore;
 import org.osgi.framework.BundleContext;
 import org.springframework.ide.eclipse.core.internal.model.SpringModel;
 import org.springframework.ide.eclipse.core.java.ITypeStructureCache;
 import org.springframework.ide.eclipse.core.java.TypeStructureCache;
+import org.springframework.ide.eclipse.core.java.classreading.JdtMetadataReaderCache;
 import org.springframework.ide.eclipse.core.java.typehierarchy.BytecodeTypeHierarchyClassReaderFactory;
 import org.springframework.ide.eclipse.core.java.typehierarchy.DirectTypeHierarchyElementCacheFactory;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyIndexManager;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyResourceChangeListener;
 import org.springframework.ide.eclipse.core.model.ISpringModel;
+import org.springframework.ide.eclipse.core.model.validation.ValidationRuleProfiler;
 
 /**
  * Central access point for the Spring IDE core plug-in (id <code>"org.springframework.ide.eclipse.core"</code>).
@@ -74,6 +79,9 @@ public class SpringCore extends Plugin {
 	/** Temporally setting to enable or disable the use of XBean's non-locking classloader infrastructure */
 	public static final String USE_NON_LOCKING_CLASSLOADER = PLUGIN_ID + ".useNonLockingClassLoader";
 
+	/** Setting to enable or disable the recording of validation rule execution times */
+	public static final String ENABLE_VALIDATION_PROFILING = PLUGIN_ID + ".enableValidationProfiling";
+
 	/** The shared instance */
 	private static SpringCore plugin;
 
@@ -87,6 +95,12 @@ public class SpringCore extends Plugin {
 	
 	private static TypeHierarchyEngine typeHierarchyEngine;
 
+	private static TypeHierarchyIndexManager typeHierarchyIndexManager;
+
+	private static ValidationRuleProfiler validationRuleProfiler;
+
+	private static JdtMetadataReaderCache metadataReaderCache;
+
 	/**
 	 * Creates the Spring core plug-in.
 	 * <p>
@@ -96,13 +110,17 @@ public class SpringCore extends Plugin {
 		plugin = this;
 		model = new SpringModel();
 		typeStructureCache = new TypeStructureCache();
+		typeHierarchyIndexManager = new TypeHierarchyIndexManager();
+		validationRuleProfiler = new ValidationRuleProfiler();
+		metadataReaderCache = new JdtMetadataReaderCache();
 
 		typeHierarchyEngine = new TypeHierarchyEngine(true);
 		typeHierarchyEngine.setClassReaderFactory(new BytecodeTypeHierarchyClassReaderFactory());
 		typeHierarchyEngine.setTypeHierarchyElementCacheFactory(new DirectTypeHierarchyElementCacheFactory());
 
 		TypeHierarchyResourceChangeListener resetListener = new TypeHierarchyResourceChangeListener();
-		ResourcesPlugin.getWorkspace().addResourceChangeListener(resetListener, IResourceChangeEvent.PRE_BUILD);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(resetListener, IResourceChangeEvent.POST_CHANGE);
+		JavaCore.addElementChangedListener(resetListener, ElementChangedEvent.POST_CHANGE);
 		
 		try {
 			resourceBundle = ResourceBundle.getBundle(RESOURCE_NAME);
@@ -117,16 +135,21 @@ public class SpringCore extends Plugin {
 		super.start(context);
 		model.startup();
 		typeStructureCache.startup();
+		metadataReaderCache.startup();
 		// install default for incremtal compilation
 		plugin.getPluginPreferences().setDefault(USE_CHANGE_DETECTION_IN_JAVA_FILES, true);
 		// non.locking classloader is not enabled by default
 		plugin.getPluginPreferences().setDefault(USE_NON_LOCKING_CLASSLOADER, false);
+		// validation profiling is not enabled by default
+		plugin.getPluginPreferences().setDefault(ENABLE_VALIDATION_PROFILING, false);
 	}
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
 		model.shutdown();
 		typeStructureCache.shutdown();
+		metadataReaderCache.shutdown();
+		validationRuleProfiler.shutdown();
 		super.stop(context);
 	}
 
@@ -152,6 +175,30 @@ public class SpringCore extends Plugin {
 		return typeHierarchyEngine;
 	}
 
+	/**
+	 * Returns the manager of the persistent type hierarchy indexes of jar files.
+	 * @since 3.9.3
+	 */
+	public static final TypeHierarchyIndexManager getTypeHierarchyIndexManager() {
+		return typeHierarchyIndexManager;
+	}
+
+	/**
+	 * Returns the profiler that records the execution times of validation rules.
+	 * @since 3.9.3
+	 */
+	public static final ValidationRuleProfiler getValidationRuleProfiler() {
+		return validationRuleProfiler;
+	}
+
+	/**
+	 * Returns the cache of annotation metadata readers shared by all JavaConfig processing.
+	 * @since 3.9.3
+	 */
+	public static final JdtMetadataReaderCache getMetadataReaderCache() {
+		return metadataReaderCache;
+	}
+
 	/**
 	 * Returns the workspace instance.
 	 */
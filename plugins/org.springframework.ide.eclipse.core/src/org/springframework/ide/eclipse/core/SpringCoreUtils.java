@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2012 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -475,7 +475,15 @@ public final class SpringCoreUtils {
 			try {
 				synchronized (SAX_PARSER_LOCK) {
 					SAXParserFactory factory = (SAXParserFactory) bundleContext.getService(reference);
-					return factory.newSAXParser();
+					// the factory is shared with other bundles, so restore its setting afterwards
+					boolean namespaceAware = factory.isNamespaceAware();
+					factory.setNamespaceAware(true);
+					try {
+						return factory.newSAXParser();
+					}
+					finally {
+						factory.setNamespaceAware(namespaceAware);
+					}
 				}
 			}
 			catch (Exception e) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -63,6 +63,8 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 
 	private static final String SEVERITY_ATTRIBUTE = "severity";
 
+	private static final String SEQUENTIAL_ATTRIBUTE = "sequential";
+
 	private String description;
 
 	private String id;
@@ -87,6 +89,8 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 
 	private boolean rulePropertiesInitialized;
 
+	private boolean sequential;
+
 	public ValidationRuleDefinition(String validatorID, IConfigurationElement element) throws CoreException {
 		this.validatorId = validatorID;
 		init(element);
@@ -136,6 +140,14 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 		return validatorId;
 	}
 
+	/**
+	 * Returns <code>true</code> if the rule must not be run concurrently with other validations.
+	 * @since 3.9.3
+	 */
+	public boolean isSequential() {
+		return sequential;
+	}
+
 	private void init(IConfigurationElement element) throws CoreException {
 		Object executable = element.createExecutableExtension(CLASS_ATTRIBUTE);
 		if (executable instanceof IValidationRule) {
@@ -151,6 +163,7 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 		else {
 			setEnabledByDefault(true);
 		}
+		sequential = Boolean.valueOf(element.getAttribute(SEQUENTIAL_ATTRIBUTE));
 
 		// get configuration data
 		propertyValues = new HashMap<String, String>();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.internal.project;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -23,15 +25,24 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.SpringCoreUtils;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidatorDefinition;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidatorDefinitionFactory;
+import org.springframework.ide.eclipse.core.java.classreading.JdtMetadataReaderCache;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyResourceChangeListener;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyResourceChangeListener.CacheInvalidationVisitor;
 import org.springframework.ide.eclipse.core.model.validation.IValidator;
 import org.springframework.ide.eclipse.core.project.DefaultProjectContributorState;
 import org.springframework.ide.eclipse.core.project.IProjectBuilder;
@@ -104,6 +115,10 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 		// check for classpath changes (that require a full build)
 		Object removed = classpathChanged.remove(project.getName());
 		final int buildKind = removed != null ? IncrementalProjectBuilder.FULL_BUILD : kind;
+
+		// the Java builder has written the class files of this build already
+		IProject[] requiredProjects = getRequiredProjects(project);
+		invalidateTypeHierarchy(project, buildKind, delta, requiredProjects);
 		
 		// Fire start event on listeners
 		for (final IProjectContributionEventListener listener : listeners) {
@@ -141,7 +156,55 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 			}, monitor);
 		}
 
-		return null;
+		// makes the deltas of the required projects available for the next build
+		return requiredProjects;
+	}
+
+	/**
+	 * Invalidates the type hierarchy information and the cached metadata readers of the classes that have been changed
+	 * in the given project and the projects it requires since the last build, before any builder or validator reads
+	 * them. The workspace wide {@link TypeHierarchyResourceChangeListener} does that only after the build has finished.
+	 */
+	private void invalidateTypeHierarchy(IProject project, int kind, IResourceDelta delta, IProject[] requiredProjects)
+			throws CoreException {
+		TypeHierarchyEngine engine = SpringCore.getTypeHierarchyEngine();
+		JdtMetadataReaderCache metadataReaderCache = SpringCore.getMetadataReaderCache();
+		if (delta == null || kind == IncrementalProjectBuilder.FULL_BUILD
+				|| kind == IncrementalProjectBuilder.CLEAN_BUILD) {
+			engine.clearCache(project);
+			if (metadataReaderCache != null) {
+				metadataReaderCache.invalidateProjects(Collections.singleton(project));
+			}
+			return;
+		}
+
+		CacheInvalidationVisitor visitor = new CacheInvalidationVisitor();
+		delta.accept(visitor);
+		for (IProject requiredProject : requiredProjects) {
+			IResourceDelta requiredDelta = getDelta(requiredProject);
+			if (requiredDelta != null) {
+				requiredDelta.accept(visitor);
+			}
+		}
+		visitor.applyChanges(engine);
+		visitor.applyChanges(metadataReaderCache);
+	}
+
+	private IProject[] getRequiredProjects(IProject project) {
+		List<IProject> requiredProjects = new ArrayList<IProject>();
+		try {
+			IJavaProject javaProject = JavaCore.create(project);
+			if (javaProject != null && javaProject.exists()) {
+				IWorkspaceRoot root = project.getWorkspace().getRoot();
+				for (String projectName : javaProject.getRequiredProjectNames()) {
+					requiredProjects.add(root.getProject(projectName));
+				}
+			}
+		}
+		catch (JavaModelException e) {
+			SpringCore.log(e);
+		}
+		return requiredProjects.toArray(new IProject[requiredProjects.size()]);
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,16 +11,24 @@
 package org.springframework.ide.eclipse.core.java;
 
 import java.io.File;
+import java.lang.ref.SoftReference;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.xbean.classloader.NonLockingJarFileClassLoader;
 import org.eclipse.core.resources.IFolder;
@@ -49,6 +57,18 @@ import org.springframework.ide.eclipse.core.SpringCore;
 
 /**
  * Internal cache of classpath urls and corresponding classloaders.
+ * <p>
+ * Entries are keyed by project and parent class loader, cache hits don't lock. The cache is
+ * bounded by the number of entries and by the number of jars that the cached class loaders
+ * reference, the least recently used entries are evicted first. In addition the jar class loaders
+ * are only softly referenced, so that they can be reclaimed under memory pressure and are
+ * re-created on the next access.
+ * <p>
+ * Class loaders for jars are shared between all projects that have the same jars (same paths and
+ * modification times) on their classpath, only the output folders are loaded by a class loader
+ * per project. That way every jar is opened and every jar class is defined only once for a set of
+ * similar projects. The shared class loaders are reference counted by the cache entries that use
+ * them and dropped together with the last of these entries.
  * @author Christian Dupuis
  * @author Martin Lippert
  * @since 2.2.5
@@ -56,9 +76,22 @@ import org.springframework.ide.eclipse.core.SpringCore;
 @SuppressWarnings("deprecation")
 public class ProjectClassLoaderCache {
 
+	public static final String CACHE_SIZE_PROPERTY = "org.springframework.ide.eclipse.core.java.classLoaderCacheSize";
+	public static final String MAX_JARS_PROPERTY = "org.springframework.ide.eclipse.core.java.classLoaderCacheMaxJars";
+
 	private static final String FILE_SCHEME = "file";
-	private static final int CACHE_SIZE = 12;
-	private static final List<ClassLoaderCacheEntry> CLASSLOADER_CACHE = new ArrayList<ClassLoaderCacheEntry>(CACHE_SIZE);
+	private static final int CACHE_SIZE = Integer.getInteger(CACHE_SIZE_PROPERTY, 12);
+	private static final int MAX_JARS = Integer.getInteger(MAX_JARS_PROPERTY, 2000);
+	private static final ConcurrentMap<CacheKey, ClassLoaderCacheEntry> CLASSLOADER_CACHE = new ConcurrentHashMap<CacheKey, ClassLoaderCacheEntry>(16);
+	private static final Object EVICTION_LOCK = new Object();
+	private static final Map<JarSetKey, SharedJarClassLoader> JAR_CLASSLOADERS =
+			new HashMap<JarSetKey, SharedJarClassLoader>(16);
+
+	private static final AtomicLong HITS = new AtomicLong();
+	private static final AtomicLong MISSES = new AtomicLong();
+	private static final AtomicLong EVICTIONS = new AtomicLong();
+	private static final AtomicLong SOFT_EVICTIONS = new AtomicLong();
+	private static final AtomicLong LOAD_TIME = new AtomicLong();
 
 	private static final String DEBUG_OPTION = SpringCore.PLUGIN_ID + "/java/classloader/debug";
 	private static final boolean DEBUG_CLASSLOADER = SpringCore.isDebug(DEBUG_OPTION);
@@ -68,36 +101,106 @@ public class ProjectClassLoaderCache {
 	private static IResourceChangeListener resourceChangeListener = null;
 
 	private static ClassLoader addClassLoaderToCache(IProject project, List<URL> urls, ClassLoader parentClassLoader) {
-		synchronized (CLASSLOADER_CACHE) {
-			int nEntries = CLASSLOADER_CACHE.size();
-			if (nEntries >= CACHE_SIZE) {
-				// find obsolete entries or remove entry that was least recently accessed
+		CacheKey key = new CacheKey(project, parentClassLoader);
+		ClassLoaderCacheEntry newEntry = new ClassLoaderCacheEntry(key, urls);
+		ClassLoaderCacheEntry existingEntry = CLASSLOADER_CACHE.putIfAbsent(key, newEntry);
+		if (existingEntry != null) {
+			// another thread was faster creating the entry
+			newEntry.dispose();
+			existingEntry.markAsAccessed();
+			return existingEntry.getClassLoader();
+		}
+
+		evictEntriesIfRequired(newEntry);
+		return newEntry.getClassLoader();
+	}
+
+	/**
+	 * Removes entries of projects that are not accessible anymore and afterwards the least recently
+	 * used entries until the cache is within its size and jar count limits again. The given entry is
+	 * never evicted.
+	 */
+	private static void evictEntriesIfRequired(ClassLoaderCacheEntry retainedEntry) {
+		synchronized (EVICTION_LOCK) {
+			int jarCount = 0;
+			for (ClassLoaderCacheEntry entry : CLASSLOADER_CACHE.values()) {
+				if (entry != retainedEntry && !isAccessible(entry.getProject())) {
+					evict(entry);
+				}
+				else {
+					jarCount += entry.getJarCount();
+				}
+			}
+
+			while (CLASSLOADER_CACHE.size() > CACHE_SIZE || (jarCount > MAX_JARS && CLASSLOADER_CACHE.size() > 1)) {
 				ClassLoaderCacheEntry oldest = null;
-				List<ClassLoaderCacheEntry> obsoleteClassLoaders = new ArrayList<ClassLoaderCacheEntry>(CACHE_SIZE);
-				for (int i = 0; i < nEntries; i++) {
-					ClassLoaderCacheEntry entry = (ClassLoaderCacheEntry) CLASSLOADER_CACHE.get(i);
-					IProject curr = entry.getProject();
-					if (!curr.exists() || !curr.isAccessible() || !curr.isOpen()) {
-						obsoleteClassLoaders.add(entry);
-					}
-					else {
-						if (oldest == null || entry.getLastAccess() < oldest.getLastAccess()) {
-							oldest = entry;
-						}
+				for (ClassLoaderCacheEntry entry : CLASSLOADER_CACHE.values()) {
+					if (entry != retainedEntry && (oldest == null || entry.getLastAccess() < oldest.getLastAccess())) {
+						oldest = entry;
 					}
 				}
-				if (!obsoleteClassLoaders.isEmpty()) {
-					for (int i = 0; i < obsoleteClassLoaders.size(); i++) {
-						removeClassLoaderEntryFromCache((ClassLoaderCacheEntry) obsoleteClassLoaders.get(i));
-					}
+				if (oldest == null) {
+					break;
 				}
-				else if (oldest != null) {
-					removeClassLoaderEntryFromCache(oldest);
+				evict(oldest);
+				jarCount -= oldest.getJarCount();
+			}
+		}
+	}
+
+	private static void evict(ClassLoaderCacheEntry entry) {
+		if (CLASSLOADER_CACHE.remove(entry.getKey(), entry)) {
+			EVICTIONS.incrementAndGet();
+			entry.dispose();
+			debug("> evicting classloader for '%s' : total %s", entry.getProject().getName(), CLASSLOADER_CACHE.size());
+		}
+	}
+
+	/**
+	 * Returns the class loader for the given jars and parent class loader, which is shared with all
+	 * other projects that use the same jars in the same order.
+	 * @param acquire whether to add a reference to the class loader, which needs to be released by
+	 * {@link #releaseSharedJarClassLoader(JarSetKey)}; a class loader that isn't referenced is not
+	 * shared
+	 */
+	private static ClassLoader getSharedJarClassLoader(JarSetKey key, boolean acquire) {
+		synchronized (JAR_CLASSLOADERS) {
+			SharedJarClassLoader sharedClassLoader = JAR_CLASSLOADERS.get(key);
+			if (sharedClassLoader == null) {
+				sharedClassLoader = new SharedJarClassLoader(key);
+				if (acquire) {
+					JAR_CLASSLOADERS.put(key, sharedClassLoader);
 				}
 			}
-			ClassLoaderCacheEntry newEntry = new ClassLoaderCacheEntry(project, urls, parentClassLoader);
-			CLASSLOADER_CACHE.add(newEntry);
-			return newEntry.getClassLoader();
+			if (acquire) {
+				sharedClassLoader.references++;
+			}
+			return sharedClassLoader.getClassLoader();
+		}
+	}
+
+	/**
+	 * Removes a reference to the shared class loader for the given key, the class loader is dropped
+	 * with its last reference.
+	 */
+	private static void releaseSharedJarClassLoader(JarSetKey key) {
+		synchronized (JAR_CLASSLOADERS) {
+			SharedJarClassLoader sharedClassLoader = JAR_CLASSLOADERS.get(key);
+			if (sharedClassLoader != null && --sharedClassLoader.references == 0) {
+				JAR_CLASSLOADERS.remove(key);
+				debug("> removing shared classloader for %s jars : total %s", key.jars.length,
+						JAR_CLASSLOADERS.size());
+			}
+		}
+	}
+
+	private static boolean isAccessible(IProject project) {
+		return project != null && project.exists() && project.isAccessible() && project.isOpen();
+	}
+
+	private static void debug(String message, Object... arguments) {
+		if (DEBUG_CLASSLOADER) {
+			System.out.println(String.format(message, arguments));
 		}
 	}
 
@@ -210,24 +313,15 @@ public class ProjectClassLoaderCache {
 	}
 
 	private static ClassLoader findClassLoaderInCache(IProject project, ClassLoader parentClassLoader) {
-		synchronized (CLASSLOADER_CACHE) {
-			for (int i = CLASSLOADER_CACHE.size() - 1; i >= 0; i--) {
-				ClassLoaderCacheEntry entry = (ClassLoaderCacheEntry) CLASSLOADER_CACHE.get(i);
-				IProject curr = entry.getProject();
-				if (curr == null || !curr.exists() || !curr.isAccessible() || !curr.isOpen()) {
-					removeClassLoaderEntryFromCache(entry);
-					if (DEBUG_CLASSLOADER) {
-						System.out.println(String.format("> removing classloader for '%s' : total %s",
-								entry.getProject(), CLASSLOADER_CACHE.size()));
-					}
-				}
-				else {
-					if (entry.matches(project, parentClassLoader)) {
-						entry.markAsAccessed();
-						return entry.getClassLoader();
-					}
-				}
+		ClassLoaderCacheEntry entry = CLASSLOADER_CACHE.get(new CacheKey(project, parentClassLoader));
+		if (entry != null) {
+			if (!isAccessible(entry.getProject())) {
+				removeClassLoaderEntryFromCache(entry);
+				return null;
 			}
+			HITS.incrementAndGet();
+			entry.markAsAccessed();
+			return entry.getClassLoader();
 		}
 		return null;
 	}
@@ -270,13 +364,18 @@ public class ProjectClassLoaderCache {
 	 * @param entry the entry to remove
 	 */
 	private static void removeClassLoaderEntryFromCache(ClassLoaderCacheEntry entry) {
-		synchronized (CLASSLOADER_CACHE) {
-			if (DEBUG_CLASSLOADER) {
-				System.out.println(String.format("> removing classloader for '%s' : total %s", entry.getProject()
-						.getName(), CLASSLOADER_CACHE.size()));
-			}
+		if (CLASSLOADER_CACHE.remove(entry.getKey(), entry)) {
 			entry.dispose();
-			CLASSLOADER_CACHE.remove(entry);
+			debug("> removing classloader for '%s' : total %s", entry.getProject().getName(), CLASSLOADER_CACHE.size());
+		}
+	}
+
+	/**
+	 * Removes and disposes all cached {@link ClassLoaderCacheEntry}s.
+	 */
+	private static void clearCache() {
+		for (ClassLoaderCacheEntry entry : CLASSLOADER_CACHE.values()) {
+			removeClassLoaderEntryFromCache(entry);
 		}
 	}
 
@@ -330,12 +429,13 @@ public class ProjectClassLoaderCache {
 
 		ClassLoader classLoader = findClassLoaderInCache(project, parentClassLoader);
 		if (classLoader == null) {
+			MISSES.incrementAndGet();
+			long start = System.nanoTime();
 			List<URL> urls = getClassPathUrls(project, parentClassLoader);
 			classLoader = addClassLoaderToCache(project, urls, parentClassLoader);
-			if (DEBUG_CLASSLOADER) {
-				System.out.println(String.format("> creating new classloader for '%s' with parent '%s' : total %s",
-						project.getName(), parentClassLoader, CLASSLOADER_CACHE.size()));
-			}
+			LOAD_TIME.addAndGet(System.nanoTime() - start);
+			debug("> creating new classloader for '%s' with parent '%s' : total %s", project.getName(),
+					parentClassLoader, CLASSLOADER_CACHE.size());
 		}
 		return classLoader;
 	}
@@ -345,53 +445,321 @@ public class ProjectClassLoaderCache {
 	 * @param project the project to remove {@link ClassLoaderCacheEntry} for
 	 */
 	protected static void removeClassLoaderEntryFromCache(IProject project) {
-		synchronized (CLASSLOADER_CACHE) {
-			if (DEBUG_CLASSLOADER) {
-				System.out.println(String.format("> removing classloader for '%s' : total %s", project.getName(),
-						CLASSLOADER_CACHE.size()));
-			}
-			for (ClassLoaderCacheEntry entry : new ArrayList<ClassLoaderCacheEntry>(CLASSLOADER_CACHE)) {
-				if (project.equals(entry.getProject())) {
-					entry.dispose();
-					CLASSLOADER_CACHE.remove(entry);
+		for (ClassLoaderCacheEntry entry : CLASSLOADER_CACHE.values()) {
+			if (project.equals(entry.getProject())) {
+				removeClassLoaderEntryFromCache(entry);
+			}
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the usage statistics of the cache.
+	 * @since 3.9.3
+	 */
+	public static Statistics getStatistics() {
+		int sharedJarClassLoaders = 0;
+		int retainedJars = 0;
+		synchronized (JAR_CLASSLOADERS) {
+			for (Map.Entry<JarSetKey, SharedJarClassLoader> entry : JAR_CLASSLOADERS.entrySet()) {
+				if (entry.getValue().isAlive()) {
+					sharedJarClassLoaders++;
+					retainedJars += entry.getKey().jars.length;
 				}
 			}
 		}
+		return new Statistics(HITS.get(), MISSES.get(), EVICTIONS.get(), SOFT_EVICTIONS.get(),
+				TimeUnit.NANOSECONDS.toMillis(LOAD_TIME.get()), CLASSLOADER_CACHE.size(), sharedJarClassLoaders,
+				retainedJars);
 	}
-	
+
 	/**
-	 * Internal cache entry
+	 * Resets the counters of the usage statistics.
+	 * @since 3.9.3
 	 */
-	static class ClassLoaderCacheEntry implements IElementChangedListener {
+	public static void resetStatistics() {
+		HITS.set(0);
+		MISSES.set(0);
+		EVICTIONS.set(0);
+		SOFT_EVICTIONS.set(0);
+		LOAD_TIME.set(0);
+	}
+
+	/**
+	 * Immutable snapshot of the usage statistics of the {@link ProjectClassLoaderCache}.
+	 * @since 3.9.3
+	 */
+	public static class Statistics {
+
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final long softEvictions;
+		private final long loadTime;
+		private final int cachedClassLoaders;
+		private final int sharedJarClassLoaders;
+		private final int retainedJars;
+
+		public Statistics(long hits, long misses, long evictions, long softEvictions, long loadTime,
+				int cachedClassLoaders, int sharedJarClassLoaders, int retainedJars) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.softEvictions = softEvictions;
+			this.loadTime = loadTime;
+			this.cachedClassLoaders = cachedClassLoaders;
+			this.sharedJarClassLoaders = sharedJarClassLoaders;
+			this.retainedJars = retainedJars;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
 
-		private URL[] directories;
+		/**
+		 * Returns the number of entries that were removed to keep the cache within its limits.
+		 */
+		public long getEvictions() {
+			return evictions;
+		}
 
-		private ClassLoader jarClassLoader;
+		/**
+		 * Returns the number of jar class loaders that were reclaimed by the garbage collector and
+		 * had to be re-created.
+		 */
+		public long getSoftEvictions() {
+			return softEvictions;
+		}
 
-		private long lastAccess;
+		/**
+		 * Returns the accumulated time in milliseconds spent creating class loaders on cache misses.
+		 */
+		public long getLoadTime() {
+			return loadTime;
+		}
 
-		private ClassLoader parentClassLoader;
+		public int getCachedClassLoaders() {
+			return cachedClassLoaders;
+		}
 
-		private IProject project;
+		/**
+		 * Returns the number of jar class loaders that are currently alive and shared between the
+		 * projects with the same jars.
+		 */
+		public int getSharedJarClassLoaders() {
+			return sharedJarClassLoaders;
+		}
+
+		/**
+		 * Returns the number of jars referenced by jar class loaders that are currently alive, every
+		 * shared class loader is counted once.
+		 */
+		public int getRetainedJars() {
+			return retainedJars;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%s, misses=%s, evictions=%s, softEvictions=%s, loadTime=%sms, classLoaders=%s, sharedJarClassLoaders=%s, retainedJars=%s",
+					hits, misses, evictions, softEvictions, loadTime, cachedClassLoaders, sharedJarClassLoaders, retainedJars);
+		}
+	}
+
+	/**
+	 * Internal cache key
+	 */
+	static class CacheKey {
 
-		private URL[] urls;
+		private final IProject project;
 
-		public ClassLoaderCacheEntry(IProject project, List<URL> urls, ClassLoader parentClassLoader) {
+		private final ClassLoader parentClassLoader;
+
+		public CacheKey(IProject project, ClassLoader parentClassLoader) {
 			this.project = project;
-			this.urls = urls.toArray(new URL[urls.size()]);
 			this.parentClassLoader = parentClassLoader;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CacheKey)) {
+				return false;
+			}
+			CacheKey other = (CacheKey) obj;
+			return project.equals(other.project)
+					&& (parentClassLoader == null ? other.parentClassLoader == null : parentClassLoader.equals(other.parentClassLoader));
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * project.hashCode() + (parentClassLoader != null ? parentClassLoader.hashCode() : 0);
+		}
+	}
+
+	/**
+	 * Internal key of a shared jar class loader. Jars are compared by path and modification time,
+	 * so that projects don't share a class loader for an outdated version of a jar.
+	 */
+	static class JarSetKey {
+
+		private final URL[] jars;
+
+		private final long[] lastModified;
+
+		private final ClassLoader parentClassLoader;
+
+		private final boolean nonLocking;
+
+		private final int hashCode;
+
+		public JarSetKey(URL[] jars, ClassLoader parentClassLoader, boolean nonLocking) {
+			this.jars = jars;
+			this.parentClassLoader = parentClassLoader;
+			this.nonLocking = nonLocking;
+
+			this.lastModified = new long[jars.length];
+			int hash = nonLocking ? 1 : 0;
+			hash = 31 * hash + (parentClassLoader != null ? parentClassLoader.hashCode() : 0);
+			for (int i = 0; i < jars.length; i++) {
+				if (FILE_SCHEME.equalsIgnoreCase(jars[i].getProtocol())) {
+					try {
+						lastModified[i] = new File(jars[i].toURI()).lastModified();
+					}
+					catch (Exception e) {
+						// not a valid file url, compare by path only
+					}
+				}
+				hash = 31 * hash + jars[i].toExternalForm().hashCode();
+				hash = 31 * hash + (int) (lastModified[i] ^ (lastModified[i] >>> 32));
+			}
+			this.hashCode = hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof JarSetKey)) {
+				return false;
+			}
+			JarSetKey other = (JarSetKey) obj;
+			if (hashCode != other.hashCode || nonLocking != other.nonLocking || parentClassLoader != other.parentClassLoader
+					|| jars.length != other.jars.length || !Arrays.equals(lastModified, other.lastModified)) {
+				return false;
+			}
+			for (int i = 0; i < jars.length; i++) {
+				// compare the external form, URL.equals() might resolve host names
+				if (!jars[i].toExternalForm().equals(other.jars[i].toExternalForm())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	/**
+	 * Internal shared jar class loader, counting the cache entries that use it. The class loader
+	 * itself is only softly referenced and re-created if it has been reclaimed.
+	 */
+	static class SharedJarClassLoader {
+
+		private final JarSetKey key;
+
+		private SoftReference<ClassLoader> classLoader;
+
+		private int references;
+
+		public SharedJarClassLoader(JarSetKey key) {
+			this.key = key;
+		}
+
+		public ClassLoader getClassLoader() {
+			ClassLoader result = classLoader != null ? classLoader.get() : null;
+			if (result == null) {
+				if (key.nonLocking) {
+					result = new FilteringNonLockingJarFileClassLoader(String.format("Shared ClassLoader for %s jars",
+							key.jars.length), key.jars, key.parentClassLoader);
+				}
+				else {
+					result = new FilteringURLClassLoader(key.jars, key.parentClassLoader);
+				}
+				classLoader = new SoftReference<ClassLoader>(result);
+				debug("> creating new shared classloader for %s jars : total %s", key.jars.length,
+						JAR_CLASSLOADERS.size());
+			}
+			return result;
+		}
+
+		public boolean isAlive() {
+			return classLoader != null && classLoader.get() != null;
+		}
+	}
+
+	/**
+	 * Internal cache entry
+	 */
+	static class ClassLoaderCacheEntry implements IElementChangedListener {
+
+		private final CacheKey key;
+
+		private final URL[] directories;
+
+		private final URL[] jars;
+
+		private SoftReference<ClassLoader> jarClassLoader;
+
+		/** Key of the shared jar class loader this entry holds a reference to */
+		private JarSetKey jarSetKey;
+
+		private boolean disposed;
+
+		private volatile long lastAccess;
+
+		public ClassLoaderCacheEntry(CacheKey key, List<URL> urls) {
+			this.key = key;
+
+			Set<URL> jars = new LinkedHashSet<URL>();
+			List<URL> dirs = new ArrayList<URL>();
+			for (URL url : urls) {
+				if (shouldLoadFromParent(url)) {
+					jars.add(url);
+				}
+				else {
+					dirs.add(url);
+				}
+			}
+			this.jars = jars.toArray(new URL[jars.size()]);
+			this.directories = dirs.toArray(new URL[dirs.size()]);
+
 			markAsAccessed();
 			JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
 		}
 
 		public void dispose() {
 			JavaCore.removeElementChangedListener(this);
-			this.urls = null;
-			this.jarClassLoader = null;
+			synchronized (this) {
+				this.jarClassLoader = null;
+				this.disposed = true;
+				if (this.jarSetKey != null) {
+					releaseSharedJarClassLoader(this.jarSetKey);
+					this.jarSetKey = null;
+				}
+			}
 		}
 
 		public void elementChanged(ElementChangedEvent event) {
-			IJavaProject javaProject = JdtUtils.getJavaProject(project);
+			IJavaProject javaProject = JdtUtils.getJavaProject(getProject());
 			if (javaProject != null) {
 				for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
 					if ((delta.getFlags() & IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED) != 0
@@ -407,7 +775,7 @@ public class ProjectClassLoaderCache {
 		public ClassLoader getClassLoader() {
 			ClassLoader parent = getJarClassLoader();
 			if (useNonLockingClassLoader()) {
-				return new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'", project.getName()),
+				return new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'", getProject().getName()),
 						directories, parent);
 			}
 			else {
@@ -415,60 +783,53 @@ public class ProjectClassLoaderCache {
 			}
 		}
 
+		public CacheKey getKey() {
+			return this.key;
+		}
+
+		public int getJarCount() {
+			return this.jars.length;
+		}
+
 		public long getLastAccess() {
 			return lastAccess;
 		}
 
 		public IProject getProject() {
-			return this.project;
+			return this.key.project;
 		}
 
 		public void markAsAccessed() {
-			lastAccess = System.currentTimeMillis();
-		}
-
-		public boolean matches(IProject project, ClassLoader parentClassLoader) {
-			return this.project.equals(project)
-					&& ((parentClassLoader == null && this.parentClassLoader == null) || (parentClassLoader != null && parentClassLoader
-							.equals(this.parentClassLoader)));
+			lastAccess = System.nanoTime();
 		}
 
 		private synchronized ClassLoader getJarClassLoader() {
-			if (jarClassLoader == null) {
-				Set<URL> jars = new LinkedHashSet<URL>();
-				List<URL> dirs = new ArrayList<URL>();
-				for (URL url : urls) {
-					if (shouldLoadFromParent(url)) {
-						jars.add(url);
-					}
-					else {
-						dirs.add(url);
-					}
+			ClassLoader result = jarClassLoader != null ? jarClassLoader.get() : null;
+			if (result == null) {
+				if (jarClassLoader != null) {
+					SOFT_EVICTIONS.incrementAndGet();
 				}
-				if (parentClassLoader != null) {
-					// We use the parent class loader of the org.springframework.ide.eclipse.beans.core bundle
-					if (useNonLockingClassLoader()) {
-						jarClassLoader = new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'",
-								project.getName()), (URL[]) jars.toArray(new URL[jars.size()]), parentClassLoader);
-					}
-					else {
-						jarClassLoader = new FilteringURLClassLoader((URL[]) jars.toArray(new URL[jars.size()]),
-								parentClassLoader);
+
+				// We use the parent class loader of the org.springframework.ide.eclipse.beans.core bundle
+				ClassLoader parent = key.parentClassLoader != null ? key.parentClassLoader : cachedParentClassLoader;
+				JarSetKey newJarSetKey = new JarSetKey(jars, parent, useNonLockingClassLoader());
+				if (disposed) {
+					// an evicted entry that is still in use doesn't hold a reference anymore
+					return getSharedJarClassLoader(newJarSetKey, false);
+				}
+				if (!newJarSetKey.equals(jarSetKey)) {
+					result = getSharedJarClassLoader(newJarSetKey, true);
+					if (jarSetKey != null) {
+						releaseSharedJarClassLoader(jarSetKey);
 					}
+					jarSetKey = newJarSetKey;
 				}
 				else {
-					if (useNonLockingClassLoader()) {
-						jarClassLoader = new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'",
-								project.getName()), (URL[]) jars.toArray(new URL[jars.size()]), cachedParentClassLoader);
-					}
-					else {
-						jarClassLoader = new FilteringURLClassLoader((URL[]) jars.toArray(new URL[jars.size()]),
-								cachedParentClassLoader);
-					}
+					result = getSharedJarClassLoader(jarSetKey, false);
 				}
-				directories = dirs.toArray(new URL[dirs.size()]);
+				jarClassLoader = new SoftReference<ClassLoader>(result);
 			}
-			return jarClassLoader;
+			return result;
 		}
 
 		private boolean shouldLoadFromParent(URL url) {
@@ -494,9 +855,7 @@ public class ProjectClassLoaderCache {
 		 */
 		public void propertyChange(PropertyChangeEvent event) {
 			if (SpringCore.USE_NON_LOCKING_CLASSLOADER.equals(event.getProperty())) {
-				synchronized (CLASSLOADER_CACHE) {
-					CLASSLOADER_CACHE.clear();
-				}
+				clearCache();
 			}
 		}
 	}
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.classreading;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+
+/**
+ * Project scoped cache of {@link MetadataReader}s that is shared by all {@link CachingJdtMetadataReaderFactory}s, so
+ * that the annotation metadata of a type is read only once no matter how many configs refer to it.
+ * <p>
+ * The cache of a project is dropped as soon as Java content, class files in the output folders or the classpath of
+ * the project or of one of the projects on its classpath change. The metadata of a type depends on the
+ * meta-annotations of its annotations, which is why the cache is not invalidated on a per type basis. Cached readers
+ * keep the class loader they have been created with, so the readers of a project are cached per class loader; only
+ * the readers of the most recently used class loaders of a project are kept.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class JdtMetadataReaderCache {
+
+	private static final int CONTENT_CHANGE_FLAGS = IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_PRIMARY_RESOURCE
+			| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+			| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED;
+
+	/** Number of class loaders per project whose readers are kept */
+	private static final int MAX_CLASS_LOADERS_PER_PROJECT = 2;
+
+	private final ConcurrentMap<IProject, ProjectCache> projectCaches = new ConcurrentHashMap<IProject, ProjectCache>();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong invalidations = new AtomicLong();
+
+	private IElementChangedListener changedListener = null;
+
+	public void startup() {
+		changedListener = new InvalidatingJavaElementChangeListener();
+		JavaCore.addElementChangedListener(changedListener, ElementChangedEvent.POST_CHANGE);
+	}
+
+	public void shutdown() {
+		JavaCore.removeElementChangedListener(changedListener);
+		changedListener = null;
+		clear();
+	}
+
+	/**
+	 * Returns the cached {@link MetadataReader} for the given class or reads it with the given factory.
+	 * @throws IOException if the class can't be found, failed lookups are not cached
+	 */
+	public MetadataReader getMetadataReader(IJavaProject project, String className, JdtMetadataReaderFactory factory)
+			throws IOException {
+		ConcurrentMap<String, MetadataReader> readers = getProjectCache(project.getProject()).getReaders(
+				factory.getClassLoader());
+		MetadataReader reader = readers.get(className);
+		if (reader != null) {
+			hits.incrementAndGet();
+			return reader;
+		}
+
+		misses.incrementAndGet();
+		reader = factory.getMetadataReader(className);
+		MetadataReader existingReader = readers.putIfAbsent(className, reader);
+		return existingReader != null ? existingReader : reader;
+	}
+
+	/**
+	 * Removes all cached {@link MetadataReader}s of the given project.
+	 */
+	public void clear(IProject project) {
+		if (projectCaches.remove(project) != null) {
+			invalidations.incrementAndGet();
+		}
+	}
+
+	public void clear() {
+		projectCaches.clear();
+	}
+
+	/**
+	 * Drops the caches of all projects that are the same as or depend on one of the given projects, e.g. because
+	 * class files in their output folders have changed.
+	 */
+	public void invalidateProjects(Set<IProject> changedProjects) {
+		if (projectCaches.isEmpty()) {
+			return;
+		}
+		Set<IJavaProject> changedJavaProjects = new LinkedHashSet<IJavaProject>();
+		for (IProject changedProject : changedProjects) {
+			IJavaProject javaProject = JdtUtils.getJavaProject(changedProject);
+			if (javaProject != null) {
+				changedJavaProjects.add(javaProject);
+			}
+			else {
+				clear(changedProject);
+			}
+		}
+		if (!changedJavaProjects.isEmpty()) {
+			invalidate(changedJavaProjects);
+		}
+	}
+
+	public Statistics getStatistics() {
+		int cachedReaders = 0;
+		for (ProjectCache cache : projectCaches.values()) {
+			cachedReaders += cache.size();
+		}
+		return new Statistics(hits.get(), misses.get(), invalidations.get(), projectCaches.size(), cachedReaders);
+	}
+
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		invalidations.set(0);
+	}
+
+	private ProjectCache getProjectCache(IProject project) {
+		ProjectCache cache = projectCaches.get(project);
+		if (cache == null) {
+			cache = new ProjectCache();
+			ProjectCache existingCache = projectCaches.putIfAbsent(project, cache);
+			if (existingCache != null) {
+				cache = existingCache;
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Drops the caches of all projects that are the same as or depend on one of the given changed projects.
+	 */
+	protected void invalidate(Set<IJavaProject> changedProjects) {
+		for (Iterator<IProject> iterator = projectCaches.keySet().iterator(); iterator.hasNext();) {
+			IProject project = iterator.next();
+			IJavaProject javaProject = JdtUtils.getJavaProject(project);
+			for (IJavaProject changedProject : changedProjects) {
+				if (javaProject == null || changedProject.equals(javaProject)
+						|| javaProject.isOnClasspath(changedProject)) {
+					iterator.remove();
+					invalidations.incrementAndGet();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * The cached readers of a single project, per class loader. A new instance is used after every invalidation, so
+	 * readers that are still being created for the old instance don't end up in the cache.
+	 */
+	private static class ProjectCache {
+
+		private final Map<ClassLoader, ConcurrentMap<String, MetadataReader>> readersByClassLoader =
+				new LinkedHashMap<ClassLoader, ConcurrentMap<String, MetadataReader>>(4, 0.75f, true) {
+
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected boolean removeEldestEntry(
+							Map.Entry<ClassLoader, ConcurrentMap<String, MetadataReader>> eldest) {
+						return size() > MAX_CLASS_LOADERS_PER_PROJECT;
+					}
+				};
+
+		public synchronized ConcurrentMap<String, MetadataReader> getReaders(ClassLoader classLoader) {
+			ConcurrentMap<String, MetadataReader> readers = readersByClassLoader.get(classLoader);
+			if (readers == null) {
+				readers = new ConcurrentHashMap<String, MetadataReader>();
+				readersByClassLoader.put(classLoader, readers);
+			}
+			return readers;
+		}
+
+		public synchronized int size() {
+			int size = 0;
+			for (ConcurrentMap<String, MetadataReader> readers : readersByClassLoader.values()) {
+				size += readers.size();
+			}
+			return size;
+		}
+	}
+
+	/**
+	 * Hit and miss counts of the cache.
+	 */
+	public static class Statistics {
+
+		private final long hits;
+		private final long misses;
+		private final long invalidations;
+		private final int cachedProjects;
+		private final int cachedReaders;
+
+		public Statistics(long hits, long misses, long invalidations, int cachedProjects, int cachedReaders) {
+			this.hits = hits;
+			this.misses = misses;
+			this.invalidations = invalidations;
+			this.cachedProjects = cachedProjects;
+			this.cachedReaders = cachedReaders;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * Returns the number of project caches that have been dropped because of changes.
+		 */
+		public long getInvalidations() {
+			return invalidations;
+		}
+
+		public int getCachedProjects() {
+			return cachedProjects;
+		}
+
+		public int getCachedReaders() {
+			return cachedReaders;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%s, misses=%s, invalidations=%s, projects=%s, readers=%s", hits, misses,
+					invalidations, cachedProjects, cachedReaders);
+		}
+	}
+
+	/**
+	 * Collects the projects with changed Java content and invalidates the affected project caches.
+	 */
+	private class InvalidatingJavaElementChangeListener implements IElementChangedListener {
+
+		public void elementChanged(ElementChangedEvent event) {
+			if (event.getType() == ElementChangedEvent.POST_CHANGE && !projectCaches.isEmpty()) {
+				Set<IJavaProject> changedProjects = new LinkedHashSet<IJavaProject>();
+				collectChangedProjects(event.getDelta(), changedProjects);
+				if (!changedProjects.isEmpty()) {
+					invalidate(changedProjects);
+				}
+			}
+		}
+
+		private void collectChangedProjects(IJavaElementDelta delta, Set<IJavaProject> changedProjects) {
+			IJavaElement element = delta.getElement();
+			IJavaProject javaProject = element.getJavaProject();
+			if (javaProject != null && changedProjects.contains(javaProject)) {
+				return;
+			}
+
+			if (javaProject != null && (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (delta.getFlags() & CONTENT_CHANGE_FLAGS) != 0)) {
+				changedProjects.add(javaProject);
+				return;
+			}
+
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				collectChangedProjects(child, changedProjects);
+			}
+		}
+	}
+
+}
@@ -53,6 +53,14 @@ public class JdtMetadataReaderFactory implements MetadataReaderFactory {
 		return new JdtConnectedMetadataReader(type, classReaderFactory, classloader);
 	}
 
+	/**
+	 * Returns the class loader the created readers use to resolve annotation and class values.
+	 * @since 3.9.3
+	 */
+	public ClassLoader getClassLoader() {
+		return classloader;
+	}
+
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
 		throw new JdtMetadataReaderException("'getMetadataReader' is not supported");
 	}
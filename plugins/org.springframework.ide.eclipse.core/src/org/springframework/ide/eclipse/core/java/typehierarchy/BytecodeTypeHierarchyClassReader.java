@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,9 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
@@ -68,89 +67,108 @@ public class BytecodeTypeHierarchyClassReader implements TypeHierarchyClassReade
 
 	public TypeHierarchyElement readTypeHierarchy(InputStream stream) {
 		try {
-			DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
-			int magic = dis.readInt(); // magic 0xCAFEBABE
+			ReadBuffers buffers = READ_BUFFERS.get();
+			byte[] bytes = buffers.bytes;
+			int length = 0;
+			int read;
+			while ((read = stream.read(bytes, length, bytes.length - length)) != -1) {
+				length += read;
+				if (length == bytes.length) {
+					byte[] newBytes = new byte[bytes.length * 2];
+					System.arraycopy(bytes, 0, newBytes, 0, length);
+					bytes = newBytes;
+					buffers.bytes = newBytes;
+				}
+			}
+			return readTypeHierarchy(ByteBuffer.wrap(bytes, 0, length));
+		} catch(Exception e) {
+			SpringCore.log(e);
+		}
+		
+		return null;
+	}
+
+	/**
+	 * Reads the class name, superclass name and interface names from the class file contained in
+	 * the given buffer, starting at the current position of the buffer. Only the constant pool
+	 * entries for these names are decoded, all other entries are skipped without materializing
+	 * them. The position of the buffer is not changed.
+	 */
+	public TypeHierarchyElement readTypeHierarchy(ByteBuffer buffer) {
+		try {
+			int start = buffer.position();
+			int magic = buffer.getInt(start); // magic 0xCAFEBABE
 			if (magic != 0xCAFEBABE) {
 				throw new IllegalStateException("not bytecode, magic was 0x" + Integer.toString(magic, 16));
 			}
-			skip(dis, 4);
-			
-			int constantPoolCount = dis.readShort();
-			Object[] constantPoolData = new Object[constantPoolCount];
+
+			int constantPoolCount = buffer.getShort(start + 8) & 0xFFFF;
+			int[] constantPoolOffsets = READ_BUFFERS.get().getConstantPoolOffsets(constantPoolCount);
+
+			int position = start + 10;
 			for (int i = 1; i < constantPoolCount; i++) {
-				int tag = dis.readByte();
+				constantPoolOffsets[i] = position;
+				int tag = buffer.get(position);
 				switch (tag) {
 					case ClassFileConstants.Utf8Tag :
-						constantPoolData[i] = dis.readUTF();
+						position += 3 + (buffer.getShort(position + 1) & 0xFFFF);
 						break;
 					case ClassFileConstants.IntegerTag :
-						skip(dis, 4);
-						break;
 					case ClassFileConstants.FloatTag :
-						skip(dis, 4);
+					case ClassFileConstants.FieldRefTag :
+					case ClassFileConstants.MethodRefTag :
+					case ClassFileConstants.InterfaceMethodRefTag :
+					case ClassFileConstants.NameAndTypeTag :
+					case 17 : // ClassFileConstants.DynamicTag
+					case 18 : // ClassFileConstants.InvokeDynamicTag
+						position += 5;
 						break;
 					case ClassFileConstants.LongTag :
-						skip(dis, 8);
-						i++;
-						break;
 					case ClassFileConstants.DoubleTag :
-						skip(dis, 8);
+						position += 9;
 						i++;
 						break;
 					case ClassFileConstants.ClassTag :
-						constantPoolData[i] = dis.readShort();
-						break;
 					case ClassFileConstants.StringTag :
-						skip(dis, 2);
-						break;
-					case ClassFileConstants.FieldRefTag :
-						skip(dis, 4);
-						break;
-					case ClassFileConstants.MethodRefTag :
-						skip(dis, 4);
-						break;
-					case ClassFileConstants.InterfaceMethodRefTag :
-						skip(dis, 4);
-						break;
-					case ClassFileConstants.NameAndTypeTag :
-						skip(dis, 4);
-						break;
-					case 15 : // ClassFileConstants.MethodHandleTag
-						skip(dis, 3);
-						break;
 					case 16 : // ClassFileConstants.MethodTypeTag
-						skip(dis, 2);
+					case 19 : // ClassFileConstants.ModuleTag
+					case 20 : // ClassFileConstants.PackageTag
+						position += 3;
 						break;
-					case 18 : // ClassFileConstants.InvokeDynamicTag
-						skip(dis, 4);
+					case 15 : // ClassFileConstants.MethodHandleTag
+						position += 4;
 						break;
+					default :
+						throw new IllegalStateException("unknown constant pool tag " + tag);
 				}
 			}
 			
-			skip(dis, 2);
+			// skip access flags
+			position += 2;
 
 			// classname
-			short classNameIndex = dis.readShort();
-			short classNameUTF8index = (Short) constantPoolData[classNameIndex];
-			char[] className = ((String) constantPoolData[classNameUTF8index]).toCharArray();
+			int classNameIndex = buffer.getShort(position) & 0xFFFF;
+			char[] className = readClassName(buffer, constantPoolOffsets, classNameIndex);
+			position += 2;
 
 			// superclass name
-			short superclassNameIndex = dis.readShort();
+			int superclassNameIndex = buffer.getShort(position) & 0xFFFF;
 			char[] superclassName = null;
 			if (superclassNameIndex != 0) {
-				short superclassNameUTF8index = (Short) constantPoolData[superclassNameIndex];
-				superclassName = ((String) constantPoolData[superclassNameUTF8index]).toCharArray();
+				superclassName = readClassName(buffer, constantPoolOffsets, superclassNameIndex);
 			}
+			position += 2;
 
 			// interfaces
-			short interfacesCount = dis.readShort();
+			int interfacesCount = buffer.getShort(position) & 0xFFFF;
+			position += 2;
 			char[][] interfaceNames = null;
 			if (interfacesCount != 0) {
 				interfaceNames = new char[interfacesCount][];
 				for (int i = 0; i < interfacesCount; i++) {
-					short interfaceNameIndex = dis.readShort();
-					short interfaceNameUTF8index = (Short) constantPoolData[interfaceNameIndex];
-					interfaceNames[i] = ((String) constantPoolData[interfaceNameUTF8index]).toCharArray();
+					int interfaceNameIndex = buffer.getShort(position) & 0xFFFF;
+					interfaceNames[i] = readClassName(buffer, constantPoolOffsets, interfaceNameIndex);
+					position += 2;
 				}
 			}
 			
@@ -162,12 +180,75 @@ public class BytecodeTypeHierarchyClassReader implements TypeHierarchyClassReade
 		return null;
 	}
 	
-	private void skip(InputStream stream, long n) throws IOException {
-		long bytesToSkip = n;
-		do {
-			long skipped = stream.skip(bytesToSkip);
-			bytesToSkip = bytesToSkip - skipped;
-		} while (bytesToSkip > 0);
+	private char[] readClassName(ByteBuffer buffer, int[] constantPoolOffsets, int classIndex) {
+		int classEntry = constantPoolOffsets[classIndex];
+		int utf8Entry = constantPoolOffsets[buffer.getShort(classEntry + 1) & 0xFFFF];
+		int length = buffer.getShort(utf8Entry + 1) & 0xFFFF;
+		return decodeModifiedUtf8(buffer, utf8Entry + 3, length);
+	}
+
+	/**
+	 * Decodes the modified UTF-8 encoding used by class files directly into a char array.
+	 */
+	private char[] decodeModifiedUtf8(ByteBuffer buffer, int offset, int length) {
+		int end = offset + length;
+
+		int charCount = 0;
+		for (int position = offset; position < end; charCount++) {
+			int b = buffer.get(position) & 0xFF;
+			if (b < 0x80) {
+				position++;
+			}
+			else if ((b & 0xE0) == 0xC0) {
+				position += 2;
+			}
+			else {
+				position += 3;
+			}
+		}
+
+		char[] result = new char[charCount];
+		int index = 0;
+		for (int position = offset; position < end; index++) {
+			int b = buffer.get(position) & 0xFF;
+			if (b < 0x80) {
+				result[index] = (char) b;
+				position++;
+			}
+			else if ((b & 0xE0) == 0xC0) {
+				result[index] = (char) (((b & 0x1F) << 6) | (buffer.get(position + 1) & 0x3F));
+				position += 2;
+			}
+			else {
+				result[index] = (char) (((b & 0x0F) << 12) | ((buffer.get(position + 1) & 0x3F) << 6)
+						| (buffer.get(position + 2) & 0x3F));
+				position += 3;
+			}
+		}
+		return result;
+	}
+
+	private static final ThreadLocal<ReadBuffers> READ_BUFFERS = new ThreadLocal<ReadBuffers>() {
+		@Override
+		protected ReadBuffers initialValue() {
+			return new ReadBuffers();
+		}
+	};
+
+	/**
+	 * Per thread scratch buffers, reused across class reads to avoid allocating for every class.
+	 */
+	private static class ReadBuffers {
+
+		byte[] bytes = new byte[16 * 1024];
+		int[] constantPoolOffsets = new int[1024];
+
+		int[] getConstantPoolOffsets(int constantPoolCount) {
+			if (constantPoolOffsets.length < constantPoolCount) {
+				constantPoolOffsets = new int[Math.max(constantPoolCount, constantPoolOffsets.length * 2)];
+			}
+			return constantPoolOffsets;
+		}
 	}
 
 }
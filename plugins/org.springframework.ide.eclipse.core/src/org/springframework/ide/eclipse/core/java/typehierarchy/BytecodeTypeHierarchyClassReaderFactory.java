@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,13 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
+import java.net.URL;
+import java.util.List;
+
 import org.eclipse.core.resources.IProject;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
 
 /**
  * @author Martin Lippert
@@ -20,13 +25,17 @@ import org.springframework.ide.eclipse.core.java.JdtUtils;
 public class BytecodeTypeHierarchyClassReaderFactory implements TypeHierarchyClassReaderFactory {
 
 	public TypeHierarchyClassReader createClassReader(IProject project) {
-//		List<URL> urls = ProjectClassLoaderCache.getClassPathUrls(project, null);
-//		ClasspathLookup lookup = new ClasspathLookupDirect(urls.toArray(new URL[0]));
-		
 		ClassLoader loader = JdtUtils.getClassLoader(project, null);
 		ClasspathLookup lookup = new ClasspathLookupClassloader(loader);
+		TypeHierarchyClassReader reader = new BytecodeTypeHierarchyClassReader(lookup);
+
+		TypeHierarchyIndexManager indexManager = SpringCore.getTypeHierarchyIndexManager();
+		if (indexManager != null && TypeHierarchyIndexManager.isEnabled()) {
+			List<URL> urls = ProjectClassLoaderCache.getClassPathUrls(project, null);
+			return new IndexedTypeHierarchyClassReader(urls.toArray(new URL[urls.size()]), indexManager, reader);
+		}
 
-		return new BytecodeTypeHierarchyClassReader(lookup);
+		return reader;
 	}
 
 }
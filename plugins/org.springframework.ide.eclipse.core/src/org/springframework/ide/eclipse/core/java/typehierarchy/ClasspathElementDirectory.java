@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,8 @@ import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -45,10 +47,31 @@ public class ClasspathElementDirectory implements ClasspathElement {
 		}
 	}
 
+	public String[] getClassFileNames() throws Exception {
+		List<String> result = new ArrayList<String>();
+		collectClassFileNames(new File(this.directoryPath), "", result);
+		return result.toArray(new String[result.size()]);
+	}
+
 	public void cleanup() {
 		this.directoryCache.clear();
 	}
 
+	private void collectClassFileNames(File directory, String packagePrefix, List<String> result) {
+		File[] files = directory.listFiles();
+		if (files == null) return;
+
+		for (File file : files) {
+			String name = file.getName();
+			if (file.isDirectory()) {
+				collectClassFileNames(file, packagePrefix + name + '/', result);
+			}
+			else if (name.endsWith(".class")) {
+				result.add(packagePrefix + name);
+			}
+		}
+	}
+
 	private boolean doesFileExist(String fullyQualifiedClassFileName, String packageName, String classFileName) {
 		String[] dirList = directoryList(packageName);
 		if (dirList == null) return false;
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Type hierarchy class reader that reads the information for classes in jar files from the
+ * persistent {@link TypeHierarchyIndex} of the jar and the information for classes in output
+ * folders directly from the class files. Classes that are not found on the classpath of the
+ * project (e.g. classes from the parent class loader) are read by the given fallback reader.
+ * <p>
+ * Jars are looked up before output folders, which is the same order the project class loader
+ * uses.
+ *
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class IndexedTypeHierarchyClassReader implements TypeHierarchyClassReader, TypeHierarchyClassScanner {
+
+	private final TypeHierarchyIndexManager indexManager;
+	private final TypeHierarchyClassReader fallbackReader;
+	private final BytecodeTypeHierarchyClassReader bytecodeReader;
+
+	private final File[] jars;
+	private final ClasspathElementDirectory[] directories;
+	private final String[] directoryLocations;
+
+	private volatile TypeHierarchyIndex[] indexes;
+
+	public IndexedTypeHierarchyClassReader(URL[] urls, TypeHierarchyIndexManager indexManager,
+			TypeHierarchyClassReader fallbackReader) {
+		this.indexManager = indexManager;
+		this.fallbackReader = fallbackReader;
+		this.bytecodeReader = new BytecodeTypeHierarchyClassReader(null);
+
+		Set<File> jarFiles = new LinkedHashSet<File>();
+		Set<File> directoryFiles = new LinkedHashSet<File>();
+		for (URL url : urls) {
+			try {
+				File file = new File(url.toURI());
+				String path = url.getPath();
+				if (path.endsWith(".jar") || path.endsWith(".zip")) {
+					jarFiles.add(file);
+				}
+				else {
+					directoryFiles.add(file);
+				}
+			}
+			catch (Exception e) {
+				SpringCore.log(e);
+			}
+		}
+
+		this.jars = jarFiles.toArray(new File[jarFiles.size()]);
+
+		List<ClasspathElementDirectory> elements = new ArrayList<ClasspathElementDirectory>();
+		List<String> locations = new ArrayList<String>();
+		for (File directory : directoryFiles) {
+			elements.add(new ClasspathElementDirectory(directory));
+			locations.add(directory.getAbsolutePath());
+		}
+		this.directories = elements.toArray(new ClasspathElementDirectory[elements.size()]);
+		this.directoryLocations = locations.toArray(new String[locations.size()]);
+	}
+
+	public TypeHierarchyElement readTypeHierarchyInformation(char[] fullyQualifiedClassName, IProject project) {
+		TypeHierarchyIndex[] indexes = getIndexes();
+		for (int i = 0; i < indexes.length; i++) {
+			if (indexes[i] != null) {
+				TypeHierarchyElement result = indexes[i].get(fullyQualifiedClassName);
+				if (result != null) {
+					result.location = jars[i].getAbsolutePath();
+					return result;
+				}
+			}
+		}
+
+		TypeHierarchyElement result = readFromDirectories(fullyQualifiedClassName);
+		if (result != null) {
+			return result;
+		}
+
+		return fallbackReader.readTypeHierarchyInformation(fullyQualifiedClassName, project);
+	}
+
+	/**
+	 * Returns a subtype index that reuses the subtype indexes of the jar indexes, which are shared by
+	 * all projects that have the same jar on their classpath. Only the output folders are scanned.
+	 */
+	public TypeHierarchySubtypeIndex createSubtypeIndex(IProject project) {
+		List<TypeHierarchySubtypeIndex> jarSubtypeIndexes = new ArrayList<TypeHierarchySubtypeIndex>();
+		for (TypeHierarchyIndex index : getIndexes()) {
+			if (index != null) {
+				jarSubtypeIndexes.add(index.getSubtypeIndex());
+			}
+		}
+
+		TypeHierarchySubtypeIndex subtypeIndex = new TypeHierarchySubtypeIndex(jarSubtypeIndexes);
+		for (ClasspathElementDirectory directory : directories) {
+			try {
+				for (String classFileName : directory.getClassFileNames()) {
+					TypeHierarchyElement element = readFromDirectories(
+							classFileName.substring(0, classFileName.length() - ".class".length()).toCharArray());
+					if (element != null) {
+						subtypeIndex.add(element);
+					}
+				}
+			}
+			catch (Exception e) {
+				SpringCore.log(e);
+			}
+		}
+		return subtypeIndex;
+	}
+
+	public void cleanup() {
+		// validate the indexes again the next time, jars might have changed in the meantime
+		this.indexes = null;
+		for (ClasspathElementDirectory directory : directories) {
+			directory.cleanup();
+		}
+		fallbackReader.cleanup();
+	}
+
+	private TypeHierarchyIndex[] getIndexes() {
+		TypeHierarchyIndex[] result = this.indexes;
+		if (result == null) {
+			result = new TypeHierarchyIndex[jars.length];
+			for (int i = 0; i < jars.length; i++) {
+				result[i] = indexManager.getIndex(jars[i]);
+			}
+			this.indexes = result;
+		}
+		return result;
+	}
+
+	private TypeHierarchyElement readFromDirectories(char[] fullyQualifiedClassName) {
+		if (directories.length == 0) {
+			return null;
+		}
+
+		String fullyQualifiedClassFileName = new String(fullyQualifiedClassName) + ".class";
+		String packageName = "";
+		String className = fullyQualifiedClassFileName;
+
+		int lastIndexOf = fullyQualifiedClassFileName.lastIndexOf('/');
+		if (lastIndexOf > -1) {
+			packageName = fullyQualifiedClassFileName.substring(0, lastIndexOf);
+			className = fullyQualifiedClassFileName.substring(lastIndexOf + 1);
+		}
+
+		for (int i = 0; i < directories.length; i++) {
+			InputStream stream = null;
+			try {
+				stream = directories[i].getStream(fullyQualifiedClassFileName, packageName, className);
+				if (stream != null) {
+					TypeHierarchyElement result = bytecodeReader.readTypeHierarchy(stream);
+					if (result != null) {
+						result.location = directoryLocations[i];
+					}
+					return result;
+				}
+			}
+			catch (Exception e) {
+				SpringCore.log(e);
+			}
+			finally {
+				if (stream != null) {
+					try {
+						stream.close();
+					}
+					catch (IOException e) {
+						SpringCore.log(e);
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+}
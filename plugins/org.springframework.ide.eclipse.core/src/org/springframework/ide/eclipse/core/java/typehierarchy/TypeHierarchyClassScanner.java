@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Implemented by class readers that are able to enumerate the type hierarchy information of all
+ * classes on the classpath of a project, which is required to answer questions about subtypes.
+ *
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public interface TypeHierarchyClassScanner {
+
+	/**
+	 * Returns a new subtype index of all classes on the classpath of the given project. Indexes of
+	 * classpath entries that are shared with other projects can be reused as shared indexes of the
+	 * result instead of being scanned again.
+	 */
+	public TypeHierarchySubtypeIndex createSubtypeIndex(IProject project);
+
+}
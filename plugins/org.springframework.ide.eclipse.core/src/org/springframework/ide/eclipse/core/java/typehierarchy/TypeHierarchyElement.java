@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -27,6 +27,8 @@ public class TypeHierarchyElement {
 	
 	public final char[][] interfaces;
 	public TypeHierarchyElement[] interfacesElements; // array initialized, but elements being set lazy
+
+	public String location; // jar or class folder the element was read from, null if unknown
 	
 	public TypeHierarchyElement(char[] className, char[] superclassName, char[][] interfaces) {
 		super();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,35 +10,238 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 /**
+ * Cache for type hierarchy elements, keyed by the fully qualified (slash separated) class name.
+ * <p>
+ * The cache is implemented as an open addressing hash table (linear probing) that compares the
+ * full class name on lookup, so that two classes with the same hash code never return each
+ * others element. Lookups don't allocate and don't lock, insertions are synchronized. Once the
+ * cache reaches its maximum size, it is emptied and starts to fill up again, which keeps the
+ * memory footprint bounded for very large classpaths.
+ *
  * @author Martin Lippert
  * @since 3.3.0
  */
 public class TypeHierarchyElementCache {
-	
-	private Map<Integer, TypeHierarchyElement> cache;
-	
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 1 << 18;
+
+	private static final int INITIAL_CAPACITY = 1 << 10;
+
+	private final int maximumSize;
+
+	private volatile Entry[] table;
+	private int size;
+
 	public TypeHierarchyElementCache() {
-		this.cache = new ConcurrentHashMap<Integer, TypeHierarchyElement>();
+		this(DEFAULT_MAXIMUM_SIZE);
+	}
+
+	public TypeHierarchyElementCache(int maximumSize) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("maximum size must be greater than zero, but was " + maximumSize);
+		}
+		this.maximumSize = maximumSize;
+		this.table = new Entry[INITIAL_CAPACITY];
 	}
 
 	public TypeHierarchyElement get(char[] fullyQualifiedClassName) {
-		return cache.get(charArrayToHashcode(fullyQualifiedClassName));
+		int hash = hash(fullyQualifiedClassName);
+
+		Entry[] tab = this.table;
+		int mask = tab.length - 1;
+		int index = hash & mask;
+
+		Entry entry;
+		while ((entry = tab[index]) != null) {
+			if (entry.hash == hash && equals(entry.key, fullyQualifiedClassName)) {
+				return entry.element;
+			}
+			index = (index + 1) & mask;
+		}
+		return null;
+	}
+
+	public synchronized void put(char[] fullyQualifiedClassName, TypeHierarchyElement typeElement) {
+		if (this.size >= this.maximumSize) {
+			clear();
+		}
+
+		int hash = hash(fullyQualifiedClassName);
+		Entry[] tab = this.table;
+		int mask = tab.length - 1;
+		int index = hash & mask;
+
+		Entry entry;
+		while ((entry = tab[index]) != null) {
+			if (entry.hash == hash && equals(entry.key, fullyQualifiedClassName)) {
+				tab[index] = new Entry(fullyQualifiedClassName, hash, typeElement);
+				return;
+			}
+			index = (index + 1) & mask;
+		}
+
+		tab[index] = new Entry(fullyQualifiedClassName, hash, typeElement);
+		this.size++;
+
+		// keep the load factor below 0.75 to keep probe sequences short
+		if (this.size * 4 >= tab.length * 3) {
+			resize(tab.length << 1);
+		}
 	}
 
-	public void put(char[] fullyQualifiedClassName, TypeHierarchyElement typeElement) {
-		cache.put(charArrayToHashcode(fullyQualifiedClassName), typeElement);
+	public synchronized void clear() {
+		this.table = new Entry[INITIAL_CAPACITY];
+		this.size = 0;
 	}
-	
-	private int charArrayToHashcode(char[] characters) {
+
+	/**
+	 * Removes the elements of the given (slash separated) class names and all elements that were
+	 * read from one of the given locations. Elements with an unknown location are removed as well
+	 * if at least one location is given, since they might have been read from there. Links of the
+	 * remaining elements to removed elements are reset, so that they are resolved again on the next
+	 * access.
+	 *
+	 * @return the removed elements
+	 * @since 3.9.3
+	 */
+	public synchronized List<TypeHierarchyElement> invalidate(Collection<String> classNames, Collection<String> locations) {
+		Set<TypeHierarchyElement> removed = Collections.newSetFromMap(new IdentityHashMap<TypeHierarchyElement, Boolean>());
+		for (String className : classNames) {
+			TypeHierarchyElement element = get(className.toCharArray());
+			if (element != null) {
+				removed.add(element);
+			}
+		}
+
+		Entry[] oldTable = this.table;
+		if (!locations.isEmpty()) {
+			for (Entry entry : oldTable) {
+				if (entry != null && entry.element != null
+						&& (entry.element.location == null || locations.contains(entry.element.location))) {
+					removed.add(entry.element);
+				}
+			}
+		}
+
+		if (removed.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		Entry[] newTable = new Entry[oldTable.length];
+		int mask = newTable.length - 1;
+		int newSize = 0;
+
+		for (Entry entry : oldTable) {
+			if (entry == null || removed.contains(entry.element)) {
+				continue;
+			}
+
+			TypeHierarchyElement element = entry.element;
+			if (element != null) {
+				if (element.superclassElement != null && removed.contains(element.superclassElement)) {
+					element.superclassElement = null;
+				}
+				if (element.interfacesElements != null) {
+					for (int i = 0; i < element.interfacesElements.length; i++) {
+						if (element.interfacesElements[i] != null && removed.contains(element.interfacesElements[i])) {
+							element.interfacesElements[i] = null;
+						}
+					}
+				}
+			}
+
+			int index = entry.hash & mask;
+			while (newTable[index] != null) {
+				index = (index + 1) & mask;
+			}
+			newTable[index] = entry;
+			newSize++;
+		}
+
+		// publish the table without the removed elements to readers
+		this.table = newTable;
+		this.size = newSize;
+
+		return new ArrayList<TypeHierarchyElement>(removed);
+	}
+
+	public synchronized int size() {
+		return this.size;
+	}
+
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	private void resize(int newCapacity) {
+		Entry[] oldTable = this.table;
+		Entry[] newTable = new Entry[newCapacity];
+		int mask = newCapacity - 1;
+
+		for (int i = 0; i < oldTable.length; i++) {
+			Entry entry = oldTable[i];
+			if (entry != null) {
+				int index = entry.hash & mask;
+				while (newTable[index] != null) {
+					index = (index + 1) & mask;
+				}
+				newTable[index] = entry;
+			}
+		}
+
+		// publish the fully populated table to readers
+		this.table = newTable;
+	}
+
+	private static int hash(char[] characters) {
 		int h = 0;
 		for (int i = 0; i < characters.length; i++) {
-			h = 31*h + characters[i];
+			h = 31 * h + characters[i];
+		}
+		// spread the higher bits, the table uses power-of-two sizes
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return h;
+	}
+
+	private static boolean equals(char[] first, char[] second) {
+		if (first == second) {
+			return true;
+		}
+		if (first.length != second.length) {
+			return false;
+		}
+		for (int i = first.length; --i >= 0;) {
+			if (first[i] != second[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Immutable table entry, final fields make it safe to hand out to readers without locking.
+	 */
+	private static class Entry {
+
+		final char[] key;
+		final int hash;
+		final TypeHierarchyElement element;
+
+		public Entry(char[] key, int hash, TypeHierarchyElement element) {
+			this.key = key;
+			this.hash = hash;
+			this.element = element;
 		}
-        return h;
 	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,14 +11,23 @@
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
 import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.compiler.CharOperation;
+import org.springframework.ide.eclipse.core.SpringCore;
 
 /**
  * @author Martin Lippert
@@ -33,13 +42,17 @@ public class TypeHierarchyEngine {
 
 	private final Map<IProject, TypeHierarchyElementCache> cache;
 	private final Map<IProject, TypeHierarchyClassReader> readers;
+	private final ConcurrentMap<IProject, FutureTask<TypeHierarchySubtypeIndex>> subtypeIndexes;
 
 	private final boolean autoCleanup;
+
+	private final AtomicLong cacheGeneration = new AtomicLong();
 	
 	public TypeHierarchyEngine(boolean autoCleanup) {
 		this.autoCleanup = autoCleanup;
 		this.cache = new ConcurrentHashMap<IProject, TypeHierarchyElementCache>();
 		this.readers = new ConcurrentHashMap<IProject, TypeHierarchyClassReader>();
+		this.subtypeIndexes = new ConcurrentHashMap<IProject, FutureTask<TypeHierarchySubtypeIndex>>();
 	}
 
 	public void setClassReaderFactory(TypeHierarchyClassReaderFactory classReaderFactory) {
@@ -64,17 +77,81 @@ public class TypeHierarchyEngine {
 	}
 
 	public void clearCache(IProject project) {
+		cacheGeneration.incrementAndGet();
 		cleanup(project);
 		this.readers.remove(project);
 		this.cache.remove(project);
+		this.subtypeIndexes.remove(project);
 	}
 	
 	public void clearCache() {
+		cacheGeneration.incrementAndGet();
 		for (IProject project : this.readers.keySet()) {
 			clearCache(project);
 		}
 	}
 
+	/**
+	 * Invalidates the cached type hierarchy information of the given (fully qualified) classes and
+	 * of all classes that were read from one of the given jar files or class folders in all projects,
+	 * instead of throwing away the complete cache of the affected projects. Existing subtype indexes
+	 * are updated with the new information of the given classes, they are rebuilt on the next access
+	 * if any location changed.
+	 * @since 3.9.3
+	 */
+	public void invalidate(Collection<String> classNames, Collection<String> locations) {
+		if (!locations.isEmpty()) {
+			cacheGeneration.incrementAndGet();
+		}
+
+		Set<String> typeNames = new LinkedHashSet<String>();
+		for (String className : classNames) {
+			typeNames.add(className.replace('.', '/'));
+		}
+
+		for (Map.Entry<IProject, TypeHierarchyElementCache> entry : this.cache.entrySet()) {
+			IProject project = entry.getKey();
+			entry.getValue().invalidate(typeNames, locations);
+
+			TypeHierarchySubtypeIndex subtypeIndex = getExistingSubtypeIndex(project);
+			if (subtypeIndex == null) {
+				continue;
+			}
+
+			// the index might contain classes from the changed jars that have never been cached
+			if (!locations.isEmpty()) {
+				this.subtypeIndexes.remove(project);
+				continue;
+			}
+
+			for (String typeName : typeNames) {
+				subtypeIndex.remove(typeName);
+			}
+
+			// read the changed classes again to update the subtype index, the reader has to forget
+			// its cached directory contents first to see added classes
+			cleanup(project);
+			try {
+				for (String typeName : typeNames) {
+					getTypeElement(typeName.toCharArray(), project, entry.getValue());
+				}
+			}
+			finally {
+				if (autoCleanup) cleanup(project);
+			}
+		}
+	}
+
+	/**
+	 * Returns a number that changes whenever type hierarchy information is thrown away for other reasons than changed
+	 * classes, i.e. if the cache of a project is cleared or a jar changed. Changed classes are only reported by their
+	 * names to {@link #invalidate(Collection, Collection)}.
+	 * @since 3.9.3
+	 */
+	public long getCacheGeneration() {
+		return cacheGeneration.get();
+	}
+
 	public String getSupertype(IType type) {
 		IJavaElement ancestor = type.getAncestor(IJavaElement.JAVA_PROJECT);
 		if (ancestor != null && ancestor instanceof IJavaProject) {
@@ -118,6 +195,36 @@ public class TypeHierarchyEngine {
 		return null;
 	}
 
+	/**
+	 * Returns the fully qualified names of all direct and indirect subclasses and implementors of
+	 * the given type that exist on the classpath of the given project.
+	 * <p>
+	 * The first call for a project scans the type hierarchy information of the complete classpath,
+	 * later calls are answered from the reverse index. The reverse indexes of jars are shared by all
+	 * projects that have them on their classpath. Subtypes of <code>java.lang.Object</code>
+	 * that don't have any other supertype are not reported. Returns <code>null</code> if the class
+	 * reader of the project isn't able to enumerate the classpath.
+	 * @since 3.9.3
+	 */
+	public String[] getAllSubtypes(IProject project, String className) {
+		try {
+			TypeHierarchySubtypeIndex subtypeIndex = getSubtypeIndex(project);
+			if (subtypeIndex != null) {
+				Set<String> subtypes = subtypeIndex.getAllSubtypes(className.replace('.', '/'));
+				String[] result = new String[subtypes.size()];
+				int i = 0;
+				for (String subtype : subtypes) {
+					result[i++] = subtype.replace('/', '.');
+				}
+				return result;
+			}
+		}
+		finally {
+			if (autoCleanup) cleanup(project);
+		}
+		return null;
+	}
+
 	public boolean doesExtend(IType type, String className) {
 		IJavaElement ancestor = type.getAncestor(IJavaElement.JAVA_PROJECT);
 		if (ancestor != null && ancestor instanceof IJavaProject) {
@@ -254,6 +361,11 @@ public class TypeHierarchyEngine {
 			result = getClassReader(project).readTypeHierarchyInformation(fullyQualifiedClassName, project);
 			if (result != null) {
 				elementCache.put(fullyQualifiedClassName, result);
+
+				TypeHierarchySubtypeIndex subtypeIndex = getExistingSubtypeIndex(project);
+				if (subtypeIndex != null) {
+					subtypeIndex.add(result);
+				}
 			}
 		}
 		return result;
@@ -268,6 +380,63 @@ public class TypeHierarchyEngine {
 		return elementCache;
 	}
 
+	/**
+	 * Returns the subtype index of the given project, building it if necessary. Only the first caller
+	 * for a project builds the index, other callers for the same project wait for it, callers for other
+	 * projects don't.
+	 */
+	protected TypeHierarchySubtypeIndex getSubtypeIndex(final IProject project) {
+		FutureTask<TypeHierarchySubtypeIndex> subtypeIndex = this.subtypeIndexes.get(project);
+		if (subtypeIndex == null) {
+			final TypeHierarchyClassReader reader = getClassReader(project);
+			if (!(reader instanceof TypeHierarchyClassScanner)) {
+				return null;
+			}
+
+			FutureTask<TypeHierarchySubtypeIndex> newSubtypeIndex = new FutureTask<TypeHierarchySubtypeIndex>(
+					new Callable<TypeHierarchySubtypeIndex>() {
+						public TypeHierarchySubtypeIndex call() {
+							return ((TypeHierarchyClassScanner) reader).createSubtypeIndex(project);
+						}
+					});
+			subtypeIndex = this.subtypeIndexes.putIfAbsent(project, newSubtypeIndex);
+			if (subtypeIndex == null) {
+				subtypeIndex = newSubtypeIndex;
+				subtypeIndex.run();
+			}
+		}
+
+		try {
+			return subtypeIndex.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		catch (ExecutionException e) {
+			// try again with the next request
+			this.subtypeIndexes.remove(project, subtypeIndex);
+			SpringCore.log(e.getCause());
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the subtype index of the given project if it has been built already.
+	 */
+	private TypeHierarchySubtypeIndex getExistingSubtypeIndex(IProject project) {
+		FutureTask<TypeHierarchySubtypeIndex> subtypeIndex = this.subtypeIndexes.get(project);
+		if (subtypeIndex != null && subtypeIndex.isDone()) {
+			try {
+				return subtypeIndex.get();
+			}
+			catch (Exception e) {
+				// reported by the caller that built the index
+			}
+		}
+		return null;
+	}
+
 	private TypeHierarchyClassReader getClassReader(IProject project) {
 		TypeHierarchyClassReader result = this.readers.get(project);
 		if (result == null) {
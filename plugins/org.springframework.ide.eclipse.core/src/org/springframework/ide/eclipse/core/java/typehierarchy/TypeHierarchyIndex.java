@@ -0,0 +1,431 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only, memory-mapped index of the type hierarchy information (class name, superclass name
+ * and interface names) of all classes of a single jar file.
+ * <p>
+ * File layout (big endian):
+ * <pre>
+ * int     magic
+ * int     version
+ * long    jar file size
+ * long    jar file last modified
+ * int     jar path length, char[] jar path
+ * int     string count
+ * int     class count
+ * int[]   record offsets (one per class, sorted by class name)
+ * int[]   string offsets (one per string)
+ * strings (short length, char[] characters)
+ * records (int name id, int superclass name id or -1, short interface count, int[] interface name ids)
+ * </pre>
+ * All names are stored only once in the string table, so that frequently used supertypes like
+ * <code>java/lang/Object</code> don't blow up the index size. All counts, offsets and string ids
+ * are validated when the file is loaded, lookups don't check them again.
+ *
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class TypeHierarchyIndex {
+
+	private static final int MAGIC = 0x53544849;
+	private static final int VERSION = 1;
+
+	private final ByteBuffer buffer;
+	private final int classCount;
+	private final int recordOffsetsStart;
+	private final int stringOffsetsStart;
+
+	private volatile TypeHierarchySubtypeIndex subtypeIndex;
+
+	private TypeHierarchyIndex(ByteBuffer buffer, int classCount, int recordOffsetsStart, int stringOffsetsStart) {
+		this.buffer = buffer;
+		this.classCount = classCount;
+		this.recordOffsetsStart = recordOffsetsStart;
+		this.stringOffsetsStart = stringOffsetsStart;
+	}
+
+	public int getClassCount() {
+		return this.classCount;
+	}
+
+	/**
+	 * Returns the type hierarchy element for the given slash separated class name or
+	 * <code>null</code> if the class is not contained in the indexed jar.
+	 */
+	public TypeHierarchyElement get(char[] fullyQualifiedClassName) {
+		int record = findRecord(fullyQualifiedClassName);
+		if (record < 0) {
+			return null;
+		}
+		return readRecord(record);
+	}
+
+	/**
+	 * Passes the type hierarchy elements of all classes in this index to the given visitor.
+	 */
+	public void accept(TypeHierarchyElementVisitor visitor) {
+		for (int i = 0; i < classCount; i++) {
+			visitor.visit(readRecord(buffer.getInt(recordOffsetsStart + i * 4)));
+		}
+	}
+
+	/**
+	 * Returns the reverse index of the classes in this index. It is built on first use and shared by
+	 * all projects that have the jar on their classpath.
+	 */
+	public TypeHierarchySubtypeIndex getSubtypeIndex() {
+		TypeHierarchySubtypeIndex result = this.subtypeIndex;
+		if (result == null) {
+			synchronized (this) {
+				result = this.subtypeIndex;
+				if (result == null) {
+					result = new TypeHierarchySubtypeIndex();
+					accept(result);
+					this.subtypeIndex = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the slash separated names of all classes in this index.
+	 */
+	public char[][] getClassNames() {
+		char[][] result = new char[classCount][];
+		for (int i = 0; i < classCount; i++) {
+			result[i] = readString(buffer.getInt(buffer.getInt(recordOffsetsStart + i * 4)));
+		}
+		return result;
+	}
+
+	private TypeHierarchyElement readRecord(int record) {
+		char[] className = readString(buffer.getInt(record));
+		int superclassNameId = buffer.getInt(record + 4);
+		char[] superclassName = superclassNameId >= 0 ? readString(superclassNameId) : null;
+
+		int interfacesCount = buffer.getShort(record + 8) & 0xFFFF;
+		char[][] interfaces = null;
+		if (interfacesCount > 0) {
+			interfaces = new char[interfacesCount][];
+			for (int i = 0; i < interfacesCount; i++) {
+				interfaces[i] = readString(buffer.getInt(record + 10 + i * 4));
+			}
+		}
+
+		return new TypeHierarchyElement(className, superclassName, interfaces);
+	}
+
+	private int findRecord(char[] name) {
+		int low = 0;
+		int high = classCount - 1;
+
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int record = buffer.getInt(recordOffsetsStart + middle * 4);
+			int comparison = compareString(buffer.getInt(record), name);
+			if (comparison < 0) {
+				low = middle + 1;
+			}
+			else if (comparison > 0) {
+				high = middle - 1;
+			}
+			else {
+				return record;
+			}
+		}
+		return -1;
+	}
+
+	private int compareString(int stringId, char[] name) {
+		int offset = buffer.getInt(stringOffsetsStart + stringId * 4);
+		int length = buffer.getShort(offset) & 0xFFFF;
+		int position = offset + 2;
+
+		int limit = Math.min(length, name.length);
+		for (int i = 0; i < limit; i++) {
+			char c = buffer.getChar(position + i * 2);
+			if (c != name[i]) {
+				return c - name[i];
+			}
+		}
+		return length - name.length;
+	}
+
+	private char[] readString(int stringId) {
+		int offset = buffer.getInt(stringOffsetsStart + stringId * 4);
+		int length = buffer.getShort(offset) & 0xFFFF;
+		int position = offset + 2;
+
+		char[] result = new char[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = buffer.getChar(position + i * 2);
+		}
+		return result;
+	}
+
+	/**
+	 * Maps the given index file into memory. Returns <code>null</code> if the file doesn't exist,
+	 * is in an unknown format, is damaged or doesn't belong to the given jar (path, size and last
+	 * modification time have to match).
+	 */
+	public static TypeHierarchyIndex load(File indexFile, String jarPath, long jarSize, long jarLastModified) throws IOException {
+		if (!indexFile.isFile()) {
+			return null;
+		}
+
+		ByteBuffer buffer;
+		RandomAccessFile file = new RandomAccessFile(indexFile, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		finally {
+			file.close();
+		}
+
+		if (buffer.limit() < 28 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			return null;
+		}
+		if (buffer.getLong(8) != jarSize || buffer.getLong(16) != jarLastModified) {
+			return null;
+		}
+
+		int pathLength = buffer.getInt(24);
+		if (pathLength != jarPath.length() || 28 + pathLength * 2L + 8 > buffer.limit()) {
+			return null;
+		}
+		for (int i = 0; i < pathLength; i++) {
+			if (buffer.getChar(28 + i * 2) != jarPath.charAt(i)) {
+				return null;
+			}
+		}
+
+		int position = 28 + pathLength * 2;
+		int stringCount = buffer.getInt(position);
+		int classCount = buffer.getInt(position + 4);
+		int recordOffsetsStart = position + 8;
+		if (classCount < 0 || stringCount < 0
+				|| recordOffsetsStart + ((long) classCount + stringCount) * 4 > buffer.limit()) {
+			return null;
+		}
+		int stringOffsetsStart = recordOffsetsStart + classCount * 4;
+
+		if (!isValid(buffer, classCount, recordOffsetsStart, stringCount, stringOffsetsStart)) {
+			return null;
+		}
+		return new TypeHierarchyIndex(buffer, classCount, recordOffsetsStart, stringOffsetsStart);
+	}
+
+	/**
+	 * Checks that all strings and records lie within the given buffer behind the offset tables and
+	 * that all string ids of the records exist.
+	 */
+	private static boolean isValid(ByteBuffer buffer, int classCount, int recordOffsetsStart, int stringCount,
+			int stringOffsetsStart) {
+		long limit = buffer.limit();
+		long dataStart = stringOffsetsStart + stringCount * 4L;
+
+		for (int i = 0; i < stringCount; i++) {
+			int offset = buffer.getInt(stringOffsetsStart + i * 4);
+			if (offset < dataStart || offset + 2L > limit
+					|| offset + 2L + (buffer.getShort(offset) & 0xFFFF) * 2L > limit) {
+				return false;
+			}
+		}
+
+		for (int i = 0; i < classCount; i++) {
+			int record = buffer.getInt(recordOffsetsStart + i * 4);
+			if (record < dataStart || record + 10L > limit) {
+				return false;
+			}
+			int interfacesCount = buffer.getShort(record + 8) & 0xFFFF;
+			if (record + 10L + interfacesCount * 4L > limit) {
+				return false;
+			}
+			if (!isValidStringId(buffer.getInt(record), stringCount)) {
+				return false;
+			}
+			int superclassNameId = buffer.getInt(record + 4);
+			if (superclassNameId != -1 && !isValidStringId(superclassNameId, stringCount)) {
+				return false;
+			}
+			for (int j = 0; j < interfacesCount; j++) {
+				if (!isValidStringId(buffer.getInt(record + 10 + j * 4), stringCount)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean isValidStringId(int stringId, int stringCount) {
+		return stringId >= 0 && stringId < stringCount;
+	}
+
+	/**
+	 * Returns the path of the jar the given index file belongs to or <code>null</code> if the file
+	 * is not an index file of the current format.
+	 */
+	public static String readJarPath(File indexFile) throws IOException {
+		long fileLength = indexFile.length();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+		try {
+			if (fileLength < 28 || in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return null;
+			}
+			in.readLong();
+			in.readLong();
+			int pathLength = in.readInt();
+			if (pathLength < 0 || 28 + pathLength * 2L > fileLength) {
+				return null;
+			}
+			char[] path = new char[pathLength];
+			for (int i = 0; i < pathLength; i++) {
+				path[i] = in.readChar();
+			}
+			return new String(path);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes an index file for the given type hierarchy elements of a jar file.
+	 */
+	public static void write(File indexFile, String jarPath, long jarSize, long jarLastModified,
+			Collection<TypeHierarchyElement> elements) throws IOException {
+
+		TypeHierarchyElement[] sortedElements = elements.toArray(new TypeHierarchyElement[elements.size()]);
+		Arrays.sort(sortedElements, new Comparator<TypeHierarchyElement>() {
+			public int compare(TypeHierarchyElement first, TypeHierarchyElement second) {
+				return compareChars(first.className, second.className);
+			}
+		});
+
+		// build the string table
+		Map<String, Integer> stringIds = new HashMap<String, Integer>();
+		List<char[]> strings = new ArrayList<char[]>();
+		for (TypeHierarchyElement element : sortedElements) {
+			addString(element.className, stringIds, strings);
+			if (element.superclassName != null) {
+				addString(element.superclassName, stringIds, strings);
+			}
+			if (element.interfaces != null) {
+				for (char[] interfaceName : element.interfaces) {
+					addString(interfaceName, stringIds, strings);
+				}
+			}
+		}
+
+		int headerSize = 28 + jarPath.length() * 2 + 8;
+		int stringsStart = headerSize + sortedElements.length * 4 + strings.size() * 4;
+
+		int stringsSize = 0;
+		for (char[] string : strings) {
+			stringsSize += 2 + string.length * 2;
+		}
+		int recordsStart = stringsStart + stringsSize;
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(jarSize);
+			out.writeLong(jarLastModified);
+			out.writeInt(jarPath.length());
+			out.writeChars(jarPath);
+			out.writeInt(strings.size());
+			out.writeInt(sortedElements.length);
+
+			// record offsets
+			int recordOffset = recordsStart;
+			for (TypeHierarchyElement element : sortedElements) {
+				out.writeInt(recordOffset);
+				recordOffset += 10 + (element.interfaces != null ? element.interfaces.length * 4 : 0);
+			}
+
+			// string offsets
+			int stringOffset = stringsStart;
+			for (char[] string : strings) {
+				out.writeInt(stringOffset);
+				stringOffset += 2 + string.length * 2;
+			}
+
+			// strings
+			for (char[] string : strings) {
+				out.writeShort(string.length);
+				for (char c : string) {
+					out.writeChar(c);
+				}
+			}
+
+			// records
+			for (TypeHierarchyElement element : sortedElements) {
+				out.writeInt(stringIds.get(new String(element.className)));
+				out.writeInt(element.superclassName != null ? stringIds.get(new String(element.superclassName)) : -1);
+				if (element.interfaces != null) {
+					out.writeShort(element.interfaces.length);
+					for (char[] interfaceName : element.interfaces) {
+						out.writeInt(stringIds.get(new String(interfaceName)));
+					}
+				}
+				else {
+					out.writeShort(0);
+				}
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private static void addString(char[] string, Map<String, Integer> stringIds, List<char[]> strings) {
+		String key = new String(string);
+		if (!stringIds.containsKey(key)) {
+			stringIds.put(key, strings.size());
+			strings.add(string);
+		}
+	}
+
+	private static int compareChars(char[] first, char[] second) {
+		int limit = Math.min(first.length, second.length);
+		for (int i = 0; i < limit; i++) {
+			if (first[i] != second[i]) {
+				return first[i] - second[i];
+			}
+		}
+		return first.length - second.length;
+	}
+
+}
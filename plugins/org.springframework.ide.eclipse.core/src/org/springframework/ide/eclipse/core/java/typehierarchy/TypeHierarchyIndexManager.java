@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Manages the persistent {@link TypeHierarchyIndex} files of jars on the classpath of projects.
+ * <p>
+ * Index files are stored in the state location of the core plugin and are keyed by the path, size
+ * and last modification time of the jar. Jars that don't have a valid index yet are read once
+ * completely, after that (and across restarts) the type hierarchy information of their classes is
+ * read from the memory-mapped index only.
+ * <p>
+ * Index files that haven't been used for {@link #UNUSED_INDEX_FILE_EXPIRATION} milliseconds or
+ * whose jar doesn't exist anymore are removed when the index directory is used for the first
+ * time.
+ *
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class TypeHierarchyIndexManager {
+
+	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.core.java.enableTypeHierarchyIndex";
+
+	private static final String INDEX_FOLDER_NAME = "typehierarchy";
+	private static final String INDEX_FILE_EXTENSION = ".idx";
+
+	/**
+	 * Time after which index files that haven't been used are removed.
+	 */
+	public static final long UNUSED_INDEX_FILE_EXPIRATION = TimeUnit.DAYS.toMillis(30);
+
+	/**
+	 * The last modification time of used index files is updated at most once per this interval.
+	 */
+	private static final long USAGE_MARK_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+	private final Map<String, IndexEntry> indexes;
+	private final ConcurrentHashMap<String, Object> locks;
+
+	private File indexDirectory;
+	private boolean pruned;
+
+	public TypeHierarchyIndexManager() {
+		this.indexes = new ConcurrentHashMap<String, IndexEntry>();
+		this.locks = new ConcurrentHashMap<String, Object>();
+	}
+
+	public TypeHierarchyIndexManager(File indexDirectory) {
+		this();
+		this.indexDirectory = indexDirectory;
+	}
+
+	public static boolean isEnabled() {
+		return System.getProperty(ENABLE_PROPERTY, "true").equals("true");
+	}
+
+	/**
+	 * Returns the index for the given jar file, creating and persisting it if required. Returns
+	 * <code>null</code> if the jar doesn't exist or can't be indexed.
+	 */
+	public TypeHierarchyIndex getIndex(File jarFile) {
+		String jarPath = jarFile.getAbsolutePath();
+		long size = jarFile.length();
+		long lastModified = jarFile.lastModified();
+		if (lastModified == 0) {
+			return null;
+		}
+
+		IndexEntry entry = indexes.get(jarPath);
+		if (entry != null && entry.matches(size, lastModified)) {
+			return entry.index;
+		}
+
+		synchronized (getLock(jarPath)) {
+			entry = indexes.get(jarPath);
+			if (entry != null && entry.matches(size, lastModified)) {
+				return entry.index;
+			}
+
+			TypeHierarchyIndex index = null;
+			try {
+				File directory = getIndexDirectory();
+				File indexFile = new File(directory, getIndexFileName(jarFile, size, lastModified));
+
+				index = TypeHierarchyIndex.load(indexFile, jarPath, size, lastModified);
+				if (index != null) {
+					markUsed(indexFile);
+				}
+				else {
+					deleteOutdatedIndexFiles(directory, jarFile);
+					Map<String, TypeHierarchyElement> elements = readJar(jarFile);
+
+					File tempFile = new File(directory, indexFile.getName() + ".tmp");
+					TypeHierarchyIndex.write(tempFile, jarPath, size, lastModified, elements.values());
+					if (!tempFile.renameTo(indexFile)) {
+						tempFile.delete();
+						throw new IOException("unable to create type hierarchy index file " + indexFile);
+					}
+					index = TypeHierarchyIndex.load(indexFile, jarPath, size, lastModified);
+				}
+			}
+			catch (IOException e) {
+				SpringCore.log(e);
+			}
+
+			// remember jars that can't be indexed as well, they are not tried again until they change
+			indexes.put(jarPath, new IndexEntry(index, size, lastModified));
+			return index;
+		}
+	}
+
+	/**
+	 * Forgets all indexes that are held in memory. The index files are kept.
+	 */
+	public void clear() {
+		indexes.clear();
+	}
+
+	protected synchronized File getIndexDirectory() {
+		if (indexDirectory == null) {
+			indexDirectory = SpringCore.getDefault().getStateLocation().append(INDEX_FOLDER_NAME).toFile();
+		}
+		if (!indexDirectory.exists()) {
+			indexDirectory.mkdirs();
+		}
+		if (!pruned) {
+			pruned = true;
+			pruneIndexFiles(indexDirectory);
+		}
+		return indexDirectory;
+	}
+
+	/**
+	 * Removes the index files (and left-over temporary files) that haven't been used for
+	 * {@link #UNUSED_INDEX_FILE_EXPIRATION} milliseconds, which is the case for jars that are not
+	 * on the classpath of any project anymore, and the index files of jars that don't exist anymore.
+	 */
+	private void pruneIndexFiles(File directory) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+
+		long expiration = System.currentTimeMillis() - UNUSED_INDEX_FILE_EXPIRATION;
+		for (File file : files) {
+			if (file.lastModified() < expiration) {
+				file.delete();
+			}
+			else if (file.getName().endsWith(INDEX_FILE_EXTENSION)) {
+				try {
+					String jarPath = TypeHierarchyIndex.readJarPath(file);
+					if (jarPath == null || !new File(jarPath).isFile()) {
+						file.delete();
+					}
+				}
+				catch (IOException e) {
+					file.delete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates the last modification time of the given index file, so that it is not pruned while
+	 * its jar is in use.
+	 */
+	private void markUsed(File indexFile) {
+		long now = System.currentTimeMillis();
+		if (indexFile.lastModified() < now - USAGE_MARK_INTERVAL) {
+			indexFile.setLastModified(now);
+		}
+	}
+
+	private Object getLock(String jarPath) {
+		Object lock = locks.get(jarPath);
+		if (lock == null) {
+			lock = new Object();
+			Object existingLock = locks.putIfAbsent(jarPath, lock);
+			if (existingLock != null) {
+				lock = existingLock;
+			}
+		}
+		return lock;
+	}
+
+	private Map<String, TypeHierarchyElement> readJar(File jarFile) throws IOException {
+		Map<String, TypeHierarchyElement> elements = new LinkedHashMap<String, TypeHierarchyElement>();
+		BytecodeTypeHierarchyClassReader reader = new BytecodeTypeHierarchyClassReader(null);
+
+		ZipFile zipFile = new ZipFile(jarFile);
+		try {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (entry.isDirectory() || !name.endsWith(".class") || name.startsWith("META-INF/")) {
+					continue;
+				}
+
+				String className = name.substring(0, name.length() - ".class".length());
+				if (elements.containsKey(className)) {
+					continue;
+				}
+
+				InputStream stream = zipFile.getInputStream(entry);
+				try {
+					TypeHierarchyElement element = reader.readTypeHierarchy(stream);
+					if (element != null && className.equals(new String(element.className))) {
+						elements.put(className, element);
+					}
+				}
+				finally {
+					stream.close();
+				}
+			}
+		}
+		finally {
+			zipFile.close();
+		}
+		return elements;
+	}
+
+	private void deleteOutdatedIndexFiles(File directory, File jarFile) {
+		final String prefix = getIndexFilePrefix(jarFile);
+		File[] outdatedFiles = directory.listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.startsWith(prefix);
+			}
+		});
+		if (outdatedFiles != null) {
+			for (File outdatedFile : outdatedFiles) {
+				// might fail as long as the old index is still mapped, it is tried again next time
+				outdatedFile.delete();
+			}
+		}
+	}
+
+	private static String getIndexFilePrefix(File jarFile) {
+		return jarFile.getName() + "-" + Integer.toHexString(jarFile.getAbsolutePath().hashCode()) + "-";
+	}
+
+	private static String getIndexFileName(File jarFile, long size, long lastModified) {
+		return getIndexFilePrefix(jarFile) + Long.toHexString(size) + "-" + Long.toHexString(lastModified)
+				+ INDEX_FILE_EXTENSION;
+	}
+
+	private static class IndexEntry {
+
+		private final TypeHierarchyIndex index;
+		private final long size;
+		private final long lastModified;
+
+		public IndexEntry(TypeHierarchyIndex index, long size, long lastModified) {
+			this.index = index;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+
+		public boolean matches(long size, long lastModified) {
+			return this.size == size && this.lastModified == lastModified;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,13 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
@@ -17,33 +24,165 @@ import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.classreading.JdtMetadataReaderCache;
 
 /**
+ * Keeps the type hierarchy engine in sync with the workspace. Changed class files in output folders
+ * and changed jars only invalidate the affected entries of the type hierarchy caches, the complete
+ * cache of a project is thrown away only if the project itself or its classpath changes. Changes of
+ * the resolved classpath (e.g. of classpath containers or variables) are reported as Java element
+ * deltas, so the listener needs to be registered with {@link JavaCore} as well.
+ *
  * @author Martin Lippert
  * @since 3.3.0
  */
-public class TypeHierarchyResourceChangeListener implements IResourceChangeListener {
+public class TypeHierarchyResourceChangeListener implements IResourceChangeListener, IElementChangedListener {
+
+	private static final String CLASS_FILE_EXTENSION = "class";
+	private static final String CLASSPATH_FILE_NAME = ".classpath";
 
 	public void resourceChanged(IResourceChangeEvent event) {
-		if (event.getType() == IResourceChangeEvent.PRE_BUILD) {
+		if (event.getType() == IResourceChangeEvent.POST_CHANGE && event.getDelta() != null) {
 			try {
-				event.getDelta().accept(new CacheResetVisitor());
+				CacheInvalidationVisitor visitor = new CacheInvalidationVisitor();
+				event.getDelta().accept(visitor);
+				visitor.applyChanges(SpringCore.getTypeHierarchyEngine());
+				visitor.applyChanges(SpringCore.getMetadataReaderCache());
 			} catch (CoreException e) {
 				SpringCore.log(e);
 			}
 		}
 	}
-	
-	protected static class CacheResetVisitor implements IResourceDeltaVisitor {
+
+	/**
+	 * Clears the cache of projects whose (resolved) classpath changed, as the class readers of the
+	 * project keep the classpath they have been created for.
+	 * @since 3.9.3
+	 */
+	public void elementChanged(ElementChangedEvent event) {
+		for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
+			if ((delta.getFlags() & IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED) != 0
+					|| (delta.getFlags() & IJavaElementDelta.F_CLASSPATH_CHANGED) != 0) {
+				IJavaElement element = delta.getElement();
+				if (element instanceof IJavaProject) {
+					SpringCore.getTypeHierarchyEngine().clearCache(((IJavaProject) element).getProject());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the classes, jars and projects that are affected by a resource delta.
+	 * @since 3.9.3
+	 */
+	public static class CacheInvalidationVisitor implements IResourceDeltaVisitor {
+
+		private final Set<IProject> projectsToClear = new LinkedHashSet<IProject>();
+		private final Set<IProject> projectsWithChangedClasses = new LinkedHashSet<IProject>();
+		private final Set<String> classNames = new LinkedHashSet<String>();
+		private final Set<String> locations = new LinkedHashSet<String>();
+
+		private final Map<IProject, List<IPath>> outputLocations = new HashMap<IProject, List<IPath>>();
+
 		public boolean visit(IResourceDelta delta) {
 			IResource res = delta.getResource();
 			if (res instanceof IProject) {
-				SpringCore.getTypeHierarchyEngine().clearCache((IProject) res);
+				if (delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & IResourceDelta.OPEN) != 0
+						|| (delta.getFlags() & IResourceDelta.DESCRIPTION) != 0) {
+					projectsToClear.add((IProject) res);
+					return false;
+				}
+				return true;
+			}
+
+			if (res.getType() == IResource.FILE) {
+				if (CLASSPATH_FILE_NAME.equals(res.getName()) && res.getParent().equals(res.getProject())) {
+					projectsToClear.add(res.getProject());
+				}
+				else if (CLASS_FILE_EXTENSION.equals(res.getFileExtension())) {
+					String className = getClassName(res);
+					if (className != null) {
+						classNames.add(className);
+						projectsWithChangedClasses.add(res.getProject());
+					}
+				}
+				else if ("jar".equals(res.getFileExtension()) || "zip".equals(res.getFileExtension())) {
+					if (res.getLocation() != null) {
+						locations.add(res.getLocation().toFile().getAbsolutePath());
+					}
+				}
 				return false;
 			}
 			return true;
 		}
+
+		public void applyChanges(TypeHierarchyEngine engine) {
+			for (IProject project : projectsToClear) {
+				engine.clearCache(project);
+			}
+			if (!classNames.isEmpty() || !locations.isEmpty()) {
+				engine.invalidate(classNames, locations);
+			}
+		}
+
+		/**
+		 * Drops the cached metadata readers of the projects with changed class files in their output folders and of
+		 * the projects depending on them.
+		 */
+		public void applyChanges(JdtMetadataReaderCache cache) {
+			if (cache != null && (!projectsToClear.isEmpty() || !projectsWithChangedClasses.isEmpty())) {
+				Set<IProject> changedProjects = new LinkedHashSet<IProject>(projectsToClear);
+				changedProjects.addAll(projectsWithChangedClasses);
+				cache.invalidateProjects(changedProjects);
+			}
+		}
+
+		/**
+		 * Returns the fully qualified name of the class for the given class file if the file is
+		 * located in one of the output folders of its project, <code>null</code> otherwise.
+		 */
+		protected String getClassName(IResource classFile) {
+			IPath path = classFile.getFullPath().removeFileExtension();
+			for (IPath outputLocation : getOutputLocations(classFile.getProject())) {
+				if (outputLocation.isPrefixOf(path)) {
+					return path.removeFirstSegments(outputLocation.segmentCount()).toString().replace('/', '.');
+				}
+			}
+			return null;
+		}
+
+		private List<IPath> getOutputLocations(IProject project) {
+			List<IPath> result = outputLocations.get(project);
+			if (result == null) {
+				result = new ArrayList<IPath>();
+				try {
+					IJavaProject javaProject = JavaCore.create(project);
+					if (javaProject != null && javaProject.exists()) {
+						result.add(javaProject.getOutputLocation());
+						for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+							if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE
+									&& entry.getOutputLocation() != null) {
+								result.add(entry.getOutputLocation());
+							}
+						}
+					}
+				}
+				catch (CoreException e) {
+					SpringCore.log(e);
+				}
+				outputLocations.put(project, result);
+			}
+			return result;
+		}
 	}
 
 }
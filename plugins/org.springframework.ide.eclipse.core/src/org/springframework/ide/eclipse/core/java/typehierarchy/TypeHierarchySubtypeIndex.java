@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse type hierarchy index that maps every type to its direct subclasses and implementors.
+ * All names are slash separated, like in the class files.
+ * <p>
+ * The index is filled incrementally with {@link #add(TypeHierarchyElement)}, every class is
+ * registered only once. Edges to <code>java/lang/Object</code> are not recorded, since almost
+ * every type on the classpath would be a direct subtype of it.
+ * <p>
+ * An index can be layered on top of shared indexes, e.g. the indexes of jars that are on the
+ * classpath of several projects. The shared indexes come first on the classpath and are only
+ * read, classes are added to and removed from the own entries of this index only.
+ *
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class TypeHierarchySubtypeIndex implements TypeHierarchyElementVisitor {
+
+	private static final String OBJECT_CLASS_NAME = "java/lang/Object";
+
+	private final Map<String, Set<String>> subtypes;
+	private final Map<String, String[]> supertypes;
+	private final TypeHierarchySubtypeIndex[] sharedIndexes;
+
+	public TypeHierarchySubtypeIndex() {
+		this(Collections.<TypeHierarchySubtypeIndex>emptyList());
+	}
+
+	/**
+	 * Creates an index on top of the given shared indexes, in classpath order.
+	 */
+	public TypeHierarchySubtypeIndex(List<TypeHierarchySubtypeIndex> sharedIndexes) {
+		this.subtypes = new HashMap<String, Set<String>>();
+		this.supertypes = new HashMap<String, String[]>();
+		this.sharedIndexes = sharedIndexes.toArray(new TypeHierarchySubtypeIndex[sharedIndexes.size()]);
+	}
+
+	public void visit(TypeHierarchyElement element) {
+		add(element);
+	}
+
+	/**
+	 * Registers the given type as direct subtype of its superclass and interfaces. Types that are
+	 * already known to the index are ignored, the first occurrence on the classpath wins.
+	 */
+	public synchronized void add(TypeHierarchyElement element) {
+		String className = new String(element.className);
+		if (contains(className)) {
+			return;
+		}
+
+		int count = (element.superclassName != null ? 1 : 0) + (element.interfaces != null ? element.interfaces.length : 0);
+		String[] typeSupertypes = new String[count];
+		int index = 0;
+		if (element.superclassName != null) {
+			typeSupertypes[index++] = new String(element.superclassName);
+		}
+		if (element.interfaces != null) {
+			for (char[] interfaceName : element.interfaces) {
+				typeSupertypes[index++] = new String(interfaceName);
+			}
+		}
+		supertypes.put(className, typeSupertypes);
+
+		for (String supertype : typeSupertypes) {
+			if (!OBJECT_CLASS_NAME.equals(supertype)) {
+				Set<String> directSubtypes = subtypes.get(supertype);
+				if (directSubtypes == null) {
+					directSubtypes = new HashSet<String>(4);
+					subtypes.put(supertype, directSubtypes);
+				}
+				directSubtypes.add(className);
+			}
+		}
+	}
+
+	/**
+	 * Removes the given type and its edges to its supertypes from the index. The edges from its
+	 * own subtypes are kept, they still refer to the type by name. Types of the shared indexes are
+	 * not removed.
+	 */
+	public synchronized void remove(String className) {
+		String[] typeSupertypes = supertypes.remove(className);
+		if (typeSupertypes != null) {
+			for (String supertype : typeSupertypes) {
+				Set<String> directSubtypes = subtypes.get(supertype);
+				if (directSubtypes != null) {
+					directSubtypes.remove(className);
+					if (directSubtypes.isEmpty()) {
+						subtypes.remove(supertype);
+					}
+				}
+			}
+		}
+	}
+
+	public synchronized boolean contains(String className) {
+		return getOwner(className) != null;
+	}
+
+	public synchronized Set<String> getDirectSubtypes(String className) {
+		Set<String> result = new LinkedHashSet<String>();
+		collectDirectSubtypes(className, result);
+		return result;
+	}
+
+	/**
+	 * Returns all direct and indirect subclasses and implementors of the given type.
+	 */
+	public synchronized Set<String> getAllSubtypes(String className) {
+		Set<String> result = new LinkedHashSet<String>();
+		ArrayDeque<String> typesToAnalyze = new ArrayDeque<String>();
+		typesToAnalyze.add(className);
+
+		Set<String> directSubtypes = new LinkedHashSet<String>();
+		while (!typesToAnalyze.isEmpty()) {
+			directSubtypes.clear();
+			collectDirectSubtypes(typesToAnalyze.pop(), directSubtypes);
+			for (String subtype : directSubtypes) {
+				if (result.add(subtype)) {
+					typesToAnalyze.add(subtype);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of types in this index, including the types of the shared indexes. Types
+	 * that are contained in more than one of them are counted more than once.
+	 */
+	public synchronized int size() {
+		int result = supertypes.size();
+		for (TypeHierarchySubtypeIndex sharedIndex : sharedIndexes) {
+			result += sharedIndex.size();
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the direct subtypes of the given type, as registered by the first index that
+	 * contains the subtype. Edges of types that are hidden by an earlier index are skipped.
+	 */
+	private void collectDirectSubtypes(String className, Set<String> result) {
+		for (TypeHierarchySubtypeIndex sharedIndex : sharedIndexes) {
+			for (String subtype : sharedIndex.getDirectSubtypes(className)) {
+				if (getOwner(subtype) == sharedIndex) {
+					result.add(subtype);
+				}
+			}
+		}
+
+		Set<String> directSubtypes = subtypes.get(className);
+		if (directSubtypes != null) {
+			for (String subtype : directSubtypes) {
+				if (getOwner(subtype) == this) {
+					result.add(subtype);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the first index that contains the given type or <code>null</code> if the type is unknown.
+	 */
+	private TypeHierarchySubtypeIndex getOwner(String className) {
+		for (TypeHierarchySubtypeIndex sharedIndex : sharedIndexes) {
+			if (sharedIndex.contains(className)) {
+				return sharedIndex;
+			}
+		}
+		return supertypes.containsKey(className) ? this : null;
+	}
+
+}
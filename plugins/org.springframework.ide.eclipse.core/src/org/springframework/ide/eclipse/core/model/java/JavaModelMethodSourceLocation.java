@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -27,6 +27,16 @@ public class JavaModelMethodSourceLocation extends JavaModelSourceLocation {
 		super(type);
 		this.returnType = returnType;
 	}
+
+	/**
+	 * Creates a location from a stored handle identifier, line number and return type without accessing the Java
+	 * model.
+	 * @since 3.9.3
+	 */
+	public JavaModelMethodSourceLocation(String handleIdentifier, int lineNumber, String returnType) {
+		super(handleIdentifier, lineNumber);
+		this.returnType = returnType;
+	}
 	
 	public String getReturnType() {
 		return returnType;
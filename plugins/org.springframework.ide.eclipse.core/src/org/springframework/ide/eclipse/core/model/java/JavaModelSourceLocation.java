@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2011 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -42,6 +42,15 @@ public class JavaModelSourceLocation implements Serializable, IModelSourceLocati
 		this.lineNumber = JdtUtils.getLineNumber(JdtUtils.getByHandle(handleIdentifier));
 	}
 
+	/**
+	 * Creates a location from a stored handle identifier and line number without accessing the Java model.
+	 * @since 3.9.3
+	 */
+	public JavaModelSourceLocation(String handleIdentifier, int lineNumber) {
+		this.handleIdentifier = handleIdentifier;
+		this.lineNumber = lineNumber;
+	}
+
 	public int getEndLine() {
 		return lineNumber;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,16 +10,32 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.model.validation;
 
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.springframework.ide.eclipse.core.MarkerUtils;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinition;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinitionFactory;
 import org.springframework.ide.eclipse.core.model.IModelElement;
@@ -32,6 +48,11 @@ import org.springframework.ide.eclipse.core.project.IProjectContributorStateAwar
 /**
  * Base {@link IValidator} implementation that abstracts model visiting and provides implementation hooks for sub
  * classes.
+ * <p>
+ * If parallel validation is enabled (see {@link #PARALLEL_VALIDATION_PROPERTY}), the affected resources are validated
+ * concurrently on a bounded pool of worker threads and the problem markers of every resource are replaced on the
+ * calling thread as soon as its result is available. Resources with rules that are declared as
+ * <code>sequential</code> are validated on the calling thread.
  * @author Torsten Juergeleit
  * @author Christian Dupuis
  * @author Martin Lippert
@@ -39,6 +60,25 @@ import org.springframework.ide.eclipse.core.project.IProjectContributorStateAwar
  */
 public abstract class AbstractValidator implements IValidator, IProjectContributorStateAware {
 
+	/**
+	 * System property to enable the parallel validation of independent resources.
+	 * @since 3.9.3
+	 */
+	public static final String PARALLEL_VALIDATION_PROPERTY =
+			"org.springframework.ide.eclipse.core.validation.parallel";
+
+	/**
+	 * System property to configure the number of validation worker threads, defaults to the number of processors.
+	 * @since 3.9.3
+	 */
+	public static final String VALIDATION_THREADS_PROPERTY =
+			"org.springframework.ide.eclipse.core.validation.threads";
+
+	private static final String THREAD_NAME_TEMPLATE = "Spring Validation Thread-%s";
+
+	/** Shared pool of validation worker threads, created on first use */
+	private static ExecutorService validationExecutor;
+
 	/** Internal state object */
 	private IProjectContributorState contributorState;
 
@@ -78,6 +118,24 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 	 */
 	public final void validate(Set<IResource> affectedResources, int kind, IProgressMonitor monitor)
 			throws CoreException {
+		try {
+			if (affectedResources.size() > 1 && isParallelValidationEnabled()) {
+				validateInParallel(affectedResources, kind, monitor);
+			}
+			else {
+				validateSequentially(affectedResources, kind, monitor);
+			}
+		}
+		finally {
+			ValidationRuleProfiler profiler = SpringCore.getValidationRuleProfiler();
+			if (profiler != null && profiler.isEnabled()) {
+				profiler.scheduleReport();
+			}
+		}
+	}
+
+	private void validateSequentially(Set<IResource> affectedResources, int kind, IProgressMonitor monitor)
+			throws CoreException {
 		SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, affectedResources.size());
 		try {
 			for (IResource resource : affectedResources) {
@@ -119,6 +177,161 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 		}
 	}
 
+	/**
+	 * Validates the given resources concurrently. Resources with rules that must run sequentially (see
+	 * {@link ValidationRuleDefinition#isSequential()}) are validated on the calling thread meanwhile. The markers of a
+	 * resource are replaced on the calling thread once its result is available, since workers can't modify the
+	 * workspace while the calling build holds the workspace lock.
+	 */
+	private void validateInParallel(Set<IResource> affectedResources, final int kind, final IProgressMonitor monitor)
+			throws CoreException {
+		SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, affectedResources.size());
+		try {
+			// workers only check for cancellation, progress is reported from this thread
+			final IProgressMonitor workerMonitor = new NullProgressMonitor() {
+				@Override
+				public boolean isCanceled() {
+					return monitor.isCanceled();
+				}
+			};
+
+			Map<IResource, Future<Set<ValidationProblem>>> results =
+					new LinkedHashMap<IResource, Future<Set<ValidationProblem>>>();
+			Map<IResource, Set<ValidationRuleDefinition>> sequentialResources =
+					new LinkedHashMap<IResource, Set<ValidationRuleDefinition>>();
+			try {
+				ExecutorService executor = getValidationExecutor();
+				for (final IResource resource : affectedResources) {
+					final Set<ValidationRuleDefinition> ruleDefinitions = getRuleDefinitions(resource);
+					if (containsSequentialRule(ruleDefinitions)) {
+						sequentialResources.put(resource, ruleDefinitions);
+					}
+					else {
+						results.put(resource, executor.submit(new Callable<Set<ValidationProblem>>() {
+							public Set<ValidationProblem> call() throws Exception {
+								return validateResource(resource, kind, ruleDefinitions, workerMonitor);
+							}
+						}));
+					}
+				}
+
+				for (Map.Entry<IResource, Set<ValidationRuleDefinition>> entry : sequentialResources.entrySet()) {
+					IResource resource = entry.getKey();
+					reportProgress("Validating '" + resource.getFullPath().toString().substring(1) + "'", subMonitor);
+					// validated on this thread, so progress can be reported to the build monitor directly
+					SubProgressMonitor resourceMonitor = new SubProgressMonitor(subMonitor, 1);
+					try {
+						Set<ValidationProblem> problems = validateResource(resource, kind, entry.getValue(),
+								resourceMonitor);
+						replaceProblemMarkers(resource, problems);
+					}
+					finally {
+						resourceMonitor.done();
+					}
+				}
+
+				for (Map.Entry<IResource, Future<Set<ValidationProblem>>> result : results.entrySet()) {
+					IResource resource = result.getKey();
+					reportProgress("Validating '" + resource.getFullPath().toString().substring(1) + "'", subMonitor);
+					Set<ValidationProblem> problems = waitForResult(result.getValue(), subMonitor);
+					replaceProblemMarkers(resource, problems);
+					subMonitor.worked(1);
+				}
+			}
+			finally {
+				for (Future<Set<ValidationProblem>> result : results.values()) {
+					result.cancel(false);
+				}
+			}
+		}
+		finally {
+			subMonitor.done();
+		}
+	}
+
+	private static boolean containsSequentialRule(Set<ValidationRuleDefinition> ruleDefinitions) {
+		if (ruleDefinitions != null) {
+			for (ValidationRuleDefinition ruleDefinition : ruleDefinitions) {
+				if (ruleDefinition.isSequential()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces the markers of the given resource with markers for the given problems in one workspace operation; the
+	 * markers are only deleted if the problems are <code>null</code>.
+	 */
+	private void replaceProblemMarkers(final IResource resource, final Set<ValidationProblem> problems)
+			throws CoreException {
+		IWorkspaceRunnable markerUpdate = new IWorkspaceRunnable() {
+			public void run(IProgressMonitor runnableMonitor) throws CoreException {
+				cleanup(resource, runnableMonitor);
+				if (problems != null) {
+					ValidationUtils.createProblemMarkers(resource, problems, getMarkerId());
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(markerUpdate, null, IWorkspace.AVOID_UPDATE, null);
+	}
+
+	/**
+	 * Validates a single resource and returns the found problems or <code>null</code> if the resource has not been
+	 * validated.
+	 */
+	private Set<ValidationProblem> validateResource(IResource resource, int kind,
+			Set<ValidationRuleDefinition> ruleDefinitions, IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+
+		IValidationElementLifecycleManager callback = initValidationElementCallback(resource, kind);
+		try {
+			IResourceModelElement rootElement = callback.getRootElement();
+
+			// Check if resource model element is external to the workspace -> if so, do not validate the resource
+			if (rootElement == null || rootElement.isExternal()) {
+				return null;
+			}
+
+			if (ruleDefinitions != null && ruleDefinitions.size() > 0) {
+				return validate(callback, ruleDefinitions, monitor);
+			}
+			return null;
+		}
+		finally {
+			// call close on callback to execute any required resource cleanup in template
+			callback.destroy();
+		}
+	}
+
+	private Set<ValidationProblem> waitForResult(Future<Set<ValidationProblem>> result, IProgressMonitor monitor) {
+		while (true) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			try {
+				return result.get(100, TimeUnit.MILLISECONDS);
+			}
+			catch (TimeoutException e) {
+				// check for cancellation again
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
+			catch (ExecutionException e) {
+				if (e.getCause() instanceof OperationCanceledException) {
+					throw (OperationCanceledException) e.getCause();
+				}
+				SpringCore.log(e.getCause());
+				return null;
+			}
+		}
+	}
+
 	private IValidationElementLifecycleManager initValidationElementCallback(IResource resource, int kind) {
 		IValidationElementLifecycleManager callback = createValidationElementLifecycleManager();
 		if (callback instanceof IValidationElementLifecycleManagerExtension) {
@@ -129,7 +342,7 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 	}
 
 	private Set<ValidationProblem> validate(IValidationElementLifecycleManager callback,
-			Set<ValidationRuleDefinition> ruleDefinitions, SubProgressMonitor subMonitor) {
+			Set<ValidationRuleDefinition> ruleDefinitions, IProgressMonitor subMonitor) {
 		Set<ValidationProblem> problems = new LinkedHashSet<ValidationProblem>();
 		for (IResourceModelElement contextElement : callback.getContextElements()) {
 			IValidationContext context = createContext(callback.getRootElement(), contextElement);
@@ -161,6 +374,31 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 	 */
 	protected abstract IValidationElementLifecycleManager createValidationElementLifecycleManager();
 
+	/**
+	 * Returns <code>true</code> if the affected resources should be validated in parallel. Sub classes that create
+	 * lifecycle managers, contexts or rules that can't be used concurrently should return <code>false</code>.
+	 * @since 3.9.3
+	 */
+	protected boolean isParallelValidationEnabled() {
+		return System.getProperty(PARALLEL_VALIDATION_PROPERTY, "false").equals("true");
+	}
+
+	private static synchronized ExecutorService getValidationExecutor() {
+		if (validationExecutor == null) {
+			int threads = Integer.getInteger(VALIDATION_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+			final AtomicInteger threadCount = new AtomicInteger(0);
+			validationExecutor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable,
+							String.format(THREAD_NAME_TEMPLATE, threadCount.incrementAndGet()));
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return validationExecutor;
+	}
+
 	/**
 	 * Returns the ID of this validator's {@link IMarker validation problem marker} ID.
 	 */
@@ -257,9 +495,22 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 
 		private Set<ValidationRuleDefinition> ruleDefinitions;
 
+		private ValidationRuleProfiler profiler;
+
+		private String resourcePath;
+
 		public ValidationVisitor(IValidationContext context, Set<ValidationRuleDefinition> ruleDefinitions) {
 			this.ruleDefinitions = ruleDefinitions;
 			this.context = context;
+
+			ValidationRuleProfiler profiler = SpringCore.getValidationRuleProfiler();
+			if (profiler != null && profiler.isEnabled()) {
+				this.profiler = profiler;
+				IResourceModelElement rootElement = context.getRootElement();
+				if (rootElement != null && rootElement.getElementResource() != null) {
+					this.resourcePath = rootElement.getElementResource().getFullPath().toString();
+				}
+			}
 		}
 
 		@SuppressWarnings("unchecked")
@@ -276,8 +527,12 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 
 						IValidationRule rule = ruleDefinition.getRule();
 						if (rule.supports(element, context)) {
+							long start = (profiler != null ? System.nanoTime() : 0);
 							context.setCurrentRuleDefinition(ruleDefinition);
 							rule.validate(element, context, monitor);
+							if (profiler != null) {
+								profiler.record(ruleDefinition.getId(), resourcePath, System.nanoTime() - start);
+							}
 						}
 						subMonitor.worked(1);
 					}
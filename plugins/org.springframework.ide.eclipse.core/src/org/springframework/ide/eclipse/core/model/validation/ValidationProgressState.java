@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,39 +24,39 @@ class ValidationProgressState {
 
 	private int warningCount = 0;
 
-	public void incrementErrorCount() {
+	public synchronized void incrementErrorCount() {
 		errorCount++;
 	}
 
-	public void incrementErrorCountBy(int n) {
+	public synchronized void incrementErrorCountBy(int n) {
 		errorCount += n;
 	}
 
-	public void incrementInfoCount() {
+	public synchronized void incrementInfoCount() {
 		infoCount++;
 	}
 
-	public void incrementInfoCountBy(int n) {
+	public synchronized void incrementInfoCountBy(int n) {
 		infoCount += n;
 	}
 
-	public void incrementWarningCount() {
+	public synchronized void incrementWarningCount() {
 		warningCount++;
 	}
 
-	public void incrementWarningCountBy(int n) {
+	public synchronized void incrementWarningCountBy(int n) {
 		warningCount += n;
 	}
 
-	protected int getErrorCount() {
+	protected synchronized int getErrorCount() {
 		return errorCount;
 	}
 
-	protected int getInfoCount() {
+	protected synchronized int getInfoCount() {
 		return infoCount;
 	}
 
-	protected int getWarningCount() {
+	protected synchronized int getWarningCount() {
 		return warningCount;
 	}
 
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.model.validation;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Records how often and how long {@link IValidationRule}s are executed, in total and per validated resource.
+ * <p>
+ * Profiling is enabled with the {@link SpringCore#ENABLE_VALIDATION_PROFILING} preference. If enabled, the
+ * {@link AbstractValidator} schedules a report after every validation run. Reports are written as CSV file to the
+ * state location of the core plugin at most once every {@link #REPORT_DELAY} milliseconds, and a pending report is
+ * written when the core plugin shuts down.
+ * @author Martin Lippert
+ * @since 3.9.3
+ */
+public class ValidationRuleProfiler {
+
+	public static final String REPORT_FILE_NAME = "validation-profile.csv";
+
+	/** Delay in milliseconds between a validation run and the report that includes it */
+	public static final long REPORT_DELAY = TimeUnit.SECONDS.toMillis(30);
+
+	private final ConcurrentMap<String, RuleStatistics> ruleStatistics;
+
+	private final ConcurrentMap<String, ConcurrentMap<String, RuleStatistics>> resourceStatistics;
+
+	private final AtomicBoolean reportPending;
+
+	private final Job reportJob;
+
+	public ValidationRuleProfiler() {
+		this.ruleStatistics = new ConcurrentHashMap<String, RuleStatistics>();
+		this.resourceStatistics = new ConcurrentHashMap<String, ConcurrentMap<String, RuleStatistics>>();
+		this.reportPending = new AtomicBoolean();
+		this.reportJob = new Job("Writing validation profile") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				if (reportPending.getAndSet(false)) {
+					writeReport();
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		this.reportJob.setSystem(true);
+	}
+
+	public boolean isEnabled() {
+		return SpringCore.getDefault().getPluginPreferences().getBoolean(SpringCore.ENABLE_VALIDATION_PROFILING);
+	}
+
+	/**
+	 * Records a single execution of the given rule on an element of the given resource.
+	 * @param ruleId the id of the rule definition
+	 * @param resourcePath the workspace relative path of the validated resource, might be <code>null</code>
+	 * @param time the execution time in nanoseconds
+	 */
+	public void record(String ruleId, String resourcePath, long time) {
+		getStatistics(ruleStatistics, ruleId).record(time);
+
+		if (resourcePath != null) {
+			ConcurrentMap<String, RuleStatistics> statistics = resourceStatistics.get(ruleId);
+			if (statistics == null) {
+				statistics = new ConcurrentHashMap<String, RuleStatistics>();
+				ConcurrentMap<String, RuleStatistics> existingStatistics = resourceStatistics.putIfAbsent(ruleId, statistics);
+				if (existingStatistics != null) {
+					statistics = existingStatistics;
+				}
+			}
+			getStatistics(statistics, resourcePath).record(time);
+		}
+	}
+
+	/**
+	 * Returns the statistics of all executed rules, keyed and sorted by rule id.
+	 */
+	public Map<String, RuleStatistics> getRuleStatistics() {
+		return snapshot(ruleStatistics);
+	}
+
+	/**
+	 * Returns the statistics of the given rule, keyed and sorted by resource path.
+	 */
+	public Map<String, RuleStatistics> getResourceStatistics(String ruleId) {
+		ConcurrentMap<String, RuleStatistics> statistics = resourceStatistics.get(ruleId);
+		if (statistics == null) {
+			return Collections.emptyMap();
+		}
+		return snapshot(statistics);
+	}
+
+	/**
+	 * Drops all recorded statistics and a report that has been scheduled but not yet written.
+	 */
+	public void resetStatistics() {
+		reportPending.set(false);
+		reportJob.cancel();
+		ruleStatistics.clear();
+		resourceStatistics.clear();
+	}
+
+	/**
+	 * Schedules writing the collected statistics, unless a report is pending already. The report is written
+	 * {@link #REPORT_DELAY} milliseconds later, so that it covers all validation runs until then.
+	 */
+	public void scheduleReport() {
+		if (reportPending.compareAndSet(false, true)) {
+			reportJob.schedule(REPORT_DELAY);
+		}
+	}
+
+	/**
+	 * Writes a pending report right away. Called when the core plugin shuts down.
+	 */
+	public void shutdown() {
+		reportJob.cancel();
+		if (reportPending.getAndSet(false)) {
+			writeReport();
+		}
+	}
+
+	/**
+	 * Writes the collected statistics to {@link #REPORT_FILE_NAME} in the state location of the core plugin.
+	 */
+	public void writeReport() {
+		File reportFile = SpringCore.getDefault().getStateLocation().append(REPORT_FILE_NAME).toFile();
+		try {
+			writeReport(reportFile);
+		}
+		catch (IOException e) {
+			SpringCore.log("Error writing validation profile to " + reportFile, e);
+		}
+	}
+
+	/**
+	 * Writes the collected statistics as CSV to the given file. Every rule gets a summary line with an empty resource
+	 * column, followed by one line per validated resource.
+	 */
+	public void writeReport(File reportFile) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(reportFile), "UTF-8"));
+		try {
+			writer.write("rule,resource,count,total ms,max ms\n");
+			for (Map.Entry<String, RuleStatistics> rule : getRuleStatistics().entrySet()) {
+				writeLine(writer, rule.getKey(), "", rule.getValue());
+				for (Map.Entry<String, RuleStatistics> resource : getResourceStatistics(rule.getKey()).entrySet()) {
+					writeLine(writer, rule.getKey(), resource.getKey(), resource.getValue());
+				}
+			}
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	private static void writeLine(Writer writer, String ruleId, String resourcePath, RuleStatistics statistics)
+			throws IOException {
+		writer.write(quote(ruleId) + "," + quote(resourcePath) + "," + statistics.getCount() + ","
+				+ statistics.getTotalTimeMillis() + "," + statistics.getMaxTimeMillis() + "\n");
+	}
+
+	private static String quote(String value) {
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	private static RuleStatistics getStatistics(ConcurrentMap<String, RuleStatistics> statistics, String key) {
+		RuleStatistics result = statistics.get(key);
+		if (result == null) {
+			result = new RuleStatistics();
+			RuleStatistics existingResult = statistics.putIfAbsent(key, result);
+			if (existingResult != null) {
+				result = existingResult;
+			}
+		}
+		return result;
+	}
+
+	private static Map<String, RuleStatistics> snapshot(Map<String, RuleStatistics> statistics) {
+		Map<String, RuleStatistics> result = new TreeMap<String, RuleStatistics>();
+		for (Map.Entry<String, RuleStatistics> entry : statistics.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().copy());
+		}
+		return result;
+	}
+
+	/**
+	 * Invocation count and execution times of a rule.
+	 */
+	public static class RuleStatistics {
+
+		private long count;
+
+		private long totalTime;
+
+		private long maxTime;
+
+		synchronized void record(long time) {
+			count++;
+			totalTime += time;
+			if (time > maxTime) {
+				maxTime = time;
+			}
+		}
+
+		synchronized RuleStatistics copy() {
+			RuleStatistics result = new RuleStatistics();
+			result.count = count;
+			result.totalTime = totalTime;
+			result.maxTime = maxTime;
+			return result;
+		}
+
+		public synchronized long getCount() {
+			return count;
+		}
+
+		public synchronized long getTotalTimeMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(totalTime);
+		}
+
+		public synchronized long getMaxTimeMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(maxTime);
+		}
+
+		@Override
+		public synchronized String toString() {
+			return String.format("count=%s, total=%sms, max=%sms", count, getTotalTimeMillis(), getMaxTimeMillis());
+		}
+	}
+
+}
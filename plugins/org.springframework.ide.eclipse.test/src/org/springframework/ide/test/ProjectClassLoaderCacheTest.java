@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 Spring IDE Developers
+ * Copyright (c) 2011, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,16 @@ package org.springframework.ide.test;
 
 import static org.junit.Assert.*;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
 
 /**
@@ -20,6 +29,22 @@ import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
  */
 public class ProjectClassLoaderCacheTest {
 
+	private static final int CACHE_SIZE = Integer.getInteger(ProjectClassLoaderCache.CACHE_SIZE_PROPERTY, 12);
+
+	private IProject project;
+
+	@Before
+	public void createProject() throws CoreException {
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("ProjectClassLoaderCacheTest");
+		project.create(null);
+		project.open(null);
+	}
+
+	@After
+	public void deleteProject() throws CoreException {
+		project.delete(true, null);
+	}
+
 	@Test
 	public void testFilter() {
 		assertFalse(ProjectClassLoaderCache.shouldFilter(null));
@@ -33,4 +58,50 @@ public class ProjectClassLoaderCacheTest {
 		assertTrue(ProjectClassLoaderCache.shouldFilter("META-INF/services/javax"));
 	}
 
+	@Test
+	public void testResetStatistics() {
+		// every parent class loader gets an entry of its own; filling the cache evicts the entries of other tests
+		ClassLoader[] parents = new ClassLoader[CACHE_SIZE + 1];
+		for (int i = 0; i < parents.length; i++) {
+			parents[i] = new URLClassLoader(new URL[0]);
+		}
+		for (int i = 0; i < CACHE_SIZE; i++) {
+			JdtUtils.getClassLoader(project, parents[i]);
+		}
+		ProjectClassLoaderCache.resetStatistics();
+
+		ProjectClassLoaderCache.Statistics statistics = ProjectClassLoaderCache.getStatistics();
+		assertEquals(0, statistics.getHits());
+		assertEquals(0, statistics.getMisses());
+		assertEquals(0, statistics.getEvictions());
+		assertEquals(0, statistics.getSoftEvictions());
+		assertEquals(0, statistics.getLoadTime());
+		assertEquals(CACHE_SIZE, statistics.getCachedClassLoaders());
+
+		// hit, miss evicting the least recently used entry, hit again
+		JdtUtils.getClassLoader(project, parents[0]);
+		JdtUtils.getClassLoader(project, parents[CACHE_SIZE]);
+		JdtUtils.getClassLoader(project, parents[0]);
+
+		statistics = ProjectClassLoaderCache.getStatistics();
+		assertEquals(2, statistics.getHits());
+		assertEquals(1, statistics.getMisses());
+		assertEquals(1, statistics.getEvictions());
+		assertEquals(0, statistics.getSoftEvictions());
+		assertEquals(CACHE_SIZE, statistics.getCachedClassLoaders());
+		// the project has no jars, the shared class loader of the evicted entry has been released
+		assertEquals(CACHE_SIZE, statistics.getSharedJarClassLoaders());
+		assertEquals(0, statistics.getRetainedJars());
+
+		ProjectClassLoaderCache.resetStatistics();
+
+		statistics = ProjectClassLoaderCache.getStatistics();
+		assertEquals(0, statistics.getHits());
+		assertEquals(0, statistics.getMisses());
+		assertEquals(0, statistics.getEvictions());
+		assertEquals(0, statistics.getSoftEvictions());
+		assertEquals(0, statistics.getLoadTime());
+		assertEquals(CACHE_SIZE, statistics.getCachedClassLoaders());
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -51,6 +51,8 @@ public class ProjectPropertyPage extends ProjectAndPreferencePage {
 
 	private Button useNonLockingClassLoader;
 
+	private Button enableValidationProfiling;
+
 	public ProjectPropertyPage() {
 		noDefaultAndApplyButton();
 	}
@@ -95,6 +97,15 @@ public class ProjectPropertyPage extends ProjectAndPreferencePage {
 			note = new Label(composite, SWT.WRAP);
 			note.setText(SpringUIMessages.ProjectBuilderPropertyPage_NonLockingClassLoaderNote);
 			note.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+			enableValidationProfiling = new Button(composite, SWT.CHECK);
+			enableValidationProfiling.setText(SpringUIMessages.ProjectBuilderPropertyPage_ValidationProfilingMessage);
+			enableValidationProfiling.setSelection(prefs.getBoolean(
+					SpringCore.ENABLE_VALIDATION_PROFILING, false));
+
+			note = new Label(composite, SWT.WRAP);
+			note.setText(SpringUIMessages.ProjectBuilderPropertyPage_ValidationProfilingNote);
+			note.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
 		}
 
 		Dialog.applyDialogFont(folder);
@@ -130,6 +141,12 @@ public class ProjectPropertyPage extends ProjectAndPreferencePage {
 		} else {
 			prefs.putBoolean(SpringCore.USE_CHANGE_DETECTION_IN_JAVA_FILES, useChangeDetectionForJavaFiles.getSelection());
 			prefs.putBoolean(SpringCore.USE_NON_LOCKING_CLASSLOADER, useNonLockingClassLoader.getSelection());
+			// every time profiling gets switched on, recording starts from scratch
+			if (enableValidationProfiling.getSelection()
+					&& !prefs.getBoolean(SpringCore.ENABLE_VALIDATION_PROFILING, false)) {
+				SpringCore.getValidationRuleProfiler().resetStatistics();
+			}
+			prefs.putBoolean(SpringCore.ENABLE_VALIDATION_PROFILING, enableValidationProfiling.getSelection());
 		}
 
 		this.builderTab.performOk();